@@ -0,0 +1,110 @@
+package com.bench;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import com.models.*;
+import com.service.AccountManagement;
+import com.service.AccountPage;
+
+/*
+ * Filtered account queries answered by the AccountIndex bitmaps vs a scan that compares every
+ * account's type and status labels (how listings were filtered before the index).
+ *
+ * Registers N accounts, alternating savings and checking, and spreads their statuses as 80%
+ * active, 8% inactive, 5% frozen, 4% closed and 3% suspended through setStatus, so the
+ * bitmaps are maintained the same way as for any later change. Then measures, on BenchmarkRunner:
+ * - count.activeChecking     number of active checking accounts
+ * - count.suspendedSavings   number of suspended savings accounts
+ * - page.suspendedSavings    first page of 20 suspended savings accounts
+ * - all.suspendedSavings     every suspended savings account, 1000 per page
+ * each as "scan" and "index", and prints the mean time per query.
+ *
+ * Options: --accounts 10000000   --warmup 2   --iterations 5   --time 1000 (ms)   --json <file>
+ *
+ * Usage: java -Xmx8g -cp out:out-bench com.bench.AccountFilterBenchmark
+ */
+public class AccountFilterBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int accountCount = 10_000_000;
+        int warmup = 2;
+        int iterations = 5;
+        long time = 1000;
+        Path json = null;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--accounts" -> accountCount = Integer.parseInt(args[i + 1]);
+                case "--warmup" -> warmup = Integer.parseInt(args[i + 1]);
+                case "--iterations" -> iterations = Integer.parseInt(args[i + 1]);
+                case "--time" -> time = Long.parseLong(args[i + 1]);
+                case "--json" -> json = Path.of(args[i + 1]);
+                default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+
+        long start = System.nanoTime();
+        Customer customer = null;
+        for (int i = 0; i < accountCount; i++) {
+            if ((i & 3) == 0) customer = new RegularCustomer("Customer " + i, 30 + i % 50, "0" + (200000000 + i), "Bench Street");
+            Account account = (i & 1) == 0
+                    ? new SavingsAccount(customer, Money.ofUnits(1000))
+                    : new CheckingAccount(customer, Money.ofUnits(100));
+            AccountManagement.addAccount(account);
+            int bucket = (int) (((i * 0x9E3779B97F4A7C15L) >>> 32) % 100);
+            if (bucket >= 80) {
+                account.setStatus(bucket < 88 ? AccountStatus.INACTIVE : bucket < 93 ? AccountStatus.FROZEN
+                        : bucket < 97 ? AccountStatus.CLOSED : AccountStatus.SUSPENDED);
+            }
+        }
+        System.out.printf("Registered %,d accounts in %.1f s%n", AccountManagement.getAccountCount(),
+                (System.nanoTime() - start) / 1e9);
+
+        BenchmarkRunner runner = new BenchmarkRunner(warmup, iterations, time);
+        Map<String, String> params = new LinkedHashMap<>();
+        params.put("accounts", String.valueOf(accountCount));
+        report(runner.run("count.activeChecking.scan", params, 1, t -> (thread, i) ->
+                scan(Integer.MAX_VALUE, "Checking", "active")));
+        report(runner.run("count.activeChecking.index", params, 1, t -> (thread, i) ->
+                AccountManagement.countAccounts(AccountType.CHECKING, AccountStatus.ACTIVE)));
+        report(runner.run("count.suspendedSavings.scan", params, 1, t -> (thread, i) ->
+                scan(Integer.MAX_VALUE, "Savings", "suspended")));
+        report(runner.run("count.suspendedSavings.index", params, 1, t -> (thread, i) ->
+                AccountManagement.countAccounts(AccountType.SAVINGS, AccountStatus.SUSPENDED)));
+        report(runner.run("page.suspendedSavings.scan", params, 1, t -> (thread, i) ->
+                scan(20, "Savings", "suspended")));
+        report(runner.run("page.suspendedSavings.index", params, 1, t -> (thread, i) ->
+                AccountManagement.listAccounts(0, 20, AccountType.SAVINGS, AccountStatus.SUSPENDED).getAccounts().size()));
+        report(runner.run("all.suspendedSavings.index", params, 1, t -> (thread, i) -> {
+            long listed = 0;
+            int cursor = 0;
+            while (true) {
+                AccountPage page = AccountManagement.listAccounts(cursor, 1000, AccountType.SAVINGS, AccountStatus.SUSPENDED);
+                listed += page.getAccounts().size();
+                if (!page.hasMore()) return listed;
+                cursor = page.getNextCursor();
+            }
+        }));
+        if (json != null) {
+            runner.writeJson(json);
+            System.out.println("Results written to " + json);
+        }
+    }
+
+    // The label-comparing scan: visits ids in order until limit matches are found; returns the matches.
+    private static long scan(int limit, String accountType, String status) {
+        int highest = AccountManagement.getHighestAccountId();
+        long matches = 0;
+        for (int id = 0; id <= highest && matches < limit; id++) {
+            Account account = AccountManagement.findAccount(id);
+            if (account != null && accountType.equalsIgnoreCase(account.getAccountType())
+                    && status.equalsIgnoreCase(account.getStatus())) matches++;
+        }
+        return matches;
+    }
+
+    private static void report(BenchmarkRunner.Result result) {
+        double nanos = 1e9 / result.score;
+        System.out.println(nanos >= 1e6 ? String.format("    %.2f ms per query", nanos / 1e6)
+                : String.format("    %.1f us per query", nanos / 1e3));
+    }
+}
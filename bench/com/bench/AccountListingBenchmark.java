@@ -0,0 +1,103 @@
+package com.bench;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import com.models.*;
+import com.service.AccountListingRenderer;
+import com.service.AccountManagement;
+import com.service.AccountPage;
+
+/*
+ * Compares the former account listing with the paginated, buffered one.
+ *
+ * - printf  : viewAllAccounts() copies every account into an array, then one printf per row
+ *             (the listing before pagination)
+ * - paged   : listAccounts pages of 1000 rendered through AccountListingRenderer
+ * - first   : only the first page of 20, which is what the console shows before asking for more
+ *
+ * Output goes to a discarding stream so console speed is not measured. Reports ns and bytes
+ * allocated per listed account (allocation from the JVM's per-thread counter).
+ *
+ * Usage: java -Xmx8g -cp out:out-bench com.bench.AccountListingBenchmark [accounts]
+ */
+public class AccountListingBenchmark {
+
+    private static final OutputStream DISCARD = OutputStream.nullOutputStream();
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        Customer customer = new RegularCustomer("Bench", 30, "0123456789", "Bench Street");
+        for (int i = 0; i < count; i++) {
+            AccountManagement.addAccount((i & 1) == 0
+                    ? new SavingsAccount(customer, Money.ofUnits(1000))
+                    : new CheckingAccount(customer, Money.ofUnits(1000)));
+        }
+        for (int round = 0; round < 3; round++) {
+            System.out.println(round < 2 ? "-- warm-up --" : "-- measured --");
+            measure("printf", count, AccountListingBenchmark::printfListing);
+            measure("paged", count, AccountListingBenchmark::pagedListing);
+            measure("first", 20, AccountListingBenchmark::firstPage);
+        }
+    }
+
+    // The listing loop of AccountService before pagination
+    private static long printfListing() {
+        PrintStream out = new PrintStream(DISCARD);
+        Account[] allAccounts = AccountManagement.viewAllAccounts();
+        for (Account account : allAccounts) {
+            out.printf("%s | %s | %s | $%s | %s | %s\n",
+                    account.getAccountNumber(),
+                    account.getCustomer(),
+                    account.getAccountType(),
+                    Money.format(account.getBalance()),
+                    account.getStatus(),
+                    account.getAccountSpecificDetails());
+        }
+        out.flush();
+        return allAccounts.length;
+    }
+
+    private static long pagedListing() {
+        Writer out = new OutputStreamWriter(DISCARD);
+        AccountListingRenderer renderer = new AccountListingRenderer(out, AccountListingRenderer.DEFAULT_FLUSH_THRESHOLD);
+        long rows = 0;
+        int cursor = 0;
+        do {
+            AccountPage page = AccountManagement.listAccounts(cursor, 1000, (AccountType) null, null);
+            for (Account account : page.getAccounts()) renderer.writeRow(account);
+            rows += page.getAccounts().size();
+            cursor = page.getNextCursor();
+        } while (cursor != AccountPage.END);
+        renderer.flush();
+        return rows;
+    }
+
+    private static long firstPage() {
+        Writer out = new OutputStreamWriter(DISCARD);
+        AccountListingRenderer renderer = new AccountListingRenderer(out, AccountListingRenderer.DEFAULT_FLUSH_THRESHOLD);
+        AccountPage page = AccountManagement.listAccounts(0, 20, (AccountType) null, null);
+        for (Account account : page.getAccounts()) renderer.writeRow(account);
+        renderer.flush();
+        return page.getAccounts().size();
+    }
+
+    private interface Listing {
+        long run();
+    }
+
+    // Runs one listing and prints its time and allocation per row.
+    private static void measure(String name, int expectedRows, Listing listing) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().threadId();
+        long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        long rows = listing.run();
+        long elapsed = System.nanoTime() - start;
+        long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+        if (rows != expectedRows) throw new IllegalStateException(name + " listed " + rows + " of " + expectedRows);
+        System.out.printf("%-7s: %,10d rows  %8.1f ns/row  %8.1f bytes/row%n", name, rows,
+                (double) elapsed / rows, (double) allocated / rows);
+    }
+}
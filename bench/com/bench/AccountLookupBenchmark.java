@@ -0,0 +1,58 @@
+package com.bench;
+import com.models.*;
+import com.service.AccountManagement;
+
+/*
+ * Measures AccountManagement.findAccount latency as the account store grows.
+ *
+ * The store is filled in steps (10^3, 10^4, ... up to the requested maximum) and after
+ * each step a fixed number of random lookups is timed. With the id-indexed store the
+ * reported ns/lookup should stay flat across all sizes.
+ *
+ * Usage: java -Xmx8g -cp out:out-bench com.bench.AccountLookupBenchmark [maxExponent]
+ */
+public class AccountLookupBenchmark {
+
+    // Number of timed lookups per size step
+    private static final int LOOKUPS = 2_000_000;
+
+    public static void main(String[] args) {
+        int maxExponent = args.length > 0 ? Integer.parseInt(args[0]) : 7;
+        Customer customer = new RegularCustomer("Bench", 30, "0123456789", "Bench Street");
+
+        System.out.println("ACCOUNTS     | NS/LOOKUP");
+        System.out.println("========================");
+        int created = 0;
+        for (int exponent = 3; exponent <= maxExponent; exponent++) {
+            int target = (int) Math.pow(10, exponent);
+            while (created < target) {
+                AccountManagement.addAccount(new SavingsAccount(customer, Money.ofUnits(1000)));
+                created++;
+            }
+
+            // Pre-build the account numbers so string construction is not timed
+            String[] keys = new String[4096];
+            long seed = 42;
+            for (int i = 0; i < keys.length; i++) {
+                seed = seed * 6364136223846793005L + 1442695040888963407L;
+                keys[i] = "ACC00" + (int) ((seed >>> 33) % created);
+            }
+
+            runLookups(keys, LOOKUPS / 4); // warm-up
+            long start = System.nanoTime();
+            long hits = runLookups(keys, LOOKUPS);
+            long elapsed = System.nanoTime() - start;
+            if (hits != LOOKUPS) throw new IllegalStateException("Missing accounts: " + (LOOKUPS - hits));
+            System.out.printf("%-12d | %.1f\n", created, (double) elapsed / LOOKUPS);
+        }
+    }
+
+    // Performs the given number of lookups cycling through the keys; returns the hit count.
+    private static long runLookups(String[] keys, int count) {
+        long hits = 0;
+        for (int i = 0; i < count; i++) {
+            if (AccountManagement.findAccount(keys[i & (keys.length - 1)]) != null) hits++;
+        }
+        return hits;
+    }
+}
@@ -0,0 +1,122 @@
+package com.bench;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import com.handlers.ApiServer;
+import com.models.*;
+import com.service.AccountManagement;
+import com.service.TransactionManagement;
+
+/*
+ * Local load test of the HTTP/JSON API.
+ *
+ * Starts an ApiServer in-process on a free port with the given number of checking accounts,
+ * then runs the given number of concurrent clients, each on its own virtual thread, for the
+ * given duration. Each client loops over a mix of 80% GET /accounts/{n} and 20% deposits
+ * (POST /accounts/{n}/transactions) against random accounts. A warm-up run of the same
+ * length precedes the measured run.
+ *
+ * Reports requests/second, the error count and p50/p99/max latency. Client and server share
+ * the machine, so the figures are a floor for the server alone.
+ *
+ * Usage: java -Xmx4g -cp out:out-bench com.bench.ApiLoadBenchmark [clients] [seconds] [accounts]
+ */
+public class ApiLoadBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        int accounts = args.length > 2 ? Integer.parseInt(args[2]) : 10_000;
+
+        Customer customer = new RegularCustomer("Bench", 30, "0123456789", "Bench Street");
+        int[] ids = new int[accounts];
+        for (int i = 0; i < accounts; i++) {
+            CheckingAccount account = new CheckingAccount(customer, Money.ofUnits(1000));
+            AccountManagement.addAccount(account);
+            ids[i] = account.getAccountId();
+        }
+        ApiServer server = new ApiServer(new InetSocketAddress("127.0.0.1", 0), new TransactionManagement());
+        server.start();
+        String base = "http://127.0.0.1:" + server.getPort() + "/accounts/";
+        try (ExecutorService clientThreads = Executors.newVirtualThreadPerTaskExecutor()) {
+            HttpClient http = HttpClient.newBuilder().executor(clientThreads)
+                    .connectTimeout(Duration.ofSeconds(30)).build();
+            System.out.printf("%d clients, %d s, %d accounts%n", clients, seconds, accounts);
+            run("warm-up", http, clientThreads, base, ids, clients, seconds);
+            run("measured", http, clientThreads, base, ids, clients, seconds);
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    // Runs the clients for the given time and prints throughput and latency percentiles.
+    private static void run(String name, HttpClient http, ExecutorService clientThreads, String base, int[] ids,
+                            int clients, int seconds) throws InterruptedException {
+        long[][] latencies = new long[clients][];
+        int[] counts = new int[clients];
+        AtomicLong errors = new AtomicLong();
+        CountDownLatch done = new CountDownLatch(clients);
+        long start = System.nanoTime();
+        long deadline = start + seconds * 1_000_000_000L;
+        for (int c = 0; c < clients; c++) {
+            int client = c;
+            clientThreads.execute(() -> {
+                long[] own = new long[1024];
+                int count = 0;
+                long seed = client * 0x9E3779B97F4A7C15L + 1;
+                try {
+                    while (System.nanoTime() < deadline) {
+                        seed = seed * 6364136223846793005L + 1442695040888963407L;
+                        String accountNumber = Account.formatAccountNumber(ids[(int) ((seed >>> 33) % ids.length)]);
+                        HttpRequest request = (seed & 0xF) < 3
+                                ? HttpRequest.newBuilder(URI.create(base + accountNumber + "/transactions"))
+                                        .POST(HttpRequest.BodyPublishers.ofString("{\"type\":\"Deposit\",\"amount\":\"1.00\"}"))
+                                        .build()
+                                : HttpRequest.newBuilder(URI.create(base + accountNumber)).GET().build();
+                        long sent = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = http.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() >= 300) errors.incrementAndGet();
+                        } catch (Exception e) {
+                            errors.incrementAndGet();
+                        }
+                        if (count == own.length) own = Arrays.copyOf(own, count * 2);
+                        own[count++] = System.nanoTime() - sent;
+                    }
+                } finally {
+                    latencies[client] = own;
+                    counts[client] = count;
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+        long elapsed = System.nanoTime() - start;
+
+        int total = 0;
+        for (int count : counts) total += count;
+        long[] all = new long[total];
+        int offset = 0;
+        for (int c = 0; c < clients; c++) {
+            System.arraycopy(latencies[c], 0, all, offset, counts[c]);
+            offset += counts[c];
+        }
+        Arrays.sort(all);
+        System.out.printf("%-8s: %,9d requests  %,9.0f req/s  errors %d  p50 %.2f ms  p99 %.2f ms  max %.2f ms%n",
+                name, total, total / (elapsed / 1e9), errors.get(),
+                percentile(all, 0.50) / 1e6, percentile(all, 0.99) / 1e6, total == 0 ? 0 : all[total - 1] / 1e6);
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        if (sorted.length == 0) return 0;
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(p * sorted.length) - 1)];
+    }
+}
@@ -0,0 +1,134 @@
+package com.bench;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import com.models.*;
+
+/*
+ * Stress test and throughput comparison for concurrent balance updates on one account.
+ *
+ * For each thread count (1..64) every thread posts an alternating mix of $1.00 deposits
+ * and $1.50 withdrawals against a single CheckingAccount. Three variants run:
+ * - cas          : Account.applyDeposit / applyWithdrawal (VarHandle compare-and-set)
+ * - synchronized : the same rules behind a monitor, as a baseline
+ * - racy         : the old getBalance()/setBalance() read-modify-write, to show lost updates
+ *
+ * Each thread sums the deltas of the postings that succeeded. Afterwards the final balance
+ * must equal the initial balance plus all successful deltas, and no posting may have left
+ * the balance below the overdraft floor. The process exits with status 1 if the cas or
+ * synchronized variant violates either invariant.
+ *
+ * Usage: java -cp out:out-bench com.bench.BalanceContentionBenchmark [operationsPerRun]
+ */
+public class BalanceContentionBenchmark {
+
+    private static final int[] THREAD_COUNTS = {1, 2, 4, 8, 16, 32, 64};
+    private static final long DEPOSIT = 100;
+    private static final long WITHDRAWAL = 150;
+
+    // Synchronized baseline with the same overdraft rule as CheckingAccount
+    private static final class SynchronizedBalance {
+        private long balance;
+        private final long floor;
+
+        SynchronizedBalance(long balance, long floor) {
+            this.balance = balance;
+            this.floor = floor;
+        }
+
+        synchronized long deposit(long amount) {
+            balance = Money.add(balance, amount);
+            return balance;
+        }
+
+        synchronized long withdraw(long amount) {
+            long next = Money.subtract(balance, amount);
+            if (next < floor) return Account.REJECTED;
+            balance = next;
+            return balance;
+        }
+
+        synchronized long get() {
+            return balance;
+        }
+    }
+
+    private interface Poster {
+        // Applies one posting and returns the balance after it, or Account.REJECTED
+        long post(boolean deposit);
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int operations = args.length > 0 ? Integer.parseInt(args[0]) : 8_000_000;
+        Customer customer = new RegularCustomer("Bench", 30, "0123456789", "Bench Street");
+        boolean failed = false;
+
+        System.out.println("THREADS | VARIANT      | MOPS/S  | LOST UPDATES | FLOOR VIOLATIONS");
+        System.out.println("====================================================================");
+        for (int threads : THREAD_COUNTS) {
+            CheckingAccount casAccount = new CheckingAccount(customer, Money.ofUnits(1000));
+            failed |= run("cas", threads, operations, casAccount.getBalance(), casAccount.getWithdrawalFloor(),
+                    deposit -> deposit ? casAccount.applyDeposit(DEPOSIT) : casAccount.applyWithdrawal(WITHDRAWAL),
+                    casAccount::getBalance);
+
+            SynchronizedBalance locked = new SynchronizedBalance(Money.ofUnits(1000), -Money.ofUnits(1000));
+            failed |= run("synchronized", threads, operations, locked.get(), -Money.ofUnits(1000),
+                    deposit -> deposit ? locked.deposit(DEPOSIT) : locked.withdraw(WITHDRAWAL),
+                    locked::get);
+
+            CheckingAccount racyAccount = new CheckingAccount(customer, Money.ofUnits(1000));
+            run("racy", threads, operations, racyAccount.getBalance(), racyAccount.getWithdrawalFloor(), deposit -> {
+                long balance = racyAccount.getBalance();
+                long next = deposit ? balance + DEPOSIT : balance - WITHDRAWAL;
+                if (next < racyAccount.getWithdrawalFloor()) return Account.REJECTED;
+                racyAccount.setBalance(next);
+                return next;
+            }, racyAccount::getBalance);
+        }
+        if (failed) {
+            System.out.println("FAILED: lost updates or floor violations in an atomic variant");
+            System.exit(1);
+        }
+        System.out.println("OK: no lost updates or floor violations in the cas and synchronized variants");
+    }
+
+    // Runs one variant; returns true if an invariant was violated.
+    private static boolean run(String name, int threads, int operations, long initial, long floor, Poster poster,
+                               LongSupplier balance) throws InterruptedException {
+        int perThread = operations / threads;
+        AtomicLong appliedDelta = new AtomicLong();
+        AtomicLong violations = new AtomicLong();
+        CountDownLatch startSignal = new CountDownLatch(1);
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            workers[t] = new Thread(() -> {
+                long delta = 0;
+                long belowFloor = 0;
+                try {
+                    startSignal.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < perThread; i++) {
+                    boolean deposit = (i & 1) == 0;
+                    long after = poster.post(deposit);
+                    if (after == Account.REJECTED) continue;
+                    if (after < floor) belowFloor++;
+                    delta += deposit ? DEPOSIT : -WITHDRAWAL;
+                }
+                appliedDelta.addAndGet(delta);
+                violations.addAndGet(belowFloor);
+            });
+            workers[t].start();
+        }
+        long start = System.nanoTime();
+        startSignal.countDown();
+        for (Thread worker : workers) worker.join();
+        long elapsed = System.nanoTime() - start;
+
+        long lost = initial + appliedDelta.get() - balance.getAsLong();
+        System.out.printf("%-7d | %-12s | %7.2f | %12d | %d%n", threads, name,
+                (double) perThread * threads / (elapsed / 1e3), lost, violations.get());
+        return lost != 0 || violations.get() != 0;
+    }
+}
@@ -0,0 +1,60 @@
+package com.bench;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import com.models.*;
+import com.service.*;
+
+/*
+ * Measures end-to-end throughput of BatchTransactionService.
+ *
+ * Creates the given number of checking accounts, writes a file of random deposit and
+ * withdrawal records against them, and ingests it once per parallelism level
+ * (1, 2, 4, ... up to the number of cores), reporting records/second for each run.
+ *
+ * Usage: java -Xmx4g -cp out:out-bench com.bench.BatchIngestionBenchmark [accounts] [records]
+ */
+public class BatchIngestionBenchmark {
+
+    public static void main(String[] args) throws IOException {
+        int accounts = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int records = args.length > 1 ? Integer.parseInt(args[1]) : 2_000_000;
+
+        AccountManagement accountManagement = new AccountManagement();
+        Customer customer = new RegularCustomer("Bench", 30, "0123456789", "Bench Street");
+        int[] ids = new int[accounts];
+        for (int i = 0; i < accounts; i++) {
+            CheckingAccount account = new CheckingAccount(customer, Money.ofUnits(1000));
+            AccountManagement.addAccount(account);
+            ids[i] = account.getAccountId();
+        }
+
+        Path input = Files.createTempFile("batch-bench", ".csv");
+        Path outcomes = Files.createTempFile("batch-bench", ".outcomes.csv");
+        long seed = 7;
+        try (BufferedWriter writer = Files.newBufferedWriter(input)) {
+            for (int i = 0; i < records; i++) {
+                seed = seed * 6364136223846793005L + 1442695040888963407L;
+                int account = ids[(int) ((seed >>> 33) % accounts)];
+                writer.write(Account.formatAccountNumber(account));
+                writer.write((seed & 1) == 0 ? ",Deposit," : ",Withdrawal,");
+                writer.write(Long.toString(1 + (seed >>> 40) % 500));
+                writer.write(".25\n");
+            }
+        }
+
+        System.out.println("PARALLELISM | RECORDS/S  | POSTED    | REJECTED");
+        System.out.println("================================================");
+        int cores = Runtime.getRuntime().availableProcessors();
+        for (int parallelism = 1; parallelism <= cores; parallelism *= 2) {
+            BatchTransactionService service =
+                    new BatchTransactionService(accountManagement, new TransactionManagement(), parallelism);
+            BatchTransactionService.Report report = service.ingestFile(input, outcomes);
+            System.out.printf("%-11d | %10.0f | %9d | %d%n", parallelism, report.getThroughput(),
+                    report.getPosted(), report.getRejected());
+        }
+        Files.delete(input);
+        Files.delete(outcomes);
+    }
+}
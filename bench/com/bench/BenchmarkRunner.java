@@ -0,0 +1,199 @@
+package com.bench;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/*
+ * Minimal throughput harness for the benchmarks in this directory.
+ *
+ * Each benchmark runs for a number of warm-up and measured iterations of fixed duration.
+ * In every iteration the given number of threads call the operation in a loop until the
+ * time is up; the score is operations per second summed over all threads. Results are
+ * kept with their parameters and can be written as JSON in the layout JMH uses for
+ * "-rf json" (benchmark, mode, threads, params, primaryMetric), so existing JMH result
+ * viewers can read them, and compared against an earlier results file.
+ */
+final class BenchmarkRunner {
+
+    // One benchmark invocation; the result is consumed so the JIT cannot drop the work.
+    interface Operation {
+        long invoke(int thread, long iteration);
+    }
+
+    // Creates the state for one iteration and returns the operation to run against it.
+    interface IterationSetup {
+        Operation setUp(int threads);
+    }
+
+    // Measured result of one benchmark and parameter combination
+    static final class Result {
+        final String benchmark;
+        final int threads;
+        final Map<String, String> params;
+        final double[] rawScores;
+        final double score;
+        final double error;
+
+        Result(String benchmark, int threads, Map<String, String> params, double[] rawScores) {
+            this.benchmark = benchmark;
+            this.threads = threads;
+            this.params = params;
+            this.rawScores = rawScores;
+            double sum = 0;
+            for (double value : rawScores) sum += value;
+            this.score = sum / rawScores.length;
+            double squares = 0;
+            for (double value : rawScores) squares += (value - score) * (value - score);
+            // Half-width of a ~99.9% interval, as JMH reports it (normal approximation)
+            this.error = rawScores.length < 2 ? Double.NaN
+                    : 3.29 * Math.sqrt(squares / (rawScores.length - 1)) / Math.sqrt(rawScores.length);
+        }
+    }
+
+    private final int warmupIterations;
+    private final int measurementIterations;
+    private final long iterationMillis;
+    private final List<Result> results = new ArrayList<>();
+
+    // Keeps results reachable so benchmark work is never dead code
+    private volatile long sink;
+
+    // Set when the current iteration's time is up
+    private volatile boolean stopRequested;
+
+    BenchmarkRunner(int warmupIterations, int measurementIterations, long iterationMillis) {
+        this.warmupIterations = warmupIterations;
+        this.measurementIterations = measurementIterations;
+        this.iterationMillis = iterationMillis;
+    }
+
+    // Runs one benchmark with the given parameters and thread count, prints and records its score.
+    Result run(String benchmark, Map<String, String> params, int threads, IterationSetup setup)
+            throws InterruptedException {
+        double[] scores = new double[measurementIterations];
+        for (int i = 0; i < warmupIterations + measurementIterations; i++) {
+            double score = iteration(setup.setUp(threads), threads);
+            if (i >= warmupIterations) scores[i - warmupIterations] = score;
+        }
+        Result result = new Result(benchmark, threads, new LinkedHashMap<>(params), scores);
+        results.add(result);
+        print(result);
+        return result;
+    }
+
+    // Prints one result line.
+    private static void print(Result result) {
+        System.out.printf("%-46s %-20s %3d  %,16.0f +/- %,.0f ops/s%n", result.benchmark, result.params, result.threads,
+                result.score, result.error);
+    }
+
+    // Runs one timed iteration and returns its throughput in operations per second.
+    private double iteration(Operation operation, int threads) throws InterruptedException {
+        long[] counts = new long[threads];
+        long[] sinks = new long[threads];
+        stopRequested = false;
+        CountDownLatch startSignal = new CountDownLatch(1);
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            workers[t] = new Thread(() -> {
+                try {
+                    startSignal.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                long n = 0;
+                long consumed = 0;
+                while (!stopRequested) {
+                    // Read the stop flag only every 64 calls so it does not dominate cheap operations
+                    for (int i = 0; i < 64; i++) consumed ^= operation.invoke(thread, n++);
+                }
+                counts[thread] = n;
+                sinks[thread] = consumed;
+            });
+            workers[t].start();
+        }
+        long start = System.nanoTime();
+        startSignal.countDown();
+        Thread.sleep(iterationMillis);
+        stopRequested = true;
+        for (Thread worker : workers) worker.join();
+        long elapsed = System.nanoTime() - start;
+        long total = 0;
+        for (int t = 0; t < threads; t++) {
+            total += counts[t];
+            sink ^= sinks[t];
+        }
+        return total / (elapsed / 1e9);
+    }
+
+    // Writes all results recorded so far as a JMH-style JSON array.
+    void writeJson(Path file) throws IOException {
+        try (Writer out = Files.newBufferedWriter(file)) {
+            out.write("[\n");
+            for (int i = 0; i < results.size(); i++) {
+                Result result = results.get(i);
+                StringBuilder line = new StringBuilder("  {\"benchmark\": \"").append(result.benchmark)
+                        .append("\", \"mode\": \"thrpt\", \"threads\": ").append(result.threads)
+                        .append(", \"warmupIterations\": ").append(warmupIterations)
+                        .append(", \"measurementIterations\": ").append(measurementIterations)
+                        .append(", \"measurementTime\": \"").append(iterationMillis).append(" ms\", \"params\": {")
+                        .append(paramsJson(result.params));
+                line.append("}, \"primaryMetric\": {\"score\": ").append(result.score)
+                        .append(", \"scoreError\": ").append(Double.isNaN(result.error) ? "\"NaN\"" : result.error)
+                        .append(", \"scoreUnit\": \"ops/s\", \"rawData\": [[");
+                for (int r = 0; r < result.rawScores.length; r++) {
+                    if (r > 0) line.append(", ");
+                    line.append(result.rawScores[r]);
+                }
+                line.append("]]}}").append(i + 1 < results.size() ? "," : "").append('\n');
+                out.write(line.toString());
+            }
+            out.write("]\n");
+        }
+    }
+
+    /*
+     * Prints the change of every recorded result against a results file written by writeJson
+     * (for example from an earlier commit). Results are matched by benchmark, threads and params.
+     */
+    void compareWith(Path baselineFile) throws IOException {
+        Pattern entry = Pattern.compile("\"benchmark\": \"([^\"]*)\".*?\"threads\": (\\d+).*?\"params\": \\{([^}]*)\\}"
+                + ".*?\"score\": ([-0-9.Ee]+)");
+        Map<String, Double> baseline = new HashMap<>();
+        for (String line : Files.readAllLines(baselineFile)) {
+            Matcher matcher = entry.matcher(line);
+            if (matcher.find()) {
+                baseline.put(matcher.group(1) + "|" + matcher.group(2) + "|" + matcher.group(3),
+                        Double.parseDouble(matcher.group(4)));
+            }
+        }
+        System.out.println();
+        System.out.println("CHANGE VS " + baselineFile);
+        for (Result result : results) {
+            Double before = baseline.get(result.benchmark + "|" + result.threads + "|" + paramsJson(result.params));
+            String change = before == null ? "(no baseline)"
+                    : String.format("%+.1f%%", (result.score - before) / before * 100);
+            System.out.printf("%-46s %-20s %3d  %s%n", result.benchmark, result.params, result.threads, change);
+        }
+    }
+
+    // Formats parameters as the members of a JSON object: "name": "value", ...
+    private static String paramsJson(Map<String, String> params) {
+        StringBuilder json = new StringBuilder();
+        for (Map.Entry<String, String> param : params.entrySet()) {
+            if (json.length() > 0) json.append(", ");
+            json.append('"').append(param.getKey()).append("\": \"").append(param.getValue()).append('"');
+        }
+        return json.toString();
+    }
+}
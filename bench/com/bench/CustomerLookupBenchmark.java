@@ -0,0 +1,115 @@
+package com.bench;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import com.models.*;
+import com.service.AccountManagement;
+import com.service.CustomerManagement;
+
+/*
+ * Lookup latency of the CustomerManagement indexes at a given number of customers.
+ *
+ * Registers N customers through AccountManagement.addAccount, one checking account each and
+ * a second savings account for every fourth customer. Names are drawn from a pool of about
+ * 17,000 generated names, so a three-letter prefix matches a few hundred customers; contacts
+ * are unique. Then measures, on BenchmarkRunner:
+ * - Customer.byId          findCustomer("CUS<n>")
+ * - Customer.byContact     findCustomerByContact of a registered contact
+ * - Customer.namePrefix    findCustomersByNamePrefix(3 letters, limit 10)
+ * - Customer.accountIds    getAccountIds of a customer
+ * and prints the mean ns per lookup next to the throughput. Also reports the time and heap
+ * taken to register the customers.
+ *
+ * Options: --customers 10000000   --threads 1,4   --warmup 3   --iterations 5   --time 1000 (ms)   --json <file>
+ *
+ * Usage: java -Xmx8g -cp out:out-bench com.bench.CustomerLookupBenchmark
+ */
+public class CustomerLookupBenchmark {
+
+    private static final String[] SYLLABLES = {"ka", "ko", "ma", "na", "ya", "ad", "ab", "ef", "ku", "am", "se", "di",
+            "to", "be", "ri", "lo", "mi", "sa", "wu", "jo", "fi", "nu", "ze", "ol", "ga", "he"};
+
+    public static void main(String[] args) throws Exception {
+        int customerCount = 10_000_000;
+        int[] threadCounts = {1, 4};
+        int warmup = 3;
+        int iterations = 5;
+        long time = 1000;
+        Path json = null;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--customers" -> customerCount = Integer.parseInt(args[i + 1]);
+                case "--threads" -> threadCounts = java.util.Arrays.stream(args[i + 1].split(","))
+                        .mapToInt(s -> Integer.parseInt(s.strip())).toArray();
+                case "--warmup" -> warmup = Integer.parseInt(args[i + 1]);
+                case "--iterations" -> iterations = Integer.parseInt(args[i + 1]);
+                case "--time" -> time = Long.parseLong(args[i + 1]);
+                case "--json" -> json = Path.of(args[i + 1]);
+                default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+
+        // Names are three syllables (17,576 of them), shared between customers
+        String[] namePool = new String[SYLLABLES.length * SYLLABLES.length * SYLLABLES.length];
+        for (int i = 0; i < namePool.length; i++) {
+            String name = SYLLABLES[i / (SYLLABLES.length * SYLLABLES.length)]
+                    + SYLLABLES[i / SYLLABLES.length % SYLLABLES.length] + SYLLABLES[i % SYLLABLES.length];
+            namePool[i] = Character.toUpperCase(name.charAt(0)) + name.substring(1);
+        }
+
+        System.gc();
+        long heapBefore = usedHeap();
+        long start = System.nanoTime();
+        String[] customerIds = new String[customerCount];
+        String[] contacts = new String[customerCount];
+        for (int i = 0; i < customerCount; i++) {
+            String contact = String.format("%010d", 5_000_000_000L + i);
+            Customer customer = new RegularCustomer(namePool[(int) ((i * 2654435761L) % namePool.length)], 30, contact,
+                    "Bench Street");
+            AccountManagement.addAccount(new CheckingAccount(customer, Money.ofUnits(100)));
+            if (i % 4 == 0) AccountManagement.addAccount(new SavingsAccount(customer, Money.ofUnits(600)));
+            customerIds[i] = customer.getCustomerId();
+            contacts[i] = contact;
+        }
+        long elapsed = System.nanoTime() - start;
+        System.gc();
+        System.out.printf("Registered %,d customers and %,d accounts in %.1f s, %,d MB heap (including the test data)%n",
+                CustomerManagement.getCustomerCount(), AccountManagement.getAccountCount(), elapsed / 1e9,
+                (usedHeap() - heapBefore) >> 20);
+
+        BenchmarkRunner runner = new BenchmarkRunner(warmup, iterations, time);
+        Map<String, String> params = new LinkedHashMap<>();
+        params.put("customers", String.valueOf(customerCount));
+        int count = customerCount;
+        for (int threads : threadCounts) {
+            report(runner.run("Customer.byId", params, threads, t -> (thread, i) ->
+                    CustomerManagement.findCustomer(customerIds[index(thread, i, count)]).getNumericId()));
+            report(runner.run("Customer.byContact", params, threads, t -> (thread, i) ->
+                    CustomerManagement.findCustomerByContact(contacts[index(thread, i, count)]).getNumericId()));
+            report(runner.run("Customer.namePrefix", params, threads, t -> (thread, i) ->
+                    CustomerManagement.findCustomersByNamePrefix(
+                            namePool[index(thread, i, namePool.length)].substring(0, 3), 10).size()));
+            report(runner.run("Customer.accountIds", params, threads, t -> (thread, i) ->
+                    CustomerManagement.getAccountIds(index(thread, i, count)).length));
+        }
+        if (json != null) {
+            runner.writeJson(json);
+            System.out.println("Results written to " + json);
+        }
+    }
+
+    // Pseudo-random index below bound, different per thread
+    private static int index(int thread, long iteration, int bound) {
+        long mixed = (iteration + thread * 0x9E3779B97F4A7C15L) * 0xBF58476D1CE4E5B9L;
+        return (int) ((mixed >>> 33) % bound);
+    }
+
+    private static void report(BenchmarkRunner.Result result) {
+        System.out.printf("    %.0f ns per lookup per thread%n", 1e9 * result.threads / result.score);
+    }
+
+    private static long usedHeap() {
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,177 @@
+package com.bench;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.Stream;
+import com.models.*;
+import com.persistence.Durability;
+import com.persistence.WriteAheadLog;
+import com.service.AccountManagement;
+import com.service.EventReplayService;
+import com.service.RecoveryService;
+import com.service.TransactionManagement;
+
+/*
+ * Startup rebuild from a write-ahead log of N events: sequential RecoveryService replay vs the
+ * parallel, balance-verifying EventReplayService at several thread counts.
+ *
+ * Writes a log of A account creations followed by postings and transfers on random accounts
+ * (a transfer is two events, one per leg), with correct balanceAfter values. One posting pair
+ * in a hundred is logged in the opposite order to the one its balances were computed in, as
+ * happens when two postings to one account race, so the verifier's hold-back path is exercised.
+ * --corrupt K additionally breaks the balanceAfter of K postings, which must be reported.
+ *
+ * Each replay runs in its own JVM, started with this JVM's options, because accounts can only
+ * be rebuilt into an empty AccountManagement. Each prints its events/s, the number of
+ * mismatches, a checksum of all balances (equal for every run) and the time 100 million events
+ * would take at that rate.
+ *
+ * Options: --events 20000000   --accounts 1000000   --threads 1,<cores>   --corrupt 0
+ *          --dir <directory> (default: a temporary directory, deleted afterwards)
+ *
+ * Usage: java -Xmx4g -cp out:out-bench com.bench.EventReplayBenchmark
+ */
+public class EventReplayBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        long eventCount = 20_000_000;
+        int accountCount = 1_000_000;
+        String threads = "1," + Runtime.getRuntime().availableProcessors();
+        int corrupt = 0;
+        Path directory = null;
+        String replay = null;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--events" -> eventCount = Long.parseLong(args[i + 1]);
+                case "--accounts" -> accountCount = Integer.parseInt(args[i + 1]);
+                case "--threads" -> threads = args[i + 1];
+                case "--corrupt" -> corrupt = Integer.parseInt(args[i + 1]);
+                case "--dir" -> directory = Path.of(args[i + 1]);
+                case "--replay" -> replay = args[i + 1];
+                default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+        if (replay != null) {
+            replay(directory, replay);
+            return;
+        }
+
+        boolean temporary = directory == null;
+        if (temporary) directory = Files.createTempDirectory("event-replay");
+        try {
+            if (WriteAheadLog.listSegments(directory).isEmpty()) generate(directory, eventCount, accountCount, corrupt);
+            fork(directory, "sequential");
+            for (String count : threads.split(",")) fork(directory, count.trim());
+        } finally {
+            if (temporary) {
+                try (Stream<Path> files = Files.walk(directory)) {
+                    for (Path file : files.sorted(Comparator.reverseOrder()).toList()) Files.delete(file);
+                }
+            }
+        }
+    }
+
+    // Writes the log: the account creations, then postings until eventCount events are logged.
+    private static void generate(Path directory, long eventCount, int accountCount, int corrupt) throws IOException {
+        long start = System.nanoTime();
+        SplittableRandom random = new SplittableRandom(42);
+        long[] balances = new long[accountCount];
+        long sequence = 0;
+        long timestamp = System.currentTimeMillis();
+        long corruptEvery = corrupt > 0 ? Math.max(eventCount / (corrupt + 1), 1) : 0;
+        int corrupted = 0;
+        try (WriteAheadLog log = new WriteAheadLog(directory, Durability.ASYNC, 0)) {
+            for (int id = 0; id < accountCount; id++) {
+                balances[id] = Money.ofUnits(1000);
+                log.logAccountCreated(id, (id & 1) == 0 ? WriteAheadLog.ACCOUNT_SAVINGS : WriteAheadLog.ACCOUNT_CHECKING,
+                        balances[id], id / 4, WriteAheadLog.TIER_REGULAR, "Customer " + id / 4, 30 + id % 50,
+                        "0" + (200000000 + id / 4), "Bench Street");
+            }
+            long events = accountCount;
+            while (events < eventCount) {
+                int roll = random.nextInt(100);
+                int id = random.nextInt(accountCount);
+                long amount = Money.ofUnits(1 + random.nextInt(500));
+                if (roll < 10 && events + 2 <= eventCount) {
+                    int to = random.nextInt(accountCount);
+                    if (to == id || balances[id] < amount) continue;
+                    balances[id] -= amount;
+                    balances[to] += amount;
+                    log.logTransfer(sequence, id, TransactionType.TRANSFER_OUT.getCode(), balances[id], sequence + 1, to,
+                            TransactionType.TRANSFER_IN.getCode(), balances[to], amount, timestamp++);
+                    sequence += 2;
+                    events += 2;
+                } else if (roll == 10 && events + 2 <= eventCount) {
+                    // Two deposits whose balances were computed in one order and logged in the other
+                    long first = balances[id] += amount;
+                    long second = balances[id] += amount;
+                    log.logPosting(sequence + 1, id, TransactionType.DEPOSIT.getCode(), amount, second, timestamp + 1, 0);
+                    log.logPosting(sequence, id, TransactionType.DEPOSIT.getCode(), amount, first, timestamp, 0);
+                    sequence += 2;
+                    timestamp += 2;
+                    events += 2;
+                } else {
+                    TransactionType type = balances[id] >= amount && random.nextBoolean()
+                            ? TransactionType.WITHDRAWAL : TransactionType.DEPOSIT;
+                    balances[id] += type.isCredit() ? amount : -amount;
+                    long balanceAfter = balances[id];
+                    if (corrupted < corrupt && events >= (corrupted + 1) * corruptEvery) {
+                        balanceAfter += 1;
+                        corrupted++;
+                    }
+                    log.logPosting(sequence++, id, type.getCode(), amount, balanceAfter, timestamp++, 0);
+                    events++;
+                }
+            }
+            System.out.printf("Logged %,d events (%,d accounts, %,d transactions, %d corrupted) in %.1f s, %,d segment(s)%n",
+                    events, accountCount, sequence, corrupted, (System.nanoTime() - start) / 1e9,
+                    WriteAheadLog.listSegments(directory).size());
+        }
+    }
+
+    // Runs one replay in a child JVM with the same options and class path.
+    private static void fork(Path directory, String replay) throws Exception {
+        List<String> command = new ArrayList<>();
+        command.add(ProcessHandle.current().info().command().orElse("java"));
+        command.addAll(ManagementFactory.getRuntimeMXBean().getInputArguments());
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(EventReplayBenchmark.class.getName());
+        command.addAll(List.of("--dir", directory.toString(), "--replay", replay));
+        int exit = new ProcessBuilder(command).inheritIO().start().waitFor();
+        if (exit != 0) System.out.println("[" + replay + "] run failed with exit code " + exit);
+    }
+
+    // Rebuilds the accounts from the log, sequentially or on the given number of threads, and reports.
+    private static void replay(Path directory, String replay) throws IOException {
+        TransactionManagement transactions = new TransactionManagement();
+        long start = System.nanoTime();
+        long mismatches = -1;
+        String label;
+        if (replay.equals("sequential")) {
+            new RecoveryService(transactions).recover(directory);
+            label = "sequential";
+        } else {
+            EventReplayService service = new EventReplayService(transactions, Integer.parseInt(replay));
+            service.rebuild(directory);
+            mismatches = service.getMismatchCount();
+            System.out.println(service);
+            label = replay + " thread(s)";
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        long events = AccountManagement.getAccountCount() + transactions.getLog().size();
+        long checksum = 0;
+        for (int id = 0; id <= AccountManagement.getHighestAccountId(); id++) {
+            Account account = AccountManagement.findAccount(id);
+            if (account != null) checksum = checksum * 31 + account.getBalance();
+        }
+        System.out.printf("[%s] %,d events in %.1f s: %,.0f events/s, %s, balance checksum %016x; 100M events in %.0f s%n",
+                label, events, seconds, events / seconds,
+                mismatches < 0 ? "balances not verified" : mismatches + " mismatch(es)", checksum, 1e8 / (events / seconds));
+    }
+}
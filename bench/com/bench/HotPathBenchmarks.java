@@ -0,0 +1,213 @@
+package com.bench;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import com.models.*;
+import com.service.*;
+import com.utilities.CachedClock;
+import com.utilities.TransactionClock;
+
+/*
+ * Throughput suite for the account and transaction hot paths, run on BenchmarkRunner.
+ *
+ * Benchmarks (operations per second, summed over threads):
+ * - AccountManagement.findAccount          random lookups by account number        [accounts, threads]
+ * - AccountManagement.getTotalBalance      bank-wide total                         [accounts, threads]
+ * - AccountManagement.addAccount           create and register a checking account  [threads]
+ * - TransactionManagement.addTransaction   record a posting                        [threads]
+ * - TransactionManagement.viewTransactionByAccount  read one account's history     [history, threads]
+ * - TransactionManagement.getAccountSummary         one account's running totals  [history, threads]
+ * - TransactionManagement.viewTransactionsBetween   10-posting time range of one account  [history, threads]
+ * - TransactionClock.SYSTEM / CachedClock  read the posting clock                  [threads]
+ * - SavingsAccount.processTransactions     alternating deposit/withdrawal          [threads]
+ * - CheckingAccount.processTransactions    alternating deposit/withdrawal          [threads]
+ * - EndToEnd.posting                       account number -> account -> post -> record  [accounts, threads]
+ *
+ * The account store is static, so account counts are run in ascending order and addAccount,
+ * which grows the store, runs last. Postings are recorded into a fresh TransactionManagement
+ * for every iteration, so the log does not grow across iterations.
+ *
+ * Options (lists are comma-separated):
+ *   --accounts 1000,100000,1000000   --history 10,1000,100000   --threads 1,4
+ *   --warmup 3   --iterations 5   --time 1000 (ms per iteration)
+ *   --include <regex>     only run benchmarks whose name matches
+ *   --json <file>         write results as JSON (JMH "-rf json" layout)
+ *   --baseline <file>     print the change against an earlier JSON results file
+ *
+ * Usage: java -Xmx8g -cp out:out-bench com.bench.HotPathBenchmarks --json results.json
+ */
+public class HotPathBenchmarks {
+
+    // Accounts registered in AccountManagement so far, in creation order
+    private static final List<Account> pool = new ArrayList<>();
+
+    private static final Customer customer = new RegularCustomer("Bench", 30, "0123456789", "Bench Street");
+
+    public static void main(String[] args) throws Exception {
+        int[] accountCounts = {1_000, 100_000, 1_000_000};
+        int[] historyLengths = {10, 1_000, 100_000};
+        int[] threadCounts = {1, 4};
+        int warmup = 3;
+        int iterations = 5;
+        long time = 1000;
+        Pattern include = Pattern.compile(".*");
+        Path json = null;
+        Path baseline = null;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--accounts" -> accountCounts = parseList(args[i + 1]);
+                case "--history" -> historyLengths = parseList(args[i + 1]);
+                case "--threads" -> threadCounts = parseList(args[i + 1]);
+                case "--warmup" -> warmup = Integer.parseInt(args[i + 1]);
+                case "--iterations" -> iterations = Integer.parseInt(args[i + 1]);
+                case "--time" -> time = Long.parseLong(args[i + 1]);
+                case "--include" -> include = Pattern.compile(args[i + 1]);
+                case "--json" -> json = Path.of(args[i + 1]);
+                case "--baseline" -> baseline = Path.of(args[i + 1]);
+                default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+        Arrays.sort(accountCounts);
+        BenchmarkRunner runner = new BenchmarkRunner(warmup, iterations, time);
+        Suite suite = new Suite(runner, include);
+
+        for (int accounts : accountCounts) {
+            ensureAccounts(accounts);
+            String[] keys = accountNumbers(accounts);
+            for (int threads : threadCounts) {
+                suite.run("AccountManagement.findAccount", params("accounts", accounts), threads, t ->
+                        (thread, i) -> AccountManagement.findAccount(keys[(int) ((i * 7919 + thread * 104729) % keys.length)])
+                                .getAccountId());
+            }
+            for (int threads : threadCounts) {
+                AccountManagement accountManagement = new AccountManagement();
+                suite.run("AccountManagement.getTotalBalance", params("accounts", accounts), threads, t ->
+                        (thread, i) -> accountManagement.getTotalBalance());
+            }
+            for (int threads : threadCounts) {
+                suite.run("EndToEnd.posting", params("accounts", accounts), threads, t -> {
+                    TransactionManagement transactions = new TransactionManagement();
+                    return (thread, i) -> {
+                        Account account = AccountManagement.findAccount(keys[(int) ((i * 7919 + thread * 104729) % keys.length)]);
+                        boolean deposit = (i & 1) == 0;
+                        long balanceAfter = account.postTransaction(100, deposit ? TransactionType.DEPOSIT : TransactionType.WITHDRAWAL);
+                        if (balanceAfter == Account.REJECTED) return 0;
+                        return transactions.addTransaction(account.getAccountId(),
+                                deposit ? TransactionType.DEPOSIT : TransactionType.WITHDRAWAL, 100, balanceAfter, i);
+                    };
+                });
+            }
+        }
+
+        int[] ids = new int[Math.min(pool.size(), 1 << 16)];
+        for (int i = 0; i < ids.length; i++) ids[i] = pool.get(i).getAccountId();
+        for (int threads : threadCounts) {
+            suite.run("TransactionManagement.addTransaction", params(), threads, t -> {
+                TransactionManagement transactions = new TransactionManagement();
+                return (thread, i) -> transactions.addTransaction(ids[(int) ((i + thread * 4099) % ids.length)],
+                        TransactionType.DEPOSIT, 100, 100, i);
+            });
+        }
+        for (int history : historyLengths) {
+            TransactionManagement transactions = new TransactionManagement();
+            Account target = new CheckingAccount(customer, Money.ofUnits(1000));
+            for (int i = 0; i < history; i++) {
+                // Interleave postings of other accounts so the history is spread through the log
+                transactions.addTransaction(ids[i % ids.length], TransactionType.DEPOSIT, 100, 100, i);
+                transactions.addTransaction(target.getAccountId(), TransactionType.DEPOSIT, 100, 100, i);
+            }
+            for (int threads : threadCounts) {
+                suite.run("TransactionManagement.viewTransactionByAccount", params("history", history), threads, t ->
+                        (thread, i) -> transactions.viewTransactionByAccount(target.getAccountNumber()).size());
+                suite.run("TransactionManagement.getAccountSummary", params("history", history), threads, t ->
+                        (thread, i) -> transactions.getAccountSummary(target.getAccountNumber()).getNetChange());
+                // Postings were stamped 0, 1, 2, ..., so [from, from + 10) holds ten of the target's postings
+                suite.run("TransactionManagement.viewTransactionsBetween", params("history", history), threads, t ->
+                        (thread, i) -> {
+                            long from = (i * 7919 + thread * 104729) % history;
+                            return transactions.viewTransactionsBetween(target.getAccountNumber(), from, from + 10).size();
+                        });
+            }
+        }
+        for (int threads : threadCounts) {
+            suite.run("TransactionClock.SYSTEM", params(), threads, t ->
+                    (thread, i) -> TransactionClock.SYSTEM.currentTimeMillis());
+            suite.run("CachedClock", params(), threads, t ->
+                    (thread, i) -> CachedClock.shared().currentTimeMillis());
+        }
+        for (int threads : threadCounts) {
+            suite.run("SavingsAccount.processTransactions", params(), threads, t -> {
+                Account[] own = new Account[t];
+                for (int k = 0; k < t; k++) own[k] = new SavingsAccount(customer, Money.ofUnits(1000));
+                return (thread, i) -> own[thread].processTransactions(100, (i & 1) == 0 ? TransactionType.DEPOSIT : TransactionType.WITHDRAWAL) ? 1 : 0;
+            });
+            suite.run("CheckingAccount.processTransactions", params(), threads, t -> {
+                Account[] own = new Account[t];
+                for (int k = 0; k < t; k++) own[k] = new CheckingAccount(customer, Money.ofUnits(1000));
+                return (thread, i) -> own[thread].processTransactions(100, (i & 1) == 0 ? TransactionType.DEPOSIT : TransactionType.WITHDRAWAL) ? 1 : 0;
+            });
+        }
+        for (int threads : threadCounts) {
+            suite.run("AccountManagement.addAccount", params(), threads, t -> (thread, i) -> {
+                CheckingAccount account = new CheckingAccount(customer, Money.ofUnits(1000));
+                AccountManagement.addAccount(account);
+                return account.getAccountId();
+            });
+        }
+
+        if (json != null) {
+            runner.writeJson(json);
+            System.out.println("Results written to " + json);
+        }
+        if (baseline != null) runner.compareWith(baseline);
+    }
+
+    // Runs only the benchmarks whose name matches the include filter.
+    private static final class Suite {
+        private final BenchmarkRunner runner;
+        private final Pattern include;
+
+        Suite(BenchmarkRunner runner, Pattern include) {
+            this.runner = runner;
+            this.include = include;
+        }
+
+        // Returns the result, or null if the benchmark was filtered out.
+        BenchmarkRunner.Result run(String name, Map<String, String> params, int threads,
+                                   BenchmarkRunner.IterationSetup setup) throws InterruptedException {
+            return include.matcher(name).find() ? runner.run(name, params, threads, setup) : null;
+        }
+    }
+
+    // Registers accounts until the store holds the given number of pool accounts.
+    private static void ensureAccounts(int count) {
+        while (pool.size() < count) {
+            Account account = (pool.size() & 1) == 0
+                    ? new SavingsAccount(customer, Money.ofUnits(1_000_000))
+                    : new CheckingAccount(customer, Money.ofUnits(1_000_000));
+            AccountManagement.addAccount(account);
+            pool.add(account);
+        }
+    }
+
+    // Returns the account numbers of the first count pool accounts.
+    private static String[] accountNumbers(int count) {
+        String[] keys = new String[count];
+        for (int i = 0; i < count; i++) keys[i] = pool.get(i).getAccountNumber();
+        return keys;
+    }
+
+    private static Map<String, String> params(Object... pairs) {
+        Map<String, String> params = new LinkedHashMap<>();
+        for (int i = 0; i + 1 < pairs.length; i += 2) params.put(String.valueOf(pairs[i]), String.valueOf(pairs[i + 1]));
+        return params;
+    }
+
+    private static int[] parseList(String value) {
+        return Arrays.stream(value.split(",")).mapToInt(s -> Integer.parseInt(s.strip())).toArray();
+    }
+}
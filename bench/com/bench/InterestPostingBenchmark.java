@@ -0,0 +1,53 @@
+package com.bench;
+import java.time.YearMonth;
+import java.util.concurrent.ForkJoinPool;
+import com.models.*;
+import com.service.*;
+
+/*
+ * Measures throughput of the month-end interest run.
+ *
+ * Creates the given number of savings accounts and runs InterestPostingService once per
+ * parallelism level (1, 2, 4, ... up to the number of cores), each run crediting the next
+ * month so every account is eligible again. A final re-run of the last month measures the
+ * restart path, where every account is skipped by its period marker.
+ *
+ * Usage: java -Xmx8g -cp out:out-bench com.bench.InterestPostingBenchmark [accounts]
+ */
+public class InterestPostingBenchmark {
+
+    public static void main(String[] args) {
+        int accounts = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+
+        Customer customer = new RegularCustomer("Bench", 30, "0123456789", "Bench Street");
+        for (int i = 0; i < accounts; i++) {
+            AccountManagement.addAccount(new SavingsAccount(customer, Money.ofUnits(1000 + i % 5000)));
+        }
+        TransactionManagement transactionManagement = new TransactionManagement();
+
+        System.out.println("PARALLELISM | ACCOUNTS/S | CREDITED  | SKIPPED");
+        System.out.println("===============================================");
+        int cores = Runtime.getRuntime().availableProcessors();
+        YearMonth period = YearMonth.of(2026, 1);
+        for (int parallelism = 1; parallelism <= cores; parallelism *= 2) {
+            print(String.valueOf(parallelism), run(transactionManagement, parallelism, period));
+            period = period.plusMonths(1);
+        }
+        print("re-run", run(transactionManagement, cores, period.minusMonths(1)));
+    }
+
+    private static InterestPostingService.Report run(TransactionManagement transactionManagement, int parallelism,
+                                                     YearMonth period) {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            return new InterestPostingService(transactionManagement, pool).postMonthlyInterest(period);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static void print(String label, InterestPostingService.Report report) {
+        System.out.printf("%-11s | %10.0f | %9d | %d%n", label, report.getThroughput(),
+                report.getCredited(), report.getAlreadyCredited());
+    }
+}
@@ -0,0 +1,71 @@
+package com.bench;
+import java.math.BigDecimal;
+import com.models.*;
+
+/*
+ * Compares the deposit/withdraw arithmetic of long cents (Money), BigDecimal and double.
+ *
+ * Each variant applies the same alternating sequence of deposits and withdrawals of
+ * $0.10 / $0.07 to a running balance and reports ns/operation and the final balance.
+ * The double variant typically ends with a balance that is off by a fraction of a cent,
+ * which is the rounding drift the long representation removes. A last run goes through
+ * SavingsAccount.processTransactions to show the cost of the full account path.
+ *
+ * Usage: java -cp out:out-bench com.bench.MoneyBenchmark [operations]
+ */
+public class MoneyBenchmark {
+
+    public static void main(String[] args) {
+        int operations = args.length > 0 ? Integer.parseInt(args[0]) : 50_000_000;
+        for (int round = 0; round < 3; round++) {
+            System.out.println(round < 2 ? "-- warm-up --" : "-- measured --");
+            runLong(operations);
+            runBigDecimal(operations);
+            runDouble(operations);
+            runAccount(operations);
+        }
+    }
+
+    private static void runLong(int operations) {
+        long balance = Money.ofUnits(1000);
+        long start = System.nanoTime();
+        for (int i = 0; i < operations; i++) {
+            balance = (i & 1) == 0 ? Money.add(balance, 10) : Money.subtract(balance, 7);
+        }
+        report("long cents", operations, System.nanoTime() - start, Money.format(balance));
+    }
+
+    private static void runBigDecimal(int operations) {
+        BigDecimal balance = new BigDecimal("1000.00");
+        BigDecimal deposit = new BigDecimal("0.10");
+        BigDecimal withdrawal = new BigDecimal("0.07");
+        long start = System.nanoTime();
+        for (int i = 0; i < operations; i++) {
+            balance = (i & 1) == 0 ? balance.add(deposit) : balance.subtract(withdrawal);
+        }
+        report("BigDecimal", operations, System.nanoTime() - start, balance.toPlainString());
+    }
+
+    private static void runDouble(int operations) {
+        double balance = 1000.0;
+        long start = System.nanoTime();
+        for (int i = 0; i < operations; i++) {
+            balance = (i & 1) == 0 ? balance + 0.10 : balance - 0.07;
+        }
+        report("double", operations, System.nanoTime() - start, Double.toString(balance));
+    }
+
+    private static void runAccount(int operations) {
+        Customer customer = new RegularCustomer("Bench", 30, "0123456789", "Bench Street");
+        SavingsAccount account = new SavingsAccount(customer, Money.ofUnits(1000));
+        long start = System.nanoTime();
+        for (int i = 0; i < operations; i++) {
+            account.processTransactions((i & 1) == 0 ? 10 : 7, (i & 1) == 0 ? TransactionType.DEPOSIT : TransactionType.WITHDRAWAL);
+        }
+        report("SavingsAccount", operations, System.nanoTime() - start, Money.format(account.getBalance()));
+    }
+
+    private static void report(String name, int operations, long elapsedNanos, String balance) {
+        System.out.printf("%-15s %6.2f ns/op  final balance %s%n", name, (double) elapsedNanos / operations, balance);
+    }
+}
@@ -0,0 +1,132 @@
+package com.bench;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import com.models.*;
+import com.service.AccountManagement;
+
+/*
+ * Heap footprint, garbage collection cost and lookup latency of heap accounts vs the off-heap
+ * AccountTable (AccountManagement.useOffHeapStore) at tens of millions of accounts.
+ *
+ * Each store runs in its own JVM, started with this JVM's options, because AccountManagement
+ * can only switch stores while it is empty. Every run registers N accounts (alternating
+ * savings and checking, four accounts per customer) and reports:
+ * - heap        : heap in use after a full collection, and direct memory held by the table
+ * - full GC     : time of a System.gc(), i.e. the pause that has to trace the live accounts
+ * - lookup      : findAccount(id).getBalance() on random ids, ns per lookup
+ * - deposit     : findAccount(id).applyDeposit(1) on random ids, ns per posting
+ * - GC during   : collections and collection time while the lookup and deposit loops ran
+ *
+ * Options: --accounts 20000000   --store heap|offheap (default: both, one JVM each)   --warmup 2
+ *          --iterations 5   --time 1000 (ms)   --json <file>
+ *
+ * Usage: java -Xmx8g -cp out:out-bench com.bench.OffHeapAccountBenchmark
+ */
+public class OffHeapAccountBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int accountCount = 20_000_000;
+        String store = null;
+        int warmup = 2;
+        int iterations = 5;
+        long time = 1000;
+        String json = null;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--accounts" -> accountCount = Integer.parseInt(args[i + 1]);
+                case "--store" -> store = args[i + 1];
+                case "--warmup" -> warmup = Integer.parseInt(args[i + 1]);
+                case "--iterations" -> iterations = Integer.parseInt(args[i + 1]);
+                case "--time" -> time = Long.parseLong(args[i + 1]);
+                case "--json" -> json = args[i + 1];
+                default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+        if (store == null) {
+            for (String each : new String[] {"heap", "offheap"}) fork(args, each, json);
+            return;
+        }
+        if (!store.equals("heap") && !store.equals("offheap")) throw new IllegalArgumentException("Unknown store: " + store);
+        if (store.equals("offheap")) AccountManagement.useOffHeapStore();
+
+        long start = System.nanoTime();
+        Customer customer = null;
+        for (int i = 0; i < accountCount; i++) {
+            if ((i & 3) == 0) customer = new RegularCustomer("Customer " + i, 30 + i % 50, "0" + (200000000 + i), "Bench Street");
+            AccountManagement.addAccount((i & 1) == 0
+                    ? new SavingsAccount(customer, Money.ofUnits(1000))
+                    : new CheckingAccount(customer, Money.ofUnits(1000)));
+        }
+        long elapsed = System.nanoTime() - start;
+        int highest = AccountManagement.getHighestAccountId();
+
+        System.gc();
+        long gcStart = System.nanoTime();
+        System.gc();
+        long fullGc = System.nanoTime() - gcStart;
+        long heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+        System.out.printf("[%s] %,d accounts registered in %.1f s%n", store, AccountManagement.getAccountCount(), elapsed / 1e9);
+        System.out.printf("[%s] heap after GC %,d MB, off-heap %,d MB, full GC %.0f ms%n", store, heap >> 20,
+                AccountManagement.getOffHeapBytes() >> 20, fullGc / 1e6);
+
+        BenchmarkRunner runner = new BenchmarkRunner(warmup, iterations, time);
+        Map<String, String> params = new LinkedHashMap<>();
+        params.put("accounts", String.valueOf(accountCount));
+        params.put("store", store);
+        int bound = highest + 1;
+        long[] gcBefore = gcTotals();
+        report(store, runner.run("OffHeap.lookup", params, 1, t -> (thread, i) -> {
+            Account account = AccountManagement.findAccount(index(i, bound));
+            return account == null ? 0 : account.getBalance();
+        }));
+        report(store, runner.run("OffHeap.deposit", params, 1, t -> (thread, i) -> {
+            Account account = AccountManagement.findAccount(index(i, bound));
+            return account == null ? 0 : account.applyDeposit(1);
+        }));
+        long[] gcAfter = gcTotals();
+        System.out.printf("[%s] GC during lookups and deposits: %d collections, %d ms%n", store,
+                gcAfter[0] - gcBefore[0], gcAfter[1] - gcBefore[1]);
+        if (json != null) runner.writeJson(Path.of(json.replace(".json", "-" + store + ".json")));
+    }
+
+    // Runs this benchmark for one store in a child JVM with the same options and class path.
+    private static void fork(String[] args, String store, String json) throws Exception {
+        List<String> command = new ArrayList<>();
+        command.add(ProcessHandle.current().info().command().orElse("java"));
+        command.addAll(ManagementFactory.getRuntimeMXBean().getInputArguments());
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(OffHeapAccountBenchmark.class.getName());
+        command.addAll(List.of(args));
+        command.add("--store");
+        command.add(store);
+        int exit = new ProcessBuilder(command).inheritIO().start().waitFor();
+        if (exit != 0) System.out.println("[" + store + "] run failed with exit code " + exit);
+        if (json != null && exit == 0) System.out.println("Results written to " + json.replace(".json", "-" + store + ".json"));
+    }
+
+    // Collection count and time in ms, summed over all collectors
+    private static long[] gcTotals() {
+        long[] totals = new long[2];
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            totals[0] += Math.max(collector.getCollectionCount(), 0);
+            totals[1] += Math.max(collector.getCollectionTime(), 0);
+        }
+        return totals;
+    }
+
+    // Pseudo-random index below bound
+    private static int index(long iteration, int bound) {
+        long mixed = iteration * 0xBF58476D1CE4E5B9L;
+        return (int) ((mixed >>> 33) % bound);
+    }
+
+    private static void report(String store, BenchmarkRunner.Result result) {
+        System.out.printf("[%s]     %.0f ns per operation%n", store, 1e9 * result.threads / result.score);
+    }
+}
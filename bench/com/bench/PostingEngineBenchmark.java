@@ -0,0 +1,108 @@
+package com.bench;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+import com.models.*;
+import com.service.PostingEngine;
+import com.service.TransactionManagement;
+
+/*
+ * Posting throughput of the partitioned single-writer PostingEngine from 1 partition up to the
+ * number of cores, against the shared path the console uses.
+ *
+ * For each partition count P, P producer threads submit deposits and withdrawals of 1.00 to
+ * random checking accounts:
+ * - shared : each producer posts directly (Account.postTransaction and one shared
+ *            TransactionManagement), as concurrent console sessions do
+ * - engine : each producer submits to a PostingEngine with P partitions, keeping up to WINDOW
+ *            postings in flight and waiting for the oldest future before reusing its place; the
+ *            partitions record into one shared TransactionManagement as well
+ * Every run is preceded by an unmeasured warm-up run. After each engine run the number of
+ * applied postings (futures not rejected) must equal the number recorded in the shared log.
+ *
+ * Usage: java -Xmx4g -cp out:out-bench com.bench.PostingEngineBenchmark [postings per run] [max partitions]
+ */
+public class PostingEngineBenchmark {
+
+    // Postings each producer keeps in flight
+    private static final int WINDOW = 1024;
+
+    public static void main(String[] args) throws Exception {
+        int postings = args.length > 0 ? Integer.parseInt(args[0]) : 4_000_000;
+        int maxPartitions = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        Customer customer = new RegularCustomer("Bench", 30, "0123456789", "Bench Street");
+        Account[] accounts = new Account[100_000];
+        for (int i = 0; i < accounts.length; i++) accounts[i] = new CheckingAccount(customer, Money.ofUnits(1000));
+
+        List<Integer> partitionCounts = new ArrayList<>();
+        for (int p = 1; p < maxPartitions; p *= 2) partitionCounts.add(p);
+        partitionCounts.add(maxPartitions);
+        System.out.printf("%,d postings per run, %d cores%n", postings, Runtime.getRuntime().availableProcessors());
+        for (int partitions : partitionCounts) {
+            run("shared", accounts, partitions, postings);
+            double shared = run("shared", accounts, partitions, postings);
+            run("engine", accounts, partitions, postings);
+            double engine = run("engine", accounts, partitions, postings);
+            System.out.printf("partitions %2d: shared %,12.0f postings/s   engine %,12.0f postings/s%n",
+                    partitions, shared, engine);
+        }
+    }
+
+    // Runs one variant with the given number of producers (and partitions) and returns postings per second.
+    private static double run(String variant, Account[] accounts, int partitions, int postings) throws Exception {
+        int perProducer = postings / partitions;
+        AtomicLong applied = new AtomicLong();
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] producers = new Thread[partitions];
+        TransactionManagement shared = new TransactionManagement();
+        try (PostingEngine engine = variant.equals("engine") ? new PostingEngine(shared, partitions) : null) {
+            for (int t = 0; t < partitions; t++) {
+                long firstSeed = 0x9E3779B97F4A7C15L * (t + 1);
+                producers[t] = new Thread(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    long seed = firstSeed;
+                    long ok = 0;
+                    @SuppressWarnings({"unchecked", "rawtypes"})
+                    CompletableFuture<Integer>[] window = new CompletableFuture[WINDOW];
+                    for (int i = 0; i < perProducer; i++) {
+                        seed = seed * 6364136223846793005L + 1442695040888963407L;
+                        Account account = accounts[(int) ((seed >>> 33) % accounts.length)];
+                        TransactionType type = (seed & 1) == 0 ? TransactionType.DEPOSIT : TransactionType.WITHDRAWAL;
+                        if (engine == null) {
+                            long balanceAfter = account.postTransaction(100, type);
+                            if (balanceAfter != Account.REJECTED) {
+                                shared.recordTransaction(account.getAccountId(), type, 100, balanceAfter,
+                                        shared.currentTimeMillis());
+                                ok++;
+                            }
+                        } else {
+                            int slot = i & (WINDOW - 1);
+                            if (window[slot] != null && window[slot].join() != PostingEngine.REJECTED) ok++;
+                            window[slot] = engine.submit(account, type, 100);
+                        }
+                    }
+                    for (CompletableFuture<Integer> pending : window) {
+                        if (pending != null && pending.join() != PostingEngine.REJECTED) ok++;
+                    }
+                    applied.addAndGet(ok);
+                });
+                producers[t].start();
+            }
+            long began = System.nanoTime();
+            start.countDown();
+            for (Thread producer : producers) producer.join();
+            long elapsed = System.nanoTime() - began;
+            long recorded = shared.getTransactionCount();
+            if (recorded != applied.get()) {
+                throw new IllegalStateException(variant + ": " + applied.get() + " applied but " + recorded + " recorded");
+            }
+            return (double) perProducer * partitions / (elapsed / 1e9);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.bench;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import com.models.*;
+import com.persistence.AccountSnapshot;
+import com.service.TransactionLog;
+
+/*
+ * Measures how quickly a restarted bank can serve lookups from an AccountSnapshot.
+ *
+ * Builds the given number of accounts (one customer each) plus a few postings per account,
+ * writes a snapshot, then reports:
+ * - write      : time to write the snapshot file and its size
+ * - open       : time to map the snapshot (what startup pays before the first lookup)
+ * - first 1000 : time for the first 1000 random lookups served from the mapped file
+ * - load all   : time to materialize every account, i.e. the cost lazy loading avoids at startup
+ *
+ * Usage: java -Xmx8g -cp out:out-bench com.bench.SnapshotBenchmark [accounts] [directory]
+ */
+public class SnapshotBenchmark {
+
+    public static void main(String[] args) throws IOException {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        Path directory = args.length > 1 ? Path.of(args[1]) : Files.createTempDirectory("snapshot-bench");
+
+        Account[] accounts = new Account[count];
+        TransactionLog log = new TransactionLog();
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < count; i++) {
+            Customer customer = (i & 7) == 0
+                    ? new PremiumCustomer("Customer " + i, 30 + i % 50, "0" + (200000000 + i), "Street " + i)
+                    : new RegularCustomer("Customer " + i, 30 + i % 50, "0" + (200000000 + i), "Street " + i);
+            accounts[i] = (i & 1) == 0
+                    ? new SavingsAccount(customer, Money.ofUnits(1000))
+                    : new CheckingAccount(customer, Money.ofUnits(1000));
+            log.append(accounts[i].getAccountId(), TransactionType.DEPOSIT.getCode(), 100, Money.ofUnits(1000) + 100, now);
+        }
+
+        long start = System.nanoTime();
+        AccountSnapshot.write(directory, 0, accounts, log);
+        long writeNanos = System.nanoTime() - start;
+        Path file = directory.resolve(AccountSnapshot.FILE_NAME);
+        System.out.printf("write      : %8.1f ms  (%,d bytes for %,d accounts)%n", writeNanos / 1e6, Files.size(file), count);
+        accounts = null;
+
+        start = System.nanoTime();
+        AccountSnapshot snapshot = AccountSnapshot.open(directory);
+        long openNanos = System.nanoTime() - start;
+        System.out.printf("open       : %8.1f ms%n", openNanos / 1e6);
+
+        long seed = 11;
+        long checksum = 0;
+        start = System.nanoTime();
+        for (int i = 0; i < 1000; i++) {
+            seed = seed * 6364136223846793005L + 1442695040888963407L;
+            Account account = snapshot.readAccount((int) ((seed >>> 33) % snapshot.getAccountSlots()));
+            if (account != null) checksum += account.getBalance();
+        }
+        long lookupNanos = System.nanoTime() - start;
+        System.out.printf("first 1000 : %8.1f ms  (%.1f us per lookup)%n", lookupNanos / 1e6, lookupNanos / 1e3 / 1000);
+
+        start = System.nanoTime();
+        for (int id = 0; id < snapshot.getAccountSlots(); id++) {
+            Account account = snapshot.readAccount(id);
+            if (account != null) checksum += account.getBalance();
+        }
+        System.out.printf("load all   : %8.1f ms%n", (System.nanoTime() - start) / 1e6);
+        System.out.println("(checksum " + checksum + ")");
+
+        if (args.length < 2) {
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(directory);
+        }
+    }
+}
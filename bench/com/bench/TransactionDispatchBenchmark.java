@@ -0,0 +1,125 @@
+package com.bench;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import com.models.*;
+import com.service.TransactionLog;
+
+/*
+ * Compares the string-based posting path that Account.postTransaction used to take with
+ * the TransactionType path, on BenchmarkRunner.
+ *
+ * Both paths start from the console menu choice ("1" or "2"), post to an account and
+ * append the posting to a TransactionLog:
+ * - String : choice -> HashMap label lookup -> equalsIgnoreCase dispatch -> label to stored code
+ * - Typed  : choice -> TransactionType -> switch dispatch -> getCode()
+ * The "post" benchmarks stop after the balance update; the "record" benchmarks include the
+ * log append. The string path is reproduced here, as it no longer exists in the application.
+ *
+ * Options: --threads 1,4   --warmup 3   --iterations 5   --time 1000 (ms)   --json <file>
+ *
+ * Usage: java -cp out:out-bench com.bench.TransactionDispatchBenchmark
+ */
+public class TransactionDispatchBenchmark {
+
+    private static final Customer customer = new RegularCustomer("Bench", 30, "0123456789", "Bench Street");
+
+    // Menu choices as they arrive from the console, alternating deposit and withdrawal
+    private static final String[] CHOICES = {"1", "2"};
+
+    // The former menu mapping of TransactionServices
+    private static final HashMap<String, String> labels = new HashMap<>();
+
+    static {
+        labels.put("1", "Deposit");
+        labels.put("2", "Withdrawal");
+    }
+
+    public static void main(String[] args) throws Exception {
+        int[] threadCounts = {1, 4};
+        int warmup = 3;
+        int iterations = 5;
+        long time = 1000;
+        Path json = null;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--threads" -> threadCounts = Arrays.stream(args[i + 1].split(","))
+                        .mapToInt(s -> Integer.parseInt(s.strip())).toArray();
+                case "--warmup" -> warmup = Integer.parseInt(args[i + 1]);
+                case "--iterations" -> iterations = Integer.parseInt(args[i + 1]);
+                case "--time" -> time = Long.parseLong(args[i + 1]);
+                case "--json" -> json = Path.of(args[i + 1]);
+                default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+        BenchmarkRunner runner = new BenchmarkRunner(warmup, iterations, time);
+        Map<String, String> none = new LinkedHashMap<>();
+
+        for (int threads : threadCounts) {
+            runner.run("String.post", none, threads, t -> {
+                Account[] own = accounts(t);
+                return (thread, i) -> postByLabel(own[thread], 100, labels.get(CHOICES[(int) (i & 1)]));
+            });
+            runner.run("Typed.post", none, threads, t -> {
+                Account[] own = accounts(t);
+                return (thread, i) -> own[thread].postTransaction(100, typeOf(CHOICES[(int) (i & 1)]));
+            });
+            runner.run("String.record", none, threads, t -> {
+                Account[] own = accounts(t);
+                TransactionLog log = new TransactionLog();
+                return (thread, i) -> {
+                    String label = labels.get(CHOICES[(int) (i & 1)]);
+                    long balanceAfter = postByLabel(own[thread], 100, label);
+                    if (balanceAfter == Account.REJECTED) return 0;
+                    return log.append(own[thread].getAccountId(), codeOf(label), 100, balanceAfter, i);
+                };
+            });
+            runner.run("Typed.record", none, threads, t -> {
+                Account[] own = accounts(t);
+                TransactionLog log = new TransactionLog();
+                return (thread, i) -> {
+                    TransactionType type = typeOf(CHOICES[(int) (i & 1)]);
+                    long balanceAfter = own[thread].postTransaction(100, type);
+                    if (balanceAfter == Account.REJECTED) return 0;
+                    return log.append(own[thread].getAccountId(), type.getCode(), 100, balanceAfter, i);
+                };
+            });
+        }
+
+        if (json != null) {
+            runner.writeJson(json);
+            System.out.println("Results written to " + json);
+        }
+    }
+
+    // One account per thread, so the comparison is not dominated by CAS contention
+    private static Account[] accounts(int threads) {
+        Account[] own = new Account[threads];
+        for (int k = 0; k < threads; k++) own[k] = new SavingsAccount(customer, Money.ofUnits(1000));
+        return own;
+    }
+
+    // The former Account.postTransaction(long, String)
+    private static long postByLabel(Account account, long amount, String type) {
+        if (type.equalsIgnoreCase("Deposit")) {
+            return account.applyDeposit(amount);
+        } else if (type.equalsIgnoreCase("Withdrawal")) {
+            return account.applyWithdrawal(amount);
+        }
+        return Account.REJECTED;
+    }
+
+    // The former TransactionLog.typeCode(String)
+    private static byte codeOf(String type) {
+        if ("Deposit".equalsIgnoreCase(type)) return 1;
+        if ("Withdrawal".equalsIgnoreCase(type)) return 2;
+        throw new IllegalArgumentException("Unknown transaction type: " + type);
+    }
+
+    // The menu mapping of TransactionServices
+    private static TransactionType typeOf(String choice) {
+        return choice.equals("1") ? TransactionType.DEPOSIT : TransactionType.WITHDRAWAL;
+    }
+}
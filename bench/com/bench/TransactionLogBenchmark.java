@@ -0,0 +1,50 @@
+package com.bench;
+import com.models.Transaction;
+import com.models.TransactionType;
+import com.service.TransactionLog;
+
+/*
+ * Compares the heap cost of the columnar TransactionLog with one Transaction object
+ * per posting, and measures append throughput of the log.
+ *
+ * Usage: java -Xmx8g -cp out:out-bench com.bench.TransactionLogBenchmark [logEntries] [objectEntries]
+ * (100M log entries need roughly 4 GB of heap.)
+ */
+public class TransactionLogBenchmark {
+
+    public static void main(String[] args) {
+        int logEntries = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+        int objectEntries = args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000;
+
+        long before = usedHeap();
+        TransactionLog log = new TransactionLog();
+        long now = System.currentTimeMillis();
+        long start = System.nanoTime();
+        for (int i = 0; i < logEntries; i++) {
+            log.append(i & 0xFFFFF, TransactionType.DEPOSIT.getCode(), 5_000, 100_000 + i, now + i);
+        }
+        long elapsed = System.nanoTime() - start;
+        double logBytes = (double) (usedHeap() - before) / logEntries;
+        System.out.printf("Columnar log : %,d entries, %.1f bytes/transaction, %,.0f appends/s%n",
+                logEntries, logBytes, logEntries / (elapsed / 1e9));
+
+        before = usedHeap();
+        Transaction[] objects = new Transaction[objectEntries];
+        for (int i = 0; i < objectEntries; i++) {
+            objects[i] = new Transaction(i, i & 0xFFFFF, TransactionType.DEPOSIT, 5_000, 100_000 + i, now + i * 1000L);
+        }
+        double objectBytes = (double) (usedHeap() - before) / objectEntries;
+        System.out.printf("Object model : %,d entries, %.1f bytes/transaction%n", objectEntries, objectBytes);
+        System.out.printf("Log uses %.0f%% of the object model's heap per transaction%n", 100 * logBytes / objectBytes);
+
+        // Keep both structures reachable until measured
+        if (log.size() + objects.length == 0) System.out.println();
+    }
+
+    // Returns the heap in use after a full collection.
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
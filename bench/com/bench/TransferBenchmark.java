@@ -0,0 +1,157 @@
+package com.bench;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import com.models.*;
+import com.service.TransactionManagement;
+
+/*
+ * Transfer throughput under contention, on BenchmarkRunner.
+ *
+ * Every operation transfers a small amount between two distinct accounts picked by the mix:
+ * - uniform : both accounts uniformly from all accounts
+ * - hotspot : 90% of transfers have both ends among 8 hot accounts
+ * Half the accounts are savings accounts (minimum balance) and half checking (overdraft), so
+ * some transfers are rejected by the rules, as they would be in production.
+ *
+ * Variants:
+ * - Transfer.locked : balances only, both accounts locked in id order (the classic deadlock-free
+ *                     locking scheme), for comparison
+ * - Transfer.cas    : balances only, debit and credit with the accounts' balance CAS and
+ *                     compensation, as TransactionManagement.transfer does
+ * - Transfer.record : TransactionManagement.transfer, including recording the linked legs
+ *
+ * After all runs the sum of every balance is checked against the starting sum, so a lost or
+ * duplicated leg fails the benchmark.
+ *
+ * Options: --threads 1,4,16   --accounts 10000   --warmup 3   --iterations 5   --time 1000 (ms)   --json <file>
+ *
+ * Usage: java -Xmx4g -cp out:out-bench com.bench.TransferBenchmark
+ */
+public class TransferBenchmark {
+
+    // Number of hot accounts in the hot-spot mix
+    private static final int HOT_ACCOUNTS = 8;
+
+    public static void main(String[] args) throws Exception {
+        int[] threadCounts = {1, 4, 16};
+        int accountCount = 10_000;
+        int warmup = 3;
+        int iterations = 5;
+        long time = 1000;
+        Path json = null;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--threads" -> threadCounts = Arrays.stream(args[i + 1].split(","))
+                        .mapToInt(s -> Integer.parseInt(s.strip())).toArray();
+                case "--accounts" -> accountCount = Integer.parseInt(args[i + 1]);
+                case "--warmup" -> warmup = Integer.parseInt(args[i + 1]);
+                case "--iterations" -> iterations = Integer.parseInt(args[i + 1]);
+                case "--time" -> time = Long.parseLong(args[i + 1]);
+                case "--json" -> json = Path.of(args[i + 1]);
+                default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+
+        Customer customer = new RegularCustomer("Bench", 30, "0123456789", "Bench Street");
+        Account[] accounts = new Account[accountCount];
+        long startingTotal = 0;
+        for (int i = 0; i < accountCount; i++) {
+            accounts[i] = (i & 1) == 0
+                    ? new SavingsAccount(customer, Money.ofUnits(600))
+                    : new CheckingAccount(customer, Money.ofUnits(100));
+            startingTotal += accounts[i].getBalance();
+        }
+
+        BenchmarkRunner runner = new BenchmarkRunner(warmup, iterations, time);
+        for (String mix : new String[]{"uniform", "hotspot"}) {
+            Map<String, String> params = new LinkedHashMap<>();
+            params.put("mix", mix);
+            boolean hot = mix.equals("hotspot");
+            for (int threads : threadCounts) {
+                runner.run("Transfer.locked", params, threads, t -> {
+                    long[] seeds = seeds(t);
+                    return (thread, i) -> {
+                        long seed = seeds[thread] = next(seeds[thread]);
+                        return lockedTransfer(accounts, pick(seed, accounts.length, hot), 100);
+                    };
+                });
+                runner.run("Transfer.cas", params, threads, t -> {
+                    long[] seeds = seeds(t);
+                    return (thread, i) -> {
+                        long seed = seeds[thread] = next(seeds[thread]);
+                        return casTransfer(accounts, pick(seed, accounts.length, hot), 100);
+                    };
+                });
+                runner.run("Transfer.record", params, threads, t -> {
+                    long[] seeds = seeds(t);
+                    TransactionManagement transactionManagement = new TransactionManagement();
+                    return (thread, i) -> {
+                        long seed = seeds[thread] = next(seeds[thread]);
+                        long pair = pick(seed, accounts.length, hot);
+                        return transactionManagement.transfer(accounts[(int) (pair >>> 32)], accounts[(int) pair], 100);
+                    };
+                });
+            }
+        }
+
+        long endingTotal = 0;
+        for (Account account : accounts) endingTotal += account.getBalance();
+        if (endingTotal != startingTotal) {
+            throw new IllegalStateException("Balances not conserved: " + Money.format(startingTotal) + " -> "
+                    + Money.format(endingTotal));
+        }
+        System.out.println("Balances conserved: " + Money.format(endingTotal));
+
+        if (json != null) {
+            runner.writeJson(json);
+            System.out.println("Results written to " + json);
+        }
+    }
+
+    // Debits and credits under both accounts' monitors, taken in id order so no two threads wait on each other.
+    private static long lockedTransfer(Account[] accounts, long pair, long amount) {
+        Account from = accounts[(int) (pair >>> 32)];
+        Account to = accounts[(int) pair];
+        Account first = from.getAccountId() < to.getAccountId() ? from : to;
+        Account second = first == from ? to : from;
+        synchronized (first) {
+            synchronized (second) {
+                long balanceAfter = from.applyWithdrawal(amount);
+                if (balanceAfter == Account.REJECTED) return 0;
+                return to.applyDeposit(amount);
+            }
+        }
+    }
+
+    // The balance part of TransactionManagement.transfer
+    private static long casTransfer(Account[] accounts, long pair, long amount) {
+        Account from = accounts[(int) (pair >>> 32)];
+        Account to = accounts[(int) pair];
+        long balanceAfter = from.postTransaction(amount, TransactionType.TRANSFER_OUT);
+        if (balanceAfter == Account.REJECTED) return 0;
+        long credited = to.postTransaction(amount, TransactionType.TRANSFER_IN);
+        if (credited == Account.REJECTED) from.applyDeposit(amount);
+        return credited;
+    }
+
+    // Picks two distinct account indexes, packed as (from << 32) | to.
+    private static long pick(long seed, int accounts, boolean hot) {
+        int range = hot && (seed & 0xFF) < 230 ? HOT_ACCOUNTS : accounts;
+        int from = (int) ((seed >>> 16) % range);
+        int to = (int) ((seed >>> 40) % (range - 1));
+        if (to >= from) to++;
+        return ((long) from << 32) | to;
+    }
+
+    private static long[] seeds(int threads) {
+        long[] seeds = new long[threads];
+        for (int t = 0; t < threads; t++) seeds[t] = 0x9E3779B97F4A7C15L * (t + 1);
+        return seeds;
+    }
+
+    private static long next(long seed) {
+        return seed * 6364136223846793005L + 1442695040888963407L;
+    }
+}
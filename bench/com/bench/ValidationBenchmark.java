@@ -0,0 +1,117 @@
+package com.bench;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import com.models.*;
+import com.utilities.InputValidator;
+
+/*
+ * Compares the former regex validation with InputValidator on generated customer records.
+ *
+ * Each record has a name, contact, account number and amount, about one in eight of them
+ * invalid. Every variant validates all four fields of every record:
+ * - regex  : String.matches as CustomUtils used to, and Money.parse with its exception for
+ *            invalid amounts
+ * - chars  : InputValidator on the Strings
+ * - bytes  : InputValidator through a reused Ascii view over one byte buffer holding all
+ *            records, as a network or file reader would see them
+ *
+ * Reports ns and bytes allocated per record (allocation from the JVM's per-thread counter).
+ *
+ * Usage: java -cp out:out-bench com.bench.ValidationBenchmark [records]
+ */
+public class ValidationBenchmark {
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        String[][] records = new String[count][];
+        long seed = 11;
+        for (int i = 0; i < count; i++) {
+            seed = seed * 6364136223846793005L + 1442695040888963407L;
+            boolean invalid = (seed >>> 61) == 0;
+            records[i] = new String[]{
+                    invalid ? "Ama2" : "Ama",
+                    invalid ? "012345678" : "0123456789",
+                    Account.formatAccountNumber((int) ((seed >>> 33) % 1_000_000)),
+                    invalid ? "12.345" : (seed >>> 40) % 10_000 + ".25"};
+        }
+        StringBuilder joined = new StringBuilder();
+        for (String[] record : records) joined.append(String.join(",", record)).append('\n');
+        byte[] bytes = joined.toString().getBytes(StandardCharsets.US_ASCII);
+
+        for (int round = 0; round < 5; round++) {
+            System.out.println(round < 4 ? "-- warm-up --" : "-- measured --");
+            measure("regex", count, () -> regex(records));
+            measure("chars", count, () -> chars(records));
+            measure("bytes", count, () -> bytes(bytes));
+        }
+    }
+
+    // The checks CustomUtils made before InputValidator
+    private static long regex(String[][] records) {
+        long valid = 0;
+        for (String[] record : records) {
+            boolean ok = !record[0].isBlank() && record[0].matches("^[A-Za-z]+$");
+            ok &= !record[1].isBlank() && record[1].matches("^[0-9]+$") && record[1].length() == 10;
+            ok &= !record[2].isBlank() && record[2].matches("(?i)^ACC00\\d{1,}$");
+            try {
+                Money.parse(record[3]);
+            } catch (NumberFormatException e) {
+                ok = false;
+            }
+            if (ok) valid++;
+        }
+        return valid;
+    }
+
+    private static long chars(String[][] records) {
+        long valid = 0;
+        for (String[] record : records) {
+            int errors = InputValidator.checkName(record[0]) | InputValidator.checkContact(record[1])
+                    | InputValidator.checkAccountNumber(record[2]) | InputValidator.checkAmount(record[3]);
+            if (errors == InputValidator.OK) valid++;
+        }
+        return valid;
+    }
+
+    // Splits the buffer into lines and fields by hand and validates each field in place.
+    private static long bytes(byte[] bytes) {
+        InputValidator.Ascii view = new InputValidator.Ascii();
+        long valid = 0;
+        int start = 0;
+        int[] commas = new int[3];
+        for (int i = 0; i < bytes.length; i++) {
+            if (bytes[i] != '\n') continue;
+            int found = 0;
+            for (int k = start; k < i && found < 3; k++) if (bytes[k] == ',') commas[found++] = k;
+            view.reset(bytes, start, i);
+            int errors = InputValidator.checkName(view, 0, commas[0] - start)
+                    | InputValidator.checkContact(view, commas[0] - start + 1, commas[1] - start)
+                    | InputValidator.checkAccountNumber(view, commas[1] - start + 1, commas[2] - start)
+                    | InputValidator.checkAmount(view, commas[2] - start + 1, i - start);
+            if (errors == InputValidator.OK) valid++;
+            start = i + 1;
+        }
+        return valid;
+    }
+
+    private interface Validation {
+        long run();
+    }
+
+    private static long expectedValid = -1;
+
+    // Runs one variant and prints its time and allocation per record.
+    private static void measure(String name, int records, Validation validation) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().threadId();
+        long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        long valid = validation.run();
+        long elapsed = System.nanoTime() - start;
+        long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+        if (expectedValid < 0) expectedValid = valid;
+        if (valid != expectedValid) throw new IllegalStateException(name + " accepted " + valid + " of " + expectedValid);
+        System.out.printf("%-5s: %,10d records  %8.1f ns/record  %8.1f bytes/record  %,d valid%n", name, records,
+                (double) elapsed / records, (double) allocated / records, valid);
+    }
+}
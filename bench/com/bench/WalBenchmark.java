@@ -0,0 +1,92 @@
+package com.bench;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.Stream;
+import com.persistence.Durability;
+import com.persistence.WriteAheadLog;
+
+/*
+ * Measures durable postings per second of the write-ahead log.
+ *
+ * For each durability level (sync, group, async) and thread count (1..64) every thread
+ * appends POSTING records and waits for each one to be acknowledged, as
+ * TransactionManagement.addTransaction does. SYNC pays one fsync per posting, GROUP_COMMIT
+ * shares one fsync among all postings waiting at the same time, and ASYNC does not wait.
+ * The log is written to a temporary directory (or the given one) and deleted afterwards.
+ *
+ * Usage: java -cp out:out-bench com.bench.WalBenchmark [postingsPerRun] [directory]
+ */
+public class WalBenchmark {
+
+    private static final int[] THREAD_COUNTS = {1, 2, 4, 8, 16, 32, 64};
+
+    public static void main(String[] args) throws Exception {
+        int postings = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        Path parent = args.length > 1 ? Path.of(args[1]) : null;
+
+        System.out.println("DURABILITY   | THREADS | POSTINGS/S");
+        System.out.println("======================================");
+        for (Durability durability : Durability.values()) {
+            for (int threads : THREAD_COUNTS) {
+                Path directory = parent == null ? Files.createTempDirectory("wal-bench")
+                        : Files.createTempDirectory(parent, "wal-bench");
+                try {
+                    double rate = run(directory, durability, threads, postings);
+                    System.out.printf("%-12s | %-7d | %,.0f%n", durability, threads, rate);
+                } finally {
+                    deleteRecursively(directory);
+                }
+            }
+        }
+    }
+
+    // Runs one configuration and returns acknowledged postings per second.
+    private static double run(Path directory, Durability durability, int threads, int postings) throws Exception {
+        int perThread = Math.max(1, postings / threads);
+        CountDownLatch startSignal = new CountDownLatch(1);
+        Thread[] workers = new Thread[threads];
+        IOException[] failure = new IOException[1];
+        long elapsed;
+        try (WriteAheadLog log = new WriteAheadLog(directory, durability, 0)) {
+            for (int t = 0; t < threads; t++) {
+                int accountId = t;
+                workers[t] = new Thread(() -> {
+                    try {
+                        startSignal.await();
+                        for (int i = 0; i < perThread; i++) {
+                            long lsn = log.logPosting((long) accountId * perThread + i, accountId, (byte) 1, 100,
+                                    100L * (i + 1), System.currentTimeMillis(), 0);
+                            log.awaitDurable(lsn);
+                        }
+                    } catch (IOException e) {
+                        synchronized (failure) {
+                            failure[0] = e;
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+                workers[t].start();
+            }
+            long start = System.nanoTime();
+            startSignal.countDown();
+            for (Thread worker : workers) worker.join();
+            elapsed = System.nanoTime() - start;
+        }
+        synchronized (failure) {
+            if (failure[0] != null) throw failure[0];
+        }
+        return (double) perThread * threads / (elapsed / 1e9);
+    }
+
+    private static void deleteRecursively(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+}
@@ -2,6 +2,11 @@ import com.service.*;
 import com.models.*;
 import com.utilities.*;
 import com.handlers.AppHandler;
+import com.persistence.Durability;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
 
 /*
  * Main entry point for the Bank Account Management System.
@@ -15,6 +20,7 @@ import com.handlers.AppHandler;
  * - Account listing and viewing
  * - Deposit and withdrawal transactions
  * - Transaction history tracking
+ * - Crash recovery from a write-ahead log
  */
 public class Main {
 
@@ -23,9 +29,101 @@ public class Main {
      *
      * Displays the welcome banner and creates an AppHandler instance to manage
      * the application's main menu and user interactions.
+     *
+     * Command-line options:
+     *   --data-dir <dir>          - directory holding the write-ahead log (default "data");
+     *                               its contents are recovered at startup
+     *   --durability <level>      - sync, group (default) or async; see com.persistence.Durability
+     *   --in-memory               - keep everything in memory; nothing is recovered or persisted
+     *   --event-sourced [threads] - rebuild all balances by replaying the whole write-ahead log
+     *                               on the given number of threads (default: one per core),
+     *                               checking every posting's balance after, and keep the log
+     *                               on exit instead of truncating it; see
+     *                               com.service.EventReplayService
+     *   --off-heap                - keep accounts in an off-heap table instead of on the heap;
+     *                               see com.models.AccountTable
+     *   --verify-totals           - audit mode: check the running balance totals against a full
+     *                               scan of all accounts whenever the total balance is shown
+     *   --batch <file> [outcomes] - post a file of "account,type,amount" records without
+     *                               prompts; outcomes default to <file>.outcomes.csv
+     *   --post-interest [yyyy-MM] - credit a month's interest (default: the current month) to
+     *                               every active savings account, skipping accounts already
+     *                               credited for that month or a later one (run months in order)
+     *   --assess-fees [yyyy-MM]   - charge a month's fee (default: the current month) to every
+     *                               active checking account whose fees are not waived,
+     *                               skipping accounts already charged for that month or a
+     *                               later one (run months in order)
+     *   --serve [port]            - serve the HTTP/JSON API (default port 8080) instead of
+     *                               the interactive menu; see com.handlers.ApiServer
      */
     public static void main(String[] args) {
-        AppHandler app = new AppHandler();
+        String dataDirectory = "data";
+        Durability durability = Durability.GROUP_COMMIT;
+        boolean inMemory = false;
+        int replayThreads = 0;
+        String batchFile = null;
+        String outcomeFile = null;
+        YearMonth interestPeriod = null;
+        YearMonth feePeriod = null;
+        int servePort = -1;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--data-dir" -> dataDirectory = args[++i];
+                    case "--durability" -> durability = Durability.parse(args[++i]);
+                    case "--in-memory" -> inMemory = true;
+                    case "--event-sourced" -> replayThreads = i + 1 < args.length && !args[i + 1].startsWith("--")
+                            ? Integer.parseInt(args[++i]) : Runtime.getRuntime().availableProcessors();
+                    case "--off-heap" -> AccountManagement.useOffHeapStore();
+                    case "--verify-totals" -> AccountManagement.setVerifyTotals(true);
+                    case "--batch" -> {
+                        batchFile = args[++i];
+                        if (i + 1 < args.length && !args[i + 1].startsWith("--")) outcomeFile = args[++i];
+                    }
+                    case "--post-interest" -> interestPeriod = i + 1 < args.length && !args[i + 1].startsWith("--")
+                            ? YearMonth.parse(args[++i]) : YearMonth.now();
+                    case "--assess-fees" -> feePeriod = i + 1 < args.length && !args[i + 1].startsWith("--")
+                            ? YearMonth.parse(args[++i]) : YearMonth.now();
+                    case "--serve" -> servePort = i + 1 < args.length && !args[i + 1].startsWith("--")
+                            ? Integer.parseInt(args[++i]) : 8080;
+                    default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+                }
+            }
+        } catch (ArrayIndexOutOfBoundsException e) {
+            System.out.println("Missing value for option " + args[args.length - 1]);
+            System.exit(2);
+        } catch (IllegalArgumentException e) {
+            System.out.println(e.getMessage());
+            System.exit(2);
+        } catch (DateTimeParseException e) {
+            System.out.println("Invalid month, expected yyyy-MM: " + e.getParsedString());
+            System.exit(2);
+        }
+
+        AppHandler app;
+        if (inMemory) {
+            app = new AppHandler();
+        } else {
+            try {
+                app = new AppHandler(Path.of(dataDirectory), durability, replayThreads);
+            } catch (IOException e) {
+                System.out.println("Could not open data directory " + dataDirectory + ": " + e.getMessage());
+                System.exit(1);
+                return;
+            }
+        }
+        if (interestPeriod != null) {
+            System.exit(app.runInterest(interestPeriod));
+        }
+        if (feePeriod != null) {
+            System.exit(app.runFees(feePeriod));
+        }
+        if (servePort >= 0) {
+            System.exit(app.runServer(servePort));
+        }
+        if (batchFile != null) {
+            System.exit(app.runBatch(batchFile, outcomeFile != null ? outcomeFile : batchFile + ".outcomes.csv"));
+        }
         app.start();
     }
 }
@@ -0,0 +1,393 @@
+package com.handlers;
+import com.models.*;
+import com.service.AccountManagement;
+import com.service.AccountPage;
+import com.service.CustomerManagement;
+import com.service.PostingEngine;
+import com.service.TransactionManagement;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.utilities.InputValidator;
+import com.utilities.Json;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/*
+ * Embedded HTTP/JSON API in front of the account and transaction services.
+ *
+ * Built on the JDK's com.sun.net.httpserver; every request is handled on its own virtual
+ * thread, so thousands of concurrent clients each block cheaply while their posting waits
+ * for the write-ahead log. Handlers drive AccountManagement and TransactionManagement
+ * directly, as the console services do, without a Scanner; deposits and withdrawals are
+ * handed to a PostingEngine with one partition per core, so concurrent postings to an account
+ * are applied by a single thread and journaled in batches.
+ *
+ * Endpoints (amounts are decimal strings such as "250.00"; timestamps are epoch milliseconds):
+ * - POST /accounts                                  create an account; body: name, age, contact,
+ *                                                   address, customerType (Regular|Premium),
+ *                                                   accountType (Savings|Checking), initialDeposit;
+ *                                                   or customerId instead of the customer fields
+ *                                                   to open another account for that customer
+ * - GET  /accounts?cursor=&limit=&type=&status=     list accounts a page at a time, with the total
+ *                                                   number of matching accounts
+ * - GET  /accounts/{accountNumber}                  get one account
+ * - POST /accounts/{accountNumber}/transactions     post a transaction; body: type (Deposit|Withdrawal), amount
+ * - GET  /accounts/{accountNumber}/transactions?from=&to=
+ *                                                   transaction history, optionally limited to [from, to)
+ * - POST /accounts/{accountNumber}/transfers        transfer to another account; body: toAccount, amount
+ *
+ * Errors are returned as {"error": "..."} with status 400 (invalid request), 404 (unknown
+ * account, customer or path), 405 (wrong method), 409 (contact already registered to another
+ * customer, or the account already exists), 422 (posting rejected by the account's rules, or an
+ * amount or balance that would overflow), 500 (unexpected failure) or 503 (the posting could not
+ * be journaled, or the server is shutting down).
+ */
+public class ApiServer {
+
+    // Default and largest number of accounts returned by one listing request
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 1000;
+
+    // Pending connections the listening socket queues while the dispatcher is busy
+    private static final int BACKLOG = 4096;
+
+    static {
+        // Responses are written as separate header and body segments; with Nagle's algorithm
+        // the body waits for the client's delayed ACK, adding ~40 ms to every keep-alive request
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    private final TransactionManagement transactionManagement;
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final PostingEngine postingEngine;
+
+    // Creates a server bound to the given address (port 0 picks a free port); call start() to serve.
+    public ApiServer(InetSocketAddress address, TransactionManagement transactionManagement) throws IOException {
+        this.transactionManagement = transactionManagement;
+        this.server = HttpServer.create(address, BACKLOG);
+        this.postingEngine = new PostingEngine(transactionManagement, Runtime.getRuntime().availableProcessors());
+        server.createContext("/accounts", this::handle);
+        server.setExecutor(executor);
+    }
+
+    // Starts accepting requests.
+    public void start() {
+        server.start();
+    }
+
+    // Stops accepting requests, waits up to delaySeconds for running exchanges, then stops the handler and posting threads.
+    public void stop(int delaySeconds) {
+        server.stop(delaySeconds);
+        executor.shutdown();
+        postingEngine.close();
+    }
+
+    // Returns the port the server listens on.
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    // Routes a request under /accounts and writes its response.
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            StringBuilder body = new StringBuilder(256);
+            int status;
+            try {
+                status = route(exchange, body);
+            } catch (ApiException e) {
+                body.setLength(0);
+                status = e.status;
+                Json.appendMember(body.append('{'), "error", e.getMessage()).append('}');
+            } catch (ArithmeticException e) {
+                body.setLength(0);
+                status = 422;
+                Json.appendMember(body.append('{'), "error", "Amount or balance out of range").append('}');
+            } catch (UncheckedIOException e) {
+                body.setLength(0);
+                status = 503;
+                Json.appendMember(body.append('{'), "error", e.getMessage()).append('}');
+            } catch (RuntimeException e) {
+                // Every exchange gets an answer; a closed engine means the server is stopping
+                body.setLength(0);
+                status = postingEngine.isClosed() ? 503 : 500;
+                Json.appendMember(body.append('{'), "error",
+                        status == 503 ? "Server is shutting down" : "Internal server error").append('}');
+            }
+            byte[] bytes = body.toString().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            exchange.sendResponseHeaders(status, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        }
+    }
+
+    // Dispatches on method and path; appends the response body and returns the status code.
+    private int route(HttpExchange exchange, StringBuilder body) throws IOException {
+        String method = exchange.getRequestMethod();
+        String path = exchange.getRequestURI().getPath();
+        if (!path.equals("/accounts") && !path.startsWith("/accounts/")) throw new ApiException(404, "Not found: " + path);
+        String[] segments = path.substring("/accounts".length()).split("/");
+        // segments[0] is the empty text before the first '/', if any
+        if (segments.length <= 1) {
+            if (method.equals("GET")) return listAccounts(query(exchange), body);
+            if (method.equals("POST")) return createAccount(readBody(exchange), body);
+            throw new ApiException(405, "Method not allowed: " + method);
+        }
+        Account account = AccountManagement.findAccount(segments[1].toUpperCase());
+        if (segments.length == 2) {
+            if (!method.equals("GET")) throw new ApiException(405, "Method not allowed: " + method);
+            if (account == null) throw new ApiException(404, "Account not found: " + segments[1]);
+            appendAccount(body, account);
+            return 200;
+        }
+        if (segments.length == 3 && segments[2].equals("transactions")) {
+            if (account == null) throw new ApiException(404, "Account not found: " + segments[1]);
+            if (method.equals("GET")) return history(account, query(exchange), body);
+            if (method.equals("POST")) return postTransaction(account, readBody(exchange), body);
+            throw new ApiException(405, "Method not allowed: " + method);
+        }
+        if (segments.length == 3 && segments[2].equals("transfers")) {
+            if (account == null) throw new ApiException(404, "Account not found: " + segments[1]);
+            if (method.equals("POST")) return transfer(account, readBody(exchange), body);
+            throw new ApiException(405, "Method not allowed: " + method);
+        }
+        throw new ApiException(404, "Not found: " + path);
+    }
+
+    // POST /accounts
+    // With a customerId the account is opened for that existing customer and no customer fields are needed.
+    private int createAccount(Map<String, String> request, StringBuilder body) {
+        String accountType = required(request, "accountType");
+        long initialDeposit = parseAmount(required(request, "initialDeposit"), "initialDeposit");
+        if (initialDeposit < 0) throw new ApiException(400, "Deposit cannot be negative");
+
+        Customer customer;
+        String customerId = request.get("customerId");
+        if (customerId != null) {
+            if (InputValidator.parseCustomerId(customerId) < 0) throw new ApiException(400, "Invalid customerId: " + customerId);
+            customer = CustomerManagement.findCustomer(customerId);
+            if (customer == null) throw new ApiException(404, "Customer not found: " + customerId);
+        } else {
+            String name = required(request, "name");
+            validate(InputValidator.checkName(name), "Name must contain only letters");
+            int age = InputValidator.parseAge(required(request, "age"));
+            if (age <= 0) throw new ApiException(400, "Age must be a positive whole number");
+            String contact = required(request, "contact");
+            validate(InputValidator.checkContact(contact), "Contact must be 10 digits");
+            Customer owner = CustomerManagement.findCustomerByContact(contact);
+            if (owner != null) {
+                throw new ApiException(409, "Contact is already registered to customer " + owner.getCustomerId());
+            }
+            String address = required(request, "address");
+            validate(InputValidator.checkAddress(address), "Address cannot be empty");
+            String customerType = required(request, "customerType");
+            if (customerType.equalsIgnoreCase("Regular")) {
+                customer = new RegularCustomer(name, age, contact, address);
+            } else if (customerType.equalsIgnoreCase("Premium")) {
+                customer = new PremiumCustomer(name, age, contact, address);
+            } else {
+                throw new ApiException(400, "customerType must be Regular or Premium");
+            }
+        }
+        if (customer instanceof PremiumCustomer && initialDeposit < Money.ofUnits(10000)) {
+            throw new ApiException(400, "Premium customers require a minimum deposit of $10,000");
+        }
+        Account account;
+        if (accountType.equalsIgnoreCase("Savings")) {
+            if (initialDeposit < Money.ofUnits(500)) throw new ApiException(400, "Savings account requires a minimum deposit of $500");
+            account = new SavingsAccount(customer, initialDeposit);
+        } else if (accountType.equalsIgnoreCase("Checking")) {
+            account = new CheckingAccount(customer, initialDeposit);
+        } else {
+            throw new ApiException(400, "accountType must be Savings or Checking");
+        }
+        if (!AccountManagement.addAccount(account)) {
+            throw new ApiException(409, "Account already exists: " + account.getAccountNumber());
+        }
+        appendAccount(body, account);
+        return 201;
+    }
+
+    // GET /accounts
+    private int listAccounts(Map<String, String> query, StringBuilder body) {
+        int cursor = query.containsKey("cursor") ? parseInt(query.get("cursor"), "cursor") : 0;
+        int limit = query.containsKey("limit") ? parseInt(query.get("limit"), "limit") : DEFAULT_PAGE_SIZE;
+        if (cursor < 0) throw new ApiException(400, "cursor must not be negative");
+        if (limit < 1 || limit > MAX_PAGE_SIZE) throw new ApiException(400, "limit must be between 1 and " + MAX_PAGE_SIZE);
+        AccountType type = AccountType.parse(query.get("type"));
+        if (query.get("type") != null && type == null) throw new ApiException(400, "type must be Savings or Checking");
+        AccountStatus status = AccountStatus.parse(query.get("status"));
+        if (query.get("status") != null && status == null) throw new ApiException(400, "Unknown status: " + query.get("status"));
+        AccountPage page = AccountManagement.listAccounts(cursor, limit, type, status);
+        body.append("{\"accounts\":[");
+        boolean first = true;
+        for (Account account : page.getAccounts()) {
+            if (!first) body.append(',');
+            appendAccount(body, account);
+            first = false;
+        }
+        body.append("],");
+        Json.appendMember(body, "nextCursor", page.getNextCursor()).append(',');
+        Json.appendMember(body, "total", AccountManagement.countAccounts(type, status)).append('}');
+        return 200;
+    }
+
+    // POST /accounts/{accountNumber}/transactions
+    private int postTransaction(Account account, Map<String, String> request, StringBuilder body) {
+        TransactionType type = TransactionType.parse(required(request, "type"));
+        if (type != TransactionType.DEPOSIT && type != TransactionType.WITHDRAWAL) {
+            throw new ApiException(400, "type must be Deposit or Withdrawal");
+        }
+        long amount = parseAmount(required(request, "amount"), "amount");
+        if (amount <= 0) throw new ApiException(400, "Amount must be positive");
+        int slot;
+        try {
+            slot = postingEngine.submit(account, type, amount).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw e;
+        }
+        if (slot == PostingEngine.REJECTED) throw new ApiException(422, "Transaction rejected by the account rules");
+        appendTransaction(body, transactionManagement.getTransaction(slot));
+        return 201;
+    }
+
+    // POST /accounts/{accountNumber}/transfers
+    private int transfer(Account from, Map<String, String> request, StringBuilder body) {
+        String toAccount = required(request, "toAccount");
+        validate(InputValidator.checkAccountNumber(toAccount), "toAccount must be an account number such as ACC004");
+        Account to = AccountManagement.findAccount(toAccount.toUpperCase());
+        if (to == null) throw new ApiException(404, "Account not found: " + toAccount);
+        if (to.getAccountId() == from.getAccountId()) throw new ApiException(400, "Cannot transfer to the same account");
+        long amount = parseAmount(required(request, "amount"), "amount");
+        if (amount <= 0) throw new ApiException(400, "Amount must be positive");
+        int slot = transactionManagement.transfer(from, to, amount);
+        if (slot == TransactionManagement.TRANSFER_REJECTED) {
+            throw new ApiException(422, "Transfer rejected by the account rules");
+        }
+        body.append("{\"legs\":[");
+        appendTransaction(body, transactionManagement.getTransaction(slot));
+        body.append(',');
+        appendTransaction(body, transactionManagement.getTransaction(slot + 1));
+        body.append("]}");
+        return 201;
+    }
+
+    // GET /accounts/{accountNumber}/transactions
+    private int history(Account account, Map<String, String> query, StringBuilder body) {
+        long from = query.containsKey("from") ? parseLong(query.get("from"), "from") : Long.MIN_VALUE;
+        long to = query.containsKey("to") ? parseLong(query.get("to"), "to") : Long.MAX_VALUE;
+        ArrayList<Transaction> transactions =
+                transactionManagement.viewTransactionsBetween(account.getAccountNumber(), from, to);
+        Json.appendMember(body.append('{'), "accountNumber", account.getAccountNumber()).append(",\"transactions\":[");
+        for (int i = 0; i < transactions.size(); i++) {
+            if (i > 0) body.append(',');
+            appendTransaction(body, transactions.get(i));
+        }
+        body.append("]}");
+        return 200;
+    }
+
+    private static void appendAccount(StringBuilder body, Account account) {
+        Customer holder = account.getAccountHolder();
+        Json.appendMember(body.append('{'), "accountNumber", account.getAccountNumber()).append(',');
+        Json.appendMember(body, "customerId", holder.getCustomerId()).append(',');
+        Json.appendMember(body, "customerName", holder.getName()).append(',');
+        Json.appendMember(body, "customerType", holder.getCustomerType()).append(',');
+        Json.appendMember(body, "accountType", account.getAccountType()).append(',');
+        Json.appendMember(body, "balance", Money.format(account.getBalance())).append(',');
+        Json.appendMember(body, "status", account.getStatus()).append(',');
+        Json.appendMember(body, "details", account.appendAccountSpecificDetails(new StringBuilder(64))).append('}');
+    }
+
+    private static void appendTransaction(StringBuilder body, Transaction transaction) {
+        Json.appendMember(body.append('{'), "transactionId", transaction.getTransactionId()).append(',');
+        Json.appendMember(body, "accountNumber", transaction.getAccountNumber()).append(',');
+        Json.appendMember(body, "type", transaction.getType().getLabel()).append(',');
+        Json.appendMember(body, "amount", Money.format(transaction.getAmount())).append(',');
+        Json.appendMember(body, "balanceAfter", Money.format(transaction.getBalanceAfter())).append(',');
+        Json.appendMember(body, "timestamp", transaction.getEpochMillis()).append('}');
+    }
+
+    // Reads and parses the JSON request body.
+    private static Map<String, String> readBody(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            return Json.parseObject(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException e) {
+            throw new ApiException(400, "Invalid JSON: " + e.getMessage());
+        }
+    }
+
+    // Decodes the query string into a map; empty values are treated as absent.
+    private static Map<String, String> query(HttpExchange exchange) {
+        Map<String, String> parameters = new HashMap<>();
+        String raw = exchange.getRequestURI().getRawQuery();
+        if (raw == null) return parameters;
+        for (String pair : raw.split("&")) {
+            int equals = pair.indexOf('=');
+            if (equals <= 0 || equals == pair.length() - 1) continue;
+            parameters.put(URLDecoder.decode(pair.substring(0, equals), StandardCharsets.UTF_8),
+                    URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8));
+        }
+        return parameters;
+    }
+
+    private static String required(Map<String, String> request, String name) {
+        String value = request.get(name);
+        if (value == null) throw new ApiException(400, "Missing field: " + name);
+        return value;
+    }
+
+    private static long parseAmount(String value, String name) {
+        validate(InputValidator.checkAmount(value), name + " must be a number with at most 2 decimal places");
+        return Money.parse(value);
+    }
+
+    // Answers 400 with the rule and the validator's reason (e.g. "invalid length") unless the code is OK.
+    private static void validate(int code, String rule) {
+        if (code != InputValidator.OK) throw new ApiException(400, rule + " (" + InputValidator.describe(code) + ")");
+    }
+
+    private static int parseInt(String value, String name) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new ApiException(400, name + " must be a whole number");
+        }
+    }
+
+    private static long parseLong(String value, String name) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new ApiException(400, name + " must be a whole number");
+        }
+    }
+
+    // A request that cannot be served, with the status code to answer it with
+    private static final class ApiException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        final int status;
+
+        ApiException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+}
@@ -1,6 +1,15 @@
 package com.handlers;
+import com.persistence.AccountSnapshot;
+import com.persistence.Durability;
+import com.persistence.WriteAheadLog;
 import com.service.*;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
+import java.time.YearMonth;
 import java.util.Scanner;
+import java.util.concurrent.CountDownLatch;
 
 /*
  * Application handler that manages the main menu and user interaction flow.
@@ -15,6 +24,17 @@ import java.util.Scanner;
  * - Account viewing
  * - Transaction processing
  * - Transaction history viewing
+ * - Transfers between accounts
+ * - Batch transaction import (interactive or headless via runBatch)
+ * - Month-end interest posting (headless via runInterest)
+ * - Monthly checking account fees (headless via runFees)
+ * - An HTTP/JSON API for concurrent clients (headless via runServer, see ApiServer)
+ *
+ * When constructed with a data directory, the handler recovers the accounts and transactions
+ * recorded in its snapshot and write-ahead log and journals every new account and posting there.
+ * Closing the handler writes a new snapshot and drops the log segments it covers.
+ * In event-sourcing mode the log is instead replayed in full at startup (see
+ * EventReplayService) and kept on close, so it remains the complete history of the bank.
  */
 public class AppHandler {
 
@@ -33,6 +53,15 @@ public class AppHandler {
     // Scanner instance for reading user input from console
     private final Scanner scanner = new Scanner(System.in);
 
+    // Write-ahead log for accounts and postings; null when running in memory only
+    private WriteAheadLog journal;
+
+    // Directory holding the snapshot and the write-ahead log; null when running in memory only
+    private Path dataDirectory;
+
+    // True if the write-ahead log is kept whole rather than truncated after each snapshot
+    private boolean eventSourced;
+
     /*
      * Constructs a new AppHandler.
      *
@@ -44,6 +73,45 @@ public class AppHandler {
         transactionService = new TransactionServices(accountManagement, transactionManagement, scanner);
     }
 
+    /*
+     * Constructs an AppHandler whose data is persisted in the given directory.
+     *
+     * Maps the snapshot and replays the write-ahead log records after it to restore
+     * accounts and transactions, then opens the log for appending with the given durability level.
+     */
+    public AppHandler(Path dataDirectory, Durability durability) throws IOException {
+        this(dataDirectory, durability, 0);
+    }
+
+    /*
+     * Constructs an AppHandler whose data is persisted in the given directory, in
+     * event-sourcing mode if replayThreads is positive: the whole write-ahead log is replayed
+     * on that many threads instead of loading the snapshot. A log whose older segments were
+     * already dropped falls back to the snapshot.
+     */
+    public AppHandler(Path dataDirectory, Durability durability, int replayThreads) throws IOException {
+        this();
+        this.dataDirectory = dataDirectory;
+        long nextLsn;
+        if (replayThreads > 0 && !EventReplayService.hasCompleteLog(dataDirectory)) {
+            System.out.println("The write-ahead log no longer starts at the first event; recovering from the snapshot.");
+            replayThreads = 0;
+        }
+        if (replayThreads > 0) {
+            eventSourced = true;
+            EventReplayService replay = new EventReplayService(transactionManagement, replayThreads);
+            nextLsn = replay.rebuild(dataDirectory);
+            System.out.println(replay);
+        } else {
+            RecoveryService recovery = new RecoveryService(transactionManagement);
+            nextLsn = recovery.recover(dataDirectory);
+            System.out.println(recovery);
+        }
+        journal = new WriteAheadLog(dataDirectory, durability, nextLsn);
+        AccountManagement.attachJournal(journal);
+        transactionManagement.attachJournal(journal);
+    }
+
     /*
      * Starts the main application loop and displays the interactive menu.
      *
@@ -56,7 +124,9 @@ public class AppHandler {
      * 2. View Accounts - Displays all accounts in the system
      * 3. Process Transaction - Handles deposits and withdrawals
      * 4. View Transaction History - Shows transaction history for an account
-     * 5. Exit - Terminates the application
+     * 5. Import Transactions - Posts a file of transactions in one batch
+     * 6. Transfer Funds - Moves money between two accounts
+     * 7. Exit - Terminates the application
      */
     public void start() {
         boolean running = true;
@@ -64,7 +134,7 @@ public class AppHandler {
         System.out.println("  BANK ACCOUNT MANAGEMENT - MAIN MENU");
         System.out.println("||====================================||");
         while (running) {
-            System.out.println("\n1. Create Account \n2. View Accounts \n3. Process Transaction \n4. View Transaction History \n5. Exit");
+            System.out.println("\n1. Create Account \n2. View Accounts \n3. Process Transaction \n4. View Transaction History \n5. Import Transactions \n6. Transfer Funds \n7. Exit");
             System.out.print("Enter choice: ");
             String choice = scanner.nextLine();
 
@@ -73,9 +143,132 @@ public class AppHandler {
                 case "2" -> { accountService.viewAllAccounts(); yield true; }
                 case "3" -> { transactionService.processTransaction(); yield true; }
                 case "4" -> { transactionService.viewTransactionHistory(); yield true; }
-                case "5" -> { System.out.println("Goodbye!"); yield false; }
-                default -> { System.out.println("Please select a number between [1-5]"); yield true; }
+                case "5" -> { transactionService.importTransactions(); yield true; }
+                case "6" -> { transactionService.transferFunds(); yield true; }
+                case "7" -> { close(); System.out.println("Goodbye!"); yield false; }
+                default -> { System.out.println("Please select a number between [1-7]"); yield true; }
             };
         }
     }
+
+    /*
+     * Runs a headless batch import without the interactive menu.
+     *
+     * Posts every record of the input file, writes per-record outcomes to the outcome file
+     * and prints the run summary. Returns the process exit status (0 on success).
+     */
+    public int runBatch(String inputFile, String outcomeFile) {
+        try {
+            BatchTransactionService.Report report = new BatchTransactionService(accountManagement, transactionManagement)
+                    .ingestFile(Path.of(inputFile), Path.of(outcomeFile));
+            System.out.println(report);
+            return close() ? 0 : 1;
+        } catch (IOException e) {
+            System.out.println("Batch import failed: " + e.getMessage());
+            close();
+            return 1;
+        }
+    }
+
+    /*
+     * Credits a month's interest to every active savings account without the interactive menu.
+     *
+     * Accounts already credited for the period are skipped, so re-running a period (for example
+     * after a crash) never credits an account twice. Prints the run summary and returns the
+     * process exit status (0 on success).
+     */
+    public int runInterest(YearMonth period) {
+        try {
+            InterestPostingService.Report report = new InterestPostingService(transactionManagement)
+                    .postMonthlyInterest(period);
+            System.out.println(report);
+            return close() ? 0 : 1;
+        } catch (UncheckedIOException e) {
+            System.out.println("Interest run failed: " + e.getMessage());
+            close();
+            return 1;
+        }
+    }
+
+    /*
+     * Charges a month's fee to every active checking account without the interactive menu.
+     *
+     * Accounts already charged for the period are skipped, so re-running an interrupted period
+     * resumes where it stopped. Prints the run summary and returns the process exit status
+     * (0 on success).
+     */
+    public int runFees(YearMonth period) {
+        try {
+            MonthlyFeeService.Report report = new MonthlyFeeService(transactionManagement).assessMonthlyFees(period);
+            System.out.println(report);
+            return close() ? 0 : 1;
+        } catch (UncheckedIOException e) {
+            System.out.println("Fee run failed: " + e.getMessage());
+            close();
+            return 1;
+        }
+    }
+
+    /*
+     * Serves the HTTP/JSON API on the given port instead of the interactive menu.
+     *
+     * Blocks until the process is asked to stop (for example with Ctrl-C); the server then
+     * finishes in-flight requests for up to a second and the handler is closed, writing the
+     * snapshot as on a normal exit. Returns the process exit status (0 on success).
+     */
+    public int runServer(int port) {
+        ApiServer server;
+        try {
+            server = new ApiServer(new InetSocketAddress(port), transactionManagement);
+        } catch (IOException e) {
+            System.out.println("Could not start the HTTP API on port " + port + ": " + e.getMessage());
+            close();
+            return 1;
+        }
+        CountDownLatch stopped = new CountDownLatch(1);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.stop(1);
+            close();
+            stopped.countDown();
+        }, "api-shutdown"));
+        server.start();
+        System.out.println("Serving the HTTP API on port " + server.getPort());
+        try {
+            stopped.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return 0;
+    }
+
+    /*
+     * Flushes and closes the write-ahead log, if one is attached, then writes a snapshot
+     * covering it and deletes the log segments the snapshot makes redundant (unless
+     * event-sourced).
+     * Returns false if the remaining records could not be written. A failed snapshot is
+     * reported but loses nothing, since the log is kept.
+     */
+    public boolean close() {
+        if (journal == null) return true;
+        AccountManagement.attachJournal(null);
+        transactionManagement.attachJournal(null);
+        long snapshotLsn;
+        try {
+            snapshotLsn = journal.getNextLsn();
+            journal.close();
+        } catch (IOException e) {
+            System.out.println("Could not close the transaction journal: " + e.getMessage());
+            return false;
+        } finally {
+            journal = null;
+        }
+        try {
+            AccountSnapshot.write(dataDirectory, snapshotLsn, AccountManagement.viewAllAccounts(),
+                    transactionManagement.getLog());
+            if (!eventSourced) WriteAheadLog.deleteSegmentsBefore(dataDirectory, snapshotLsn);
+        } catch (IOException e) {
+            System.out.println("Could not write the account snapshot: " + e.getMessage());
+        }
+        return true;
+    }
 }
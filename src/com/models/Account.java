@@ -1,5 +1,8 @@
 
 package com.models;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import com.utilities.IdAllocator;
 
 /*
  * Abstract class representing a bank account.
@@ -11,31 +14,93 @@ package com.models;
  * - SavingsAccount
  * - CheckingAccount
  * - Customer
+ *
+ * Balance updates are lock-free: every mutation is a compare-and-set loop on the
+ * balance field, and withdrawals check the account's floor (minimum balance or
+ * overdraft limit) against the exact value they replace. Concurrent postings to
+ * the same account therefore never lose updates or break the account rules.
+ *
+ * An account attached to a BalanceLedger reports every balance change to it, which
+ * keeps bank-wide totals current without scanning accounts.
+ *
+ * An account attached to an AccountIndex reports its status changes to it, which keeps the
+ * per-status and per-type bitmaps used to filter accounts current.
+ *
+ * An account bound to an AccountTable keeps its balance and status in the table's off-heap
+ * record instead of its own fields; the same compare-and-set rules apply to the record.
  */
 public abstract class Account implements Transactable {
 
-    // Unique identifier for the account in format "ACC00" + counter
-    private String accountNumber;
+    // Returned by postTransaction when a transaction is rejected
+    public static final long REJECTED = Long.MIN_VALUE;
+
+    // Prefix of the display form of account numbers ("ACC00" + numeric id)
+    public static final String ACCOUNT_NUMBER_PREFIX = "ACC00";
+
+    // Allocator handing out numeric account ids to all account types
+    private static final IdAllocator accountIds = new IdAllocator(64);
+
+    // Atomic access to the balance field
+    private static final VarHandle BALANCE;
+
+    static {
+        try {
+            BALANCE = MethodHandles.lookup().findVarHandle(Account.class, "balance", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    // Unique numeric identifier; displayed as "ACC00" + accountId
+    private final int accountId;
 
     // The customer who owns this account
     private Customer customer;
 
-    // Current account balance in dollars
-    private double balance;
+    // Current account balance in cents (see Money); only updated through BALANCE
+    private volatile long balance;
+
+    // Account status; volatile so that AccountIndex.update sees the latest change
+    private volatile AccountStatus status;
+
+    // Ledger receiving this account's balance changes; null while the account is not registered
+    private volatile BalanceLedger ledger;
 
-    // Account status (e.g., "active", "closed", "suspended")
-    private String status;
+    // Index receiving this account's status changes; null while the account is not registered
+    private volatile AccountIndex index;
 
-    // Static counter for generating unique account numbers
-    public static int accountCounter;
+    // Off-heap table holding the balance and status instead of the fields above; null for a heap account.
+    // Set before the account is shared (by AccountTable.insert or a view constructor).
+    private AccountTable table;
 
     /*
-     * Default constructor that initializes the account and generates a unique account number.
-     * Increments the static account counter to ensure each account receives a unique identifier.
+     * Default constructor that initializes the account with a unique numeric id.
+     * Ids come from a thread-safe allocator, so concurrently created accounts never share an id.
      */
     Account() {
-        setAccountNumber();
-        accountCounter++;
+        this(accountIds.nextIntId());
+    }
+
+    /*
+     * Constructs an account with a known numeric id.
+     * Used when restoring persisted accounts; see reserveAccountIdsThrough.
+     */
+    Account(int accountId) {
+        this.accountId = accountId;
+    }
+
+    // Constructs a view of the record of an account stored in an AccountTable; the holder is resolved on first use.
+    Account(int accountId, AccountTable table) {
+        this.accountId = accountId;
+        this.table = table;
+    }
+
+    /*
+     * Ensures that accounts created from now on get ids above the given id.
+     * Called after restoring persisted accounts so new ids never collide with them.
+     */
+    public static void reserveAccountIdsThrough(int accountId) {
+        accountIds.advancePast(accountId);
     }
 
     /*
@@ -44,87 +109,246 @@ public abstract class Account implements Transactable {
      */
     public abstract String displayAccountDetails();
 
+    // Returns the kind of account.
+    public abstract AccountType getType();
+
     /*
      * Returns the type of account (e.g., "Savings", "Checking").
      */
-    public abstract String getAccountType();
+    public String getAccountType() {
+        return getType().getLabel();
+    }
 
     /*
      * Returns account-specific details that vary by account type.
      * For Savings accounts: interest rate, minimum balance.
      * For Checking accounts: overdraft limit, monthly fees.
      */
-    public abstract String getAccountSpecificDetails();
+    public String getAccountSpecificDetails() {
+        return appendAccountSpecificDetails(new StringBuilder(64)).toString();
+    }
+
+    // Appends the account-specific details to the builder without creating intermediate strings.
+    public abstract StringBuilder appendAccountSpecificDetails(StringBuilder builder);
 
     /*
-     * Generates a unique account number based on the current account counter.
-     * Format: "ACC00" followed by the account counter value.
+     * Returns the lowest balance (in cents) a withdrawal may leave behind.
+     * For Savings accounts this is the minimum balance; for Checking accounts it is
+     * the negative overdraft limit.
      */
-    private void generateAccountNumber() {
-        this.accountNumber = "ACC00" + accountCounter;
+    public abstract long getWithdrawalFloor();
+
+    // Retrieves the numeric account id used for storage and indexing
+    public int getAccountId() {
+        return this.accountId;
     }
 
-    // Retrieves the account number
+    // Retrieves the account number in its display form, e.g. "ACC0042"
     public String getAccountNumber() {
-        return this.accountNumber;
+        return formatAccountNumber(this.accountId);
+    }
+
+    // Formats a numeric account id as an account number: "ACC00" followed by the id.
+    public static String formatAccountNumber(int accountId) {
+        return ACCOUNT_NUMBER_PREFIX + accountId;
     }
 
-    // Sets the account number by generating a new one
-    public void setAccountNumber() {
-        generateAccountNumber();
+    /*
+     * Extracts the numeric id from an account number such as "ACC0042".
+     * Returns -1 if the value is not a well-formed account number. Leading zeros in the
+     * numeric part are rejected so that each id maps back to exactly one account number.
+     */
+    public static int parseAccountNumber(String accountNumber) {
+        if (accountNumber == null || !accountNumber.startsWith(ACCOUNT_NUMBER_PREFIX)) return -1;
+        int length = accountNumber.length();
+        int start = ACCOUNT_NUMBER_PREFIX.length();
+        if (start == length || length - start > 10) return -1;
+        if (accountNumber.charAt(start) == '0' && length - start > 1) return -1;
+        long id = 0;
+        for (int i = start; i < length; i++) {
+            char c = accountNumber.charAt(i);
+            if (c < '0' || c > '9') return -1;
+            id = id * 10 + (c - '0');
+        }
+        return id > Integer.MAX_VALUE ? -1 : (int) id;
     }
 
     // Returns a string representation of the customer associated with this account
     public String getCustomer() {
-        return this.customer.toString();
+        return getAccountHolder().toString();
+    }
+
+    // Returns the customer who owns this account
+    public Customer getAccountHolder() {
+        Customer holder = this.customer;
+        AccountTable source = table;
+        if (holder == null && source != null) this.customer = holder = source.customer(accountId);
+        return holder;
     }
 
-    // Gets the current account counter value
-    public int getAccountCounter() {
-        return accountCounter;
+    // True if the holder is a PremiumCustomer; a table view answers from its record without resolving the holder.
+    boolean hasPremiumHolder() {
+        Customer holder = this.customer;
+        AccountTable source = table;
+        if (holder == null && source != null) return source.premium(accountId);
+        return holder instanceof PremiumCustomer;
     }
 
     // Associates a customer with this account
     public void setCustomer(Customer Customer) {
         this.customer = Customer;
+        if (table != null) table.setCustomer(accountId, Customer);
+    }
+
+    // Retrieves the current account balance in cents
+    public long getBalance() {
+        AccountTable source = table;
+        return source == null ? this.balance : source.balance(accountId);
     }
 
-    // Retrieves the current account balance
-    public double getBalance() {
-        return this.balance;
+    // Sets the account balance to the specified value in cents
+    public void setBalance(long balance) {
+        AccountTable record = table;
+        long previous = record == null ? (long) BALANCE.getAndSet(this, balance) : record.getAndSetBalance(accountId, balance);
+        BalanceLedger target = ledger;
+        if (target != null) target.add(this, balance - previous);
     }
 
-    // Sets the account balance to the specified value
-    public void setBalance(double balance) {
-        this.balance = balance;
+    /*
+     * Starts reporting this account's balance to the ledger, counting its current balance.
+     * Must be called before the account is shared with other threads (see AccountManagement).
+     */
+    public void attachLedger(BalanceLedger ledger) {
+        this.ledger = ledger;
+        ledger.add(this, getBalance());
+    }
+
+    // Reports future changes to a ledger and index that already count this account (table views).
+    void join(BalanceLedger ledger, AccountIndex index) {
+        this.ledger = ledger;
+        this.index = index;
+    }
+
+    /*
+     * Adds the account to the index under its type and status and reports its status changes
+     * from now on. Like attachLedger, called when the account is registered.
+     */
+    public void attachIndex(AccountIndex index) {
+        this.index = index;
+        index.add(this);
+    }
+
+    // Moves the balance and status into the account's AccountTable record, which the table has just written.
+    void bind(AccountTable table) {
+        this.table = table;
+    }
+
+    // Stops reporting to the ledger and removes this account's balance from it.
+    public void detachLedger() {
+        BalanceLedger target = ledger;
+        if (target == null) return;
+        ledger = null;
+        target.add(this, -getBalance());
     }
 
     // Retrieves the current account status
+    public AccountStatus getAccountStatus() {
+        AccountTable source = table;
+        return source == null ? this.status : source.status(accountId);
+    }
+
+    // Retrieves the current account status label (e.g., "active", "closed", "suspended")
     public String getStatus() {
-        return this.status;
+        AccountStatus current = getAccountStatus();
+        return current == null ? null : current.getLabel();
     }
 
-    // Sets the account status (e.g., "active", "closed", "suspended")
+    // Sets the account status and re-indexes the account if it is attached to an AccountIndex.
+    public void setStatus(AccountStatus status) {
+        if (status == null) throw new IllegalArgumentException("Account status must not be null");
+        AccountTable record = table;
+        if (record == null) this.status = status;
+        else record.setStatus(accountId, status);
+        AccountIndex target = index;
+        if (target != null) target.update(this);
+    }
+
+    // Sets the account status by label (any case); throws IllegalArgumentException for an unknown status.
     public void setStatus(String status) {
-        this.status = status;
+        AccountStatus parsed = AccountStatus.parse(status);
+        if (parsed == null) throw new IllegalArgumentException("Unknown account status: " + status);
+        setStatus(parsed);
     }
 
     /*
      * Processes a deposit transaction.
-     * Validates that the deposit amount is positive before adding it to the account balance.
+     * Validates that the deposit amount (in cents) is positive before adding it to the account balance.
      * Returns true if successful, false otherwise.
      */
-    public boolean deposit(double amount) {
-        if (amount <= 0) return false;
-        setBalance(getBalance() + amount);
-        return true;
+    public boolean deposit(long amount) {
+        return applyDeposit(amount) != REJECTED;
     }
 
     /*
      * Abstract method for processing withdrawal transactions.
      * Subclasses must implement account-specific withdrawal logic.
      */
-    public abstract void withdraw(double amount);
+    public abstract void withdraw(long amount);
+
+    /*
+     * Atomically adds a positive amount (in cents) to the balance.
+     * Returns the balance after the deposit, or REJECTED if the amount is not positive.
+     */
+    public long applyDeposit(long amount) {
+        if (amount <= 0) return REJECTED;
+        long current;
+        long next;
+        do {
+            current = getBalance();
+            next = Money.add(current, amount);
+        } while (!compareAndSetBalance(current, next));
+        BalanceLedger target = ledger;
+        if (target != null) target.add(this, amount);
+        return next;
+    }
+
+    /*
+     * Atomically subtracts a positive amount (in cents) from the balance if the result
+     * stays at or above getWithdrawalFloor(). The floor check and the update act on the
+     * same balance value, so a concurrent posting can never slip in between them.
+     * Returns the balance after the withdrawal, or REJECTED if the rules do not allow it.
+     */
+    public long applyWithdrawal(long amount) {
+        if (amount <= 0) return REJECTED;
+        long floor = getWithdrawalFloor();
+        long current;
+        long next;
+        do {
+            current = getBalance();
+            next = Money.subtract(current, amount);
+            if (next < floor) return REJECTED;
+        } while (!compareAndSetBalance(current, next));
+        BalanceLedger target = ledger;
+        if (target != null) target.add(this, -amount);
+        return next;
+    }
+
+    // Replaces the balance if it still equals expected, in the field or the table record.
+    private boolean compareAndSetBalance(long expected, long next) {
+        AccountTable target = table;
+        return target == null ? BALANCE.compareAndSet(this, expected, next)
+                : target.compareAndSetBalance(accountId, expected, next);
+    }
+
+    /*
+     * Posts a transaction and returns the resulting balance, or REJECTED if it failed.
+     * Callers that record the transaction should use the returned balance rather than
+     * re-reading getBalance(), which may already include other postings.
+     */
+    public long postTransaction(long amount, TransactionType type) {
+        // The kind decides the direction; every debit is checked against the withdrawal floor
+        return type.isCredit() ? applyDeposit(amount) : applyWithdrawal(amount);
+    }
 
     /*
      * Returns a string representation of the account.
@@ -132,20 +356,15 @@ public abstract class Account implements Transactable {
      */
     @Override
     public String toString() {
-        return String.format("Customer: %s\nAccount Type:%s\nCurrent Balance: %.2f",
-                getCustomer(), getAccountType(), getBalance());
+        return String.format("Customer: %s\nAccount Type:%s\nCurrent Balance: %s",
+                getCustomer(), getAccountType(), Money.format(getBalance()));
     }
 
     /*
      * Processes a transaction based on the specified type.
-     * Routes to deposit or withdraw based on transaction type.
+     * Deposits must be positive; withdrawals must respect the account's withdrawal floor.
      */
-    public boolean processTransactions(double amount, String type) {
-        if (type.equalsIgnoreCase("Deposit")) {
-            return deposit(amount);
-        } else if (type.equalsIgnoreCase("Withdrawal")) {
-            withdraw(amount);
-        }
-        return true;
+    public boolean processTransactions(long amount, TransactionType type) {
+        return postTransaction(amount, type) != REJECTED;
     }
 }
@@ -0,0 +1,124 @@
+package com.models;
+import com.utilities.ConcurrentBitSet;
+
+/*
+ * Bitmap indexes of accounts by status and by type.
+ *
+ * One ConcurrentBitSet per AccountStatus and per AccountType holds the ids of the accounts
+ * with that status or type. Queries such as "active checking accounts" intersect a status and
+ * a type bitmap 64 ids at a time, so counting or paging through them over ten million
+ * accounts reads a few megabytes of bitmap words instead of every account.
+ *
+ * An account attached to the index reports its status changes (see Account.setStatus), the
+ * same way it reports balance changes to a BalanceLedger. The bitmaps of one account are not
+ * updated atomically together: while its status changes, a query may briefly see the account
+ * under both statuses or neither, so callers that return accounts re-check the account itself.
+ */
+public final class AccountIndex {
+
+    // Ids of the accounts per status, by AccountStatus ordinal
+    private final ConcurrentBitSet[] byStatus = new ConcurrentBitSet[AccountStatus.values().length];
+
+    // Ids of the accounts per type, by AccountType ordinal
+    private final ConcurrentBitSet[] byType = new ConcurrentBitSet[AccountType.values().length];
+
+    public AccountIndex() {
+        for (int i = 0; i < byStatus.length; i++) byStatus[i] = new ConcurrentBitSet();
+        for (int i = 0; i < byType.length; i++) byType[i] = new ConcurrentBitSet();
+    }
+
+    /*
+     * Indexes an account by id with the given type and status, replacing any status it was
+     * indexed under. Used for accounts known only by their stored record (see AccountSnapshot).
+     */
+    public void add(int accountId, AccountType type, AccountStatus status) {
+        byType[type.ordinal()].set(accountId);
+        putStatus(accountId, status);
+    }
+
+    // Indexes an account that has just been attached; it reports its status changes from now on.
+    void add(Account account) {
+        byType[account.getType().ordinal()].set(account.getAccountId());
+        update(account);
+    }
+
+    /*
+     * Re-indexes the account under its current status. Repeats until the status it indexed is
+     * still the account's status afterwards, so when concurrent changes race, the last update
+     * to finish leaves the bitmaps matching the account.
+     */
+    public void update(Account account) {
+        int accountId = account.getAccountId();
+        AccountStatus status;
+        do {
+            status = account.getAccountStatus();
+            putStatus(accountId, status);
+        } while (account.getAccountStatus() != status);
+    }
+
+    /*
+     * Counts the accounts with the given type and status; a null type or status matches every
+     * type or status.
+     */
+    public int count(AccountType type, AccountStatus status) {
+        if (type == null && status == null) {
+            int count = 0;
+            for (ConcurrentBitSet bits : byType) count += bits.cardinality();
+            return count;
+        }
+        int limit = wordLimit(type, status);
+        int count = 0;
+        for (int word = 0; word < limit; word++) count += Long.bitCount(matches(word, type, status));
+        return count;
+    }
+
+    /*
+     * Returns the smallest account id >= fromId with the given type and status (null matches
+     * any), or -1 if there is none.
+     */
+    public int next(int fromId, AccountType type, AccountStatus status) {
+        if (fromId < 0) fromId = 0;
+        int limit = wordLimit(type, status);
+        int word = fromId >>> 6;
+        if (word >= limit) return -1;
+        long bits = matches(word, type, status) & (-1L << fromId);
+        while (bits == 0) {
+            if (++word >= limit) return -1;
+            bits = matches(word, type, status);
+        }
+        return (word << 6) + Long.numberOfTrailingZeros(bits);
+    }
+
+    // Stores the status bit of the account and clears its other status bits.
+    private void putStatus(int accountId, AccountStatus status) {
+        for (int i = 0; i < byStatus.length; i++) {
+            if (status != null && i == status.ordinal()) byStatus[i].set(accountId);
+            else byStatus[i].clear(accountId);
+        }
+    }
+
+    // Ids of one word that match both filters
+    private long matches(int word, AccountType type, AccountStatus status) {
+        long bits;
+        if (type != null) {
+            bits = byType[type.ordinal()].word(word);
+        } else {
+            bits = 0;
+            for (ConcurrentBitSet each : byType) bits |= each.word(word);
+        }
+        if (status != null && bits != 0) bits &= byStatus[status.ordinal()].word(word);
+        return bits;
+    }
+
+    // Bound on the words that can hold matches
+    private int wordLimit(AccountType type, AccountStatus status) {
+        if (status != null && type != null) {
+            return Math.min(byStatus[status.ordinal()].wordLimit(), byType[type.ordinal()].wordLimit());
+        }
+        if (status != null) return byStatus[status.ordinal()].wordLimit();
+        if (type != null) return byType[type.ordinal()].wordLimit();
+        int limit = 0;
+        for (ConcurrentBitSet bits : byType) limit = Math.max(limit, bits.wordLimit());
+        return limit;
+    }
+}
@@ -0,0 +1,58 @@
+package com.models;
+
+/*
+ * Lifecycle status of an account.
+ *
+ * Each status carries the one-byte code it is stored under in snapshots and the off-heap
+ * AccountTable, and the lower-case label shown to users. Codes are part of the on-disk
+ * format: never renumber a status, only add new ones. Code 0 is reserved for "no account".
+ */
+public enum AccountStatus {
+
+    ACTIVE(1, "active"),
+    INACTIVE(2, "inactive"),
+    FROZEN(3, "frozen"),
+    CLOSED(4, "closed"),
+    SUSPENDED(5, "suspended");
+
+    // All statuses, without the copy values() makes on every call
+    private static final AccountStatus[] VALUES = values();
+
+    private final byte code;
+    private final String label;
+
+    AccountStatus(int code, String label) {
+        this.code = (byte) code;
+        this.label = label;
+    }
+
+    // Code the status is stored under
+    public byte getCode() {
+        return code;
+    }
+
+    // Display name, e.g. "active"
+    public String getLabel() {
+        return label;
+    }
+
+    // Returns the status stored under the given code; throws IllegalArgumentException for unknown codes.
+    public static AccountStatus fromCode(byte code) {
+        if (code < 1 || code > VALUES.length) throw new IllegalArgumentException("Unknown account status code: " + code);
+        return VALUES[code - 1];
+    }
+
+    // Returns the status with the given label (case-insensitive), or null if there is none.
+    public static AccountStatus parse(String label) {
+        if (label == null) return null;
+        for (AccountStatus status : VALUES) {
+            if (status.label.equalsIgnoreCase(label)) return status;
+        }
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+}
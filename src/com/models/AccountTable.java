@@ -0,0 +1,257 @@
+package com.models;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+/*
+ * Off-heap account store: one fixed-width record per numeric account id in direct memory.
+ *
+ * Layout of a record (native byte order, 32 bytes, the same fields as an AccountSnapshot record):
+ *
+ *   0   type         1 byte   AccountType code (1 = savings, 2 = checking); 0 = no account
+ *   1   status       1 byte   AccountStatus code
+ *   2   holder flags 1 byte   PREMIUM if the holder is a PremiumCustomer
+ *   4   customer id  4 bytes
+ *   8   balance      8 bytes  cents
+ *   16  first term   8 bytes  savings: minimum balance; checking: overdraft limit
+ *   24  second term  8 bytes  savings: interest rate in basis points; checking: monthly fee
+ *
+ * Records live in direct buffers of CHUNK_RECORDS records allocated on demand, so the heap
+ * holds a few chunk references however many accounts there are, and the garbage collector
+ * never traces them. read() returns a flyweight: an ordinary SavingsAccount or CheckingAccount
+ * bound to the record, whose balance and status are read and updated in the record itself
+ * (balance updates are compare-and-set on the record, exactly as on a heap account). Views
+ * are cheap, short-lived objects; any number of them can exist for one record.
+ *
+ * Customers stay on the heap; a record holds the customer id, which a view resolves through the
+ * function given to the constructor the first time its holder is asked for, so lookups that only
+ * touch the balance never visit the customer.
+ */
+public final class AccountTable {
+
+    // Bytes per record
+    static final int RECORD = 32;
+
+    // Field offsets inside a record
+    private static final int TYPE = 0;
+    private static final int CUSTOMER = 4;
+    private static final int BALANCE = 8;
+    private static final int FIRST_TERM = 16;
+    private static final int SECOND_TERM = 24;
+
+    // Type codes; CLAIMED marks a record whose fields are still being written
+    private static final byte SAVINGS = AccountType.SAVINGS.getCode();
+    private static final byte CHECKING = AccountType.CHECKING.getCode();
+    private static final byte CLAIMED = -1;
+
+    // Holder flag: the customer is a PremiumCustomer, which the ledger needs on every balance change
+    private static final byte PREMIUM = 1;
+
+    // Number of low id bits addressing a record inside a chunk (32768 records, 1 MB per chunk)
+    private static final int CHUNK_BITS = 15;
+    private static final int CHUNK_RECORDS = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_RECORDS - 1;
+
+    // Atomic access to the fields of a record
+    private static final VarHandle LONG = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+    private static final VarHandle INT = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.nativeOrder());
+
+    // Chunks of records; the directory is replaced with a larger copy when ids grow past it
+    private volatile ByteBuffer[] chunks = new ByteBuffer[16];
+
+    // Number of stored accounts
+    private final AtomicInteger size = new AtomicInteger();
+
+    // Highest id ever stored, used to bound iteration
+    private final AtomicInteger highestId = new AtomicInteger(-1);
+
+    // Ledger that views report balance changes to; null for none
+    private final BalanceLedger ledger;
+
+    // Index that views report status changes to; null for none
+    private final AccountIndex index;
+
+    // Resolves the customer id of a record to the customer object
+    private final IntFunction<Customer> customers;
+
+    // Creates an empty table whose views report to the given ledger and index and resolve customers with the given function.
+    public AccountTable(BalanceLedger ledger, AccountIndex index, IntFunction<Customer> customers) {
+        this.ledger = ledger;
+        this.index = index;
+        this.customers = customers;
+    }
+
+    /*
+     * Copies the account into the record for its id and binds the account to it, so its balance
+     * and status are kept off-heap from then on. Returns false, leaving the account unbound, if
+     * the id is already taken or the account has no status.
+     */
+    public boolean insert(Account account) {
+        int accountId = account.getAccountId();
+        if (accountId < 0) throw new IllegalArgumentException("Account id must not be negative: " + accountId);
+        AccountStatus current = account.getAccountStatus();
+        if (current == null) return false;
+        byte status = current.getCode();
+        ByteBuffer chunk = chunkFor(accountId);
+        int record = (accountId & CHUNK_MASK) * RECORD;
+        // Claim the record before writing its fields, so concurrent inserts of one id cannot both succeed
+        if (!INT.compareAndSet(chunk, record + TYPE, 0, header(CLAIMED, (byte) 0, (byte) 0))) return false;
+        Customer holder = account.getAccountHolder();
+        chunk.putInt(record + CUSTOMER, holder == null ? -1 : holder.getNumericId());
+        LONG.setVolatile(chunk, record + BALANCE, account.getBalance());
+        if (account instanceof SavingsAccount savings) {
+            chunk.putLong(record + FIRST_TERM, savings.getMinimumBalance());
+            chunk.putLong(record + SECOND_TERM, savings.getInterestRateBasisPoints());
+        } else {
+            CheckingAccount checking = (CheckingAccount) account;
+            chunk.putLong(record + FIRST_TERM, checking.getOverdraftLimit());
+            chunk.putLong(record + SECOND_TERM, checking.getMonthlyFee());
+        }
+        account.bind(this);
+        INT.setVolatile(chunk, record + TYPE, header(account instanceof SavingsAccount ? SAVINGS : CHECKING, status, holderFlags(holder)));
+        size.incrementAndGet();
+        highestId.accumulateAndGet(accountId, Math::max);
+        return true;
+    }
+
+    // Returns a view of the account with the given id, or null if there is none.
+    public Account read(int accountId) {
+        ByteBuffer chunk = chunkOf(accountId);
+        if (chunk == null) return null;
+        int record = (accountId & CHUNK_MASK) * RECORD;
+        int header = (int) INT.getVolatile(chunk, record + TYPE);
+        byte type = typeOf(header);
+        if (type != SAVINGS && type != CHECKING) return null;
+        long firstTerm = chunk.getLong(record + FIRST_TERM);
+        long secondTerm = chunk.getLong(record + SECOND_TERM);
+        Account view = type == SAVINGS
+                ? new SavingsAccount(accountId, secondTerm, firstTerm, this)
+                : new CheckingAccount(accountId, firstTerm, secondTerm, this);
+        view.join(ledger, index);
+        return view;
+    }
+
+    // True if an account is stored under the given id
+    public boolean contains(int accountId) {
+        ByteBuffer chunk = chunkOf(accountId);
+        if (chunk == null) return false;
+        byte type = typeOf((int) INT.getVolatile(chunk, (accountId & CHUNK_MASK) * RECORD + TYPE));
+        return type == SAVINGS || type == CHECKING;
+    }
+
+    // Returns the number of stored accounts.
+    public int size() {
+        return size.get();
+    }
+
+    // Returns the highest id stored so far, or -1 if the table is empty.
+    public int highestId() {
+        return highestId.get();
+    }
+
+    // Returns the direct memory allocated for records, in bytes.
+    public long allocatedBytes() {
+        long bytes = 0;
+        for (ByteBuffer chunk : chunks) if (chunk != null) bytes += chunk.capacity();
+        return bytes;
+    }
+
+    long balance(int accountId) {
+        return (long) LONG.getVolatile(chunkOf(accountId), (accountId & CHUNK_MASK) * RECORD + BALANCE);
+    }
+
+    boolean compareAndSetBalance(int accountId, long expected, long balance) {
+        return LONG.compareAndSet(chunkOf(accountId), (accountId & CHUNK_MASK) * RECORD + BALANCE, expected, balance);
+    }
+
+    long getAndSetBalance(int accountId, long balance) {
+        return (long) LONG.getAndSet(chunkOf(accountId), (accountId & CHUNK_MASK) * RECORD + BALANCE, balance);
+    }
+
+    // Resolves the holder of the account; views call this on first use rather than on every read().
+    Customer customer(int accountId) {
+        return customers.apply(chunkOf(accountId).getInt((accountId & CHUNK_MASK) * RECORD + CUSTOMER));
+    }
+
+    AccountStatus status(int accountId) {
+        int header = (int) INT.getVolatile(chunkOf(accountId), (accountId & CHUNK_MASK) * RECORD + TYPE);
+        byte code = (byte) (header >>> 8);
+        return code == 0 ? null : AccountStatus.fromCode(code);
+    }
+
+    void setStatus(int accountId, AccountStatus status) {
+        byte code = status.getCode();
+        ByteBuffer chunk = chunkOf(accountId);
+        int position = (accountId & CHUNK_MASK) * RECORD + TYPE;
+        int header;
+        do {
+            header = (int) INT.getVolatile(chunk, position);
+        } while (!INT.compareAndSet(chunk, position, header, header(typeOf(header), code, flagsOf(header))));
+    }
+
+    // True if the holder recorded for the account is a PremiumCustomer
+    boolean premium(int accountId) {
+        int header = (int) INT.getVolatile(chunkOf(accountId), (accountId & CHUNK_MASK) * RECORD + TYPE);
+        return (flagsOf(header) & PREMIUM) != 0;
+    }
+
+    void setCustomer(int accountId, Customer customer) {
+        ByteBuffer chunk = chunkOf(accountId);
+        int record = (accountId & CHUNK_MASK) * RECORD;
+        INT.setVolatile(chunk, record + CUSTOMER, customer == null ? -1 : customer.getNumericId());
+        int header;
+        do {
+            header = (int) INT.getVolatile(chunk, record + TYPE);
+        } while (!INT.compareAndSet(chunk, record + TYPE, header,
+                header(typeOf(header), (byte) (header >>> 8), holderFlags(customer))));
+    }
+
+    // Packs type, status and holder flags into the first int of a record, independent of byte order.
+    private static int header(byte type, byte status, byte flags) {
+        return (type & 0xFF) | (status & 0xFF) << 8 | (flags & 0xFF) << 16;
+    }
+
+    private static byte flagsOf(int header) {
+        return (byte) (header >>> 16);
+    }
+
+    private static byte holderFlags(Customer customer) {
+        return customer instanceof PremiumCustomer ? PREMIUM : 0;
+    }
+
+    private static byte typeOf(int header) {
+        return (byte) header;
+    }
+
+    // Returns the chunk holding the given id, or null if it has not been allocated.
+    private ByteBuffer chunkOf(int accountId) {
+        if (accountId < 0) return null;
+        ByteBuffer[] directory = chunks;
+        int chunkIndex = accountId >>> CHUNK_BITS;
+        return chunkIndex < directory.length ? directory[chunkIndex] : null;
+    }
+
+    // Returns the chunk holding the given id, allocating it (and growing the directory) if needed.
+    private ByteBuffer chunkFor(int accountId) {
+        ByteBuffer chunk = chunkOf(accountId);
+        if (chunk != null) return chunk;
+        synchronized (this) {
+            ByteBuffer[] directory = chunks;
+            int chunkIndex = accountId >>> CHUNK_BITS;
+            if (chunkIndex >= directory.length) {
+                int newLength = directory.length;
+                while (newLength <= chunkIndex) newLength <<= 1;
+                directory = Arrays.copyOf(directory, newLength);
+            }
+            if (directory[chunkIndex] == null) {
+                directory[chunkIndex] = ByteBuffer.allocateDirect(CHUNK_RECORDS * RECORD).order(ByteOrder.nativeOrder());
+            }
+            chunks = directory;
+            return directory[chunkIndex];
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.models;
+
+/*
+ * Kind of an account: savings or checking.
+ *
+ * Each kind carries the one-byte code it is stored under in snapshots and the off-heap
+ * AccountTable, and the label shown to users. Codes are part of the on-disk format: never
+ * renumber a kind, only add new ones. Code 0 is reserved for "no account".
+ */
+public enum AccountType {
+
+    SAVINGS(1, "Savings"),
+    CHECKING(2, "Checking");
+
+    // All kinds, without the copy values() makes on every call
+    private static final AccountType[] VALUES = values();
+
+    private final byte code;
+    private final String label;
+
+    AccountType(int code, String label) {
+        this.code = (byte) code;
+        this.label = label;
+    }
+
+    // Code the kind is stored under
+    public byte getCode() {
+        return code;
+    }
+
+    // Display name, e.g. "Savings"
+    public String getLabel() {
+        return label;
+    }
+
+    // Returns the kind stored under the given code; throws IllegalArgumentException for unknown codes.
+    public static AccountType fromCode(byte code) {
+        if (code < 1 || code > VALUES.length) throw new IllegalArgumentException("Unknown account type code: " + code);
+        return VALUES[code - 1];
+    }
+
+    // Returns the kind with the given label (case-insensitive), or null if there is none.
+    public static AccountType parse(String label) {
+        if (label == null) return null;
+        for (AccountType type : VALUES) {
+            if (type.label.equalsIgnoreCase(label)) return type;
+        }
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+}
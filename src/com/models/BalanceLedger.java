@@ -0,0 +1,68 @@
+package com.models;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * Running balance totals for a set of accounts: bank-wide, per account type and per
+ * customer tier, all in cents.
+ *
+ * Accounts attached to a ledger (see Account.attachLedger) report every balance change
+ * to it, so reading a total never scans the accounts. Totals are LongAdders: each one is
+ * striped across cells, so concurrent postings to different accounts add to different
+ * cells instead of contending on one counter. A total read while postings are in flight
+ * includes some of them and not others; once postings stop it is exact.
+ */
+public class BalanceLedger {
+
+    private final LongAdder total = new LongAdder();
+    private final LongAdder savings = new LongAdder();
+    private final LongAdder checking = new LongAdder();
+    private final LongAdder regular = new LongAdder();
+    private final LongAdder premium = new LongAdder();
+
+    // Records a balance change (in cents) of an attached account.
+    void add(Account account, long delta) {
+        if (delta == 0) return;
+        total.add(delta);
+        (account instanceof SavingsAccount ? savings : checking).add(delta);
+        (account.hasPremiumHolder() ? premium : regular).add(delta);
+    }
+
+    /*
+     * Adds amounts (in cents) straight to the totals for balances held outside any attached
+     * account, such as the accounts of a snapshot that are not loaded yet; negative amounts
+     * remove them again. The bank-wide total changes by savings + checking, which must equal
+     * regular + premium.
+     */
+    public void addTotals(long savings, long checking, long regular, long premium) {
+        total.add(savings + checking);
+        this.savings.add(savings);
+        this.checking.add(checking);
+        this.regular.add(regular);
+        this.premium.add(premium);
+    }
+
+    // Total balance of all attached accounts
+    public long getTotal() {
+        return total.sum();
+    }
+
+    // Total balance of attached savings accounts
+    public long getSavingsTotal() {
+        return savings.sum();
+    }
+
+    // Total balance of attached checking accounts
+    public long getCheckingTotal() {
+        return checking.sum();
+    }
+
+    // Total balance of attached accounts owned by regular customers
+    public long getRegularTotal() {
+        return regular.sum();
+    }
+
+    // Total balance of attached accounts owned by premium customers
+    public long getPremiumTotal() {
+        return premium.sum();
+    }
+}
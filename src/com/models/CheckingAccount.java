@@ -18,11 +18,11 @@ package com.models;
  */
 public class CheckingAccount extends Account {
 
-    // Maximum amount the account can go into negative balance (overdraft)
-    private double overdraftLimit;
+    // Maximum amount in cents the account can go into negative balance (overdraft)
+    private long overdraftLimit;
 
-    // Monthly maintenance fee charged to the account
-    private double monthlyFee;
+    // Monthly maintenance fee in cents charged to the account
+    private long monthlyFee;
 
     /*
      * Default constructor that initializes a checking account with default values.
@@ -30,31 +30,71 @@ public class CheckingAccount extends Account {
      */
     CheckingAccount() {
         super();
-        this.overdraftLimit = 1000;
-        this.monthlyFee = 10;
+        this.overdraftLimit = Money.ofUnits(1000);
+        this.monthlyFee = Money.ofUnits(10);
+    }
+
+    // Constructor for a restored account with a known id; applies the same defaults.
+    CheckingAccount(int accountId) {
+        super(accountId);
+        this.overdraftLimit = Money.ofUnits(1000);
+        this.monthlyFee = Money.ofUnits(10);
     }
 
     /*
      * Constructs a checking account with a customer and initial balance.
      * Associates the customer and sets the initial balance and status.
      */
-    public CheckingAccount(Customer customer, double balance) {
+    public CheckingAccount(Customer customer, long balance) {
         this();
         setCustomer(customer);
         setBalance(balance);
-        setStatus("active");
+        setStatus(AccountStatus.ACTIVE);
+    }
+
+    /*
+     * Constructs a previously persisted account with its original id, customer and balance.
+     */
+    public CheckingAccount(int accountId, Customer customer, long balance) {
+        this(accountId);
+        setCustomer(customer);
+        setBalance(balance);
+        setStatus(AccountStatus.ACTIVE);
+    }
+
+    /*
+     * Constructs a previously persisted account with its original id, balance, status and terms.
+     * The overdraft limit and monthly fee are in cents.
+     */
+    public CheckingAccount(int accountId, Customer customer, long balance, AccountStatus status, long overdraftLimit,
+                           long monthlyFee) {
+        super(accountId);
+        this.overdraftLimit = overdraftLimit;
+        this.monthlyFee = monthlyFee;
+        setCustomer(customer);
+        setBalance(balance);
+        setStatus(status);
+    }
+
+    // Constructs a view of an account stored in an AccountTable, which holds its balance and status.
+    // The overdraft limit and monthly fee are in cents.
+    CheckingAccount(int accountId, long overdraftLimit, long monthlyFee, AccountTable table) {
+        super(accountId, table);
+        this.overdraftLimit = overdraftLimit;
+        this.monthlyFee = monthlyFee;
     }
 
     /*
      * Returns account-specific details including overdraft limit and monthly fee.
      */
     @Override
-    public String getAccountSpecificDetails() {
-        return String.format("Overdraft Limit: $%.2f MonthlyFee: $%.2f", getOverdraftLimit(), getMonthlyFee());
+    public StringBuilder appendAccountSpecificDetails(StringBuilder builder) {
+        Money.appendTo(builder.append("Overdraft Limit: $"), getOverdraftLimit());
+        return Money.appendTo(builder.append(" MonthlyFee: $"), getMonthlyFee());
     }
 
-    // Retrieves the overdraft limit for this checking account
-    public double getOverdraftLimit() {
+    // Retrieves the overdraft limit (in cents) for this checking account
+    public long getOverdraftLimit() {
         return this.overdraftLimit;
     }
 
@@ -66,32 +106,39 @@ public class CheckingAccount extends Account {
 
     // Returns the account type identifier
     @Override
-    public String getAccountType() {
-        return "Checking";
+    public AccountType getType() {
+        return AccountType.CHECKING;
     }
 
-    // Retrieves the monthly maintenance fee for this account
-    public double getMonthlyFee() {
+    // Retrieves the monthly maintenance fee (in cents) for this account
+    public long getMonthlyFee() {
         return this.monthlyFee;
     }
 
+    // Indicates whether the account holder's fees are waived (premium customers)
+    public boolean isFeeWaived() {
+        Customer holder = getAccountHolder();
+        return holder != null && holder.hasWaivedFees();
+    }
+
     /*
-     * Applies the monthly fee to the account.
-     * Note: Current implementation sets fee to -10 (placeholder).
+     * Debits the monthly fee as a FEE posting, subject to the overdraft limit.
+     * Returns the balance after the fee, or REJECTED if the fee is waived, zero, or would
+     * take the balance beyond the overdraft limit. Callers that record the fee should use
+     * the returned balance.
      */
-    public void applyMonthlyFee() {
-        this.monthlyFee = -10;
+    public long applyMonthlyFee() {
+        if (isFeeWaived()) return REJECTED;
+        return postTransaction(monthlyFee, TransactionType.FEE);
     }
 
     /*
      * Validates whether a withdrawal would exceed the overdraft limit.
-     * Checks if the absolute value of the balance after withdrawal would exceed the limit.
+     * Checks if the balance after withdrawal would fall below the negative overdraft limit.
+     * This is an advisory check; withdrawals re-check the limit atomically when applied.
      */
-    public boolean hasOverdraftLimitExceeded(double amount) {
-        double overdraftLimit = this.getOverdraftLimit();
-        double balance = getBalance();
-
-        if (Math.abs(balance - amount) > overdraftLimit) {
+    public boolean hasOverdraftLimitExceeded(long amount) {
+        if (Money.subtract(getBalance(), amount) < getWithdrawalFloor()) {
             System.out.println("You can't withdraw more than your overdraft limit");
             return true;
         }
@@ -102,12 +149,16 @@ public class CheckingAccount extends Account {
      * Processes a withdrawal transaction with overdraft protection.
      * Rejects withdrawal if overdraft limit would be exceeded.
      */
-    public void withdraw(double amount) {
-        double balance = getBalance();
-        if (hasOverdraftLimitExceeded(amount)) {
-            return;
+    public void withdraw(long amount) {
+        if (applyWithdrawal(amount) == REJECTED) {
+            System.out.println("You can't withdraw more than your overdraft limit");
         }
-        this.setBalance(balance - amount);
+    }
+
+    // Withdrawals may take the balance down to the negative overdraft limit
+    @Override
+    public long getWithdrawalFloor() {
+        return -overdraftLimit;
     }
 
     /*
@@ -116,31 +167,14 @@ public class CheckingAccount extends Account {
      */
     @Override
     public String toString() {
-        return String.format("Account Number: %s\n" +
-                        "Customer: %s\n" +
-                        "Account Type: %s\n" +
-                        "Initial Balance: %.2f\n" +
-                        "Overdraft Limit: %s\n" +
-                        "Monthly Fee: %s\n" +
-                        "Status: %s",
-                this.getAccountNumber(), this.getCustomer(), this.getAccountType(), this.getBalance(),
-                this.getOverdraftLimit(), (this.monthlyFee + " (WAIVED - Premium Customer)"), this.getStatus());
-    }
-
-    /*
-     * Processes a transaction with enhanced validation for checking accounts.
-     * Deposits are processed normally; withdrawals are validated against overdraft limit.
-     */
-    public boolean processTransactions(double amount, String type) {
-        if (type.equalsIgnoreCase("Deposit")) {
-            return deposit(amount);
-        } else if (type.equalsIgnoreCase("Withdrawal")) {
-            if (hasOverdraftLimitExceeded(amount)) {
-                return false;
-            }
-            withdraw(amount);
-            return true;
-        }
-        return false;
+        StringBuilder builder = new StringBuilder(160);
+        builder.append("Account Number: ").append(this.getAccountNumber())
+                .append("\nCustomer: ").append(this.getCustomer())
+                .append("\nAccount Type: ").append(this.getAccountType());
+        Money.appendTo(builder.append("\nInitial Balance: "), this.getBalance());
+        Money.appendTo(builder.append("\nOverdraft Limit: "), this.getOverdraftLimit());
+        Money.appendTo(builder.append("\nMonthly Fee: "), this.monthlyFee);
+        if (isFeeWaived()) builder.append(" (WAIVED - Premium Customer)");
+        return builder.append("\nStatus: ").append(this.getStatus()).toString();
     }
 }
@@ -1,12 +1,13 @@
 
 package com.models;
+import com.utilities.IdAllocator;
 
 /*
  * Abstract base class representing a customer in the bank account management system.
  *
  * This class provides the core structure for all customer types (Regular and Premium).
  * It maintains customer identification, personal information, and contact details.
- * Customer IDs are automatically generated in the format "CUS" followed by a sequential counter.
+ * Customer IDs are numeric, handed out by a thread-safe allocator, and displayed as "CUS" followed by the number.
  *
  * Customer information includes:
  * - Unique customer ID
@@ -21,8 +22,14 @@ package com.models;
  */
 public abstract class Customer {
 
-    // Unique identifier for the customer in format "CUS" + counter
-    private String customerId;
+    // Prefix of the display form of customer ids ("CUS" + numeric id)
+    public static final String CUSTOMER_ID_PREFIX = "CUS";
+
+    // Allocator handing out numeric customer ids
+    private static final IdAllocator customerIds = new IdAllocator(64);
+
+    // Unique numeric identifier; displayed as "CUS" + numericId
+    private final int numericId;
 
     // Customer's full name
     private String name;
@@ -36,16 +43,24 @@ public abstract class Customer {
     // Customer's physical address
     private String address;
 
-    // Static counter for generating unique customer IDs
-    static int customerCounter;
-
     /*
-     * Default constructor that initializes the customer and generates a unique customer ID.
-     * Increments the static customer counter to ensure each customer receives a unique identifier.
+     * Default constructor that initializes the customer with a unique numeric id.
      */
     Customer() {
-        setCustomerId();
-        customerCounter++;
+        this(customerIds.nextIntId());
+    }
+
+    // Constructs a customer with a known numeric id, used when restoring persisted customers.
+    Customer(int numericId) {
+        this.numericId = numericId;
+    }
+
+    /*
+     * Ensures that customers created from now on get ids above the given id.
+     * Called after restoring persisted customers so new ids never collide with them.
+     */
+    public static void reserveCustomerIdsThrough(int customerId) {
+        customerIds.advancePast(customerId);
     }
 
     /*
@@ -54,7 +69,7 @@ public abstract class Customer {
      */
     @Override
     public String toString() {
-        return String.format("%s ", this.getName());
+        return this.getName() + " ";
     }
 
     /*
@@ -69,14 +84,23 @@ public abstract class Customer {
         setAddress(address);
     }
 
-    // Retrieves the customer's unique identifier
+    // Constructs a previously persisted customer with its original numeric id.
+    Customer(int numericId, String name, int age, String contact, String address) {
+        this(numericId);
+        setName(name);
+        setAge(age);
+        setContact(contact);
+        setAddress(address);
+    }
+
+    // Retrieves the customer's unique identifier in its display form, e.g. "CUS7"
     public String getCustomerId() {
-        return this.customerId;
+        return CUSTOMER_ID_PREFIX + this.numericId;
     }
 
-    // Generates and sets a unique customer ID based on the current customer counter
-    public void setCustomerId() {
-        this.customerId = "CUS" + customerCounter;
+    // Retrieves the customer's numeric identifier
+    public int getNumericId() {
+        return this.numericId;
     }
 
     // Retrieves the customer's name
@@ -119,6 +143,14 @@ public abstract class Customer {
         this.address = address;
     }
 
+    /*
+     * Indicates whether account fees are waived for this customer.
+     * Regular customers pay fees; subclasses that waive them override this.
+     */
+    public boolean hasWaivedFees() {
+        return false;
+    }
+
     /*
      * Abstract method to return customer details for display purposes.
      * Subclasses should implement this to return a formatted representation of all customer information.
@@ -129,5 +161,5 @@ public abstract class Customer {
      * Abstract method to return the customer type identifier.
      * Subclasses must return their specific customer type (e.g., "Regular", "Premium").
      */
-    abstract String getCustomerType();
+    public abstract String getCustomerType();
 }
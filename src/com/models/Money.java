@@ -0,0 +1,140 @@
+package com.models;
+
+/*
+ * Fixed-point money arithmetic on long minor units (cents).
+ *
+ * All balances, amounts and limits in the system are plain long values holding cents,
+ * so $12.34 is stored as 1234. This class provides the operations on those values:
+ * overflow-checked addition and subtraction, rate multiplication with half-up rounding,
+ * and conversion to and from the "1234.56" text form used by the console.
+ *
+ * Nothing here allocates except the String-producing methods, which keeps the
+ * deposit/withdraw path free of BigDecimal or boxing while avoiding the rounding
+ * drift of double arithmetic.
+ */
+public final class Money {
+
+    // Number of minor units (cents) in one major unit (dollar)
+    public static final long CENTS_PER_UNIT = 100;
+
+    // Denominator for rates expressed in basis points (1 bp = 0.01%)
+    public static final long BASIS_POINTS = 10_000;
+
+    private Money() {
+    }
+
+    // Converts a whole number of dollars to cents.
+    public static long ofUnits(long units) {
+        return Math.multiplyExact(units, CENTS_PER_UNIT);
+    }
+
+    /*
+     * Adds two amounts.
+     * Throws ArithmeticException if the result does not fit in a long.
+     */
+    public static long add(long a, long b) {
+        return Math.addExact(a, b);
+    }
+
+    /*
+     * Subtracts b from a.
+     * Throws ArithmeticException if the result does not fit in a long.
+     */
+    public static long subtract(long a, long b) {
+        return Math.subtractExact(a, b);
+    }
+
+    /*
+     * Multiplies an amount by a rate given in basis points, rounding half away from zero.
+     * For example applyRate(100_000, 350) is 3.5% of $1,000.00 = 3500 cents.
+     * Throws ArithmeticException if the intermediate product overflows.
+     */
+    public static long applyRate(long amount, long basisPoints) {
+        long product = Math.multiplyExact(amount, basisPoints);
+        long quotient = product / BASIS_POINTS;
+        long remainder = product % BASIS_POINTS;
+        if (Math.abs(remainder) * 2 >= BASIS_POINTS) quotient += Long.signum(product);
+        return quotient;
+    }
+
+    /*
+     * Applies one period's share of an annual rate given in basis points, rounding half away from zero.
+     * For example applyRate(100_000, 350, 12) is one month of 3.5% a year on $1,000.00 = 292 cents.
+     * Throws ArithmeticException if the intermediate product overflows.
+     */
+    public static long applyRate(long amount, long basisPoints, int periodsPerYear) {
+        if (periodsPerYear < 1) throw new IllegalArgumentException("Periods per year must be positive: " + periodsPerYear);
+        long product = Math.multiplyExact(amount, basisPoints);
+        long divisor = BASIS_POINTS * periodsPerYear;
+        long quotient = product / divisor;
+        long remainder = product % divisor;
+        if (Math.abs(remainder) * 2 >= divisor) quotient += Long.signum(product);
+        return quotient;
+    }
+
+    /*
+     * Parses a decimal amount such as "250", "250.5" or "-12.34" into cents.
+     * At most two fractional digits are accepted.
+     * Throws NumberFormatException if the text is not a valid amount or is out of range.
+     */
+    public static long parse(CharSequence text) {
+        return parse(text, 0, text.length());
+    }
+
+    // Parses the amount in text[start, end); see parse(CharSequence).
+    public static long parse(CharSequence text, int start, int end) {
+        int i = start;
+        boolean negative = false;
+        if (end > start && (text.charAt(start) == '-' || text.charAt(start) == '+')) {
+            negative = text.charAt(start) == '-';
+            i++;
+        }
+        long units = 0;
+        int digits = 0;
+        for (; i < end && text.charAt(i) != '.'; i++, digits++) {
+            int d = digit(text, i);
+            if (units > (Long.MAX_VALUE / CENTS_PER_UNIT - d) / 10) throw new NumberFormatException("Amount out of range: " + text);
+            units = units * 10 + d;
+        }
+        long cents = 0;
+        int fractionDigits = 0;
+        if (i < end) {
+            for (i++; i < end; i++, fractionDigits++) {
+                if (fractionDigits == 2) throw new NumberFormatException("Too many decimal places: " + text);
+                cents = cents * 10 + digit(text, i);
+            }
+            if (fractionDigits == 1) cents *= 10;
+        }
+        if (digits + fractionDigits == 0) throw new NumberFormatException("Not an amount: " + text);
+        if (units == Long.MAX_VALUE / CENTS_PER_UNIT && cents > Long.MAX_VALUE % CENTS_PER_UNIT) {
+            throw new NumberFormatException("Amount out of range: " + text);
+        }
+        long value = units * CENTS_PER_UNIT + cents;
+        return negative ? -value : value;
+    }
+
+    // Formats an amount in cents as "1234.56" (with a leading '-' for negative amounts).
+    public static String format(long cents) {
+        return appendTo(new StringBuilder(24), cents).toString();
+    }
+
+    // Appends an amount in cents to the builder in "1234.56" form without creating a String.
+    public static StringBuilder appendTo(StringBuilder builder, long cents) {
+        long units = cents / CENTS_PER_UNIT;
+        long fraction = Math.abs(cents % CENTS_PER_UNIT);
+        if (cents < 0) {
+            builder.append('-');
+            units = -units;
+        }
+        builder.append(units).append('.');
+        if (fraction < 10) builder.append('0');
+        return builder.append(fraction);
+    }
+
+    // Returns the numeric value of the digit at the given position.
+    private static int digit(CharSequence text, int index) {
+        char c = text.charAt(index);
+        if (c < '0' || c > '9') throw new NumberFormatException("Not an amount: " + text);
+        return c - '0';
+    }
+}
@@ -18,8 +18,8 @@ package com.models;
  */
 public class PremiumCustomer extends Customer {
 
-    // Minimum balance required to maintain premium customer status
-    private double minimumBalance = 10000;
+    // Minimum balance in cents required to maintain premium customer status
+    private long minimumBalance = Money.ofUnits(10000);
 
     /*
      * Constructs a premium customer with the provided information.
@@ -29,8 +29,13 @@ public class PremiumCustomer extends Customer {
         super(name, age, contact, address);
     }
 
-    // Retrieves the minimum balance requirement for premium customers
-    public double getMinimumBalance() {
+    // Constructs a previously persisted premium customer with its original numeric id.
+    public PremiumCustomer(int customerId, String name, int age, String contact, String address) {
+        super(customerId, name, age, contact, address);
+    }
+
+    // Retrieves the minimum balance requirement (in cents) for premium customers
+    public long getMinimumBalance() {
         return this.minimumBalance;
     }
 
@@ -38,7 +43,7 @@ public class PremiumCustomer extends Customer {
      * Sets the minimum balance requirement for premium customers.
      * Allows flexibility in adjusting premium customer requirements if business rules change.
      */
-    public void setMinimumBalance(double minimumBalance) {
+    public void setMinimumBalance(long minimumBalance) {
         this.minimumBalance = minimumBalance;
     }
 
@@ -54,7 +59,7 @@ public class PremiumCustomer extends Customer {
      * Returns the customer type identifier.
      */
     @Override
-    String getCustomerType() {
+    public String getCustomerType() {
         return "Premium";
     }
 
@@ -62,6 +67,7 @@ public class PremiumCustomer extends Customer {
      * Indicates whether fees are waived for this premium customer.
      * Premium customers always have fees waived as a benefit of their status.
      */
+    @Override
     public boolean hasWaivedFees() {
         return true;
     }
@@ -22,6 +22,11 @@ public class RegularCustomer extends Customer {
         super(name, age, contact, address);
     }
 
+    // Constructs a previously persisted regular customer with its original numeric id.
+    public RegularCustomer(int customerId, String name, int age, String contact, String address) {
+        super(customerId, name, age, contact, address);
+    }
+
     /*
      * Returns this customer object for display purposes.
      */
@@ -34,7 +39,7 @@ public class RegularCustomer extends Customer {
      * Returns the customer type identifier.
      */
     @Override
-    String getCustomerType() {
+    public String getCustomerType() {
         return "regular";
     }
 }
@@ -9,42 +9,79 @@ package com.models;
  * ensure the minimum balance requirement is maintained.
  *
  * Key features:
- * - Annual interest rate of 3.5% (0.035)
+ * - Annual interest rate of 3.5% (350 basis points)
  * - Minimum balance requirement of $500
- * - Withdrawals cannot reduce balance below $0
  * - Withdrawals must maintain the minimum balance requirement
  *
- * Withdrawal validation ensures that:
- * 1. The balance does not go below $0
- * 2. The balance after withdrawal meets the minimum balance requirement
+ * Withdrawal validation ensures that the balance after withdrawal meets the minimum
+ * balance requirement; the check and the update are a single atomic step (see Account).
  */
 public class SavingsAccount extends Account {
 
-    // Annual interest rate as a decimal (0.035 = 3.5%)
-    private double interestRate;
+    // Annual interest rate in basis points (350 = 3.5%)
+    private long interestRate;
 
-    // Minimum balance that must be maintained in the account
-    private double minimumBalance;
+    // Minimum balance in cents that must be maintained in the account
+    private long minimumBalance;
 
     /*
      * Default constructor that initializes a savings account with default values.
-     * Sets interest rate to 3.5% (0.035) and minimum balance to $500.
+     * Sets interest rate to 3.5% (350 basis points) and minimum balance to $500.
      */
     SavingsAccount() {
         super();
-        this.interestRate = 0.035;
-        this.minimumBalance = 500;
+        this.interestRate = 350;
+        this.minimumBalance = Money.ofUnits(500);
+    }
+
+    // Constructor for a restored account with a known id; applies the same defaults.
+    SavingsAccount(int accountId) {
+        super(accountId);
+        this.interestRate = 350;
+        this.minimumBalance = Money.ofUnits(500);
     }
 
     /*
      * Constructs a savings account with a customer and initial balance.
      * Associates the customer and sets the initial balance and status.
      */
-    public SavingsAccount(Customer customer, double balance) {
+    public SavingsAccount(Customer customer, long balance) {
         this();
         setCustomer(customer);
         setBalance(balance);
-        setStatus("active");
+        setStatus(AccountStatus.ACTIVE);
+    }
+
+    /*
+     * Constructs a previously persisted account with its original id, customer and balance.
+     */
+    public SavingsAccount(int accountId, Customer customer, long balance) {
+        this(accountId);
+        setCustomer(customer);
+        setBalance(balance);
+        setStatus(AccountStatus.ACTIVE);
+    }
+
+    /*
+     * Constructs a previously persisted account with its original id, balance, status and terms.
+     * The interest rate is in basis points and the minimum balance in cents.
+     */
+    public SavingsAccount(int accountId, Customer customer, long balance, AccountStatus status, long interestRate,
+                          long minimumBalance) {
+        super(accountId);
+        this.interestRate = interestRate;
+        this.minimumBalance = minimumBalance;
+        setCustomer(customer);
+        setBalance(balance);
+        setStatus(status);
+    }
+
+    // Constructs a view of an account stored in an AccountTable, which holds its balance and status.
+    // The interest rate is in basis points and the minimum balance in cents.
+    SavingsAccount(int accountId, long interestRate, long minimumBalance, AccountTable table) {
+        super(accountId, table);
+        this.interestRate = interestRate;
+        this.minimumBalance = minimumBalance;
     }
 
     // Returns a formatted string containing all account details
@@ -55,48 +92,70 @@ public class SavingsAccount extends Account {
 
     // Returns the account type identifier
     @Override
-    public String getAccountType() {
-        return "Savings";
+    public AccountType getType() {
+        return AccountType.SAVINGS;
     }
 
     /*
      * Processes a withdrawal transaction with balance validation.
-     * Ensures the balance does not go below zero.
+     * Ensures the balance does not go below the minimum balance.
      */
     @Override
-    public void withdraw(double amount) {
-        double balance = getBalance();
-        if (balance != 0 && (balance - amount < 0)) {
-            System.out.println("You can't withdraw below a balance of 0");
-            return;
-        } else {
-            setBalance(balance - amount);
+    public void withdraw(long amount) {
+        if (applyWithdrawal(amount) == REJECTED) {
+            System.out.println("You can't withdraw below the minimum balance");
         }
     }
 
+    // Withdrawals may not take the balance below the minimum balance
+    @Override
+    public long getWithdrawalFloor() {
+        return minimumBalance;
+    }
+
     /*
      * Calculates the interest that would be earned on the current balance.
-     * Simple interest calculation based on balance and interest rate.
+     * Simple interest calculation based on balance and interest rate, rounded to the cent.
+     */
+    public long calculateInterest() {
+        return Money.applyRate(getBalance(), this.interestRate);
+    }
+
+    /*
+     * Interest for one month: a twelfth of the annual rate on the current balance, rounded to
+     * the cent. Negative balances earn nothing.
      */
-    public double calculateInterest() {
-        double balance = getBalance();
-        return balance * this.interestRate;
+    public long calculateMonthlyInterest() {
+        long balance = getBalance();
+        return balance <= 0 ? 0 : Money.applyRate(balance, this.interestRate, 12);
+    }
+
+    // Retrieves the annual interest rate in basis points (350 = 3.5%)
+    public long getInterestRateBasisPoints() {
+        return interestRate;
     }
 
     // Returns the interest rate as a formatted percentage string
     private String getInterestRate() {
-        return String.format("%.1f%%", interestRate * 100);
+        return appendInterestRate(new StringBuilder(8)).toString();
+    }
+
+    // Appends the interest rate as a percentage with one decimal, e.g. "3.5%"
+    private StringBuilder appendInterestRate(StringBuilder builder) {
+        long tenths = (interestRate + 5) / 10;
+        return builder.append(tenths / 10).append('.').append(tenths % 10).append('%');
     }
 
-    // Retrieves the minimum balance requirement for this savings account
-    public double getMinimumBalance() {
+    // Retrieves the minimum balance requirement (in cents) for this savings account
+    public long getMinimumBalance() {
         return minimumBalance;
     }
 
     // Returns account-specific details including interest rate and minimum balance
     @Override
-    public String getAccountSpecificDetails() {
-        return String.format("Interest Rate: %s Min Balance:$ %.2f", getInterestRate(), getMinimumBalance());
+    public StringBuilder appendAccountSpecificDetails(StringBuilder builder) {
+        appendInterestRate(builder.append("Interest Rate: "));
+        return Money.appendTo(builder.append(" Min Balance:$ "), getMinimumBalance());
     }
 
     /*
@@ -105,30 +164,13 @@ public class SavingsAccount extends Account {
      */
     @Override
     public String toString() {
-        return String.format("Account Number: %s\n" +
-                        "Customer: %s\n" +
-                        "Account Type: %s\n" +
-                        "Initial Balance: %.2f\n" +
-                        "Interest Rate: %.1f%%\n" +
-                        "Minimum Balance: %s\n" +
-                        "Status: %s",
-                this.getAccountNumber(), this.getCustomer(), this.getAccountType(), this.getBalance(),
-                (this.interestRate * 100), this.minimumBalance, this.getStatus());
-    }
-
-    /*
-     * Processes a transaction with minimum balance validation for savings accounts.
-     * Deposits are processed normally; withdrawals must maintain minimum balance.
-     */
-    public boolean processTransactions(double amount, String type) {
-        if ("Deposit".equalsIgnoreCase(type)) {
-            return deposit(amount);
-        } else if ("Withdrawal".equalsIgnoreCase(type)) {
-            if (getBalance() - amount >= getMinimumBalance()) {
-                withdraw(amount);
-                return true;
-            } else return false;
-        }
-        return false;
+        StringBuilder builder = new StringBuilder(160);
+        builder.append("Account Number: ").append(this.getAccountNumber())
+                .append("\nCustomer: ").append(this.getCustomer())
+                .append("\nAccount Type: ").append(this.getAccountType());
+        Money.appendTo(builder.append("\nInitial Balance: "), this.getBalance());
+        appendInterestRate(builder.append("\nInterest Rate: "));
+        Money.appendTo(builder.append("\nMinimum Balance: "), this.minimumBalance);
+        return builder.append("\nStatus: ").append(this.getStatus()).toString();
     }
 }
@@ -18,9 +18,9 @@ public interface Transactable {
      * rules before executing. For withdrawals, this may include checking minimum balance
      * requirements, overdraft limits, or other account-specific constraints.
      *
-     * @param amount The transaction amount. Must be positive for both deposits and withdrawals.
-     * @param type The transaction type, case-insensitive. Expected values: "Deposit" or "Withdrawal"
+     * @param amount The transaction amount in cents. Must be positive for both deposits and withdrawals.
+     * @param type The kind of posting, e.g. TransactionType.DEPOSIT or TransactionType.WITHDRAWAL
      * @return true if the transaction was processed successfully, false otherwise
      */
-    boolean processTransactions(double amount, String type);
+    boolean processTransactions(long amount, TransactionType type);
 }
@@ -1,6 +1,7 @@
 
 package com.models;
-import java.time.LocalDateTime;
+import java.time.Instant;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 
 /*
@@ -12,26 +13,33 @@ import java.time.format.DateTimeFormatter;
  */
 public class Transaction {
 
-    // Static counter for generating unique transaction IDs
-    static int transactionCounter;
+    // Shared, thread-safe formatter for transaction timestamps
+    private static final DateTimeFormatter TIMESTAMP_FORMAT =
+            DateTimeFormatter.ofPattern("dd-MM-yyyy HH:mm:ss").withZone(ZoneId.systemDefault());
 
-    // Unique identifier for this transaction in format "TNX00" + counter
-    private String transactionId;
+    // Prefix of the display form of transaction ids ("TNX00" + sequence id)
+    public static final String TRANSACTION_ID_PREFIX = "TNX00";
 
-    // Transaction type: "Deposit" or "Withdrawal"
-    private String type;
+    // Sequence id assigned by the transaction log; displayed as "TNX00" + sequenceId
+    private final long sequenceId;
 
-    // Account number associated with this transaction
-    private String accountNumber;
+    // Kind of posting, e.g. deposit or withdrawal
+    private TransactionType type;
 
-    // Transaction amount in dollars
-    private double amount;
+    // Numeric id of the account associated with this transaction
+    private int accountId;
 
-    // Account balance after this transaction was processed
-    private double balanceAfter;
+    // Transaction amount in cents
+    private long amount;
 
-    // Timestamp when the transaction occurred (formatted as string)
-    private String timeStamp;
+    // Account balance in cents after this transaction was processed
+    private long balanceAfter;
+
+    // Time the transaction occurred, in epoch milliseconds; formatted only when displayed
+    private long epochMillis;
+
+    // Type-specific reference, e.g. the period (yyyyMM) of an interest posting; 0 if unused
+    private final long reference;
 
     /*
      * Returns a string representation of the transaction.
@@ -42,31 +50,36 @@ public class Transaction {
         return String.format("%s", getAccountNumber());
     }
 
-    // Retrieves the unique transaction identifier
+    // Retrieves the unique transaction identifier in its display form, e.g. "TNX0012"
     public String getTransactionId() {
-        return transactionId;
+        return TRANSACTION_ID_PREFIX + sequenceId;
     }
 
-    // Generates a unique transaction ID based on the current transaction counter
-    private void generateUniqueId() {
-        this.transactionId = "TNX00" + transactionCounter;
+    // Retrieves the numeric sequence id of this transaction
+    public long getSequenceId() {
+        return this.sequenceId;
     }
 
     /*
      * Retrieves the transaction type.
      * Note: There is a typo in the method name (TranssactionType instead of TransactionType).
      */
-    public String getTranssactionType() {
+    public TransactionType getTranssactionType() {
         return type;
     }
 
     // Retrieves the account number associated with this transaction
     public String getAccountNumber() {
-        return this.accountNumber;
+        return Account.formatAccountNumber(this.accountId);
+    }
+
+    // Retrieves the numeric id of the account associated with this transaction
+    public int getAccountId() {
+        return this.accountId;
     }
 
-    // Retrieves the transaction amount
-    public double getAmount() {
+    // Retrieves the transaction amount in cents
+    public long getAmount() {
         return this.amount;
     }
 
@@ -74,65 +87,78 @@ public class Transaction {
      * Retrieves the account balance after this transaction was processed.
      * Represents the account's balance immediately after the transaction.
      */
-    public double getBalanceAfter() {
+    public long getBalanceAfter() {
         return this.balanceAfter;
     }
 
     // Retrieves the transaction type
-    public String getType() {
+    public TransactionType getType() {
         return this.type;
     }
 
-    // Retrieves the timestamp when the transaction occurred
+    // Retrieves the time the transaction occurred, formatted as "dd-MM-yyyy HH:mm:ss"
     public String getTimeStamp() {
-        return this.timeStamp;
+        return formatTimestamp(this.epochMillis);
+    }
+
+    // Retrieves the type-specific reference (e.g. the yyyyMM period of an interest posting), 0 if unused
+    public long getReference() {
+        return this.reference;
+    }
+
+    // Retrieves the time the transaction occurred in epoch milliseconds
+    public long getEpochMillis() {
+        return this.epochMillis;
     }
 
-    // Sets the account number associated with this transaction
-    private void setAccountNumber(String accountNumber) {
-        this.accountNumber = accountNumber;
+    // Sets the account associated with this transaction
+    private void setAccountId(int accountId) {
+        this.accountId = accountId;
     }
 
     // Sets the transaction amount
-    private void setAmount(double amount) {
+    private void setAmount(long amount) {
         this.amount = amount;
     }
 
     // Sets the account balance after the transaction
-    private void setBalanceAfter(double balanceAfter) {
+    private void setBalanceAfter(long balanceAfter) {
         this.balanceAfter = balanceAfter;
     }
 
     // Sets the transaction type
-    private void setType(String type) {
+    private void setType(TransactionType type) {
         this.type = type;
     }
 
-    /*
-     * Default constructor that initializes a transaction and generates a unique ID.
-     * Increments the static transaction counter.
-     */
-    Transaction() {
-        generateUniqueId();
-        transactionCounter++;
-    }
-
-    // Sets the timestamp for when the transaction occurred
-    private void setTimeStamp(String dateTime) {
-        this.timeStamp = dateTime;
+    // Sets the time the transaction occurred, in epoch milliseconds
+    private void setEpochMillis(long epochMillis) {
+        this.epochMillis = epochMillis;
     }
 
     /*
      * Constructs a transaction with all required information.
-     * Creates a new transaction record with the provided details.
+     * The sequence id is assigned by the transaction log that stores the posting.
      */
-    public Transaction(String accountNumber, String type, double amount, double balanceAfter, String dateTime) {
-        this();
-        setAccountNumber(accountNumber);
+    public Transaction(long sequenceId, int accountId, TransactionType type, long amount, long balanceAfter, long epochMillis) {
+        this(sequenceId, accountId, type, amount, balanceAfter, epochMillis, 0);
+    }
+
+    // Constructs a transaction that carries a type-specific reference.
+    public Transaction(long sequenceId, int accountId, TransactionType type, long amount, long balanceAfter, long epochMillis,
+                       long reference) {
+        this.sequenceId = sequenceId;
+        this.reference = reference;
+        setAccountId(accountId);
         setAmount(amount);
         setType(type);
         setBalanceAfter(balanceAfter);
-        setTimeStamp(dateTime);
+        setEpochMillis(epochMillis);
+    }
+
+    // Formats an epoch timestamp (milliseconds) in the display format "dd-MM-yyyy HH:mm:ss"
+    public static String formatTimestamp(long epochMillis) {
+        return TIMESTAMP_FORMAT.format(Instant.ofEpochMilli(epochMillis));
     }
 
     /*
@@ -0,0 +1,85 @@
+package com.models;
+
+/*
+ * Kind of a posting, used everywhere below the user interface instead of type names.
+ *
+ * Each kind carries the one-byte code it is stored under in the transaction log, the
+ * write-ahead log and snapshots, the label shown to users, and whether it credits or debits
+ * the account; every debit must respect the account's withdrawal floor. Codes
+ * are part of the on-disk formats: never renumber a kind, only add new ones. Code 0 is
+ * reserved for "not yet written" slots of the transaction log.
+ */
+public enum TransactionType {
+
+    DEPOSIT(1, "Deposit", true),
+    WITHDRAWAL(2, "Withdrawal", false),
+    TRANSFER_IN(3, "Transfer In", true),
+    TRANSFER_OUT(4, "Transfer Out", false),
+    // Fees respect the overdraft limit; a fee the account cannot cover is not posted
+    FEE(5, "Fee", false),
+    INTEREST(6, "Interest", true);
+
+    // All kinds, without the copy values() makes on every call
+    private static final TransactionType[] VALUES = values();
+
+    // Kinds indexed by code, for decoding stored postings without a search
+    private static final TransactionType[] BY_CODE = new TransactionType[16];
+
+    static {
+        for (TransactionType type : VALUES) BY_CODE[type.code] = type;
+    }
+
+    private final byte code;
+    private final String label;
+    private final boolean credit;
+
+    TransactionType(int code, String label, boolean credit) {
+        this.code = (byte) code;
+        this.label = label;
+        this.credit = credit;
+    }
+
+    // Code the kind is stored under
+    public byte getCode() {
+        return code;
+    }
+
+    // Display name, e.g. "Deposit"
+    public String getLabel() {
+        return label;
+    }
+
+    // True if the posting adds to the balance, false if it subtracts from it
+    public boolean isCredit() {
+        return credit;
+    }
+
+    // Returns the kind stored under the given code; throws IllegalArgumentException for unknown codes.
+    public static TransactionType fromCode(byte code) {
+        TransactionType type = code > 0 && code < BY_CODE.length ? BY_CODE[code] : null;
+        if (type == null) throw new IllegalArgumentException("Unknown transaction type code: " + code);
+        return type;
+    }
+
+    // Returns the kind with the given label (case-insensitive), or null if there is none.
+    public static TransactionType parse(String label) {
+        return parse(label, 0, label.length());
+    }
+
+    // Returns the kind whose label is text[start, end) (case-insensitive), or null; creates no Strings.
+    public static TransactionType parse(CharSequence text, int start, int end) {
+        for (TransactionType type : VALUES) {
+            String label = type.label;
+            if (label.length() != end - start) continue;
+            int i = 0;
+            while (i < label.length() && Character.toUpperCase(text.charAt(start + i)) == Character.toUpperCase(label.charAt(i))) i++;
+            if (i == label.length()) return type;
+        }
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+}
@@ -0,0 +1,560 @@
+package com.persistence;
+
+import com.models.*;
+import com.utilities.IdTable;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/*
+ * Compact binary snapshot of the account table and the transaction log.
+ *
+ * A snapshot records the state of the bank up to a write-ahead log LSN; recovery loads it
+ * and only replays log records from that LSN on. The file is written to a temporary name,
+ * fsynced and then atomically renamed to "accounts.snapshot", so a crash leaves either the
+ * old or the new snapshot, never a partial one.
+ *
+ * Layout (big-endian, fixed-width records indexed by numeric id):
+ *
+ *   header       HEADER_BYTES        magic, version, LSN, counts, section offsets and balance totals
+ *   accounts     32 bytes per id     type, status, customer id, balance, two type-specific terms
+ *                                    (savings: minimum balance, interest rate in basis points;
+ *                                     checking: overdraft limit, monthly fee); type 0 = no account
+ *   customers    16 bytes per id     tier, age, offset of its strings; tier 0 = no customer
+ *   transactions one column each     account id, type, amount, balance after, timestamp, reference
+ *                                    (slot order; version 1 files have no reference column)
+ *   strings      per customer        name, contact, address as u16 length + UTF-8
+ *   by customer  4 bytes per id + 4  start of each customer's run in the account id column
+ *                4 bytes per account account ids grouped by customer, ascending within a customer
+ *
+ * Loading maps the file with MappedByteBuffers and reads nothing up front. Accounts and
+ * customers are materialized on first access with readAccount, which costs one record read,
+ * so a bank with millions of accounts serves lookups as soon as the file is mapped.
+ * The accounts of each customer are recorded as well, so accountIdsOf answers without
+ * materializing any account; version 1 and 2 files (128-byte header) have no such index.
+ * From version 4 the header also holds the balance totals by account type and customer
+ * tier, so the bank's totals are known without materializing any account either.
+ * Reads are absolute and the snapshot is safe to use from several threads.
+ */
+public final class AccountSnapshot {
+
+    // Name of the snapshot file inside the data directory
+    public static final String FILE_NAME = "accounts.snapshot";
+
+    // Columns of the transaction log that a snapshot records
+    public interface TransactionColumns {
+        int size();
+
+        int accountIdAt(int slot);
+
+        byte typeAt(int slot);
+
+        long amountAt(int slot);
+
+        long balanceAfterAt(int slot);
+
+        long timestampAt(int slot);
+
+        long referenceAt(int slot);
+    }
+
+    private static final int MAGIC = 0x424B534E; // "BKSN"
+    private static final int VERSION = 4;
+    private static final int HEADER_BYTES = 256;
+    private static final int ACCOUNT_RECORD = 32;
+    private static final int CUSTOMER_RECORD = 16;
+
+    // Header size of version 1 and 2 files
+    private static final int V2_HEADER_BYTES = 128;
+
+    // Account type codes
+    private static final byte SAVINGS = AccountType.SAVINGS.getCode();
+    private static final byte CHECKING = AccountType.CHECKING.getCode();
+
+    // Customer tier codes
+    private static final byte REGULAR = 1;
+    private static final byte PREMIUM = 2;
+
+    // Sections are mapped in windows of this size; record sizes divide it, so no record straddles two
+    private static final int CHUNK_BITS = 30;
+    private static final long CHUNK_BYTES = 1L << CHUNK_BITS;
+
+    // Size of the buffer used while writing
+    private static final int WRITE_BUFFER_BYTES = 1 << 20;
+
+    // Filler for ids without an account or customer
+    private static final byte[] EMPTY_RECORD = new byte[ACCOUNT_RECORD];
+
+    // Read-only view over one section of the mapped file
+    private static final class Section {
+        private final ByteBuffer[] chunks;
+
+        Section(FileChannel channel, long offset, long length) throws IOException {
+            chunks = new ByteBuffer[(int) ((length + CHUNK_BYTES - 1) >>> CHUNK_BITS)];
+            for (int i = 0; i < chunks.length; i++) {
+                long start = (long) i << CHUNK_BITS;
+                chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, offset + start, Math.min(CHUNK_BYTES, length - start));
+            }
+        }
+
+        byte get(long position) {
+            return chunks[(int) (position >>> CHUNK_BITS)].get((int) (position & (CHUNK_BYTES - 1)));
+        }
+
+        short getShort(long position) {
+            return chunks[(int) (position >>> CHUNK_BITS)].getShort((int) (position & (CHUNK_BYTES - 1)));
+        }
+
+        int getInt(long position) {
+            return chunks[(int) (position >>> CHUNK_BITS)].getInt((int) (position & (CHUNK_BYTES - 1)));
+        }
+
+        long getLong(long position) {
+            return chunks[(int) (position >>> CHUNK_BITS)].getLong((int) (position & (CHUNK_BYTES - 1)));
+        }
+
+        void get(long position, byte[] target) {
+            chunks[(int) (position >>> CHUNK_BITS)].get((int) (position & (CHUNK_BYTES - 1)), target);
+        }
+    }
+
+    private final long lsn;
+    private final int accountSlots;
+    private final int customerSlots;
+    private final int accountCount;
+    private final int transactionCount;
+
+    private final Section accounts;
+    private final Section customers;
+    private final Section transactionAccountIds;
+    private final Section transactionTypes;
+    private final Section transactionAmounts;
+    private final Section transactionBalancesAfter;
+    private final Section transactionTimestamps;
+    private final Section transactionReferences;
+    private final Section strings;
+
+    // Accounts of each customer; null in files before version 3
+    private final Section customerStarts;
+    private final Section accountsByCustomer;
+
+    // Balance totals in cents by account type and customer tier; see hasBalanceTotals
+    private final boolean balanceTotals;
+    private final long savingsTotal;
+    private final long checkingTotal;
+    private final long regularTotal;
+    private final long premiumTotal;
+
+    // Customers materialized so far, so accounts of the same customer share one object
+    private final IdTable<Customer> loadedCustomers = new IdTable<>();
+
+    private AccountSnapshot(FileChannel channel, ByteBuffer header, int version) throws IOException {
+        lsn = header.getLong(8);
+        accountSlots = header.getInt(16);
+        customerSlots = header.getInt(20);
+        accountCount = header.getInt(24);
+        transactionCount = header.getInt(28);
+        long[] offsets = new long[12];
+        if (version == 1) {
+            // No reference column: the string section offset and length sit one slot earlier
+            for (int i = 0; i < 7; i++) offsets[i] = header.getLong(32 + 8 * i);
+            offsets[8] = header.getLong(32 + 8 * 7);
+            offsets[9] = header.getLong(32 + 8 * 8);
+        } else {
+            int sections = version == 2 ? 10 : offsets.length;
+            for (int i = 0; i < sections; i++) offsets[i] = header.getLong(32 + 8 * i);
+        }
+        if (offsets[8] + offsets[9] > channel.size()) throw new IOException("Snapshot file is truncated");
+        if (version >= 3 && offsets[11] + (long) accountCount * 4 > channel.size()) {
+            throw new IOException("Snapshot file is truncated");
+        }
+        long n = transactionCount;
+        accounts = new Section(channel, offsets[0], (long) accountSlots * ACCOUNT_RECORD);
+        customers = new Section(channel, offsets[1], (long) customerSlots * CUSTOMER_RECORD);
+        transactionAccountIds = new Section(channel, offsets[2], n * 4);
+        transactionTypes = new Section(channel, offsets[3], n);
+        transactionAmounts = new Section(channel, offsets[4], n * 8);
+        transactionBalancesAfter = new Section(channel, offsets[5], n * 8);
+        transactionTimestamps = new Section(channel, offsets[6], n * 8);
+        transactionReferences = version == 1 ? null : new Section(channel, offsets[7], n * 8);
+        strings = new Section(channel, offsets[8], offsets[9]);
+        if (version >= 3) {
+            customerStarts = new Section(channel, offsets[10], ((long) customerSlots + 1) * 4);
+            accountsByCustomer = new Section(channel, offsets[11], (long) accountCount * 4);
+        } else {
+            customerStarts = null;
+            accountsByCustomer = null;
+        }
+        balanceTotals = version >= 4;
+        savingsTotal = balanceTotals ? header.getLong(128) : 0;
+        checkingTotal = balanceTotals ? header.getLong(136) : 0;
+        regularTotal = balanceTotals ? header.getLong(144) : 0;
+        premiumTotal = balanceTotals ? header.getLong(152) : 0;
+    }
+
+    /*
+     * Maps the snapshot in the directory, or returns null if there is none.
+     * The mapping stays valid after the file is replaced by a newer snapshot.
+     */
+    public static AccountSnapshot open(Path directory) throws IOException {
+        Path file = directory.resolve(FILE_NAME);
+        if (!Files.exists(file)) return null;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            while (header.hasRemaining() && channel.read(header) > 0) {
+                // read until the header is complete or the file ends
+            }
+            if (header.position() < V2_HEADER_BYTES || header.getInt(0) != MAGIC) {
+                throw new IOException("Not an account snapshot: " + file);
+            }
+            int version = header.getInt(4);
+            if (version < 1 || version > VERSION) throw new IOException("Unsupported snapshot version " + version);
+            if (version >= 3 && header.hasRemaining()) throw new IOException("Snapshot file is truncated");
+            return new AccountSnapshot(channel, header, version);
+        }
+    }
+
+    // Returns the LSN of the first write-ahead log record not covered by this snapshot.
+    public long getLsn() {
+        return lsn;
+    }
+
+    // Returns the number of accounts in the snapshot.
+    public int getAccountCount() {
+        return accountCount;
+    }
+
+    // Returns one more than the highest account id in the snapshot (0 if it holds no accounts).
+    public int getAccountSlots() {
+        return accountSlots;
+    }
+
+    // Returns one more than the highest customer id in the snapshot (0 if it holds no customers).
+    public int getCustomerSlots() {
+        return customerSlots;
+    }
+
+    // True if the header records the balance totals below (version 4 and later).
+    public boolean hasBalanceTotals() {
+        return balanceTotals;
+    }
+
+    // Total balance (in cents) of the snapshot's savings accounts; 0 without balance totals.
+    public long getSavingsTotal() {
+        return savingsTotal;
+    }
+
+    // Total balance (in cents) of the snapshot's checking accounts; 0 without balance totals.
+    public long getCheckingTotal() {
+        return checkingTotal;
+    }
+
+    // Total balance (in cents) of the snapshot's accounts held by regular customers; 0 without balance totals.
+    public long getRegularTotal() {
+        return regularTotal;
+    }
+
+    // Total balance (in cents) of the snapshot's accounts held by premium customers; 0 without balance totals.
+    public long getPremiumTotal() {
+        return premiumTotal;
+    }
+
+    /*
+     * Returns the ids of the snapshot's accounts held by the customer, in ascending order, without
+     * materializing them; an empty array if it holds none, and null if the snapshot predates the
+     * customer index (version 1 and 2 files).
+     */
+    public int[] accountIdsOf(int customerId) {
+        if (customerStarts == null) return null;
+        if (customerId < 0 || customerId >= customerSlots) return new int[0];
+        int start = customerStarts.getInt((long) customerId * 4);
+        int end = customerStarts.getInt((long) customerId * 4 + 4);
+        int[] ids = new int[end - start];
+        for (int i = 0; i < ids.length; i++) ids[i] = accountsByCustomer.getInt((long) (start + i) * 4);
+        return ids;
+    }
+
+    // Returns the number of transaction log slots in the snapshot.
+    public int getTransactionCount() {
+        return transactionCount;
+    }
+
+    // Transaction column readers; a type of 0 marks a slot that held no transaction.
+    public int transactionAccountIdAt(int slot) {
+        return transactionAccountIds.getInt((long) slot * 4);
+    }
+
+    public byte transactionTypeAt(int slot) {
+        return transactionTypes.get(slot);
+    }
+
+    public long transactionAmountAt(int slot) {
+        return transactionAmounts.getLong((long) slot * 8);
+    }
+
+    public long transactionBalanceAfterAt(int slot) {
+        return transactionBalancesAfter.getLong((long) slot * 8);
+    }
+
+    public long transactionTimestampAt(int slot) {
+        return transactionTimestamps.getLong((long) slot * 8);
+    }
+
+    public long transactionReferenceAt(int slot) {
+        return transactionReferences == null ? 0 : transactionReferences.getLong((long) slot * 8);
+    }
+
+    /*
+     * Materializes the account with the given id, or returns null if the snapshot has none.
+     * Every call creates a new Account; callers keep the first one (see AccountManagement).
+     */
+    public Account readAccount(int accountId) {
+        if (accountId < 0 || accountId >= accountSlots) return null;
+        long record = (long) accountId * ACCOUNT_RECORD;
+        byte type = accounts.get(record);
+        if (type == 0) return null;
+        AccountStatus status = AccountStatus.fromCode(accounts.get(record + 1));
+        Customer customer = readCustomer(accounts.getInt(record + 4));
+        long balance = accounts.getLong(record + 8);
+        long firstTerm = accounts.getLong(record + 16);
+        long secondTerm = accounts.getLong(record + 24);
+        return type == SAVINGS
+                ? new SavingsAccount(accountId, customer, balance, status, secondTerm, firstTerm)
+                : new CheckingAccount(accountId, customer, balance, status, firstTerm, secondTerm);
+    }
+
+    // Returns the type of the account with the given id without materializing it; null if the snapshot has none.
+    public AccountType accountTypeAt(int accountId) {
+        if (accountId < 0 || accountId >= accountSlots) return null;
+        byte type = accounts.get((long) accountId * ACCOUNT_RECORD);
+        return type == 0 ? null : AccountType.fromCode(type);
+    }
+
+    // Returns the status of the account with the given id without materializing it; null if the snapshot has none.
+    public AccountStatus accountStatusAt(int accountId) {
+        if (accountId < 0 || accountId >= accountSlots) return null;
+        long record = (long) accountId * ACCOUNT_RECORD;
+        return accounts.get(record) == 0 ? null : AccountStatus.fromCode(accounts.get(record + 1));
+    }
+
+    // Returns the customer with the given id, materializing it once; null if the snapshot has none.
+    public Customer readCustomer(int customerId) {
+        if (customerId < 0 || customerId >= customerSlots) return null;
+        Customer customer = loadedCustomers.get(customerId);
+        if (customer != null) return customer;
+        long record = (long) customerId * CUSTOMER_RECORD;
+        byte tier = customers.get(record);
+        if (tier == 0) return null;
+        int age = customers.getInt(record + 4);
+        long position = customers.getLong(record + 8);
+        String name = readString(position);
+        position += 2 + utf8Length(position);
+        String contact = readString(position);
+        position += 2 + utf8Length(position);
+        String address = readString(position);
+        customer = tier == PREMIUM
+                ? new PremiumCustomer(customerId, name, age, contact, address)
+                : new RegularCustomer(customerId, name, age, contact, address);
+        loadedCustomers.putIfAbsent(customerId, customer);
+        return loadedCustomers.get(customerId);
+    }
+
+    /*
+     * Writes a snapshot of the given accounts and transactions, covering the write-ahead log up to
+     * (but not including) lsn, and atomically replaces the previous snapshot in the directory.
+     * Accounts must be ordered by id. Callers must make sure no postings run while it is written.
+     */
+    public static void write(Path directory, long lsn, Account[] accountTable, TransactionColumns transactions)
+            throws IOException {
+        Files.createDirectories(directory);
+        int accountSlots = accountTable.length == 0 ? 0 : accountTable[accountTable.length - 1].getAccountId() + 1;
+        int customerSlots = 0;
+        for (Account account : accountTable) {
+            customerSlots = Math.max(customerSlots, account.getAccountHolder().getNumericId() + 1);
+        }
+        Customer[] customerTable = new Customer[customerSlots];
+        // Run starts of the by-customer account column: counts first, then prefix sums
+        int[] customerStarts = new int[customerSlots + 1];
+        for (Account account : accountTable) {
+            Customer customer = account.getAccountHolder();
+            customerTable[customer.getNumericId()] = customer;
+            customerStarts[customer.getNumericId() + 1]++;
+        }
+        for (int i = 0; i < customerSlots; i++) customerStarts[i + 1] += customerStarts[i];
+        int[] accountsByCustomer = new int[accountTable.length];
+        int[] fill = Arrays.copyOf(customerStarts, customerSlots);
+        for (Account account : accountTable) {
+            accountsByCustomer[fill[account.getAccountHolder().getNumericId()]++] = account.getAccountId();
+        }
+        long n = transactions.size();
+
+        long[] offsets = new long[12];
+        offsets[0] = HEADER_BYTES;
+        offsets[1] = offsets[0] + (long) accountSlots * ACCOUNT_RECORD;
+        offsets[2] = offsets[1] + (long) customerSlots * CUSTOMER_RECORD;
+        offsets[3] = offsets[2] + n * 4;
+        offsets[4] = offsets[3] + n;
+        offsets[5] = offsets[4] + n * 8;
+        offsets[6] = offsets[5] + n * 8;
+        offsets[7] = offsets[6] + n * 8;
+        offsets[8] = offsets[7] + n * 8;
+
+        Path temporary = directory.resolve(FILE_NAME + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_BYTES);
+            channel.position(HEADER_BYTES);
+
+            // Totals are summed from the balances written, so they always match the records
+            long[] totals = new long[4];
+            int next = 0;
+            for (Account account : accountTable) {
+                for (; next < account.getAccountId(); next++) ensure(channel, buffer, ACCOUNT_RECORD).put(EMPTY_RECORD);
+                long balance = putAccount(ensure(channel, buffer, ACCOUNT_RECORD), account);
+                totals[account instanceof SavingsAccount ? 0 : 1] += balance;
+                totals[account.getAccountHolder() instanceof PremiumCustomer ? 3 : 2] += balance;
+                next++;
+            }
+
+            long stringPosition = 0;
+            for (Customer customer : customerTable) {
+                ByteBuffer out = ensure(channel, buffer, CUSTOMER_RECORD);
+                if (customer == null) {
+                    out.put(EMPTY_RECORD, 0, CUSTOMER_RECORD);
+                    continue;
+                }
+                int length = stringsLength(customer);
+                if ((stringPosition & (CHUNK_BYTES - 1)) + length > CHUNK_BYTES) {
+                    stringPosition = (stringPosition | (CHUNK_BYTES - 1)) + 1;
+                }
+                out.put(customer instanceof PremiumCustomer ? PREMIUM : REGULAR).put(EMPTY_RECORD, 0, 3)
+                        .putInt(customer.getAge()).putLong(stringPosition);
+                stringPosition += length;
+            }
+
+            // Slots that never received a transaction are written as zeros
+            for (int slot = 0; slot < n; slot++) {
+                ensure(channel, buffer, 4).putInt(transactions.typeAt(slot) == 0 ? 0 : transactions.accountIdAt(slot));
+            }
+            for (int slot = 0; slot < n; slot++) ensure(channel, buffer, 1).put(transactions.typeAt(slot));
+            for (int slot = 0; slot < n; slot++) {
+                ensure(channel, buffer, 8).putLong(transactions.typeAt(slot) == 0 ? 0 : transactions.amountAt(slot));
+            }
+            for (int slot = 0; slot < n; slot++) {
+                ensure(channel, buffer, 8).putLong(transactions.typeAt(slot) == 0 ? 0 : transactions.balanceAfterAt(slot));
+            }
+            for (int slot = 0; slot < n; slot++) {
+                ensure(channel, buffer, 8).putLong(transactions.typeAt(slot) == 0 ? 0 : transactions.timestampAt(slot));
+            }
+            for (int slot = 0; slot < n; slot++) {
+                ensure(channel, buffer, 8).putLong(transactions.typeAt(slot) == 0 ? 0 : transactions.referenceAt(slot));
+            }
+
+            long written = 0;
+            for (Customer customer : customerTable) {
+                if (customer == null) continue;
+                int length = stringsLength(customer);
+                if ((written & (CHUNK_BYTES - 1)) + length > CHUNK_BYTES) {
+                    long padding = CHUNK_BYTES - (written & (CHUNK_BYTES - 1));
+                    for (; padding > 0; padding--) ensure(channel, buffer, 1).put((byte) 0);
+                    written = (written | (CHUNK_BYTES - 1)) + 1;
+                }
+                ByteBuffer out = ensure(channel, buffer, length);
+                putString(out, customer.getName());
+                putString(out, customer.getContact());
+                putString(out, customer.getAddress());
+                written += length;
+            }
+            offsets[9] = written;
+            offsets[10] = offsets[8] + written;
+            offsets[11] = offsets[10] + ((long) customerSlots + 1) * 4;
+            for (int start : customerStarts) ensure(channel, buffer, 4).putInt(start);
+            for (int accountId : accountsByCustomer) ensure(channel, buffer, 4).putInt(accountId);
+            drain(channel, buffer);
+
+            buffer.putInt(MAGIC).putInt(VERSION).putLong(lsn).putInt(accountSlots).putInt(customerSlots)
+                    .putInt(accountTable.length).putInt((int) n);
+            for (long offset : offsets) buffer.putLong(offset);
+            for (long total : totals) buffer.putLong(total);
+            while (buffer.position() < HEADER_BYTES) buffer.put((byte) 0);
+            buffer.flip();
+            channel.position(0);
+            while (buffer.hasRemaining()) channel.write(buffer);
+            channel.force(true);
+        }
+        Files.move(temporary, directory.resolve(FILE_NAME), StandardCopyOption.ATOMIC_MOVE,
+                StandardCopyOption.REPLACE_EXISTING);
+        try (FileChannel parent = FileChannel.open(directory, StandardOpenOption.READ)) {
+            parent.force(true);
+        } catch (IOException e) {
+            // Not every platform can fsync a directory; the rename is still atomic
+        }
+    }
+
+    // Writes one account record; returns the balance written.
+    private static long putAccount(ByteBuffer out, Account account) throws IOException {
+        AccountStatus current = account.getAccountStatus();
+        if (current == null) throw new IOException("No status for " + account.getAccountNumber());
+        byte status = current.getCode();
+        long balance = account.getBalance();
+        if (account instanceof SavingsAccount savings) {
+            out.put(SAVINGS).put(status).putShort((short) 0)
+                    .putInt(account.getAccountHolder().getNumericId()).putLong(balance)
+                    .putLong(savings.getMinimumBalance()).putLong(savings.getInterestRateBasisPoints());
+        } else {
+            CheckingAccount checking = (CheckingAccount) account;
+            out.put(CHECKING).put(status).putShort((short) 0)
+                    .putInt(account.getAccountHolder().getNumericId()).putLong(balance)
+                    .putLong(checking.getOverdraftLimit()).putLong(checking.getMonthlyFee());
+        }
+        return balance;
+    }
+
+    // Returns the number of bytes a customer's strings take in the string section.
+    private static int stringsLength(Customer customer) throws IOException {
+        return encodedLength(customer.getName()) + encodedLength(customer.getContact())
+                + encodedLength(customer.getAddress());
+    }
+
+    private static int encodedLength(String value) throws IOException {
+        int length = value.getBytes(StandardCharsets.UTF_8).length;
+        if (length > 0xFFFF) throw new IOException("Customer field too long for the snapshot");
+        return 2 + length;
+    }
+
+    private static void putString(ByteBuffer out, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.putShort((short) bytes.length).put(bytes);
+    }
+
+    // Reads a u16-length-prefixed UTF-8 string at the given position of the string section.
+    private String readString(long position) {
+        byte[] bytes = new byte[utf8Length(position)];
+        strings.get(position + 2, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private int utf8Length(long position) {
+        return Short.toUnsignedInt(strings.getShort(position));
+    }
+
+    // Returns the write buffer with room for the given number of bytes, writing it out first if needed.
+    private static ByteBuffer ensure(FileChannel channel, ByteBuffer buffer, int bytes) throws IOException {
+        if (buffer.remaining() < bytes) drain(channel, buffer);
+        return buffer;
+    }
+
+    // Writes the buffered bytes to the channel and clears the buffer.
+    private static void drain(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) channel.write(buffer);
+        buffer.clear();
+    }
+}
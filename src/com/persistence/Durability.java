@@ -0,0 +1,31 @@
+package com.persistence;
+
+/*
+ * Durability level of the write-ahead log.
+ *
+ * - SYNC         : every record is written and fsynced before the posting is acknowledged.
+ * - GROUP_COMMIT : postings wait for durability, but all records that arrive while an fsync
+ *                  is in progress are written together and covered by the next single fsync.
+ * - ASYNC        : postings are acknowledged immediately; a background thread writes and
+ *                  fsyncs every few milliseconds, so a crash can lose the last few postings.
+ */
+public enum Durability {
+    SYNC,
+    GROUP_COMMIT,
+    ASYNC;
+
+    // Parses a command-line value such as "sync", "group" or "async".
+    public static Durability parse(String value) {
+        switch (value.toLowerCase()) {
+            case "sync":
+                return SYNC;
+            case "group":
+            case "group_commit":
+                return GROUP_COMMIT;
+            case "async":
+                return ASYNC;
+            default:
+                throw new IllegalArgumentException("Unknown durability level: " + value + " (expected sync, group or async)");
+        }
+    }
+}
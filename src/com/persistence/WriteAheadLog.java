@@ -0,0 +1,580 @@
+package com.persistence;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32C;
+
+/*
+ * Write-ahead log for account creations and posted transactions.
+ *
+ * Records are appended to an in-memory buffer and written through a FileChannel into
+ * preallocated, zero-filled segment files named "wal-<first lsn>.log". Every record gets
+ * a log sequence number (LSN) and is framed as
+ *
+ *   [int length][int crc32c][long lsn][byte type][payload]
+ *
+ * where length and crc cover everything after the crc. A zero length marks the unused,
+ * preallocated tail of a segment; a bad crc marks a torn write. Recovery stops reading a
+ * segment at either, and a reopened log always starts a new segment.
+ *
+ * A TRANSFER record carries both legs of a transfer in one frame, so a crash can never
+ * leave one leg in the log without the other.
+ *
+ * Buffering is double-buffered: appenders fill the active buffer while one writer drains
+ * the other to disk. How appenders wait depends on the Durability level (see Durability);
+ * in GROUP_COMMIT mode every record that arrives during an fsync is covered by the next one.
+ */
+public class WriteAheadLog implements Closeable {
+
+    // Record type: account created
+    public static final byte ACCOUNT_CREATED = 1;
+
+    // Record type: transaction posted
+    public static final byte POSTING = 2;
+
+    // Record type: both legs of a transfer, replayed as two postings
+    public static final byte TRANSFER = 3;
+
+    // Account type codes used in ACCOUNT_CREATED records
+    public static final byte ACCOUNT_SAVINGS = 1;
+    public static final byte ACCOUNT_CHECKING = 2;
+
+    // Customer tier codes used in ACCOUNT_CREATED records
+    public static final byte TIER_REGULAR = 1;
+    public static final byte TIER_PREMIUM = 2;
+
+    // Default size of a preallocated segment file (64 MB)
+    public static final long DEFAULT_SEGMENT_BYTES = 64L << 20;
+
+    // Size of each of the two append buffers (4 MB)
+    private static final int BUFFER_BYTES = 4 << 20;
+
+    // Bytes before the part covered by length and crc
+    private static final int FRAME_PREFIX = 8;
+
+    // Size of the POSTING payload; records written before the reference field was added are 8 bytes shorter
+    private static final int POSTING_PAYLOAD = 8 + 4 + 1 + 8 + 8 + 8 + 8;
+
+    // Size of the TRANSFER payload: the outgoing leg, then the incoming one, each laid out as a POSTING
+    private static final int TRANSFER_PAYLOAD = 2 * POSTING_PAYLOAD;
+
+    // How often the background writer flushes in ASYNC mode
+    private static final long ASYNC_FLUSH_MILLIS = 10;
+
+    // Receives the records found during replay, in LSN order.
+    public interface Replayer {
+        void accountCreated(long lsn, int accountId, byte accountType, long balance, int customerId, byte customerTier,
+                            String name, int age, String contact, String address);
+
+        void posting(long lsn, long sequence, int accountId, byte type, long amount, long balanceAfter, long timestamp,
+                     long reference);
+    }
+
+    private final Path directory;
+    private final Durability durability;
+    private final long segmentBytes;
+
+    // Guards the buffers and LSN counters
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // Signalled when the active buffer receives data
+    private final Condition dataAvailable = lock.newCondition();
+
+    // Signalled when durableLsn advances
+    private final Condition durableAdvanced = lock.newCondition();
+
+    // Serializes buffer swaps and disk writes; always acquired before lock
+    private final ReentrantLock ioLock = new ReentrantLock();
+
+    // Buffer receiving new records, and the buffer being written (empty between flushes)
+    private ByteBuffer active = ByteBuffer.allocate(BUFFER_BYTES);
+    private ByteBuffer spare = ByteBuffer.allocate(BUFFER_BYTES);
+
+    // LSN of the first record in the active buffer
+    private long activeFirstLsn;
+
+    // Next LSN to hand out, and highest LSN known to be on disk
+    private long nextLsn;
+    private long durableLsn;
+
+    private final CRC32C crc = new CRC32C();
+
+    // Current segment file and the write position inside it (touched only under ioLock)
+    private FileChannel segment;
+    private long segmentPosition;
+
+    // Background writer for GROUP_COMMIT and ASYNC modes
+    private final Thread flusher;
+    private volatile boolean closed;
+    private IOException failure;
+
+    /*
+     * Opens the log for appending in the given directory, starting a new segment whose first
+     * record will get nextLsn. Call replay first to find nextLsn for an existing log.
+     */
+    public WriteAheadLog(Path directory, Durability durability, long nextLsn) throws IOException {
+        this(directory, durability, nextLsn, DEFAULT_SEGMENT_BYTES);
+    }
+
+    public WriteAheadLog(Path directory, Durability durability, long nextLsn, long segmentBytes) throws IOException {
+        this.directory = directory;
+        this.durability = durability;
+        this.segmentBytes = segmentBytes;
+        this.nextLsn = nextLsn;
+        this.durableLsn = nextLsn - 1;
+        this.activeFirstLsn = nextLsn;
+        Files.createDirectories(directory);
+        openSegment(nextLsn);
+        if (durability == Durability.SYNC) {
+            flusher = null;
+        } else {
+            flusher = new Thread(this::flushLoop, "wal-flusher");
+            flusher.setDaemon(true);
+            flusher.start();
+        }
+    }
+
+    // Returns the durability level of this log.
+    public Durability getDurability() {
+        return durability;
+    }
+
+    /*
+     * Appends an ACCOUNT_CREATED record and returns its LSN.
+     * In SYNC mode the record is on disk when this returns; otherwise call awaitDurable.
+     */
+    public long logAccountCreated(int accountId, byte accountType, long balance, int customerId, byte customerTier,
+                                  String name, int age, String contact, String address) throws IOException {
+        byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+        byte[] contactBytes = contact.getBytes(StandardCharsets.UTF_8);
+        byte[] addressBytes = address.getBytes(StandardCharsets.UTF_8);
+        if (Math.max(nameBytes.length, Math.max(contactBytes.length, addressBytes.length)) > 0xFFFF) {
+            throw new IOException("Customer field too long for the write-ahead log");
+        }
+        int payload = 4 + 1 + 8 + 4 + 1 + 4 + 6 + nameBytes.length + contactBytes.length + addressBytes.length;
+        long lsn;
+        ByteBuffer buffer = reserve(payload);
+        try {
+            lsn = beginRecord(buffer, ACCOUNT_CREATED);
+            int start = buffer.position() - 9 - FRAME_PREFIX;
+            buffer.putInt(accountId).put(accountType).putLong(balance).putInt(customerId).put(customerTier).putInt(age);
+            putString(buffer, nameBytes);
+            putString(buffer, contactBytes);
+            putString(buffer, addressBytes);
+            endRecord(buffer, start);
+        } finally {
+            lock.unlock();
+        }
+        afterAppend(lsn);
+        return lsn;
+    }
+
+    /*
+     * Appends a POSTING record and returns its LSN. Does not allocate.
+     * The reference is a type-specific value such as the period of an interest posting, 0 if unused.
+     * In SYNC mode the record is on disk when this returns; otherwise call awaitDurable.
+     */
+    public long logPosting(long sequence, int accountId, byte type, long amount, long balanceAfter, long timestamp,
+                           long reference) throws IOException {
+        long lsn;
+        ByteBuffer buffer = reserve(POSTING_PAYLOAD);
+        try {
+            lsn = beginRecord(buffer, POSTING);
+            int start = buffer.position() - 9 - FRAME_PREFIX;
+            buffer.putLong(sequence).putInt(accountId).put(type).putLong(amount).putLong(balanceAfter).putLong(timestamp)
+                    .putLong(reference);
+            endRecord(buffer, start);
+        } finally {
+            lock.unlock();
+        }
+        afterAppend(lsn);
+        return lsn;
+    }
+
+    /*
+     * Appends a TRANSFER record holding both legs of a transfer and returns its LSN. Does not allocate.
+     * Each leg's reference is the sequence of the other leg; both share the amount and timestamp.
+     * In SYNC mode the record is on disk when this returns; otherwise call awaitDurable.
+     */
+    public long logTransfer(long outSequence, int fromAccountId, byte outType, long fromBalanceAfter,
+                            long inSequence, int toAccountId, byte inType, long toBalanceAfter,
+                            long amount, long timestamp) throws IOException {
+        long lsn;
+        ByteBuffer buffer = reserve(TRANSFER_PAYLOAD);
+        try {
+            lsn = beginRecord(buffer, TRANSFER);
+            int start = buffer.position() - 9 - FRAME_PREFIX;
+            buffer.putLong(outSequence).putInt(fromAccountId).put(outType).putLong(amount).putLong(fromBalanceAfter)
+                    .putLong(timestamp).putLong(inSequence);
+            buffer.putLong(inSequence).putInt(toAccountId).put(inType).putLong(amount).putLong(toBalanceAfter)
+                    .putLong(timestamp).putLong(outSequence);
+            endRecord(buffer, start);
+        } finally {
+            lock.unlock();
+        }
+        afterAppend(lsn);
+        return lsn;
+    }
+
+    /*
+     * Blocks until the record with the given LSN is on disk (GROUP_COMMIT), or returns
+     * immediately (SYNC, where it already is, and ASYNC, which does not wait).
+     */
+    public void awaitDurable(long lsn) throws IOException {
+        if (durability != Durability.GROUP_COMMIT) return;
+        lock.lock();
+        try {
+            while (durableLsn < lsn) {
+                if (failure != null) throw failure;
+                if (closed) throw new IOException("Write-ahead log is closed");
+                durableAdvanced.await();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for the write-ahead log", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Blocks until every record appended so far is on disk (see awaitDurable(long)).
+    public void awaitDurable() throws IOException {
+        long last;
+        lock.lock();
+        try {
+            last = nextLsn - 1;
+        } finally {
+            lock.unlock();
+        }
+        awaitDurable(last);
+    }
+
+    // Returns the LSN the next record will get.
+    public long getNextLsn() {
+        lock.lock();
+        try {
+            return nextLsn;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Writes and fsyncs everything appended so far, stops the background writer and closes the segment.
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        flush();
+        closed = true;
+        if (flusher != null) {
+            lock.lock();
+            try {
+                dataAvailable.signalAll();
+                durableAdvanced.signalAll();
+            } finally {
+                lock.unlock();
+            }
+            try {
+                flusher.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        ioLock.lock();
+        try {
+            segment.close();
+        } finally {
+            ioLock.unlock();
+        }
+    }
+
+    /*
+     * Replays every intact record found in the directory, in LSN order.
+     * Returns the LSN that the next appended record should get (0 for an empty log).
+     */
+    public static long replay(Path directory, Replayer replayer) throws IOException {
+        return replay(directory, 0, replayer);
+    }
+
+    /*
+     * Replays the intact records with an LSN of at least fromLsn, in LSN order.
+     * Segments that only hold older records (for example ones covered by a snapshot) are not read.
+     * Returns the LSN that the next appended record should get (at least fromLsn).
+     */
+    public static long replay(Path directory, long fromLsn, Replayer replayer) throws IOException {
+        long nextLsn = fromLsn;
+        List<Path> segments = listSegments(directory);
+        for (int s = 0; s < segments.size(); s++) {
+            if (s + 1 < segments.size() && firstLsnOf(segments.get(s + 1)) <= fromLsn) continue;
+            nextLsn = Math.max(nextLsn, replaySegment(segments.get(s), fromLsn, replayer));
+        }
+        return nextLsn;
+    }
+
+    /*
+     * Replays the intact records of one segment file with an LSN of at least fromLsn, in LSN
+     * order, and returns the LSN following the last one replayed (fromLsn if none was).
+     * Segments are independent, so different segments can be replayed on different threads;
+     * replay(...) is the same as calling this for each of listSegments(directory) in turn.
+     */
+    public static long replaySegment(Path file, long fromLsn, Replayer replayer) throws IOException {
+        long nextLsn = fromLsn;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            CRC32C checksum = new CRC32C();
+            while (data.remaining() >= FRAME_PREFIX + 9) {
+                int length = data.getInt();
+                int expectedCrc = data.getInt();
+                if (length < 9 || length > data.remaining()) break;
+                ByteBuffer record = data.slice(data.position(), length);
+                checksum.reset();
+                checksum.update(record.duplicate());
+                if ((int) checksum.getValue() != expectedCrc) break;
+                data.position(data.position() + length);
+
+                long lsn = record.getLong();
+                byte type = record.get();
+                if (lsn < fromLsn) continue;
+                if (type == ACCOUNT_CREATED) {
+                    int accountId = record.getInt();
+                    byte accountType = record.get();
+                    long balance = record.getLong();
+                    int customerId = record.getInt();
+                    byte customerTier = record.get();
+                    int age = record.getInt();
+                    String name = getString(record);
+                    String contact = getString(record);
+                    String address = getString(record);
+                    replayer.accountCreated(lsn, accountId, accountType, balance, customerId, customerTier,
+                            name, age, contact, address);
+                } else if (type == POSTING) {
+                    replayPosting(lsn, record, replayer);
+                } else if (type == TRANSFER) {
+                    replayPosting(lsn, record, replayer);
+                    replayPosting(lsn, record, replayer);
+                }
+                nextLsn = Math.max(nextLsn, lsn + 1);
+            }
+        }
+        return nextLsn;
+    }
+
+    // Reads one posting laid out as a POSTING payload and hands it to the replayer.
+    private static void replayPosting(long lsn, ByteBuffer record, Replayer replayer) {
+        long sequence = record.getLong();
+        int accountId = record.getInt();
+        byte postingType = record.get();
+        long amount = record.getLong();
+        long balanceAfter = record.getLong();
+        long timestamp = record.getLong();
+        long reference = record.remaining() >= 8 ? record.getLong() : 0;
+        replayer.posting(lsn, sequence, accountId, postingType, amount, balanceAfter, timestamp, reference);
+    }
+
+    // Deletes every segment in the directory whose records all have an LSN below the given one.
+    public static void deleteSegmentsBefore(Path directory, long lsn) throws IOException {
+        List<Path> segments = listSegments(directory);
+        for (int i = 0; i + 1 < segments.size(); i++) {
+            if (firstLsnOf(segments.get(i + 1)) <= lsn) Files.deleteIfExists(segments.get(i));
+        }
+    }
+
+    // Reserves room for a record with the given payload size; returns with lock held.
+    private ByteBuffer reserve(int payload) throws IOException {
+        int needed = FRAME_PREFIX + 9 + payload;
+        if (needed > BUFFER_BYTES) throw new IOException("Record too large for the write-ahead log: " + needed + " bytes");
+        while (true) {
+            lock.lock();
+            if (failure != null) {
+                lock.unlock();
+                throw failure;
+            }
+            if (closed) {
+                lock.unlock();
+                throw new IOException("Write-ahead log is closed");
+            }
+            if (active.remaining() >= needed) return active;
+            lock.unlock();
+            flush();
+        }
+    }
+
+    // Writes the frame prefix, LSN and type of a new record; returns the LSN.
+    private long beginRecord(ByteBuffer buffer, byte type) {
+        if (buffer.position() == 0) activeFirstLsn = nextLsn;
+        long lsn = nextLsn++;
+        buffer.position(buffer.position() + FRAME_PREFIX);
+        buffer.putLong(lsn).put(type);
+        return lsn;
+    }
+
+    // Fills in the length and crc of the record that starts at the given buffer position.
+    private void endRecord(ByteBuffer buffer, int start) {
+        int length = buffer.position() - start - FRAME_PREFIX;
+        crc.reset();
+        crc.update(buffer.array(), start + FRAME_PREFIX, length);
+        buffer.putInt(start, length);
+        buffer.putInt(start + 4, (int) crc.getValue());
+    }
+
+    // Applies the durability policy after a record has been buffered.
+    private void afterAppend(long lsn) throws IOException {
+        switch (durability) {
+            case SYNC:
+                while (true) {
+                    lock.lock();
+                    try {
+                        if (durableLsn >= lsn) return;
+                    } finally {
+                        lock.unlock();
+                    }
+                    flush();
+                }
+            case GROUP_COMMIT:
+                lock.lock();
+                try {
+                    dataAvailable.signal();
+                } finally {
+                    lock.unlock();
+                }
+                break;
+            case ASYNC:
+                break;
+        }
+    }
+
+    // Background writer: flushes as soon as data arrives (GROUP_COMMIT) or periodically (ASYNC).
+    private void flushLoop() {
+        while (!closed) {
+            lock.lock();
+            try {
+                if (durability == Durability.ASYNC) {
+                    dataAvailable.await(ASYNC_FLUSH_MILLIS, TimeUnit.MILLISECONDS);
+                } else {
+                    while (active.position() == 0 && !closed) dataAvailable.await();
+                }
+            } catch (InterruptedException e) {
+                return;
+            } finally {
+                lock.unlock();
+            }
+            try {
+                flush();
+            } catch (IOException e) {
+                return;
+            }
+        }
+    }
+
+    /*
+     * Swaps the buffers, writes the filled one to the current segment (rolling to a new
+     * segment if it does not fit), fsyncs, and advances durableLsn.
+     */
+    private void flush() throws IOException {
+        ioLock.lock();
+        try {
+            ByteBuffer toWrite;
+            long firstLsn;
+            long lastLsn;
+            lock.lock();
+            try {
+                if (active.position() == 0) return;
+                toWrite = active;
+                active = spare;
+                spare = toWrite;
+                firstLsn = activeFirstLsn;
+                lastLsn = nextLsn - 1;
+            } finally {
+                lock.unlock();
+            }
+            try {
+                toWrite.flip();
+                if (segmentPosition + toWrite.remaining() > segmentBytes) {
+                    segment.close();
+                    openSegment(firstLsn);
+                }
+                while (toWrite.hasRemaining()) {
+                    segmentPosition += segment.write(toWrite, segmentPosition);
+                }
+                segment.force(false);
+            } catch (IOException e) {
+                lock.lock();
+                try {
+                    failure = e;
+                    durableAdvanced.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+                throw e;
+            } finally {
+                toWrite.clear();
+            }
+            lock.lock();
+            try {
+                durableLsn = lastLsn;
+                durableAdvanced.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        } finally {
+            ioLock.unlock();
+        }
+    }
+
+    // Creates and zero-fills a new segment file whose first record has the given LSN.
+    private void openSegment(long firstLsn) throws IOException {
+        Path file = directory.resolve(String.format("wal-%020d.log", firstLsn));
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        ByteBuffer zeros = ByteBuffer.allocateDirect(1 << 20);
+        for (long position = 0; position < segmentBytes; ) {
+            zeros.clear();
+            if (segmentBytes - position < zeros.capacity()) zeros.limit((int) (segmentBytes - position));
+            position += channel.write(zeros, position);
+        }
+        channel.force(true);
+        segment = channel;
+        segmentPosition = 0;
+    }
+
+    // Returns the segment files of the directory, ordered by first LSN.
+    public static List<Path> listSegments(Path directory) throws IOException {
+        List<Path> segments = new ArrayList<>();
+        if (!Files.isDirectory(directory)) return segments;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "wal-*.log")) {
+            for (Path file : stream) segments.add(file);
+        }
+        Collections.sort(segments);
+        return segments;
+    }
+
+    // Extracts the first LSN from a segment file name.
+    public static long firstLsnOf(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(4, name.length() - 4));
+    }
+
+    // Writes a string as an unsigned 16-bit length followed by its UTF-8 bytes.
+    private static void putString(ByteBuffer buffer, byte[] bytes) {
+        buffer.putShort((short) bytes.length).put(bytes);
+    }
+
+    // Reads a string written by putString.
+    private static String getString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getShort() & 0xFFFF];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
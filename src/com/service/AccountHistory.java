@@ -0,0 +1,99 @@
+package com.service;
+
+// Append-only index of the transactions belonging to a single account.
+// Stores the positions ("slots") of the account's transactions in the global
+// transaction store, in posting order, together with their epoch timestamps. Entries
+// live in chunks that double in size (8, 16, 32, ...), so appending never copies
+// existing entries and reading the account's history costs O(k) in the account's own
+// transaction count.
+//
+// Timestamps are kept non-decreasing: an entry whose timestamp is earlier than the one
+// before it (a posting that was stamped first but appended second) is indexed under its
+// predecessor's time. That keeps the history sorted by time, so a time range is found by
+// binary search in O(log k) instead of scanning the account's transactions.
+//
+// Appends are serialized per account; reads are lock-free and see every entry
+// appended before the size they observed.
+public class AccountHistory {
+
+    // Size of the first chunk; chunk k holds FIRST_CHUNK << k entries
+    private static final int FIRST_CHUNK = 8;
+
+    // log2(FIRST_CHUNK), used to locate the chunk for an index
+    private static final int FIRST_CHUNK_BITS = 3;
+
+    // Shared empty history returned for accounts without transactions
+    static final AccountHistory EMPTY = new AccountHistory();
+
+    // Chunks of slots; only the outer array is ever replaced when more chunks are needed
+    private int[][] chunks = new int[4][];
+
+    // Chunks of indexed timestamps, laid out like the slot chunks
+    private long[][] times = new long[4][];
+
+    // Number of entries appended; written last so readers never see a partially written entry
+    private volatile int size;
+
+    // Appends a transaction slot and its epoch timestamp to the end of this account's history.
+    synchronized void append(int slot, long epochMillis) {
+        int index = size;
+        int chunk = chunkOf(index);
+        if (chunk >= chunks.length) {
+            int[][] grown = new int[chunks.length * 2][];
+            System.arraycopy(chunks, 0, grown, 0, chunks.length);
+            long[][] grownTimes = new long[times.length * 2][];
+            System.arraycopy(times, 0, grownTimes, 0, times.length);
+            chunks = grown;
+            times = grownTimes;
+        }
+        if (chunks[chunk] == null) {
+            chunks[chunk] = new int[FIRST_CHUNK << chunk];
+            times[chunk] = new long[FIRST_CHUNK << chunk];
+        }
+        int offset = offsetOf(index, chunk);
+        chunks[chunk][offset] = slot;
+        times[chunk][offset] = index == 0 ? epochMillis : Math.max(epochMillis, timeAt(index - 1));
+        size = index + 1;
+    }
+
+    // Returns the number of transactions recorded for the account.
+    public int size() {
+        return size;
+    }
+
+    // Returns the global transaction slot of the index-th transaction of the account.
+    public int slotAt(int index) {
+        if (index < 0 || index >= size) throw new IndexOutOfBoundsException("History index " + index);
+        int chunk = chunkOf(index);
+        return chunks[chunk][offsetOf(index, chunk)];
+    }
+
+    // Returns the epoch timestamp the index-th transaction is indexed under.
+    public long timeAt(int index) {
+        if (index < 0 || index >= size) throw new IndexOutOfBoundsException("History index " + index);
+        int chunk = chunkOf(index);
+        return times[chunk][offsetOf(index, chunk)];
+    }
+
+    // Returns the index of the first transaction at or after the given epoch time, or size() if there is none.
+    public int indexAtOrAfter(long epochMillis) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (timeAt(mid) < epochMillis) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+
+    // Returns the chunk number that stores the given index.
+    private static int chunkOf(int index) {
+        return 31 - Integer.numberOfLeadingZeros(index + FIRST_CHUNK) - FIRST_CHUNK_BITS;
+    }
+
+    // Returns the position of the given index inside its chunk.
+    private static int offsetOf(int index, int chunk) {
+        return index + FIRST_CHUNK - (FIRST_CHUNK << chunk);
+    }
+}
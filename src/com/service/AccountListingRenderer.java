@@ -0,0 +1,86 @@
+package com.service;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import com.models.Account;
+import com.models.Customer;
+import com.models.Money;
+
+// Writes account listing rows through one reusable buffer.
+// Each row is appended field by field into a StringBuilder that is kept across rows, so
+// rendering an account allocates no format strings or intermediate Strings. The buffer
+// is copied to the output in blocks once it holds flushThreshold characters (and on
+// flush()), instead of one console write per row.
+//
+// Not thread-safe; use one renderer per listing.
+public class AccountListingRenderer {
+
+    // Default number of buffered characters that triggers a write
+    public static final int DEFAULT_FLUSH_THRESHOLD = 8192;
+
+    private final Writer out;
+    private final int flushThreshold;
+
+    // Rows rendered but not yet written
+    private final StringBuilder buffer;
+
+    // Reusable transfer array between the buffer and the writer
+    private char[] chunk;
+
+    // Creates a renderer that writes to out in blocks of about flushThreshold characters.
+    public AccountListingRenderer(Writer out, int flushThreshold) {
+        if (flushThreshold < 1) throw new IllegalArgumentException("Flush threshold must be positive: " + flushThreshold);
+        this.out = out;
+        this.flushThreshold = flushThreshold;
+        this.buffer = new StringBuilder(flushThreshold + 256);
+        this.chunk = new char[flushThreshold + 256];
+    }
+
+    // Appends the column header of the listing.
+    public void writeHeader() {
+        buffer.append("====================================================\n")
+                .append("ACC NO | CUSTOMER NAME | TYPE | BALANCE | STATUS\n")
+                .append("====================================================\n");
+        flushIfFull();
+    }
+
+    // Appends one account row: number, customer, type, balance, status and account-specific details.
+    public void writeRow(Account account) {
+        Customer holder = account.getAccountHolder();
+        buffer.append(Account.ACCOUNT_NUMBER_PREFIX).append(account.getAccountId()).append(" | ")
+                .append(holder.getName()).append("  | ")
+                .append(account.getAccountType()).append(" | $");
+        Money.appendTo(buffer, account.getBalance()).append(" | ").append(account.getStatus()).append(" | ");
+        account.appendAccountSpecificDetails(buffer).append('\n');
+        flushIfFull();
+    }
+
+    // Writes everything buffered so far and flushes the underlying writer.
+    public void flush() {
+        drain();
+        try {
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write account listing", e);
+        }
+    }
+
+    // Writes the buffer once it has reached the flush threshold.
+    private void flushIfFull() {
+        if (buffer.length() >= flushThreshold) drain();
+    }
+
+    // Copies the buffered characters to the writer and empties the buffer.
+    private void drain() {
+        int length = buffer.length();
+        if (length == 0) return;
+        if (chunk.length < length) chunk = new char[length];
+        buffer.getChars(0, length, chunk, 0);
+        buffer.setLength(0);
+        try {
+            out.write(chunk, 0, length);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write account listing", e);
+        }
+    }
+}
@@ -1,71 +1,416 @@
-
 package com.service;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 import com.models.Account;
+import com.models.AccountIndex;
+import com.models.AccountStatus;
+import com.models.AccountTable;
+import com.models.AccountType;
+import com.models.BalanceLedger;
+import com.models.Customer;
+import com.models.Money;
+import com.models.PremiumCustomer;
+import com.models.SavingsAccount;
+import com.persistence.AccountSnapshot;
+import com.persistence.WriteAheadLog;
+import com.utilities.IdTable;
 
 // Management layer for account data operations and storage.
 // Provides static methods for managing the collection of accounts in the system.
-// Maintains an array-based storage structure with a maximum capacity of 50 accounts
-// and provides operations for adding, finding, and retrieving accounts.
+// Accounts are kept in an IdTable keyed by the numeric part of the account number
+// ("ACC0042" -> 42), so the store grows without a fixed capacity and lookups cost
+// the same whether the bank holds a thousand or ten million accounts.
 //
 // Key responsibilities:
 // - Account storage and retrieval
 // - Account lookup by account number
-// - Account listing and aggregation
+// - Account listing (complete, or page by page with a resume cursor) and aggregation
 // - Balance calculations across all accounts
 //
-// Note: This implementation uses a fixed-size array. In production, consider using
-// a more scalable data structure such as a HashMap or database for better performance.
+// The store is safe for concurrent readers and writers.
+// When a write-ahead log is attached, every new account is journaled and durable
+// before addAccount returns.
+//
+// After a restart the accounts of the last snapshot are not loaded up front: lookups
+// materialize them from the mapped AccountSnapshot on first access. The account count and
+// the balance totals include the snapshot's accounts from its header, and filtered listings
+// and counts read their type and status bytes, so none of them loads the snapshot; only
+// operations that need every account (the full listing, verification) load the rest once.
+//
+// Optionally the accounts are kept off-heap instead (see useOffHeapStore): an AccountTable
+// holds one fixed-width record per account in direct memory and lookups return short-lived
+// views of the records, so tens of millions of accounts add almost nothing to the heap the
+// garbage collector has to trace. Callers see the same Account API either way.
+//
+// Every registered account's holder is indexed by CustomerManagement, which finds customers
+// by id, contact or name and lists the accounts each customer holds.
+//
+// Every registered account is attached to a BalanceLedger, so the bank-wide total and
+// the totals per account type and customer tier are maintained on each balance change
+// and read in O(1). A verification mode recomputes them by a full scan for audits.
+//
+// Every registered account is also attached to an AccountIndex, whose per-status and per-type
+// bitmaps answer filtered listings and counts ("active checking accounts") by intersecting
+// bitmaps rather than comparing every account's status and type.
 public class AccountManagement {
 
-    // Fixed-size array to store accounts (maximum 50 accounts)
-    private static Account[] accounts = new Account[50];
+    // Accounts indexed by their numeric id
+    private static final IdTable<Account> accounts = new IdTable<>();
 
-    // Current number of accounts in the system
-    public static int accountCount;
+    // Status and type bitmaps of all registered accounts
+    private static final AccountIndex index = new AccountIndex();
 
-    // Adds a new account to the system.
-    // Validates that there is available capacity before adding the account.
-    public static void addAccount(Account account) {
-        if (accountCount < accounts.length) {
-            accounts[accountCount++] = account;
-        } else {
-            System.out.println("Account list is full!");
+    // Snapshot whose unmaterialized accounts have been added to the index; see indexSnapshot
+    private static volatile AccountSnapshot indexedSnapshot;
+
+    // Off-heap store used instead of the accounts table once enabled; null for heap accounts
+    private static volatile AccountTable offHeap;
+
+    // Journal for new accounts; null when running in memory only
+    private static volatile WriteAheadLog journal;
+
+    // Snapshot whose accounts have not all been materialized yet; null once they have
+    private static volatile AccountSnapshot snapshot;
+
+    // Number of the snapshot's accounts materialized so far
+    private static final AtomicInteger materializedAccounts = new AtomicInteger();
+
+    // Running balance totals of all registered accounts
+    private static final BalanceLedger ledger = new BalanceLedger();
+
+    // When set, getTotalBalance cross-checks the ledger against a full scan
+    private static volatile boolean verifyTotals;
+
+    // Attaches the write-ahead log that new accounts are recorded in (null detaches it).
+    public static void attachJournal(WriteAheadLog writeAheadLog) {
+        journal = writeAheadLog;
+    }
+
+    // Adds a new account to the system; returns true if it was added.
+    // Rejects the account (and returns false) if its account id is already registered.
+    // The account is journaled, and durable, before it is registered: until then no other thread can
+    // find it, so its balance is still the opening balance and no posting to it can reach the log
+    // ahead of its ACCOUNT_CREATED record.
+    // Throws UncheckedIOException if the account could not be journaled; the account is then not added.
+    public static boolean addAccount(Account account) {
+        if (findAccount(account.getAccountId()) != null) {
+            System.out.println("Account already exists!");
+            return false;
+        }
+        WriteAheadLog log = journal;
+        if (log != null) {
+            Customer customer = account.getAccountHolder();
+            try {
+                long lsn = log.logAccountCreated(account.getAccountId(),
+                        account instanceof SavingsAccount ? WriteAheadLog.ACCOUNT_SAVINGS : WriteAheadLog.ACCOUNT_CHECKING,
+                        account.getBalance(), customer.getNumericId(),
+                        customer instanceof PremiumCustomer ? WriteAheadLog.TIER_PREMIUM : WriteAheadLog.TIER_REGULAR,
+                        customer.getName(), customer.getAge(), customer.getContact(), customer.getAddress());
+                log.awaitDurable(lsn);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not journal account " + account.getAccountNumber(), e);
+            }
         }
+        // Ids come from a unique allocator, so this only fails if the same account is added twice concurrently;
+        // recovery then skips the second ACCOUNT_CREATED record, which registers nothing new
+        if (register(account)) return true;
+        System.out.println("Account already exists!");
+        return false;
+    }
+
+    // Adds an account recovered from the write-ahead log without journaling it again.
+    static void restoreAccount(Account account) {
+        register(account);
+    }
+
+    /*
+     * Keeps accounts in an off-heap AccountTable from now on: findAccount and the listings return
+     * views of the accounts' records, created per call. Must be called before any account is
+     * added (a snapshot may already be attached; its accounts are loaded into the table).
+     * Throws IllegalStateException otherwise.
+     */
+    public static synchronized void useOffHeapStore() {
+        if (offHeap != null) return;
+        if (accounts.size() > 0) throw new IllegalStateException("The off-heap store must be enabled before accounts are added");
+        offHeap = new AccountTable(ledger, index, CustomerManagement::customer);
+    }
+
+    // Returns the direct memory held by the off-heap store in bytes, or 0 if accounts are on the heap.
+    public static long getOffHeapBytes() {
+        AccountTable table = offHeap;
+        return table == null ? 0 : table.allocatedBytes();
+    }
+
+    // Serves the accounts of the given snapshot, materializing each on first access.
+    // The ledger counts the snapshot's balance totals until its accounts are materialized.
+    static void attachSnapshot(AccountSnapshot accountSnapshot) {
+        if (accountSnapshot.hasBalanceTotals()) {
+            ledger.addTotals(accountSnapshot.getSavingsTotal(), accountSnapshot.getCheckingTotal(),
+                    accountSnapshot.getRegularTotal(), accountSnapshot.getPremiumTotal());
+        }
+        snapshot = accountSnapshot;
+    }
+
+    // Returns the attached snapshot while some of its accounts are not materialized yet; null once all are.
+    static AccountSnapshot attachedSnapshot() {
+        return snapshot;
     }
 
     // Finds an account by its account number.
-    // Searches through all accounts in the system to find a match.
+    // Resolves the numeric id and reads it straight from the table; returns null if absent.
     public static Account findAccount(String accountNumber) {
-        for (int i = 0; i < accountCount; i++) {
-            Account account = accounts[i];
-            if (account.getAccountNumber().equals(accountNumber)) return account;
-        }
-        return null;
+        return findAccount(Account.parseAccountNumber(accountNumber));
+    }
+
+    // Finds an account by its numeric account id; returns null if absent.
+    public static Account findAccount(int accountId) {
+        Account account = stored(accountId);
+        if (account != null) return account;
+        AccountSnapshot source = snapshot;
+        if (source == null) return null;
+        Account loaded = source.readAccount(accountId);
+        if (loaded == null) return null;
+        materialize(source, loaded);
+        return stored(accountId);
     }
 
-    // Retrieves all accounts in the system.
-    // Returns the entire accounts array (may include null entries beyond accountCount).
+    // Retrieves all accounts in the system, ordered by account number.
+    // The returned array holds exactly getAccountCount() entries at the time of the call.
     public static Account[] viewAllAccounts() {
-        return accounts;
-    }
-
-    // Calculates the total balance across all accounts in the system.
-    // Iterates through all active accounts and sums their balances.
-    public double getTotalBalance() {
-        double totalBalance = 0;
-        Account account;
-        System.out.println(accountCount); // Debug print statement
-        for (int i = 0; i < accountCount; i++) {
-            account = accounts[i];
-            totalBalance += account.getBalance();
+        loadSnapshot();
+        Account[] listing = new Account[storedCount()];
+        int[] index = {0};
+        forEachAccount(account -> {
+            if (index[0] < listing.length) listing[index[0]++] = account;
+        });
+        return index[0] == listing.length ? listing : Arrays.copyOf(listing, index[0]);
+    }
+
+    /*
+     * Returns up to pageSize accounts with numeric id >= cursor, in ascending order, that
+     * match the filters; a null accountType or status matches every account. Pass 0 as the
+     * first cursor and the page's next cursor for each following page.
+     *
+     * Matching ids come from the AccountIndex bitmaps, so only matching accounts are visited,
+     * and snapshot accounts are materialized as the cursor reaches them: listing the first page
+     * of a large bank does not load or copy the whole store.
+     */
+    public static AccountPage listAccounts(int cursor, int pageSize, AccountType accountType, AccountStatus status) {
+        if (pageSize < 1) throw new IllegalArgumentException("Page size must be positive: " + pageSize);
+        indexSnapshot();
+        ArrayList<Account> page = new ArrayList<>(Math.min(pageSize, 1024));
+        for (int id = index.next(cursor, accountType, status); id >= 0; id = index.next(id + 1, accountType, status)) {
+            Account account = findAccount(id);
+            // The bitmaps can briefly disagree with an account whose status is changing
+            if (account == null
+                    || (accountType != null && account.getType() != accountType)
+                    || (status != null && account.getAccountStatus() != status)) {
+                if (id == Integer.MAX_VALUE) break;
+                continue;
+            }
+            if (page.size() == pageSize) return new AccountPage(page, id);
+            page.add(account);
+            if (id == Integer.MAX_VALUE) break;
         }
-        return totalBalance;
+        return new AccountPage(page, AccountPage.END);
+    }
+
+    /*
+     * Same as above with the filters given by label ("Savings"/"Checking", "active", ...; any case).
+     * A label that names no type or status matches no account.
+     */
+    public static AccountPage listAccounts(int cursor, int pageSize, String accountType, String status) {
+        AccountType type = AccountType.parse(accountType);
+        AccountStatus parsedStatus = AccountStatus.parse(status);
+        if ((accountType != null && type == null) || (status != null && parsedStatus == null)) {
+            if (pageSize < 1) throw new IllegalArgumentException("Page size must be positive: " + pageSize);
+            return new AccountPage(new ArrayList<>(), AccountPage.END);
+        }
+        return listAccounts(cursor, pageSize, type, parsedStatus);
+    }
+
+    /*
+     * Counts the accounts with the given type and status (null matches any) from the index
+     * bitmaps, without visiting accounts. Snapshot accounts are counted without being loaded.
+     */
+    public static int countAccounts(AccountType accountType, AccountStatus status) {
+        indexSnapshot();
+        return index.count(accountType, status);
+    }
+
+    // Returns the highest account id in use, including snapshot accounts not yet materialized; -1 if none.
+    public static int getHighestAccountId() {
+        AccountSnapshot source = snapshot;
+        AccountTable table = offHeap;
+        int highest = table == null ? accounts.highestId() : table.highestId();
+        return Math.max(highest, source == null ? -1 : source.getAccountSlots() - 1);
+    }
+
+    // Returns the total balance (in cents) across all accounts in the system.
+    // Reads the running ledger total; in verification mode it is also checked against a full scan.
+    public long getTotalBalance() {
+        countSnapshotBalances();
+        if (verifyTotals) verifyBalanceTotals();
+        return ledger.getTotal();
+    }
+
+    // Returns the running balance totals, including the totals per account type and customer tier.
+    public static BalanceLedger getBalanceTotals() {
+        countSnapshotBalances();
+        return ledger;
+    }
+
+    // Turns the full-scan verification of getTotalBalance on or off.
+    public static void setVerifyTotals(boolean enabled) {
+        verifyTotals = enabled;
+    }
+
+    /*
+     * Recomputes every ledger total by scanning all accounts and reports any difference.
+     * Returns true if all totals match. Postings that run during the scan can cause a
+     * transient mismatch, so audits should run while the bank is quiescent.
+     */
+    public static boolean verifyBalanceTotals() {
+        loadSnapshot();
+        long[] scanned = new long[5];
+        forEachAccount(account -> {
+            long balance = account.getBalance();
+            scanned[0] = Money.add(scanned[0], balance);
+            int byType = account instanceof SavingsAccount ? 1 : 2;
+            scanned[byType] = Money.add(scanned[byType], balance);
+            int byTier = account.getAccountHolder() instanceof PremiumCustomer ? 4 : 3;
+            scanned[byTier] = Money.add(scanned[byTier], balance);
+        });
+        long[] recorded = {ledger.getTotal(), ledger.getSavingsTotal(), ledger.getCheckingTotal(),
+                ledger.getRegularTotal(), ledger.getPremiumTotal()};
+        String[] names = {"Total", "Savings", "Checking", "Regular customers", "Premium customers"};
+        boolean consistent = true;
+        for (int i = 0; i < names.length; i++) {
+            if (scanned[i] != recorded[i]) {
+                System.out.println("Balance total mismatch (" + names[i] + "): ledger " + Money.format(recorded[i])
+                        + ", scanned " + Money.format(scanned[i]));
+                consistent = false;
+            }
+        }
+        return consistent;
     }
 
     // Retrieves the current number of accounts in the system.
+    // Snapshot accounts not materialized yet are counted from the snapshot header.
     public static int getAccountCount() {
-        return accountCount;
+        AccountSnapshot source = snapshot;
+        int stored = storedCount();
+        return source == null ? stored : stored + source.getAccountCount() - materializedAccounts.get();
+    }
+
+    // Materializes every account of the attached snapshot that has not been accessed yet.
+    static void loadSnapshot() {
+        AccountSnapshot source = snapshot;
+        if (source == null) return;
+        synchronized (AccountManagement.class) {
+            if (snapshot == null) return;
+            for (int id = 0; id < source.getAccountSlots(); id++) {
+                if (stored(id) == null) {
+                    Account loaded = source.readAccount(id);
+                    if (loaded != null) materialize(source, loaded);
+                }
+            }
+            snapshot = null;
+        }
+    }
+
+    // Loads the attached snapshot if its balances are not in the ledger (snapshots before version 4).
+    private static void countSnapshotBalances() {
+        AccountSnapshot source = snapshot;
+        if (source != null && !source.hasBalanceTotals()) loadSnapshot();
+    }
+
+    /*
+     * Registers an account read from the snapshot. Its balance moves from the snapshot's share
+     * of the ledger totals to the account itself, so the totals count it once.
+     */
+    private static void materialize(AccountSnapshot source, Account loaded) {
+        long balance = loaded.getBalance();
+        boolean savings = loaded instanceof SavingsAccount;
+        boolean premium = loaded.getAccountHolder() instanceof PremiumCustomer;
+        if (!register(loaded)) return;
+        materializedAccounts.incrementAndGet();
+        if (source.hasBalanceTotals()) {
+            ledger.addTotals(savings ? -balance : 0, savings ? 0 : -balance, premium ? 0 : -balance, premium ? -balance : 0);
+        }
+    }
+
+    /*
+     * Adds the accounts of the attached snapshot that are not materialized yet to the index,
+     * reading only their type and status bytes. Runs once per snapshot, on the first filtered
+     * listing or count. An account materialized meanwhile is re-indexed from its live status,
+     * which may have changed since the snapshot was written.
+     */
+    private static void indexSnapshot() {
+        AccountSnapshot source = snapshot;
+        if (source == null || indexedSnapshot == source) return;
+        synchronized (AccountManagement.class) {
+            if (snapshot != source || indexedSnapshot == source) return;
+            for (int id = 0; id < source.getAccountSlots(); id++) {
+                AccountType type = source.accountTypeAt(id);
+                if (type == null) continue;
+                index.add(id, type, source.accountStatusAt(id));
+                Account live = stored(id);
+                if (live != null) index.update(live);
+            }
+            indexedSnapshot = source;
+        }
+    }
+
+    // Attaches the account to the ledger and the index, stores it and indexes its customer;
+    // returns false (and detaches it) if the id is taken.
+    private static boolean register(Account account) {
+        account.attachLedger(ledger);
+        AccountTable table = offHeap;
+        boolean added;
+        if (table == null) {
+            added = accounts.putIfAbsent(account.getAccountId(), account);
+        } else {
+            // Views resolve their holder by customer id, so the customer must be known before the record is
+            CustomerManagement.addCustomer(account.getAccountHolder());
+            added = table.insert(account);
+        }
+        if (added) {
+            account.attachIndex(index);
+            CustomerManagement.addAccount(account);
+            return true;
+        }
+        account.detachLedger();
+        return false;
+    }
+
+    // Returns the stored account (a view of its record when off-heap), or null if there is none.
+    private static Account stored(int accountId) {
+        AccountTable table = offHeap;
+        return table == null ? accounts.get(accountId) : table.read(accountId);
+    }
+
+    // Number of stored accounts, not counting snapshot accounts not yet materialized
+    private static int storedCount() {
+        AccountTable table = offHeap;
+        return table == null ? accounts.size() : table.size();
+    }
+
+    // Visits every stored account in ascending id order.
+    private static void forEachAccount(Consumer<Account> action) {
+        AccountTable table = offHeap;
+        if (table == null) {
+            accounts.forEach(action);
+            return;
+        }
+        int highest = table.highestId();
+        for (int id = 0; id <= highest; id++) {
+            Account account = table.read(id);
+            if (account != null) action.accept(account);
+        }
     }
 }
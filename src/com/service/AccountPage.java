@@ -0,0 +1,37 @@
+package com.service;
+import java.util.Collections;
+import java.util.List;
+import com.models.Account;
+
+// One page of an account listing, returned by AccountManagement.listAccounts.
+// The next cursor is the numeric id of the first account of the following page; passing it
+// back as the cursor resumes the listing where this page ended, even if accounts were added
+// in between. A cursor of -1 means the listing is complete.
+public final class AccountPage {
+
+    // Cursor value marking the end of the listing
+    public static final int END = -1;
+
+    private final List<Account> accounts;
+    private final int nextCursor;
+
+    AccountPage(List<Account> accounts, int nextCursor) {
+        this.accounts = Collections.unmodifiableList(accounts);
+        this.nextCursor = nextCursor;
+    }
+
+    // Accounts on this page, in ascending account number order
+    public List<Account> getAccounts() {
+        return accounts;
+    }
+
+    // Cursor of the next page, or END if this is the last page
+    public int getNextCursor() {
+        return nextCursor;
+    }
+
+    // True if another page follows
+    public boolean hasMore() {
+        return nextCursor != END;
+    }
+}
@@ -1,6 +1,8 @@
 
 package com.service;
 import com.utilities.CustomUtils;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.util.Scanner;
 import com.models.*;
 
@@ -19,6 +21,9 @@ import com.models.*;
 // with account creation, ensuring data integrity and providing user-friendly error messages.
 public class AccountService {
 
+    // Number of accounts shown per page of the listing
+    private static final int PAGE_SIZE = 20;
+
     // Data management layer for account operations
     private final AccountManagement accountManagement;
 
@@ -33,46 +38,76 @@ public class AccountService {
 
     // Guides the user through the account creation process.
     // Workflow:
-    // 1. Collect and validate customer information (name, age, contact, address)
-    // 2. Prompt for customer type (Regular or Premium)
-    // 3. Prompt for account type (Savings or Checking)
-    // 4. Validate initial deposit amount based on requirements
-    // 5. Create Customer and Account objects
-    // 6. Add account to the system and display confirmation
+    // 1. Ask for an existing customer's ID or contact number, or register a new customer:
+    //    collect and validate customer information (name, age, contact, address) and
+    //    prompt for customer type (Regular or Premium)
+    // 2. Prompt for account type (Savings or Checking)
+    // 3. Validate initial deposit amount based on requirements
+    // 4. Create the Customer (if new) and Account objects
+    // 5. Add account to the system and display confirmation
+    // A contact number can only belong to one customer; new customers with a registered
+    // contact are sent to the existing customer instead.
     public void createAccount() {
 
-        String customerName, customerAddress, customerContact;
-        int customerAge;
+        String customerName = null, customerAddress = null, customerContact = null;
+        int customerAge = 0;
 
         System.out.println("ACCOUNT CREATION");
         System.out.println("====================================");
-        customerName = CustomUtils.validateCustomerNameInput(scanner);
-        if (customerName == null) return;
-        customerAge = CustomUtils.validateCustomerAgeInput(scanner);
-        if (customerAge == -1) return;
-        customerContact = CustomUtils.validateCustomerContactInput(scanner);
-        if (customerContact == null) return;
-        customerAddress = CustomUtils.validateCustomerAddressInput(scanner);
-        if (customerAddress == null) return;
-        String customerTypeInput = CustomUtils.validateCustomerTypeInput(scanner);
-        if (customerTypeInput == null) return;
+        String existingCustomer = CustomUtils.validateExistingCustomerInput(scanner);
+        if (existingCustomer == null) return;
+
+        Customer customer = null;
+        String customerTypeInput;
+        if (!existingCustomer.isEmpty()) {
+            customer = existingCustomer.regionMatches(true, 0, Customer.CUSTOMER_ID_PREFIX, 0, 3)
+                    ? CustomerManagement.findCustomer(existingCustomer)
+                    : CustomerManagement.findCustomerByContact(existingCustomer);
+            if (customer == null) {
+                System.out.println("Customer not found. Account creation aborted.");
+                return;
+            }
+            System.out.printf("Customer: %s (%s, %s) - %d existing account(s)\n", customer.getName(),
+                    customer.getCustomerId(), customer.getCustomerType(),
+                    CustomerManagement.getAccountIds(customer.getNumericId()).length);
+            customerTypeInput = customer instanceof PremiumCustomer ? "2" : "1";
+        } else {
+            customerName = CustomUtils.validateCustomerNameInput(scanner);
+            if (customerName == null) return;
+            customerAge = CustomUtils.validateCustomerAgeInput(scanner);
+            if (customerAge == -1) return;
+            customerContact = CustomUtils.validateCustomerContactInput(scanner);
+            if (customerContact == null) return;
+            Customer owner = CustomerManagement.findCustomerByContact(customerContact);
+            if (owner != null) {
+                System.out.println("Contact " + customerContact + " is already registered to customer "
+                        + owner.getCustomerId() + ". Enter that customer ID to open another account.");
+                return;
+            }
+            customerAddress = CustomUtils.validateCustomerAddressInput(scanner);
+            if (customerAddress == null) return;
+            customerTypeInput = CustomUtils.validateCustomerTypeInput(scanner);
+            if (customerTypeInput == null) return;
+        }
         String accounTypeInput = CustomUtils.validateAccountTypeInput(scanner);
         if (accounTypeInput == null) return;
 
-        double initialDepositAmount = CustomUtils.validateInitialDepositInput(scanner, customerTypeInput, accounTypeInput);
-
-        // Determine customer type
-        Customer customer;
-        switch (customerTypeInput) {
-            case "1":
-                customer = new RegularCustomer(customerName, customerAge, customerContact, customerAddress);
-                break;
-            case "2":
-                customer = new PremiumCustomer(customerName, customerAge, customerContact, customerAddress);
-                break;
-            default:
-                System.out.println("Invalid customer type. Account creation aborted.");
-                return;
+        long initialDepositAmount = CustomUtils.validateInitialDepositInput(scanner, customerTypeInput, accounTypeInput);
+        if (initialDepositAmount == -1) return;
+
+        // Determine customer type for a new customer
+        if (customer == null) {
+            switch (customerTypeInput) {
+                case "1":
+                    customer = new RegularCustomer(customerName, customerAge, customerContact, customerAddress);
+                    break;
+                case "2":
+                    customer = new PremiumCustomer(customerName, customerAge, customerContact, customerAddress);
+                    break;
+                default:
+                    System.out.println("Invalid customer type. Account creation aborted.");
+                    return;
+            }
         }
 
         // Determine account type
@@ -89,37 +124,51 @@ public class AccountService {
                 return;
         }
 
-        // Add account and display confirmation
-        accountManagement.addAccount(newAccount);
+        // Add account and display confirmation; addAccount reports a refused account itself
+        if (!accountManagement.addAccount(newAccount)) return;
         System.out.println("Account created successfully!");
         System.out.println(newAccount);
 
         CustomUtils.promptEnterKey(scanner);
     }
 
-    // Displays a formatted listing of all accounts in the system.
+    // Displays a paginated listing of the accounts in the system, optionally filtered by type and status.
     // Shows account number, customer name, account type, balance, status, and account-specific details.
-    // Also displays summary info: total accounts and total balance.
+    // Pages of PAGE_SIZE accounts are fetched with a resume cursor and rendered through a buffered
+    // renderer, so only the pages the user asks for are read and written to the console.
+    // Matching accounts are found and counted with the status and type bitmaps (see AccountIndex).
+    // Also displays summary info: matching accounts, total accounts and total balance.
     public void viewAllAccounts() {
         System.out.println("ACCOUNT LISTING");
-        System.out.println("====================================================");
-        System.out.println("ACC NO | CUSTOMER NAME | TYPE | BALANCE | STATUS");
-        System.out.println("====================================================");
-
-        Account[] allAccounts = accountManagement.viewAllAccounts();
-        for (int i = 0; i < accountManagement.accountCount; i++) {
-            Account account = allAccounts[i];
-            System.out.printf("%s | %s | %s | $%.2f | %s | %s\n",
-                    account.getAccountNumber(),
-                    account.getCustomer(),
-                    account.getAccountType(),
-                    account.getBalance(),
-                    account.getStatus(),
-                    account.getAccountSpecificDetails());
+        String typeInput = CustomUtils.validateAccountTypeFilterInput(scanner);
+        if (typeInput == null) return;
+        String statusInput = CustomUtils.validateAccountStatusFilterInput(scanner);
+        if (statusInput == null) return;
+        AccountType accountType = AccountType.parse(typeInput);
+        AccountStatus status = AccountStatus.parse(statusInput);
+
+        // Not closed: closing it would close System.out
+        Writer console = new OutputStreamWriter(System.out);
+        AccountListingRenderer renderer = new AccountListingRenderer(console, AccountListingRenderer.DEFAULT_FLUSH_THRESHOLD);
+        renderer.writeHeader();
+        int cursor = 0;
+        int shown = 0;
+        while (true) {
+            AccountPage page = AccountManagement.listAccounts(cursor, PAGE_SIZE, accountType, status);
+            for (Account account : page.getAccounts()) renderer.writeRow(account);
+            shown += page.getAccounts().size();
+            renderer.flush();
+            if (!page.hasMore()) break;
+            System.out.printf("Showing %d account(s). Enter N for the next page, or press Enter to stop: ", shown);
+            if (!scanner.nextLine().strip().equalsIgnoreCase("N")) break;
+            cursor = page.getNextCursor();
         }
 
-        System.out.printf("Total Accounts: %d\nTotal Bank Balance: $%.2f\n",
-                accountManagement.getAccountCount(), accountManagement.getTotalBalance());
+        if (accountType != null || status != null) {
+            System.out.printf("Matching Accounts: %d\n", AccountManagement.countAccounts(accountType, status));
+        }
+        System.out.printf("Total Accounts: %d\nTotal Bank Balance: $%s\n",
+                accountManagement.getAccountCount(), Money.format(accountManagement.getTotalBalance()));
         CustomUtils.promptEnterKey(scanner);
     }
 }
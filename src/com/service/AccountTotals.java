@@ -0,0 +1,194 @@
+package com.service;
+import com.models.TransactionType;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+// Running transaction aggregates for every account, kept up to date on each posting.
+// For each account it holds the deposit count and sum, the withdrawal count and sum
+// (in cents) and the timestamp of the last posting, so summary queries cost O(1)
+// however long the account's history is. Every credit kind (deposits, incoming transfers,
+// interest, reversal credits) counts as a deposit and every debit kind as a withdrawal,
+// so the net change always matches the balance movement. The latest interest period each
+// account has been credited for, and the latest fee period it has been charged for, are
+// kept alongside; because totals are rebuilt from the transactions on recovery, these
+// markers survive restarts with the postings that set them.
+//
+// Aggregates live in primitive long arrays indexed by numeric account id: chunks of
+// 4096 accounts with the seven values of one account next to each other, so a summary
+// read touches a single cache line or two. Updates are atomic adds through a VarHandle
+// and never lock; only allocating a new chunk takes the monitor.
+//
+// Every value is exact on its own. A summary read while postings are in flight for the
+// same account may combine values from before and after one of them.
+public class AccountTotals {
+
+    // Number of low id bits addressing an account inside a chunk
+    private static final int CHUNK_BITS = 12;
+
+    // Number of accounts per chunk (4096)
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+
+    // Mask selecting the account part of an id
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    // Layout of one account's aggregates inside a chunk
+    private static final int DEPOSIT_COUNT = 0;
+    private static final int DEPOSIT_TOTAL = 1;
+    private static final int WITHDRAWAL_COUNT = 2;
+    private static final int WITHDRAWAL_TOTAL = 3;
+    private static final int LAST_ACTIVITY = 4;
+    private static final int LAST_INTEREST_PERIOD = 5;
+    private static final int LAST_FEE_PERIOD = 6;
+    private static final int FIELDS = 7;
+
+    // Atomic access to the elements of a chunk
+    private static final VarHandle VALUE = MethodHandles.arrayElementVarHandle(long[].class);
+
+    // Snapshot of one account's aggregates
+    public static final class Summary {
+        private final long depositCount;
+        private final long depositTotal;
+        private final long withdrawalCount;
+        private final long withdrawalTotal;
+        private final long lastActivity;
+
+        Summary(long depositCount, long depositTotal, long withdrawalCount, long withdrawalTotal, long lastActivity) {
+            this.depositCount = depositCount;
+            this.depositTotal = depositTotal;
+            this.withdrawalCount = withdrawalCount;
+            this.withdrawalTotal = withdrawalTotal;
+            this.lastActivity = lastActivity;
+        }
+
+        public long getDepositCount() {
+            return depositCount;
+        }
+
+        // Sum of all deposits in cents
+        public long getDepositTotal() {
+            return depositTotal;
+        }
+
+        public long getWithdrawalCount() {
+            return withdrawalCount;
+        }
+
+        // Sum of all withdrawals in cents
+        public long getWithdrawalTotal() {
+            return withdrawalTotal;
+        }
+
+        // Number of postings of every type
+        public long getTransactionCount() {
+            return depositCount + withdrawalCount;
+        }
+
+        // Deposits minus withdrawals, in cents
+        public long getNetChange() {
+            return depositTotal - withdrawalTotal;
+        }
+
+        // Epoch milliseconds of the latest posting, or 0 if the account has none
+        public long getLastActivity() {
+            return lastActivity;
+        }
+    }
+
+    // Chunks of aggregates; the directory is replaced with a larger copy when ids grow past it
+    private volatile long[][] chunks = new long[16][];
+
+    // Adds one posting to the aggregates of its account; the reference of an INTEREST or FEE posting is its period.
+    void record(int accountId, TransactionType type, long amountCents, long epochMillis, long reference) {
+        long[] chunk = chunkFor(accountId);
+        int base = (accountId & CHUNK_MASK) * FIELDS;
+        if (type.isCredit()) {
+            VALUE.getAndAdd(chunk, base + DEPOSIT_COUNT, 1L);
+            VALUE.getAndAdd(chunk, base + DEPOSIT_TOTAL, amountCents);
+        } else {
+            VALUE.getAndAdd(chunk, base + WITHDRAWAL_COUNT, 1L);
+            VALUE.getAndAdd(chunk, base + WITHDRAWAL_TOTAL, amountCents);
+        }
+        raiseTo(chunk, base + LAST_ACTIVITY, epochMillis);
+        if (type == TransactionType.INTEREST) raiseTo(chunk, base + LAST_INTEREST_PERIOD, reference);
+        else if (type == TransactionType.FEE) raiseTo(chunk, base + LAST_FEE_PERIOD, reference);
+    }
+
+    // Returns the latest interest period (yyyyMM) credited to the account, or 0 if none.
+    public long getLastInterestPeriod(int accountId) {
+        return read(accountId, LAST_INTEREST_PERIOD);
+    }
+
+    // Returns the latest fee period (yyyyMM) charged to the account, or 0 if none.
+    public long getLastFeePeriod(int accountId) {
+        return read(accountId, LAST_FEE_PERIOD);
+    }
+
+    // Atomically raises an element to the given value if it is currently lower.
+    private static void raiseTo(long[] chunk, int index, long value) {
+        long current = (long) VALUE.getVolatile(chunk, index);
+        while (value > current && !VALUE.weakCompareAndSet(chunk, index, current, value)) {
+            current = (long) VALUE.getVolatile(chunk, index);
+        }
+    }
+
+    // Returns the sum of the account's deposits in cents (0 for unknown accounts).
+    public long getDepositTotal(int accountId) {
+        return read(accountId, DEPOSIT_TOTAL);
+    }
+
+    // Returns the sum of the account's withdrawals in cents (0 for unknown accounts).
+    public long getWithdrawalTotal(int accountId) {
+        return read(accountId, WITHDRAWAL_TOTAL);
+    }
+
+    // Returns all aggregates of the account; accounts without postings get all zeros.
+    public Summary getSummary(int accountId) {
+        long[] chunk = chunkOf(accountId);
+        if (chunk == null) return new Summary(0, 0, 0, 0, 0);
+        int base = (accountId & CHUNK_MASK) * FIELDS;
+        return new Summary((long) VALUE.getVolatile(chunk, base + DEPOSIT_COUNT),
+                (long) VALUE.getVolatile(chunk, base + DEPOSIT_TOTAL),
+                (long) VALUE.getVolatile(chunk, base + WITHDRAWAL_COUNT),
+                (long) VALUE.getVolatile(chunk, base + WITHDRAWAL_TOTAL),
+                (long) VALUE.getVolatile(chunk, base + LAST_ACTIVITY));
+    }
+
+    // Reads one aggregate of an account.
+    private long read(int accountId, int field) {
+        long[] chunk = chunkOf(accountId);
+        return chunk == null ? 0 : (long) VALUE.getVolatile(chunk, (accountId & CHUNK_MASK) * FIELDS + field);
+    }
+
+    // Returns the chunk holding the account, or null if none has been allocated.
+    private long[] chunkOf(int accountId) {
+        if (accountId < 0) return null;
+        long[][] dir = chunks;
+        int index = accountId >>> CHUNK_BITS;
+        return index < dir.length ? dir[index] : null;
+    }
+
+    // Returns the chunk holding the account, allocating it (and growing the directory) if needed.
+    private long[] chunkFor(int accountId) {
+        long[] chunk = chunkOf(accountId);
+        if (chunk != null) return chunk;
+        if (accountId < 0) throw new IllegalArgumentException("Account id must not be negative: " + accountId);
+        synchronized (this) {
+            long[][] dir = chunks;
+            int index = accountId >>> CHUNK_BITS;
+            if (index >= dir.length) {
+                int newLength = dir.length;
+                while (newLength <= index) newLength <<= 1;
+                long[][] grown = new long[newLength][];
+                System.arraycopy(dir, 0, grown, 0, dir.length);
+                dir = grown;
+            }
+            if (dir[index] == null) {
+                // Copy-on-write so readers only ever see fully initialized directories
+                if (dir == chunks) dir = dir.clone();
+                dir[index] = new long[CHUNK_SIZE * FIELDS];
+            }
+            chunks = dir;
+            return dir[index];
+        }
+    }
+}
@@ -0,0 +1,398 @@
+package com.service;
+import com.models.*;
+import com.utilities.InputValidator;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Service layer for non-interactive, bulk transaction posting.
+// Reads a stream of "accountNumber,type,amount" records (for example "ACC001,Deposit,250.00")
+// and posts them without any console prompts. Blank lines and lines starting with '#' are skipped.
+//
+// The work runs as a pipeline over blocks of records:
+// 1. Read    - the calling thread reads the input in blocks of BLOCK_SIZE lines.
+// 2. Parse   - blocks are parsed and validated in parallel on a worker pool.
+// 3. Apply   - accounts are partitioned by id; each partition thread applies its own records
+//              in input order through Account.postTransaction, so the same account rules as the
+//              console apply, and records successful postings in TransactionManagement.
+// 4. Report  - a reporter thread writes one outcome line per record, in input order.
+//
+// Records for the same account are always applied in file order; records for different
+// accounts are applied concurrently.
+//
+// When a write-ahead log is attached, postings are journaled without waiting and each partition
+// waits for durability once per block, so one fsync covers many postings. Outcomes are only
+// reported after their block is durable. If journaling fails, the remaining records are rejected
+// and ingest throws the failure.
+public class BatchTransactionService {
+
+    // Number of input lines per pipeline block
+    private static final int BLOCK_SIZE = 4096;
+
+    // Maximum number of blocks in flight between pipeline stages
+    private static final int QUEUE_CAPACITY = 64;
+
+    // Per-record outcome codes
+    private static final byte PENDING = 0;
+    private static final byte POSTED = 1;
+    private static final byte REJECTED = 2;
+    private static final byte MALFORMED = 3;
+    private static final byte UNKNOWN_ACCOUNT = 4;
+    private static final byte INVALID_TYPE = 5;
+    private static final byte INVALID_AMOUNT = 6;
+    private static final byte SKIPPED = 7;
+
+    // Display text for each outcome code
+    private static final String[] OUTCOME_TEXT = {
+            "PENDING", "POSTED", "REJECTED - check balance or account rules", "MALFORMED - expected account,type,amount",
+            "UNKNOWN ACCOUNT", "INVALID TYPE - expected Deposit or Withdrawal", "INVALID AMOUNT", "SKIPPED"
+    };
+
+    // Marker telling apply and report threads that the input is exhausted
+    private static final Block END = new Block(-1, new String[0], 0, 0);
+
+    // Data management layer for account operations
+    private final AccountManagement accountManagement;
+
+    // First journal failure seen by an apply thread during the current ingest
+    private volatile UncheckedIOException journalFailure;
+
+    // First unexpected failure of an apply thread during the current ingest (e.g. a block that failed to parse)
+    private volatile RuntimeException applyFailure;
+
+    // Data management layer for transaction operations
+    private final TransactionManagement transactionManagement;
+
+    // Number of parse threads and apply partitions
+    private final int parallelism;
+
+    // One block of input lines and the per-record results of every stage
+    private static final class Block {
+        final long firstLine;
+        final String[] lines;
+        final int count;
+        final int[] accountIds;
+        final TransactionType[] types;
+        final long[] amounts;
+        final long[] balancesAfter;
+        final byte[] outcomes;
+        final CompletableFuture<Void> parsed = new CompletableFuture<>();
+        final CountDownLatch applied;
+
+        // Set by a partition that could not apply its part of the block; see applyLoop
+        volatile boolean failed;
+
+        Block(long firstLine, String[] lines, int count, int partitions) {
+            this.firstLine = firstLine;
+            this.lines = lines;
+            this.count = count;
+            this.accountIds = new int[count];
+            this.types = new TransactionType[count];
+            this.amounts = new long[count];
+            this.balancesAfter = new long[count];
+            this.outcomes = new byte[count];
+            this.applied = new CountDownLatch(partitions);
+        }
+    }
+
+    // Summary of one batch run.
+    public static final class Report {
+        private long records;
+        private long posted;
+        private long rejected;
+        private long invalid;
+        private long elapsedNanos;
+
+        // Total number of records read (excluding blank and comment lines)
+        public long getRecords() {
+            return records;
+        }
+
+        // Number of records posted successfully
+        public long getPosted() {
+            return posted;
+        }
+
+        // Number of well-formed records rejected by account rules
+        public long getRejected() {
+            return rejected;
+        }
+
+        // Number of records that failed parsing or validation
+        public long getInvalid() {
+            return invalid;
+        }
+
+        // Wall-clock duration of the run in nanoseconds
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        // Records processed per second
+        public double getThroughput() {
+            return elapsedNanos == 0 ? 0 : records / (elapsedNanos / 1e9);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Records: %d\nPosted: %d\nRejected: %d\nInvalid: %d\nElapsed: %.3f s\nThroughput: %.0f records/s",
+                    records, posted, rejected, invalid, elapsedNanos / 1e9, getThroughput());
+        }
+    }
+
+    // Constructs a batch service using one parse thread and one apply partition per core.
+    public BatchTransactionService(AccountManagement accountManagement, TransactionManagement transactionManagement) {
+        this(accountManagement, transactionManagement, Runtime.getRuntime().availableProcessors());
+    }
+
+    // Constructs a batch service with the given number of parse threads and apply partitions.
+    public BatchTransactionService(AccountManagement accountManagement, TransactionManagement transactionManagement,
+                                   int parallelism) {
+        this.accountManagement = accountManagement;
+        this.transactionManagement = transactionManagement;
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    /*
+     * Posts every record of the input file and writes the per-record outcomes to the outcome file.
+     * Returns a summary with per-outcome counts and throughput.
+     */
+    public Report ingestFile(Path input, Path outcomes) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(input);
+             BufferedWriter writer = Files.newBufferedWriter(outcomes)) {
+            return ingest(reader, writer);
+        }
+    }
+
+    /*
+     * Posts every record from the input and writes one outcome line per record to the output:
+     * "line,accountNumber,type,amount,outcome[,balanceAfter]".
+     * Returns a summary with per-outcome counts and throughput.
+     */
+    public Report ingest(BufferedReader input, Writer outcomes) throws IOException {
+        Report report = new Report();
+        long start = System.nanoTime();
+        journalFailure = null;
+        applyFailure = null;
+        ExecutorService parsers = Executors.newFixedThreadPool(parallelism);
+        List<BlockingQueue<Block>> partitionQueues = new ArrayList<>(parallelism);
+        Thread[] appliers = new Thread[parallelism];
+        for (int p = 0; p < parallelism; p++) {
+            BlockingQueue<Block> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+            partitionQueues.add(queue);
+            int partition = p;
+            appliers[p] = new Thread(() -> applyLoop(partition, queue), "batch-apply-" + p);
+            appliers[p].start();
+        }
+        BlockingQueue<Block> reportQueue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        IOException[] writeFailure = new IOException[1];
+        Thread reporter = new Thread(() -> reportLoop(reportQueue, outcomes, report, writeFailure), "batch-report");
+        reporter.start();
+
+        try {
+            long lineNumber = 1;
+            String[] lines = new String[BLOCK_SIZE];
+            int count = 0;
+            String line;
+            while ((line = input.readLine()) != null) {
+                lines[count++] = line;
+                if (count == BLOCK_SIZE) {
+                    dispatch(new Block(lineNumber, lines, count, parallelism), parsers, partitionQueues, reportQueue);
+                    lineNumber += count;
+                    lines = new String[BLOCK_SIZE];
+                    count = 0;
+                }
+            }
+            if (count > 0) dispatch(new Block(lineNumber, lines, count, parallelism), parsers, partitionQueues, reportQueue);
+            for (BlockingQueue<Block> queue : partitionQueues) queue.put(END);
+            reportQueue.put(END);
+            for (Thread applier : appliers) applier.join();
+            reporter.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            for (Thread applier : appliers) applier.interrupt();
+            reporter.interrupt();
+            throw new IOException("Batch ingestion interrupted", e);
+        } finally {
+            parsers.shutdown();
+        }
+        if (journalFailure != null) throw journalFailure.getCause();
+        if (applyFailure != null) throw applyFailure;
+        if (writeFailure[0] != null) throw writeFailure[0];
+        outcomes.flush();
+        report.elapsedNanos = System.nanoTime() - start;
+        return report;
+    }
+
+    // Hands a block to the parse pool and queues it for every partition and the reporter.
+    private void dispatch(Block block, ExecutorService parsers, List<BlockingQueue<Block>> partitionQueues,
+                          BlockingQueue<Block> reportQueue) throws InterruptedException {
+        parsers.execute(() -> {
+            try {
+                parse(block);
+                block.parsed.complete(null);
+            } catch (RuntimeException e) {
+                block.parsed.completeExceptionally(e);
+            }
+        });
+        for (BlockingQueue<Block> queue : partitionQueues) queue.put(block);
+        reportQueue.put(block);
+    }
+
+    // Parses and validates every line of a block into its primitive columns.
+    private void parse(Block block) {
+        for (int i = 0; i < block.count; i++) {
+            String line = block.lines[i].strip();
+            if (line.isEmpty() || line.charAt(0) == '#') {
+                block.outcomes[i] = SKIPPED;
+                continue;
+            }
+            int firstComma = line.indexOf(',');
+            int secondComma = firstComma < 0 ? -1 : line.indexOf(',', firstComma + 1);
+            if (secondComma < 0 || line.indexOf(',', secondComma + 1) >= 0) {
+                block.outcomes[i] = MALFORMED;
+                continue;
+            }
+            // Fields are validated in place, without substrings
+            int accountId = InputValidator.parseAccountId(line,
+                    InputValidator.stripStart(line, 0, firstComma), InputValidator.stripEnd(line, 0, firstComma));
+            if (accountId < 0 || AccountManagement.findAccount(accountId) == null) {
+                block.outcomes[i] = UNKNOWN_ACCOUNT;
+                continue;
+            }
+            // Batch files may only carry customer postings; other kinds are created by the bank itself
+            TransactionType type = TransactionType.parse(line, InputValidator.stripStart(line, firstComma + 1, secondComma),
+                    InputValidator.stripEnd(line, firstComma + 1, secondComma));
+            if (type != TransactionType.DEPOSIT && type != TransactionType.WITHDRAWAL) {
+                block.outcomes[i] = INVALID_TYPE;
+                continue;
+            }
+            int amountStart = InputValidator.stripStart(line, secondComma + 1, line.length());
+            int amountEnd = InputValidator.stripEnd(line, secondComma + 1, line.length());
+            long amount = InputValidator.checkAmount(line, amountStart, amountEnd) == InputValidator.OK
+                    ? Money.parse(line, amountStart, amountEnd) : -1;
+            if (amount <= 0) {
+                block.outcomes[i] = INVALID_AMOUNT;
+                continue;
+            }
+            block.accountIds[i] = accountId;
+            block.types[i] = type;
+            block.amounts[i] = amount;
+        }
+    }
+
+    // Applies, in input order, the valid records of every block that belong to one partition.
+    // A block that cannot be applied (its parse failed, or an unexpected exception) is marked failed
+    // and the failure kept in applyFailure; the reporter then rejects the records left pending. The
+    // block is always marked applied, so the reporter never waits on it forever.
+    private void applyLoop(int partition, BlockingQueue<Block> queue) {
+        try {
+            for (Block block = queue.take(); block != END; block = queue.take()) {
+                try {
+                    block.parsed.join();
+                    apply(partition, block);
+                } catch (RuntimeException e) {
+                    if (applyFailure == null) {
+                        applyFailure = e instanceof CompletionException && e.getCause() instanceof RuntimeException cause
+                                ? cause : e;
+                    }
+                    block.failed = true;
+                } finally {
+                    block.applied.countDown();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Applies the valid records of one parsed block that belong to the partition, then waits for them to be durable.
+    private void apply(int partition, Block block) {
+        for (int i = 0; i < block.count; i++) {
+            if (block.outcomes[i] != PENDING || block.accountIds[i] % parallelism != partition) continue;
+            if (journalFailure != null || applyFailure != null) {
+                block.outcomes[i] = REJECTED;
+                continue;
+            }
+            Account account = AccountManagement.findAccount(block.accountIds[i]);
+            long balanceAfter;
+            try {
+                balanceAfter = account.postTransaction(block.amounts[i], block.types[i]);
+            } catch (ArithmeticException e) {
+                balanceAfter = Account.REJECTED;
+            }
+            if (balanceAfter == Account.REJECTED) {
+                block.outcomes[i] = REJECTED;
+            } else {
+                try {
+                    transactionManagement.recordTransaction(block.accountIds[i],
+                            block.types[i], block.amounts[i], balanceAfter,
+                            transactionManagement.currentTimeMillis());
+                    block.balancesAfter[i] = balanceAfter;
+                    block.outcomes[i] = POSTED;
+                } catch (UncheckedIOException e) {
+                    journalFailure = e;
+                    block.outcomes[i] = REJECTED;
+                }
+            }
+        }
+        try {
+            transactionManagement.awaitDurable();
+        } catch (UncheckedIOException e) {
+            journalFailure = e;
+        }
+    }
+
+    // Writes the outcome of every record in input order once all partitions are done with its block.
+    // A write failure is kept in writeFailure; the loop keeps draining blocks so the pipeline never stalls.
+    private void reportLoop(BlockingQueue<Block> queue, Writer outcomes, Report report, IOException[] writeFailure) {
+        StringBuilder line = new StringBuilder(128);
+        try {
+            for (Block block = queue.take(); block != END; block = queue.take()) {
+                block.applied.await();
+                if (block.failed) {
+                    // Every partition is done with the block, so this is the only writer left; lines that were
+                    // never parsed or applied are rejected here, whichever partition they would have gone to
+                    for (int i = 0; i < block.count; i++) {
+                        if (block.outcomes[i] == PENDING) block.outcomes[i] = REJECTED;
+                    }
+                }
+                for (int i = 0; i < block.count; i++) {
+                    byte outcome = block.outcomes[i];
+                    if (outcome == SKIPPED) continue;
+                    report.records++;
+                    if (outcome == POSTED) report.posted++;
+                    else if (outcome == REJECTED) report.rejected++;
+                    else report.invalid++;
+
+                    line.setLength(0);
+                    line.append(block.firstLine + i).append(',').append(block.lines[i].strip())
+                            .append(',').append(OUTCOME_TEXT[outcome]);
+                    if (outcome == POSTED) Money.appendTo(line.append(','), block.balancesAfter[i]);
+                    if (writeFailure[0] != null) continue;
+                    try {
+                        outcomes.append(line).append('\n');
+                    } catch (IOException e) {
+                        writeFailure[0] = e;
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
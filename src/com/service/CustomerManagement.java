@@ -0,0 +1,392 @@
+package com.service;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import com.models.Account;
+import com.models.Customer;
+import com.persistence.AccountSnapshot;
+import com.utilities.IdTable;
+import com.utilities.InputValidator;
+
+// Management layer for customer lookups.
+// Customers have no store of their own: they are registered here as the accounts they hold
+// are registered with AccountManagement (new, recovered or materialized from the snapshot),
+// and indexed so they can be found without scanning accounts:
+// - by customer id ("CUS7" -> 7) in an IdTable, like accounts;
+// - by contact number in an open-addressing hash table of packed digits and customer ids,
+//   holding no Strings or boxes; a contact belongs to the first customer registered with it;
+// - by name prefix (case-insensitive) in skip lists ordered by name, then customer id, and
+//   bucketed by the first three characters so a search only descends a small one;
+// - by customer to accounts as two int columns, the first account of each customer and the
+//   next account of the same customer for each account, so the multimap costs 4 bytes per
+//   customer plus 4 bytes per account.
+//
+// Lookups never lock. Registering takes no lock either, except for the contact table, whose
+// writers synchronize; readers are never blocked by them. The name index holds the name a
+// customer was registered with.
+//
+// After a restart no snapshot account is loaded for a customer lookup. A lookup by id reads the
+// customer's record from the snapshot; the first lookup by contact or name (or a count) indexes
+// every customer of the snapshot from its customer section, which holds far fewer records than
+// the account section. The accounts of a customer are merged from the snapshot's per-customer
+// account index and the chain of accounts registered since; only snapshots written before that
+// index existed (version 1 and 2) still load their accounts for it.
+public class CustomerManagement {
+
+    // Customers indexed by their numeric id
+    private static final IdTable<Customer> customers = new IdTable<>();
+
+    // Customer ids indexed by contact number
+    private static final ContactIndex contacts = new ContactIndex();
+
+    // Customers ordered by name, case-insensitively
+    private static final NameIndex names = new NameIndex();
+
+    // First account of each customer, by customer id (account id + 1; 0 for none)
+    private static final IntColumn firstAccount = new IntColumn();
+
+    // Next account of the same customer, by account id (account id + 1; 0 ends the chain)
+    private static final IntColumn nextAccount = new IntColumn();
+
+    // Snapshot whose customers have been added to the indexes; see indexSnapshot
+    private static volatile AccountSnapshot indexedSnapshot;
+
+    // Registers and indexes a customer the first time it is seen.
+    static void addCustomer(Customer customer) {
+        if (customer == null) return;
+        int customerId = customer.getNumericId();
+        if (customers.putIfAbsent(customerId, customer)) {
+            long contact = contactKey(customer.getContact());
+            if (contact != 0) contacts.putIfAbsent(contact, customerId);
+            if (customer.getName() != null) names.add(customer);
+        }
+    }
+
+    // Indexes a newly registered account and, the first time it is seen, its holder.
+    static void addAccount(Account account) {
+        Customer customer = account.getAccountHolder();
+        if (customer == null) return;
+        addCustomer(customer);
+        int customerId = customer.getNumericId();
+        // Push the account onto the customer's chain
+        int accountId = account.getAccountId();
+        int head;
+        do {
+            head = firstAccount.get(customerId);
+            nextAccount.set(accountId, head);
+        } while (!firstAccount.compareAndSet(customerId, head, accountId + 1));
+    }
+
+    // Returns a registered customer without loading the snapshot; used to resolve account holders.
+    static Customer customer(int customerId) {
+        return customers.get(customerId);
+    }
+
+    // Finds a customer by its numeric id; returns null if absent.
+    // A customer of the snapshot is read from its record and indexed on first access.
+    public static Customer findCustomer(int customerId) {
+        Customer customer = customers.get(customerId);
+        if (customer != null) return customer;
+        AccountSnapshot source = AccountManagement.attachedSnapshot();
+        if (source == null) return null;
+        Customer loaded = source.readCustomer(customerId);
+        if (loaded == null) return null;
+        addCustomer(loaded);
+        return customers.get(customerId);
+    }
+
+    // Finds a customer by its display id (e.g. "CUS7", prefix in any case); returns null if absent or malformed.
+    public static Customer findCustomer(String customerId) {
+        int id = InputValidator.parseCustomerId(customerId);
+        return id < 0 ? null : findCustomer(id);
+    }
+
+    // Finds the customer registered with a contact number; returns null if there is none.
+    public static Customer findCustomerByContact(CharSequence contact) {
+        long key = contactKey(contact);
+        if (key == 0) return null;
+        indexSnapshot();
+        int customerId = contacts.get(key);
+        return customerId < 0 ? null : customers.get(customerId);
+    }
+
+    /*
+     * Returns up to limit customers whose name starts with the given prefix, ignoring case,
+     * ordered by name and then customer id. An empty prefix matches every customer.
+     */
+    public static ArrayList<Customer> findCustomersByNamePrefix(String prefix, int limit) {
+        if (limit < 1) throw new IllegalArgumentException("Limit must be positive: " + limit);
+        indexSnapshot();
+        ArrayList<Customer> found = new ArrayList<>(Math.min(limit, 64));
+        names.collect(prefix, limit, found);
+        return found;
+    }
+
+    // Returns the ids of the accounts held by a customer, in ascending order.
+    // Snapshot accounts are listed from the snapshot's customer index without being loaded.
+    public static int[] getAccountIds(int customerId) {
+        AccountSnapshot source = AccountManagement.attachedSnapshot();
+        int[] stored = source == null ? null : source.accountIdsOf(customerId);
+        // Snapshots without a customer index only link their accounts here once they are loaded
+        if (source != null && stored == null) AccountManagement.loadSnapshot();
+        int count = stored == null ? 0 : stored.length;
+        int[] ids = stored == null ? new int[4] : Arrays.copyOf(stored, count + 4);
+        for (int link = firstAccount.get(customerId); link != 0; link = nextAccount.get(link - 1)) {
+            if (count == ids.length) ids = Arrays.copyOf(ids, count * 2);
+            ids[count++] = link - 1;
+        }
+        Arrays.sort(ids, 0, count);
+        // Snapshot accounts loaded since are in both lists
+        int unique = 0;
+        for (int i = 0; i < count; i++) {
+            if (unique == 0 || ids[i] != ids[unique - 1]) ids[unique++] = ids[i];
+        }
+        return Arrays.copyOf(ids, unique);
+    }
+
+    // Returns the accounts held by a customer, ordered by account number.
+    public static ArrayList<Account> getAccounts(Customer customer) {
+        int[] ids = getAccountIds(customer.getNumericId());
+        ArrayList<Account> accounts = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            Account account = AccountManagement.findAccount(id);
+            if (account != null) accounts.add(account);
+        }
+        return accounts;
+    }
+
+    // Retrieves the current number of customers in the system.
+    public static int getCustomerCount() {
+        indexSnapshot();
+        return customers.size();
+    }
+
+    /*
+     * Registers and indexes every customer of the attached snapshot that is not registered yet,
+     * reading only the snapshot's customer records. Runs once per snapshot, on the first lookup
+     * by contact or name or the first count.
+     */
+    private static void indexSnapshot() {
+        AccountSnapshot source = AccountManagement.attachedSnapshot();
+        if (source == null || indexedSnapshot == source) return;
+        synchronized (CustomerManagement.class) {
+            if (indexedSnapshot == source) return;
+            for (int id = 0; id < source.getCustomerSlots(); id++) {
+                if (customers.get(id) == null) addCustomer(source.readCustomer(id));
+            }
+            indexedSnapshot = source;
+        }
+    }
+
+    /*
+     * Packs a contact number into a non-zero long key: the digits' value shifted left by five bits,
+     * with the digit count in the low bits so leading zeros count. Returns 0 for anything that is
+     * not 1 to 17 ASCII digits; such contacts are not indexed.
+     */
+    private static long contactKey(CharSequence contact) {
+        if (contact == null || contact.length() == 0 || contact.length() > 17) return 0;
+        long value = 0;
+        for (int i = 0; i < contact.length(); i++) {
+            char c = contact.charAt(i);
+            if (c < '0' || c > '9') return 0;
+            value = value * 10 + (c - '0');
+        }
+        return value << 5 | contact.length();
+    }
+
+    // Skip list key: a customer's name, ties broken by customer id
+    private static final class NameKey implements Comparable<NameKey> {
+        final String name;
+        final int customerId;
+
+        NameKey(String name, int customerId) {
+            this.name = name;
+            this.customerId = customerId;
+        }
+
+        @Override
+        public int compareTo(NameKey other) {
+            int byName = String.CASE_INSENSITIVE_ORDER.compare(name, other.name);
+            return byName != 0 ? byName : Integer.compare(customerId, other.customerId);
+        }
+    }
+
+    /*
+     * Case-insensitive name index: skip lists bucketed by the first three characters of the name.
+     * Bucket numbers follow the same order as the names in them, so walking the buckets in order
+     * visits every name in order, and a prefix of three or more characters only searches one
+     * bucket, whose skip list is a few levels deep instead of spanning every customer.
+     */
+    private static final class NameIndex {
+
+        // Characters a bucket is chosen by
+        private static final int BUCKET_CHARS = 3;
+
+        // Codes per character: end of name, below 'a', 'a'..'z', above 'z'
+        private static final int CODES = 29;
+
+        private final AtomicReferenceArray<ConcurrentSkipListMap<NameKey, Customer>> buckets =
+                new AtomicReferenceArray<>(CODES * CODES * CODES);
+
+        void add(Customer customer) {
+            int bucket = bucketOf(customer.getName(), BUCKET_CHARS);
+            ConcurrentSkipListMap<NameKey, Customer> names = buckets.get(bucket);
+            if (names == null) {
+                buckets.compareAndSet(bucket, null, new ConcurrentSkipListMap<>());
+                names = buckets.get(bucket);
+            }
+            names.put(new NameKey(customer.getName(), customer.getNumericId()), customer);
+        }
+
+        // Adds up to limit customers whose name starts with prefix to found, in name order.
+        void collect(String prefix, int limit, ArrayList<Customer> found) {
+            int fixed = Math.min(prefix.length(), BUCKET_CHARS);
+            int span = 1;
+            for (int i = fixed; i < BUCKET_CHARS; i++) span *= CODES;
+            // Buckets whose first characters match the prefix form one consecutive range
+            int first = bucketOf(prefix, fixed) * span;
+            NameKey from = new NameKey(prefix, Integer.MIN_VALUE);
+            for (int bucket = first; bucket < first + span; bucket++) {
+                ConcurrentSkipListMap<NameKey, Customer> names = buckets.get(bucket);
+                if (names == null) continue;
+                for (Map.Entry<NameKey, Customer> entry : names.tailMap(from).entrySet()) {
+                    if (!entry.getKey().name.regionMatches(true, 0, prefix, 0, prefix.length())) break;
+                    found.add(entry.getValue());
+                    if (found.size() == limit) return;
+                }
+            }
+        }
+
+        // Combines the codes of the first count characters of name (missing characters code 0).
+        private static int bucketOf(String name, int count) {
+            int bucket = 0;
+            for (int i = 0; i < count; i++) bucket = bucket * CODES + (i < name.length() ? code(name.charAt(i)) : 0);
+            return bucket;
+        }
+
+        // Orders characters the way String.CASE_INSENSITIVE_ORDER does, folded into CODES codes
+        private static int code(char c) {
+            c = Character.toLowerCase(Character.toUpperCase(c));
+            return c < 'a' ? 1 : c > 'z' ? CODES - 1 : c - 'a' + 2;
+        }
+    }
+
+    /*
+     * Hash table from contact keys to customer ids with linear probing, kept at most half full.
+     * Keys and ids live in one Table object that is replaced as a whole when it grows, so a
+     * reader always probes a matching pair of arrays. An id is written before its key is
+     * published with release semantics, so a reader that sees the key sees the id.
+     */
+    private static final class ContactIndex {
+
+        // Release/acquire access to the key array
+        private static final VarHandle KEY = MethodHandles.arrayElementVarHandle(long[].class);
+
+        private static final class Table {
+            final long[] keys;
+            final int[] ids;
+
+            Table(int capacity) {
+                keys = new long[capacity];
+                ids = new int[capacity];
+            }
+        }
+
+        private volatile Table table = new Table(1 << 10);
+
+        // Number of stored keys; guarded by this
+        private int size;
+
+        // Returns the customer id stored for the key, or -1 if there is none.
+        int get(long key) {
+            Table current = table;
+            int mask = current.keys.length - 1;
+            for (int i = slot(key, mask); ; i = (i + 1) & mask) {
+                long stored = (long) KEY.getAcquire(current.keys, i);
+                if (stored == key) return current.ids[i];
+                if (stored == 0) return -1;
+            }
+        }
+
+        // Stores the key unless it is already present; returns true if it was stored.
+        synchronized boolean putIfAbsent(long key, int customerId) {
+            if (get(key) >= 0) return false;
+            if ((size + 1) * 2 > table.keys.length) {
+                Table grown = new Table(table.keys.length * 2);
+                Table current = table;
+                for (int i = 0; i < current.keys.length; i++) {
+                    if (current.keys[i] != 0) insert(grown, current.keys[i], current.ids[i]);
+                }
+                table = grown;
+            }
+            insert(table, key, customerId);
+            size++;
+            return true;
+        }
+
+        private static void insert(Table target, long key, int customerId) {
+            int mask = target.keys.length - 1;
+            int i = slot(key, mask);
+            while (target.keys[i] != 0) i = (i + 1) & mask;
+            target.ids[i] = customerId;
+            KEY.setRelease(target.keys, i, key);
+        }
+
+        private static int slot(long key, int mask) {
+            return (int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+        }
+    }
+
+    /*
+     * Growable int column indexed by a non-negative id, in chunks of 4096 allocated on demand;
+     * ids without a value read as 0. Element access is volatile, and compareAndSet lets
+     * writers update a value without locking.
+     */
+    private static final class IntColumn {
+
+        private static final int CHUNK_BITS = 12;
+        private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+        private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+        private static final VarHandle VALUE = MethodHandles.arrayElementVarHandle(int[].class);
+
+        private volatile int[][] chunks = new int[16][];
+
+        int get(int id) {
+            int[][] directory = chunks;
+            int chunkIndex = id >>> CHUNK_BITS;
+            int[] chunk = chunkIndex < directory.length ? directory[chunkIndex] : null;
+            return chunk == null ? 0 : (int) VALUE.getVolatile(chunk, id & CHUNK_MASK);
+        }
+
+        void set(int id, int value) {
+            VALUE.setVolatile(chunkFor(id), id & CHUNK_MASK, value);
+        }
+
+        boolean compareAndSet(int id, int expected, int value) {
+            return VALUE.compareAndSet(chunkFor(id), id & CHUNK_MASK, expected, value);
+        }
+
+        // Returns the chunk holding the given id, allocating it (and growing the directory) if needed.
+        private int[] chunkFor(int id) {
+            int chunkIndex = id >>> CHUNK_BITS;
+            int[][] directory = chunks;
+            if (chunkIndex < directory.length && directory[chunkIndex] != null) return directory[chunkIndex];
+            synchronized (this) {
+                directory = chunks;
+                if (chunkIndex >= directory.length) {
+                    int newLength = directory.length;
+                    while (newLength <= chunkIndex) newLength <<= 1;
+                    directory = Arrays.copyOf(directory, newLength);
+                }
+                if (directory[chunkIndex] == null) directory[chunkIndex] = new int[CHUNK_SIZE];
+                chunks = directory;
+                return directory[chunkIndex];
+            }
+        }
+    }
+}
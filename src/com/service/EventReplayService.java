@@ -0,0 +1,381 @@
+package com.service;
+import com.models.*;
+import com.persistence.WriteAheadLog;
+import com.utilities.IdTable;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// Service that rebuilds accounts, balances and transaction history from the write-ahead log
+// alone, treating it as an event stream: an ACCOUNT_CREATED record is the account's first
+// event (with its opening balance and customer), and every POSTING record and each leg of a
+// TRANSFER record is a posting event. Used in event-sourcing mode (see AppHandler), where the
+// log is never truncated, instead of restoring a snapshot.
+//
+// The log is replayed in windows of segments, on a ForkJoinPool:
+// 1. Decode: the window's segments are read and checksummed in parallel, one task per segment.
+//    Account creations are registered at once; postings are sorted into columnar buffers per
+//    account partition (account id mod the number of partitions), one set per segment.
+// 2. Apply: one task per partition replays the partition's postings of every segment of the
+//    window in segment order, so each account sees its postings in LSN order. Balances are
+//    kept in partition-local arrays and written to the accounts once at the end; partitions
+//    never share an account, so nothing is locked.
+// Progress is printed after each window.
+//
+// Every posting is checked against its balanceAfter: balanceAfter - delta must equal the
+// account's balance after its previous posting. Concurrent postings to one account can reach
+// the log in a different order than they changed the balance, so a posting whose predecessor
+// has not been replayed yet is held back (up to MAX_PENDING per account) until it has. A
+// posting that never fits is reported as a mismatch and the check continues from the replayed
+// balance, so one bad balanceAfter is reported once. Balances are the sum of the deltas, as in
+// RecoveryService, so they do not depend on that order either.
+public class EventReplayService {
+
+    // Postings held back per account before the oldest is reported as a mismatch
+    private static final int MAX_PENDING = 64;
+
+    // Mismatches described in the summary; the rest are only counted
+    private static final int REPORTED_MISMATCHES = 10;
+
+    // Partitions per worker thread, so partitions of uneven size still balance across the pool
+    private static final int PARTITIONS_PER_THREAD = 4;
+
+    // Data management layer for transaction operations
+    private final TransactionManagement transactionManagement;
+
+    // Pool the segments and partitions are processed on
+    private final ForkJoinPool pool;
+
+    // Customers rebuilt so far, keyed by numeric customer id
+    private final IdTable<Customer> customers = new IdTable<>();
+
+    private final Partition[] partitions;
+    private final AtomicInteger accountsRebuilt = new AtomicInteger();
+    private final AtomicInteger highestAccountId = new AtomicInteger(-1);
+    private final AtomicInteger highestCustomerId = new AtomicInteger(-1);
+    private final LongAdder postings = new LongAdder();
+    private final LongAdder orphanedPostings = new LongAdder();
+    private final LongAdder mismatches = new LongAdder();
+    private final List<String> reportedMismatches = new ArrayList<>();
+    private long elapsedNanos;
+
+    // Constructs the service replaying on the given number of threads.
+    public EventReplayService(TransactionManagement transactionManagement, int parallelism) {
+        if (parallelism < 1) throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+        this.transactionManagement = transactionManagement;
+        this.pool = new ForkJoinPool(parallelism);
+        this.partitions = new Partition[parallelism * PARTITIONS_PER_THREAD];
+        for (int i = 0; i < partitions.length; i++) partitions[i] = new Partition(i);
+    }
+
+    /*
+     * True if the log in the directory starts at LSN 0, i.e. still holds every event. A log
+     * whose older segments were folded into a snapshot cannot be replayed on its own.
+     */
+    public static boolean hasCompleteLog(Path directory) throws IOException {
+        List<Path> segments = WriteAheadLog.listSegments(directory);
+        return segments.isEmpty() || WriteAheadLog.firstLsnOf(segments.get(0)) == 0;
+    }
+
+    /*
+     * Rebuilds every account, customer and transaction from the log in the directory and
+     * returns the LSN the next record should get. Must run before any new account, customer
+     * or transaction is created; the log must be complete (see hasCompleteLog).
+     */
+    public long rebuild(Path directory) throws IOException {
+        long start = System.nanoTime();
+        List<Path> segments = WriteAheadLog.listSegments(directory);
+        if (!hasCompleteLog(directory)) {
+            throw new IOException("The write-ahead log in " + directory + " does not start at LSN 0");
+        }
+        int window = pool.getParallelism();
+        SegmentDecoder[] decoders = new SegmentDecoder[Math.min(window, Math.max(segments.size(), 1))];
+        for (int i = 0; i < decoders.length; i++) decoders[i] = new SegmentDecoder();
+        AtomicLong nextLsn = new AtomicLong();
+        try {
+            for (int first = 0; first < segments.size(); first += window) {
+                int count = Math.min(window, segments.size() - first);
+                List<ForkJoinTask<?>> tasks = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    SegmentDecoder decoder = decoders[i];
+                    Path file = segments.get(first + i);
+                    decoder.clear();
+                    tasks.add(pool.submit(() -> {
+                        try {
+                            nextLsn.accumulateAndGet(WriteAheadLog.replaySegment(file, 0, decoder), Math::max);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    }));
+                }
+                for (ForkJoinTask<?> task : tasks) task.join();
+
+                tasks.clear();
+                for (int p = 0; p < partitions.length; p++) {
+                    int partition = p;
+                    tasks.add(pool.submit(() -> {
+                        for (int i = 0; i < count; i++) partitions[partition].apply(decoders[i].buffers[partition]);
+                    }));
+                }
+                for (ForkJoinTask<?> task : tasks) task.join();
+
+                double seconds = (System.nanoTime() - start) / 1e9;
+                long events = accountsRebuilt.get() + postings.sum() + orphanedPostings.sum();
+                System.out.printf("Replayed segment %d of %d: %,d events, %,.0f events/s\n", first + count,
+                        segments.size(), events, events / seconds);
+            }
+
+            List<ForkJoinTask<?>> tasks = new ArrayList<>(partitions.length);
+            for (Partition partition : partitions) tasks.add(pool.submit(partition::finish));
+            for (ForkJoinTask<?> task : tasks) task.join();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            pool.shutdown();
+        }
+        if (highestAccountId.get() >= 0) Account.reserveAccountIdsThrough(highestAccountId.get());
+        if (highestCustomerId.get() >= 0) Customer.reserveCustomerIdsThrough(highestCustomerId.get());
+        elapsedNanos = System.nanoTime() - start;
+        return nextLsn.get();
+    }
+
+    // Number of postings whose balanceAfter did not match the replayed balance
+    public long getMismatchCount() {
+        return mismatches.sum();
+    }
+
+    // Returns a summary of what was rebuilt and verified, including the first mismatches found.
+    @Override
+    public String toString() {
+        long events = accountsRebuilt.get() + postings.sum() + orphanedPostings.sum();
+        StringBuilder summary = new StringBuilder(256);
+        summary.append(String.format("Rebuilt %d account(s), %d customer(s) and %d transaction(s) from %,d events"
+                        + " in %.1f s (%,.0f events/s, %d thread(s))", accountsRebuilt.get(), customers.size(),
+                postings.sum(), events, elapsedNanos / 1e9, events / Math.max(elapsedNanos / 1e9, 1e-9),
+                pool.getParallelism()));
+        if (orphanedPostings.sum() > 0) summary.append(" (").append(orphanedPostings.sum())
+                .append(" posting(s) for unknown accounts ignored)");
+        summary.append(mismatches.sum() == 0 ? ". Every balanceAfter matched."
+                : ". " + mismatches.sum() + " posting(s) did not match the replayed balance:");
+        synchronized (reportedMismatches) {
+            for (String mismatch : reportedMismatches) summary.append("\n  ").append(mismatch);
+        }
+        return summary.toString();
+    }
+
+    // Registers a rebuilt account, creating its customer on first use.
+    private void accountCreated(int accountId, byte accountType, long balance, int customerId, byte customerTier,
+                                String name, int age, String contact, String address) {
+        Customer customer = customers.get(customerId);
+        if (customer == null) {
+            Customer created = customerTier == WriteAheadLog.TIER_PREMIUM
+                    ? new PremiumCustomer(customerId, name, age, contact, address)
+                    : new RegularCustomer(customerId, name, age, contact, address);
+            customer = customers.putIfAbsent(customerId, created) ? created : customers.get(customerId);
+            highestCustomerId.accumulateAndGet(customerId, Math::max);
+        }
+        Account account = accountType == WriteAheadLog.ACCOUNT_SAVINGS
+                ? new SavingsAccount(accountId, customer, balance)
+                : new CheckingAccount(accountId, customer, balance);
+        AccountManagement.restoreAccount(account);
+        highestAccountId.accumulateAndGet(accountId, Math::max);
+        accountsRebuilt.incrementAndGet();
+    }
+
+    private void reportMismatch(int accountId, long sequence, long expectedBefore, long delta, long balanceAfter) {
+        mismatches.increment();
+        synchronized (reportedMismatches) {
+            if (reportedMismatches.size() < REPORTED_MISMATCHES) {
+                reportedMismatches.add(String.format("%s transaction %d: logged balance after %s, replayed %s",
+                        Account.formatAccountNumber(accountId), sequence, Money.format(balanceAfter),
+                        Money.format(expectedBefore + delta)));
+            }
+        }
+    }
+
+    // Reads one segment, registering account creations and buffering postings by partition.
+    private final class SegmentDecoder implements WriteAheadLog.Replayer {
+        final PostingBuffer[] buffers = new PostingBuffer[partitions.length];
+
+        SegmentDecoder() {
+            for (int i = 0; i < buffers.length; i++) buffers[i] = new PostingBuffer();
+        }
+
+        void clear() {
+            for (PostingBuffer buffer : buffers) buffer.size = 0;
+        }
+
+        @Override
+        public void accountCreated(long lsn, int accountId, byte accountType, long balance, int customerId,
+                                   byte customerTier, String name, int age, String contact, String address) {
+            EventReplayService.this.accountCreated(accountId, accountType, balance, customerId, customerTier, name, age,
+                    contact, address);
+        }
+
+        @Override
+        public void posting(long lsn, long sequence, int accountId, byte type, long amount, long balanceAfter,
+                            long timestamp, long reference) {
+            buffers[Math.floorMod(accountId, buffers.length)].add(sequence, accountId, type, amount, balanceAfter,
+                    timestamp, reference);
+        }
+    }
+
+    // Postings of one segment for one partition, in LSN order, one array per field; reused across windows
+    private static final class PostingBuffer {
+        long[] sequence = new long[1024];
+        int[] accountId = new int[1024];
+        byte[] type = new byte[1024];
+        long[] amount = new long[1024];
+        long[] balanceAfter = new long[1024];
+        long[] timestamp = new long[1024];
+        long[] reference = new long[1024];
+        int size;
+
+        void add(long sequence, int accountId, byte type, long amount, long balanceAfter, long timestamp,
+                 long reference) {
+            if (size == this.sequence.length) {
+                int capacity = size * 2;
+                this.sequence = Arrays.copyOf(this.sequence, capacity);
+                this.accountId = Arrays.copyOf(this.accountId, capacity);
+                this.type = Arrays.copyOf(this.type, capacity);
+                this.amount = Arrays.copyOf(this.amount, capacity);
+                this.balanceAfter = Arrays.copyOf(this.balanceAfter, capacity);
+                this.timestamp = Arrays.copyOf(this.timestamp, capacity);
+                this.reference = Arrays.copyOf(this.reference, capacity);
+            }
+            this.sequence[size] = sequence;
+            this.accountId[size] = accountId;
+            this.type[size] = type;
+            this.amount[size] = amount;
+            this.balanceAfter[size] = balanceAfter;
+            this.timestamp[size] = timestamp;
+            this.reference[size] = reference;
+            size++;
+        }
+    }
+
+    // Replay state of the accounts of one partition, indexed by account id / number of partitions
+    private final class Partition {
+        private static final byte UNSEEN = 0;
+        private static final byte TRACKED = 1;
+        private static final byte UNKNOWN = 2;
+
+        byte[] state = new byte[64];
+        Account[] accounts = new Account[64];
+        // Sum of the replayed deltas on top of the opening balance
+        long[] balance = new long[64];
+        // Balance after the last posting that passed the check (or was reported)
+        long[] checked = new long[64];
+        // Postings held back per account as {sequence, delta, balanceAfter}; rarely used
+        final HashMap<Integer, ArrayDeque<long[]>> pending = new HashMap<>();
+
+        // Index of the partition; its accounts are those with id mod the number of partitions equal to it
+        final int index;
+
+        Partition(int index) {
+            this.index = index;
+        }
+
+        void apply(PostingBuffer buffer) {
+            long applied = 0;
+            for (int i = 0; i < buffer.size; i++) {
+                int accountId = buffer.accountId[i];
+                if (!track(accountId)) {
+                    orphanedPostings.increment();
+                    continue;
+                }
+                int local = accountId / partitions.length;
+                TransactionType type = TransactionType.fromCode(buffer.type[i]);
+                long delta = type.isCredit() ? buffer.amount[i] : -buffer.amount[i];
+                balance[local] = Money.add(balance[local], delta);
+                check(accountId, local, buffer.sequence[i], delta, buffer.balanceAfter[i]);
+                transactionManagement.restoreTransaction(buffer.sequence[i], accountId, buffer.type[i], buffer.amount[i],
+                        buffer.balanceAfter[i], buffer.timestamp[i], buffer.reference[i]);
+                applied++;
+            }
+            postings.add(applied);
+        }
+
+        // Starts tracking an account on its first posting; returns false if the log never created it.
+        private boolean track(int accountId) {
+            if (accountId < 0) return false;
+            int local = accountId / partitions.length;
+            if (local >= state.length) {
+                int capacity = Math.max(state.length * 2, local + 1);
+                state = Arrays.copyOf(state, capacity);
+                accounts = Arrays.copyOf(accounts, capacity);
+                balance = Arrays.copyOf(balance, capacity);
+                checked = Arrays.copyOf(checked, capacity);
+            }
+            if (state[local] == UNSEEN) {
+                Account account = AccountManagement.findAccount(accountId);
+                if (account == null) {
+                    state[local] = UNKNOWN;
+                } else {
+                    state[local] = TRACKED;
+                    accounts[local] = account;
+                    balance[local] = checked[local] = account.getBalance();
+                }
+            }
+            return state[local] == TRACKED;
+        }
+
+        // Checks a posting against the chain of balanceAfter values, holding it back if it arrived early.
+        private void check(int accountId, int local, long sequence, long delta, long balanceAfter) {
+            ArrayDeque<long[]> held = pending.get(local);
+            if (held == null && balanceAfter - delta == checked[local]) {
+                checked[local] = balanceAfter;
+                return;
+            }
+            if (held == null) {
+                held = new ArrayDeque<>();
+                pending.put(local, held);
+            }
+            held.add(new long[] {sequence, delta, balanceAfter});
+            drain(accountId, local, held, MAX_PENDING);
+        }
+
+        // Releases held postings that now fit; reports the oldest as a mismatch while more than limit are held.
+        private void drain(int accountId, int local, ArrayDeque<long[]> held, int limit) {
+            while (!held.isEmpty()) {
+                boolean released = false;
+                for (var iterator = held.iterator(); iterator.hasNext(); ) {
+                    long[] posting = iterator.next();
+                    if (posting[2] - posting[1] == checked[local]) {
+                        checked[local] = posting[2];
+                        iterator.remove();
+                        released = true;
+                    }
+                }
+                if (released) continue;
+                if (held.size() <= limit) break;
+                long[] oldest = held.poll();
+                reportMismatch(accountId, oldest[0], checked[local], oldest[1], oldest[2]);
+                checked[local] += oldest[1];
+            }
+            if (held.isEmpty()) pending.remove(local);
+        }
+
+        // Reports postings still held back and writes the replayed balances to the accounts.
+        void finish() {
+            for (var entry : new ArrayList<>(pending.entrySet())) {
+                int local = entry.getKey();
+                drain(local * partitions.length + index, local, entry.getValue(), 0);
+            }
+            for (int local = 0; local < state.length; local++) {
+                if (state[local] == TRACKED) accounts[local].setBalance(balance[local]);
+            }
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.service;
+import com.models.*;
+
+import java.time.YearMonth;
+import java.util.concurrent.ForkJoinPool;
+
+// Service that credits a month's interest to every active savings account.
+//
+// Runs as a PeriodicAccountRun: the accounts are processed in parallel leaves, and each
+// eligible savings account is credited through Account.postTransaction and the credit
+// recorded as an INTEREST transaction whose reference is the period (yyyyMM).
+//
+// Restartable: the period recorded with each credit is the account's interest marker (see
+// AccountTotals), and accounts already marked for the period are skipped. Markers are
+// rebuilt from the snapshot and write-ahead log on recovery, so re-running a period after a
+// crash credits exactly the accounts whose credit did not become durable. Periods must be
+// run in order; see PeriodicAccountRun.
+public class InterestPostingService extends PeriodicAccountRun {
+
+    // Outcomes an account is counted under, after PeriodicAccountRun.REJECTED
+    private static final int CREDITED = 1;
+    private static final int ALREADY_CREDITED = 2;
+    private static final int INELIGIBLE = 3;
+    private static final int OUTCOMES = 4;
+
+    // Summary of one interest run
+    public static final class Report extends Totals {
+
+        Report(int period) {
+            super(period, OUTCOMES);
+        }
+
+        // Number of accounts credited by this run
+        public long getCredited() {
+            return count(CREDITED);
+        }
+
+        // Number of accounts skipped because an earlier run already credited them for the period
+        public long getAlreadyCredited() {
+            return count(ALREADY_CREDITED);
+        }
+
+        // Number of accounts skipped because they are not active or would earn nothing
+        public long getIneligible() {
+            return count(INELIGIBLE);
+        }
+
+        // Total interest credited in cents
+        public long getTotalInterest() {
+            return amount();
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Interest period: %d\nAccounts scanned: %d\nCredited: %d\nAlready credited: %d\n"
+                            + "Ineligible: %d\nRejected (overflow): %d\nTotal interest: %s\nElapsed: %.3f s\n"
+                            + "Throughput: %.0f accounts/s",
+                    period, getScanned(), getCredited(), getAlreadyCredited(), getIneligible(), getRejected(),
+                    Money.format(getTotalInterest()), elapsedNanos / 1e9, getThroughput());
+        }
+    }
+
+    // Constructs an interest service that runs on the common fork/join pool.
+    public InterestPostingService(TransactionManagement transactionManagement) {
+        this(transactionManagement, ForkJoinPool.commonPool());
+    }
+
+    // Constructs an interest service that runs on the given pool.
+    public InterestPostingService(TransactionManagement transactionManagement, ForkJoinPool pool) {
+        super(transactionManagement, pool, "An interest run is already in progress");
+    }
+
+    // Returns the reference an interest credit for the given month is recorded with (yyyyMM).
+    public static int periodKey(YearMonth period) {
+        return period.getYear() * 100 + period.getMonthValue();
+    }
+
+    /*
+     * Credits one month of interest to every active savings account not yet credited for the period.
+     * Returns the run's counts and throughput. Throws IllegalStateException if a run is already in
+     * progress and UncheckedIOException if a credit could not be journaled.
+     */
+    public Report postMonthlyInterest(YearMonth period) {
+        Report report = new Report(periodKey(period));
+        run(report);
+        return report;
+    }
+
+    // Credits the account if it is an eligible savings account.
+    @Override
+    int visit(int accountId, int period, Leaf leaf) {
+        if (!(AccountManagement.findAccount(accountId) instanceof SavingsAccount account)) return NOT_COVERED;
+        if (transactionManagement.getLastInterestPeriod(accountId) >= period) return ALREADY_CREDITED;
+        long interest = account.getAccountStatus() == AccountStatus.ACTIVE ? account.calculateMonthlyInterest() : 0;
+        long balanceAfter = interest > 0 ? account.postTransaction(interest, TransactionType.INTEREST) : Account.REJECTED;
+        if (balanceAfter == Account.REJECTED) return INELIGIBLE;
+        transactionManagement.recordTransaction(accountId, TransactionType.INTEREST, interest, balanceAfter,
+                transactionManagement.currentTimeMillis(), period);
+        leaf.amount += interest;
+        return CREDITED;
+    }
+}
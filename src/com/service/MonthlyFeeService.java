@@ -0,0 +1,113 @@
+package com.service;
+import com.models.*;
+
+import java.time.YearMonth;
+import java.util.concurrent.ForkJoinPool;
+
+// Service that charges a month's maintenance fee to every active checking account.
+//
+// Runs as a PeriodicAccountRun, like InterestPostingService: each checking account is
+// debited through CheckingAccount.applyMonthlyFee. Accounts whose holder has waived fees are
+// skipped, and a fee that would take the balance beyond the overdraft limit is not posted and
+// counted as failed.
+//
+// Each fee is recorded as a FEE transaction whose reference is the period (yyyyMM); that
+// period is the account's fee checkpoint (see AccountTotals). Accounts already charged for
+// the period are skipped, so an interrupted run resumes where it stopped when started again
+// for the same month, and accounts that failed are retried. Periods must be run in order: a
+// month earlier than an account's last charged month counts as already charged, so it cannot
+// be charged late (comparing for equality instead would charge it again on every re-run).
+public class MonthlyFeeService extends PeriodicAccountRun {
+
+    // Outcomes an account is counted under, after PeriodicAccountRun.REJECTED
+    private static final int CHARGED = 1;
+    private static final int ALREADY_CHARGED = 2;
+    private static final int WAIVED = 3;
+    private static final int INACTIVE = 4;
+    private static final int FAILED = 5;
+    private static final int OUTCOMES = 6;
+
+    // Summary of one fee run
+    public static final class Report extends Totals {
+
+        Report(int period) {
+            super(period, OUTCOMES);
+        }
+
+        // Number of accounts charged by this run
+        public long getCharged() {
+            return count(CHARGED);
+        }
+
+        // Number of accounts skipped because an earlier run already charged them for the period (or a later one)
+        public long getAlreadyCharged() {
+            return count(ALREADY_CHARGED);
+        }
+
+        // Number of accounts skipped because their holder's fees are waived
+        public long getWaived() {
+            return count(WAIVED);
+        }
+
+        // Number of accounts skipped because they are not active
+        public long getInactive() {
+            return count(INACTIVE);
+        }
+
+        // Number of accounts whose fee would have exceeded the overdraft limit
+        public long getFailed() {
+            return count(FAILED);
+        }
+
+        // Total fees charged in cents
+        public long getTotalFees() {
+            return amount();
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Fee period: %d\nAccounts scanned: %d\nCharged: %d\nAlready charged: %d\n"
+                            + "Waived: %d\nInactive: %d\nFailed (overdraft limit): %d\nRejected (overflow): %d\n"
+                            + "Total fees: %s\nElapsed: %.3f s\nThroughput: %.0f accounts/s",
+                    period, getScanned(), getCharged(), getAlreadyCharged(), getWaived(), getInactive(),
+                    getFailed(), getRejected(), Money.format(getTotalFees()), elapsedNanos / 1e9, getThroughput());
+        }
+    }
+
+    // Constructs a fee service that runs on the common fork/join pool.
+    public MonthlyFeeService(TransactionManagement transactionManagement) {
+        this(transactionManagement, ForkJoinPool.commonPool());
+    }
+
+    // Constructs a fee service that runs on the given pool.
+    public MonthlyFeeService(TransactionManagement transactionManagement, ForkJoinPool pool) {
+        super(transactionManagement, pool, "A fee run is already in progress");
+    }
+
+    /*
+     * Charges one month's fee to every active checking account not yet charged for the period.
+     * Returns the run's counts and throughput. Throws IllegalStateException if a run is already in
+     * progress and UncheckedIOException if a fee could not be journaled.
+     */
+    public Report assessMonthlyFees(YearMonth period) {
+        Report report = new Report(InterestPostingService.periodKey(period));
+        run(report);
+        return report;
+    }
+
+    // Charges the account if it is a checking account whose fee is due.
+    @Override
+    int visit(int accountId, int period, Leaf leaf) {
+        if (!(AccountManagement.findAccount(accountId) instanceof CheckingAccount account)) return NOT_COVERED;
+        if (transactionManagement.getLastFeePeriod(accountId) >= period) return ALREADY_CHARGED;
+        if (account.isFeeWaived() || account.getMonthlyFee() <= 0) return WAIVED;
+        if (account.getAccountStatus() != AccountStatus.ACTIVE) return INACTIVE;
+        long fee = account.getMonthlyFee();
+        long balanceAfter = account.applyMonthlyFee();
+        if (balanceAfter == Account.REJECTED) return FAILED;
+        transactionManagement.recordTransaction(accountId, TransactionType.FEE, fee, balanceAfter,
+                transactionManagement.currentTimeMillis(), period);
+        leaf.amount += fee;
+        return CHARGED;
+    }
+}
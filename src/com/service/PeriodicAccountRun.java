@@ -0,0 +1,200 @@
+package com.service;
+
+import java.io.UncheckedIOException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+// Parallel pass over every account for one monthly period, shared by InterestPostingService
+// and MonthlyFeeService.
+//
+// The account id range is split recursively on a ForkJoinPool until a range holds at most
+// LEAF_ACCOUNTS ids; each leaf walks its ids in order and hands each one to visit(), which
+// posts to the account if it is due and returns the outcome the account is counted under.
+// Leaves never share an account, so a run needs no locks beyond the balance CAS that also
+// guards concurrent console postings.
+//
+// Postings are recorded with the period (yyyyMM) as their reference, which is the account's
+// marker for the run's kind (see AccountTotals); visit() skips accounts already marked for the
+// period, so a run interrupted by a crash resumes where it stopped when started again for the
+// same month. Markers only ever move forward: a period earlier than an account's marker counts
+// as done, so months must be run in order and a missed month cannot be run after a later one.
+//
+// With a write-ahead log attached, postings are journaled without waiting and each leaf waits
+// for durability once. If journaling fails, the remaining leaves stop and the run throws the
+// failure. An ArithmeticException while handling one account (an amount or balance that would
+// overflow) leaves that account unposted and counts it as REJECTED; the run goes on, like a
+// rejected record of a batch import.
+abstract class PeriodicAccountRun {
+
+    // Number of account ids handled by one fork/join leaf
+    static final int LEAF_ACCOUNTS = 1 << 14;
+
+    // Outcome of an account the run does not cover (e.g. a checking account in an interest run); not counted
+    static final int NOT_COVERED = -1;
+
+    // Outcome of an account whose posting failed with an ArithmeticException; subclasses number theirs from 1
+    static final int REJECTED = 0;
+
+    // Data management layer for transaction operations
+    final TransactionManagement transactionManagement;
+
+    // Pool the account ranges are processed on
+    private final ForkJoinPool pool;
+
+    // Message of the IllegalStateException thrown when runs would overlap
+    private final String busyMessage;
+
+    // Set while a run is in progress; runs never overlap
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    // Counts of one run: accounts per outcome, the total amount posted and the duration
+    static class Totals {
+        final int period;
+        private final LongAdder[] outcomes;
+        private final LongAdder amount = new LongAdder();
+        long elapsedNanos;
+
+        Totals(int period, int outcomeCount) {
+            this.period = period;
+            this.outcomes = new LongAdder[outcomeCount];
+            for (int i = 0; i < outcomeCount; i++) outcomes[i] = new LongAdder();
+        }
+
+        // Number of accounts counted under the outcome
+        long count(int outcome) {
+            return outcomes[outcome].sum();
+        }
+
+        // Total amount posted in cents
+        long amount() {
+            return amount.sum();
+        }
+
+        // Number of accounts left unposted because an amount or balance would have overflowed
+        public long getRejected() {
+            return count(REJECTED);
+        }
+
+        // Period of the run, as yyyyMM
+        public int getPeriod() {
+            return period;
+        }
+
+        // Number of accounts the run covered, whatever their outcome
+        public long getScanned() {
+            long scanned = 0;
+            for (LongAdder outcome : outcomes) scanned += outcome.sum();
+            return scanned;
+        }
+
+        // Wall-clock duration of the run in nanoseconds
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        // Covered accounts processed per second
+        public double getThroughput() {
+            return elapsedNanos == 0 ? 0 : getScanned() / (elapsedNanos / 1e9);
+        }
+    }
+
+    // Counts of one leaf, added to the run's Totals when the leaf is done
+    static final class Leaf {
+        final long[] outcomes;
+        long amount;
+
+        Leaf(int outcomeCount) {
+            outcomes = new long[outcomeCount];
+        }
+    }
+
+    PeriodicAccountRun(TransactionManagement transactionManagement, ForkJoinPool pool, String busyMessage) {
+        this.transactionManagement = transactionManagement;
+        this.pool = pool;
+        this.busyMessage = busyMessage;
+    }
+
+    /*
+     * Handles one account id for the period: posts to the account if it is due, adding the amount
+     * posted to leaf.amount, and returns the outcome to count it under, or NOT_COVERED.
+     */
+    abstract int visit(int accountId, int period, Leaf leaf);
+
+    /*
+     * Visits every account for the totals' period and fills in the totals. Throws
+     * IllegalStateException if a run is already in progress and UncheckedIOException if a
+     * posting could not be journaled.
+     */
+    final void run(Totals totals) {
+        if (!running.compareAndSet(false, true)) throw new IllegalStateException(busyMessage);
+        try {
+            long start = System.nanoTime();
+            Run run = new Run(totals);
+            pool.invoke(new Range(run, 0, AccountManagement.getHighestAccountId() + 1));
+            totals.elapsedNanos = System.nanoTime() - start;
+            if (run.journalFailure != null) throw run.journalFailure;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    // State shared by the tasks of one run
+    private static final class Run {
+        final Totals totals;
+        volatile UncheckedIOException journalFailure;
+
+        Run(Totals totals) {
+            this.totals = totals;
+        }
+    }
+
+    // Account ids [from, to), split in halves until small enough to process directly; never serialized
+    @SuppressWarnings("serial")
+    private final class Range extends RecursiveAction {
+        private final Run run;
+        private final int from;
+        private final int to;
+
+        Range(Run run, int from, int to) {
+            this.run = run;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > LEAF_ACCOUNTS) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new Range(run, from, middle), new Range(run, middle, to));
+            } else {
+                visitRange(run, from, to);
+            }
+        }
+    }
+
+    // Visits the account ids in [from, to) and adds the leaf's counts to the run's totals.
+    private void visitRange(Run run, int from, int to) {
+        if (run.journalFailure != null) return;
+        Totals totals = run.totals;
+        Leaf leaf = new Leaf(totals.outcomes.length);
+        try {
+            for (int id = from; id < to; id++) {
+                int outcome;
+                try {
+                    outcome = visit(id, totals.period, leaf);
+                } catch (ArithmeticException e) {
+                    outcome = REJECTED;
+                }
+                if (outcome != NOT_COVERED) leaf.outcomes[outcome]++;
+            }
+            transactionManagement.awaitDurable();
+        } catch (UncheckedIOException e) {
+            run.journalFailure = e;
+        } finally {
+            for (int i = 0; i < leaf.outcomes.length; i++) totals.outcomes[i].add(leaf.outcomes[i]);
+            totals.amount.add(leaf.amount);
+        }
+    }
+}
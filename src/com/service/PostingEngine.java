@@ -0,0 +1,288 @@
+package com.service;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import com.models.Account;
+import com.models.TransactionType;
+
+// Partitioned, single-writer posting engine.
+//
+// Accounts are sharded by account id into N partitions. Each partition is owned by one thread
+// that drains a pre-allocated ring of posting commands, applies each posting to its account
+// and records it in the shared TransactionManagement, so engine postings get global slots and
+// transaction ids, appear in the account histories and totals, and are journaled like any other
+// posting. Because only the owning thread ever posts to a partition's accounts through the
+// engine, balance updates and history appends never contend; the partitions only meet on the
+// transaction log's slot counter and the write-ahead log.
+//
+// Callers submit from any thread and get a CompletableFuture that the partition thread
+// completes with the slot of the recorded transaction, or REJECTED if the account rules reject
+// it. With a journal attached, a partition records a run of postings without waiting and then
+// waits once for them to become durable before completing their futures (group commit per
+// batch). Dependent actions attached without an executor run on the partition thread, so they
+// should be short. Commands from one caller to one partition are applied in submission order.
+//
+// The HTTP API posts deposits and withdrawals through an engine (see ApiServer). Transfers,
+// which span partitions, go through TransactionManagement.transfer instead.
+public class PostingEngine implements AutoCloseable {
+
+    // Completes a posting's future when the account rules reject it
+    public static final int REJECTED = -1;
+
+    // Number of commands each partition's ring holds unless another capacity is given
+    public static final int DEFAULT_RING_CAPACITY = 1 << 14;
+
+    // Busy-spins of an idle partition thread before it starts yielding
+    private static final int IDLE_SPINS = 200;
+
+    // Yields of an idle partition thread before it parks
+    private static final int IDLE_YIELDS = 50;
+
+    // Longest an idle partition thread parks before looking at its ring again
+    private static final long PARK_NANOS = 1_000_000L;
+
+    // Marks the claim counter of a closed partition
+    private static final long CLOSED = Long.MIN_VALUE;
+
+    // Most postings a partition records before waiting for them to become durable
+    private static final int MAX_BATCH = 256;
+
+    // One pre-allocated ring entry, reused for every sequence that maps to it
+    private static final class Command {
+        Account account;
+        TransactionType type;
+        long amountCents;
+        CompletableFuture<Integer> result;
+
+        // Sequence of the command currently stored; written last, so a matching value means the entry is complete
+        volatile long sequence = -1;
+    }
+
+    // A shard of accounts with its ring and owning thread
+    private static final class Partition implements Runnable {
+        final Command[] ring;
+        final int mask;
+        final TransactionManagement transactions;
+
+        // Futures of the postings recorded since the last durability wait, with their results
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        final CompletableFuture<Integer>[] batch = new CompletableFuture[MAX_BATCH];
+        final int[] batchResults = new int[MAX_BATCH];
+        int batchSize;
+
+        // Number of postings recorded (not rejected); written only by the owning thread
+        volatile long recorded;
+
+        // Next sequence to hand to a producer; CLOSED is or-ed in once the engine closes
+        final AtomicLong claimed = new AtomicLong();
+
+        // Number of commands the owning thread has finished; entries below it may be reused
+        volatile long consumed;
+
+        // Set while the owning thread is about to park, so producers know to unpark it
+        volatile boolean sleeping;
+
+        Thread thread;
+
+        Partition(TransactionManagement transactions, int capacity) {
+            this.transactions = transactions;
+            ring = new Command[capacity];
+            for (int i = 0; i < capacity; i++) ring[i] = new Command();
+            mask = capacity - 1;
+        }
+
+        // Claims a sequence, fills its entry and wakes the owning thread if it is parked.
+        void publish(Account account, TransactionType type, long amountCents, CompletableFuture<Integer> result) {
+            long sequence;
+            int waits = 0;
+            while (true) {
+                long current = claimed.get();
+                if (current < 0) throw new IllegalStateException("Posting engine is closed");
+                if (current - consumed >= ring.length) {
+                    // Ring full: back off until the owning thread catches up
+                    if (++waits < IDLE_SPINS) Thread.onSpinWait();
+                    else Thread.yield();
+                    continue;
+                }
+                if (claimed.compareAndSet(current, current + 1)) {
+                    sequence = current;
+                    break;
+                }
+            }
+            Command command = ring[(int) (sequence & mask)];
+            command.account = account;
+            command.type = type;
+            command.amountCents = amountCents;
+            command.result = result;
+            command.sequence = sequence;
+            if (sleeping) LockSupport.unpark(thread);
+        }
+
+        // Stops accepting commands; the owning thread drains what was claimed before and exits.
+        void close() {
+            long current;
+            do {
+                current = claimed.get();
+            } while (current >= 0 && !claimed.compareAndSet(current, current | CLOSED));
+            LockSupport.unpark(thread);
+        }
+
+        @Override
+        public void run() {
+            long next = 0;
+            int idle = 0;
+            while (true) {
+                Command command = ring[(int) (next & mask)];
+                if (command.sequence == next) {
+                    execute(command);
+                    consumed = ++next;
+                    idle = 0;
+                    if (batchSize == MAX_BATCH) completeBatch();
+                    continue;
+                }
+                if (batchSize > 0) {
+                    // Nothing more queued right now: make the batch durable and answer its callers
+                    completeBatch();
+                    continue;
+                }
+                long claim = claimed.get();
+                if (claim < 0 && (claim & ~CLOSED) == next) return;
+                if (++idle < IDLE_SPINS) {
+                    Thread.onSpinWait();
+                } else if (idle < IDLE_SPINS + IDLE_YIELDS) {
+                    Thread.yield();
+                } else {
+                    sleeping = true;
+                    // Look again after announcing the park, so a command published meanwhile is not missed
+                    if (command.sequence != next && claimed.get() >= 0) LockSupport.parkNanos(this, PARK_NANOS);
+                    sleeping = false;
+                }
+            }
+        }
+
+        // Applies one posting and records it; its future is completed with the batch, or now if it fails.
+        private void execute(Command command) {
+            CompletableFuture<Integer> result = command.result;
+            Account account = command.account;
+            command.result = null;
+            command.account = null;
+            try {
+                long timestamp = transactions.currentTimeMillis();
+                long balanceAfter = account.postTransaction(command.amountCents, command.type);
+                int slot = REJECTED;
+                if (balanceAfter != Account.REJECTED) {
+                    slot = transactions.recordTransaction(account.getAccountId(), command.type, command.amountCents,
+                            balanceAfter, timestamp);
+                    recorded++;
+                }
+                batch[batchSize] = result;
+                batchResults[batchSize++] = slot;
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+        }
+
+        // Waits until the batch's postings are durable, then completes their futures.
+        private void completeBatch() {
+            RuntimeException failure = null;
+            try {
+                transactions.awaitDurable();
+            } catch (RuntimeException e) {
+                failure = e;
+            }
+            for (int i = 0; i < batchSize; i++) {
+                if (failure == null) batch[i].complete(batchResults[i]);
+                else batch[i].completeExceptionally(failure);
+                batch[i] = null;
+            }
+            batchSize = 0;
+        }
+    }
+
+    private final Partition[] partitions;
+
+    // Set once close() has been called
+    private volatile boolean closed;
+
+    // Creates an engine recording into the given transactions with the given number of partitions, and starts their threads.
+    public PostingEngine(TransactionManagement transactions, int partitionCount) {
+        this(transactions, partitionCount, DEFAULT_RING_CAPACITY);
+    }
+
+    // Creates an engine whose partitions each buffer up to ringCapacity commands (rounded up to a power of two).
+    public PostingEngine(TransactionManagement transactions, int partitionCount, int ringCapacity) {
+        if (partitionCount < 1) throw new IllegalArgumentException("Partition count must be positive: " + partitionCount);
+        if (ringCapacity < 1 || ringCapacity > 1 << 30) {
+            throw new IllegalArgumentException("Ring capacity must be between 1 and 2^30: " + ringCapacity);
+        }
+        int capacity = Integer.highestOneBit(ringCapacity) == ringCapacity ? ringCapacity
+                : Integer.highestOneBit(ringCapacity) << 1;
+        partitions = new Partition[partitionCount];
+        for (int p = 0; p < partitionCount; p++) {
+            Partition partition = new Partition(transactions, capacity);
+            partition.thread = new Thread(partition, "posting-partition-" + p);
+            partition.thread.setDaemon(true);
+            partitions[p] = partition;
+        }
+        for (Partition partition : partitions) partition.thread.start();
+    }
+
+    /*
+     * Queues a posting to the account's partition and returns a future for its result: the slot
+     * of the recorded transaction once it is durable, or REJECTED if the account rules reject it.
+     * The future fails with UncheckedIOException if the posting could not be journaled. Blocks
+     * only while the partition's ring is full. Throws IllegalStateException once the engine is closed.
+     */
+    public CompletableFuture<Integer> submit(Account account, TransactionType type, long amountCents) {
+        if (type == TransactionType.TRANSFER_IN || type == TransactionType.TRANSFER_OUT) {
+            throw new IllegalArgumentException("Transfers are posted with TransactionManagement.transfer");
+        }
+        CompletableFuture<Integer> result = new CompletableFuture<>();
+        partitions[partitionOf(account.getAccountId())].publish(account, type, amountCents, result);
+        return result;
+    }
+
+    // Returns the partition that owns the given account id.
+    public int partitionOf(int accountId) {
+        return Math.floorMod(accountId, partitions.length);
+    }
+
+    // Number of partitions
+    public int getPartitionCount() {
+        return partitions.length;
+    }
+
+    // Total number of postings the engine has recorded across all partitions
+    public long getPostingCount() {
+        long count = 0;
+        for (Partition partition : partitions) count += partition.recorded;
+        return count;
+    }
+
+    // True once close() has been called; submit then throws IllegalStateException.
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /*
+     * Stops accepting commands and waits until every partition has applied the commands submitted
+     * before, so all their futures are complete when this returns.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        for (Partition partition : partitions) partition.close();
+        boolean interrupted = false;
+        for (Partition partition : partitions) {
+            while (true) {
+                try {
+                    partition.thread.join();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+    }
+}
@@ -0,0 +1,112 @@
+package com.service;
+import com.models.*;
+import com.persistence.AccountSnapshot;
+import com.persistence.WriteAheadLog;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashMap;
+
+// Service layer that rebuilds the in-memory state at startup.
+// If the data directory holds an AccountSnapshot, its accounts are served lazily from the
+// mapped file and its transactions are restored into the transaction log; only the log
+// records written after the snapshot are replayed. Replay handles each intact record in LSN order:
+// - ACCOUNT_CREATED records recreate the customer (once per customer id) and the account
+//   with its original id and opening balance.
+// - POSTING records are stored back at their original sequence id and applied to the
+//   account balance as a signed delta, so the result does not depend on the order in
+//   which concurrent postings reached the log.
+// Afterwards the account and customer id allocators are advanced past the recovered ids.
+public class RecoveryService implements WriteAheadLog.Replayer {
+
+    // Data management layer for transaction operations
+    private final TransactionManagement transactionManagement;
+
+    // Customers recovered so far, keyed by numeric customer id
+    private final HashMap<Integer, Customer> customers = new HashMap<>();
+
+    // Snapshot loaded at startup; null if the directory had none
+    private AccountSnapshot snapshot;
+
+    private int accountsRecovered;
+    private long postingsRecovered;
+    private long orphanedPostings;
+    private int highestAccountId = -1;
+    private int highestCustomerId = -1;
+
+    // Constructs the recovery service for the given transaction store.
+    public RecoveryService(TransactionManagement transactionManagement) {
+        this.transactionManagement = transactionManagement;
+    }
+
+    /*
+     * Loads the snapshot and replays the log found in the directory, and returns the LSN
+     * the next record should get.
+     * Must run before any new account, customer or transaction is created.
+     */
+    public long recover(Path directory) throws IOException {
+        long fromLsn = 0;
+        snapshot = AccountSnapshot.open(directory);
+        if (snapshot != null) {
+            fromLsn = snapshot.getLsn();
+            AccountManagement.attachSnapshot(snapshot);
+            for (int slot = 0; slot < snapshot.getTransactionCount(); slot++) {
+                byte type = snapshot.transactionTypeAt(slot);
+                if (type == 0) continue;
+                transactionManagement.restoreTransaction(slot, snapshot.transactionAccountIdAt(slot), type,
+                        snapshot.transactionAmountAt(slot), snapshot.transactionBalanceAfterAt(slot),
+                        snapshot.transactionTimestampAt(slot), snapshot.transactionReferenceAt(slot));
+            }
+            highestAccountId = snapshot.getAccountSlots() - 1;
+            highestCustomerId = snapshot.getCustomerSlots() - 1;
+        }
+        long nextLsn = WriteAheadLog.replay(directory, fromLsn, this);
+        if (highestAccountId >= 0) Account.reserveAccountIdsThrough(highestAccountId);
+        if (highestCustomerId >= 0) Customer.reserveCustomerIdsThrough(highestCustomerId);
+        return nextLsn;
+    }
+
+    @Override
+    public void accountCreated(long lsn, int accountId, byte accountType, long balance, int customerId,
+                               byte customerTier, String name, int age, String contact, String address) {
+        Customer customer = customers.get(customerId);
+        if (customer == null && snapshot != null) customer = snapshot.readCustomer(customerId);
+        if (customer == null) {
+            customer = customerTier == WriteAheadLog.TIER_PREMIUM
+                    ? new PremiumCustomer(customerId, name, age, contact, address)
+                    : new RegularCustomer(customerId, name, age, contact, address);
+            customers.put(customerId, customer);
+            highestCustomerId = Math.max(highestCustomerId, customerId);
+        }
+        Account account = accountType == WriteAheadLog.ACCOUNT_SAVINGS
+                ? new SavingsAccount(accountId, customer, balance)
+                : new CheckingAccount(accountId, customer, balance);
+        AccountManagement.restoreAccount(account);
+        highestAccountId = Math.max(highestAccountId, accountId);
+        accountsRecovered++;
+    }
+
+    @Override
+    public void posting(long lsn, long sequence, int accountId, byte type, long amount, long balanceAfter,
+                        long timestamp, long reference) {
+        Account account = AccountManagement.findAccount(accountId);
+        if (account == null) {
+            orphanedPostings++;
+            return;
+        }
+        long delta = TransactionType.fromCode(type).isCredit() ? amount : -amount;
+        account.setBalance(Money.add(account.getBalance(), delta));
+        transactionManagement.restoreTransaction(sequence, accountId, type, amount, balanceAfter, timestamp, reference);
+        postingsRecovered++;
+    }
+
+    // Returns a one-line summary of what was recovered.
+    @Override
+    public String toString() {
+        String loaded = snapshot == null ? "" : "Loaded snapshot of " + snapshot.getAccountCount() + " account(s) and "
+                + snapshot.getTransactionCount() + " transaction(s). ";
+        return loaded + "Replayed " + accountsRecovered + " account(s), " + customers.size() + " customer(s) and "
+                + postingsRecovered + " transaction(s)"
+                + (orphanedPostings > 0 ? " (" + orphanedPostings + " posting(s) for unknown accounts ignored)" : "");
+    }
+}
@@ -0,0 +1,193 @@
+package com.service;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicInteger;
+import com.models.Transaction;
+import com.models.TransactionType;
+import com.persistence.AccountSnapshot;
+
+// Growable, column-oriented store of every posted transaction.
+// Transactions are kept as primitive columns (sequence id, account id, type, amount,
+// balance after, epoch timestamp) inside fixed-size segments of 65536 entries. A posting
+// writes six array elements and allocates nothing; a new segment is only allocated
+// once every 65536 postings. A seventh column holds an optional type-specific reference
+// (such as the period of an interest posting); a segment only allocates it once the
+// first non-zero reference is stored in it. Transaction objects are created on read, when a caller
+// asks for a slot.
+//
+// Amounts and balances are stored in cents. Types are stored as TransactionType codes,
+// which start at 1; a zero type marks a slot that has been reserved but not yet fully
+// written, which lets readers skip in-flight appends without locking.
+//
+// The column accessors double as the source of the transaction section of an AccountSnapshot.
+public class TransactionLog implements AccountSnapshot.TransactionColumns {
+
+    // Number of low slot bits addressing an entry inside a segment
+    private static final int SEGMENT_BITS = 16;
+
+    // Number of entries per segment (65536)
+    private static final int SEGMENT_SIZE = 1 << SEGMENT_BITS;
+
+    // Mask selecting the entry part of a slot
+    private static final int SEGMENT_MASK = SEGMENT_SIZE - 1;
+
+    // Release/acquire access to the type column, used to publish fully written entries
+    private static final VarHandle TYPE = MethodHandles.arrayElementVarHandle(byte[].class);
+
+    // One block of columns
+    private static final class Segment {
+        final long[] sequence = new long[SEGMENT_SIZE];
+        final int[] accountId = new int[SEGMENT_SIZE];
+        final byte[] type = new byte[SEGMENT_SIZE];
+        final long[] amount = new long[SEGMENT_SIZE];
+        final long[] balanceAfter = new long[SEGMENT_SIZE];
+        final long[] timestamp = new long[SEGMENT_SIZE];
+        volatile long[] reference;
+
+        // Returns the reference column, allocating it on first use.
+        long[] references() {
+            long[] column = reference;
+            if (column != null) return column;
+            synchronized (this) {
+                if (reference == null) reference = new long[SEGMENT_SIZE];
+                return reference;
+            }
+        }
+    }
+
+    // Directory of segments; replaced with a larger copy when the log grows
+    private volatile Segment[] segments = new Segment[16];
+
+    // Next free slot
+    private final AtomicInteger nextSlot = new AtomicInteger();
+
+    /*
+     * Appends a transaction and returns the slot it was stored in.
+     * The slot doubles as the transaction's sequence id.
+     */
+    public int append(int accountId, byte type, long amountCents, long balanceAfterCents, long epochMillis) {
+        return append(accountId, type, amountCents, balanceAfterCents, epochMillis, 0);
+    }
+
+    // Appends a transaction with a type-specific reference (0 for none) and returns its slot.
+    public int append(int accountId, byte type, long amountCents, long balanceAfterCents, long epochMillis,
+                      long reference) {
+        int slot = reserve(1);
+        store(slot, accountId, type, amountCents, balanceAfterCents, epochMillis, reference);
+        return slot;
+    }
+
+    /*
+     * Reserves count consecutive slots and returns the first, for postings that must sit next
+     * to each other (such as the two legs of a transfer). Each reserved slot must then be
+     * filled with store().
+     */
+    public int reserve(int count) {
+        int slot = nextSlot.getAndAdd(count);
+        if (slot < 0 || slot + count < 0) throw new IllegalStateException("Transaction log is full");
+        return slot;
+    }
+
+    // Fills a slot handed out by reserve(); the posting becomes visible to readers when this returns.
+    public void store(int slot, int accountId, byte type, long amountCents, long balanceAfterCents, long epochMillis,
+                      long reference) {
+        Segment segment = segmentFor(slot);
+        int i = slot & SEGMENT_MASK;
+        segment.sequence[i] = slot;
+        segment.accountId[i] = accountId;
+        segment.amount[i] = amountCents;
+        segment.balanceAfter[i] = balanceAfterCents;
+        segment.timestamp[i] = epochMillis;
+        if (reference != 0) segment.references()[i] = reference;
+        TYPE.setRelease(segment.type, i, type);
+    }
+
+    /*
+     * Stores a previously persisted transaction at its original slot.
+     * Used only during recovery, before the log is shared; later appends continue after
+     * the highest restored slot. Safe to call from several threads (see EventReplayService);
+     * the slot counter is only written when the slot raises it, so they rarely contend on it.
+     */
+    public void restore(int slot, int accountId, byte type, long amountCents, long balanceAfterCents, long epochMillis,
+                        long reference) {
+        if (slot < 0) throw new IllegalArgumentException("Invalid slot: " + slot);
+        if (nextSlot.get() <= slot) nextSlot.accumulateAndGet(slot + 1, Math::max);
+        store(slot, accountId, type, amountCents, balanceAfterCents, epochMillis, reference);
+    }
+
+    // Returns the number of slots handed out so far (including appends still in flight).
+    public int size() {
+        return nextSlot.get();
+    }
+
+    // Returns true if the slot holds a fully written transaction.
+    public boolean isPublished(int slot) {
+        return typeAt(slot) != 0;
+    }
+
+    // Column accessors; the slot must be published.
+    public long sequenceAt(int slot) {
+        return segment(slot).sequence[slot & SEGMENT_MASK];
+    }
+
+    public int accountIdAt(int slot) {
+        return segment(slot).accountId[slot & SEGMENT_MASK];
+    }
+
+    public byte typeAt(int slot) {
+        Segment[] dir = segments;
+        int index = slot >>> SEGMENT_BITS;
+        Segment segment = slot >= 0 && slot < size() && index < dir.length ? dir[index] : null;
+        return segment == null ? 0 : (byte) TYPE.getAcquire(segment.type, slot & SEGMENT_MASK);
+    }
+
+    public long amountAt(int slot) {
+        return segment(slot).amount[slot & SEGMENT_MASK];
+    }
+
+    public long balanceAfterAt(int slot) {
+        return segment(slot).balanceAfter[slot & SEGMENT_MASK];
+    }
+
+    public long timestampAt(int slot) {
+        return segment(slot).timestamp[slot & SEGMENT_MASK];
+    }
+
+    public long referenceAt(int slot) {
+        long[] column = segment(slot).reference;
+        return column == null ? 0 : column[slot & SEGMENT_MASK];
+    }
+
+    // Materializes the transaction stored at the given slot, or returns null if it is not published.
+    public Transaction read(int slot) {
+        byte type = typeAt(slot);
+        if (type == 0) return null;
+        return new Transaction(sequenceAt(slot), accountIdAt(slot), TransactionType.fromCode(type),
+                amountAt(slot), balanceAfterAt(slot), timestampAt(slot), referenceAt(slot));
+    }
+
+    // Returns the segment holding the given slot.
+    private Segment segment(int slot) {
+        return segments[slot >>> SEGMENT_BITS];
+    }
+
+    // Returns the segment for a slot being written, allocating it (and growing the directory) if needed.
+    private Segment segmentFor(int slot) {
+        int index = slot >>> SEGMENT_BITS;
+        Segment[] dir = segments;
+        if (index < dir.length && dir[index] != null) return dir[index];
+        synchronized (this) {
+            dir = segments;
+            if (index >= dir.length) {
+                int newLength = dir.length;
+                while (newLength <= index) newLength <<= 1;
+                Segment[] grown = new Segment[newLength];
+                System.arraycopy(dir, 0, grown, 0, dir.length);
+                dir = grown;
+            }
+            if (dir[index] == null) dir[index] = new Segment();
+            segments = dir;
+            return dir[index];
+        }
+    }
+}
@@ -1,61 +1,282 @@
-
 package com.service;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
+import com.models.Account;
 import com.models.Transaction;
+import com.models.TransactionType;
+import com.persistence.WriteAheadLog;
+import com.utilities.CachedClock;
+import com.utilities.IdTable;
+import com.utilities.TransactionClock;
 
 // Management layer for transaction data operations and storage.
 // Provides methods for managing the collection of transactions in the system.
-// Maintains an array-based storage structure with a maximum capacity of 200 transactions
-// and provides operations for adding transactions and retrieving transaction history by account.
+// Transactions are stored in a TransactionLog, an unbounded columnar log that keeps
+// each posting as primitive values and only creates Transaction objects on read.
 //
 // Key responsibilities:
 // - Transaction storage and retrieval
 // - Transaction lookup by account number
 // - Transaction history aggregation
 //
-// Note: This implementation uses a fixed-size array. In production, consider using
-// a more scalable data structure such as a HashMap indexed by account number or a database.
-// Methods calculateTotalDeposits and calculateTotalWithdrawals are placeholders.
+// Every transaction is also appended to a per-account AccountHistory, so history
+// queries only touch the requested account's own transactions, and added to the
+// account's running AccountTotals, so deposit/withdrawal totals are O(1).
+// Histories are indexed by time as well, so a date range of one account's history is
+// located by binary search.
+//
+// Timestamps are epoch milliseconds taken from a pluggable TransactionClock (the shared
+// CachedClock unless another is installed); they are only formatted for display.
+// When a write-ahead log is attached, every posting is journaled as well; addTransaction
+// returns once the posting is durable according to the log's durability level.
+//
+// Transfers are a debit with compensation, not an atomic update of both balances. They take
+// no locks: the source is debited with its balance CAS (which enforces the minimum balance or
+// overdraft limit), then the destination is credited, and if the credit cannot be applied a
+// compensating deposit puts the money back before anything is recorded. Between the two legs
+// (and before a compensation) the debit is visible: readers can see the money in neither
+// account, and a concurrent withdrawal from the source can be refused for a balance that is
+// about to be restored. Because no thread ever holds one account while waiting for another,
+// transfers between overlapping pairs cannot deadlock. The recorded history is all-or-nothing:
+// the two legs are stored in consecutive slots, each referencing the other, and journaled as a
+// single record.
 public class TransactionManagement {
 
-    // Fixed-size array to store transactions (maximum 200 transactions)
-    public Transaction transactions[] = new Transaction[200];
+    // Returned by transfer() when the account rules reject it
+    public static final int TRANSFER_REJECTED = -1;
+
+    // Columnar storage for all transactions
+    private final TransactionLog log = new TransactionLog();
+
+    // Per-account indexes of transaction slots, keyed by numeric account id
+    private final IdTable<AccountHistory> histories = new IdTable<>();
+
+    // Running deposit/withdrawal aggregates per account
+    private final AccountTotals totals = new AccountTotals();
+
+    // Clock that postings are stamped with
+    private volatile TransactionClock clock = CachedClock.shared();
 
-    // Current number of transactions in the system
-    public int transactionCount;
+    // Journal for postings; null when running in memory only
+    private volatile WriteAheadLog journal;
 
-    // Adds a new transaction to the system.
-    // Stores the transaction in the next available position and increments the counter.
-    // Warning: Does not check for array bounds; may throw ArrayIndexOutOfBoundsException if full.
-    public void addTransaction(Transaction transaction) {
-        transactions[transactionCount] = transaction;
-        transactionCount++;
+    // Attaches the write-ahead log that postings are recorded in (null detaches it).
+    public void attachJournal(WriteAheadLog writeAheadLog) {
+        this.journal = writeAheadLog;
     }
 
-    // Retrieves all transactions associated with a specific account.
-    // Searches through all transactions and returns those that match the account number.
-    public ArrayList<Transaction> viewTransactionByAccount(String accountNumber) {
-        ArrayList<Transaction> accountTransactions = new ArrayList<>();
-        Transaction trnx;
-        for (int i = 0; i < transactionCount; i++) {
-            trnx = transactions[i];
-            if (trnx.getAccountNumber().equals(accountNumber)) {
-                accountTransactions.add(trnx);
+    // Installs the clock that currentTimeMillis() reads.
+    public void setClock(TransactionClock clock) {
+        this.clock = clock;
+    }
+
+    // Returns the time new postings should be stamped with, in epoch milliseconds.
+    public long currentTimeMillis() {
+        return clock.currentTimeMillis();
+    }
+
+    // Records a new transaction and returns its slot (which is also its sequence id).
+    // Writes the posting into the log and records the slot in the owning account's history.
+    // Amounts are in cents; the timestamp is in epoch milliseconds.
+    // With a journal attached, waits until the posting is durable; throws UncheckedIOException on failure.
+    public int addTransaction(int accountId, TransactionType type, long amountCents, long balanceAfterCents, long epochMillis) {
+        int slot = log.append(accountId, type.getCode(), amountCents, balanceAfterCents, epochMillis);
+        historyFor(accountId).append(slot, epochMillis);
+        totals.record(accountId, type, amountCents, epochMillis, 0);
+        WriteAheadLog wal = journal;
+        if (wal != null) {
+            try {
+                wal.awaitDurable(wal.logPosting(slot, accountId, type.getCode(), amountCents, balanceAfterCents, epochMillis, 0));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not journal transaction " + slot, e);
+            }
+        }
+        return slot;
+    }
+
+    // Like addTransaction, but does not wait for the posting to become durable.
+    // Callers that record many postings call awaitDurable() once afterwards.
+    public int recordTransaction(int accountId, TransactionType type, long amountCents, long balanceAfterCents, long epochMillis) {
+        return recordTransaction(accountId, type, amountCents, balanceAfterCents, epochMillis, 0);
+    }
+
+    // Like recordTransaction, with a type-specific reference that is stored and journaled with the posting.
+    // For INTEREST and FEE postings the reference is the period (yyyyMM), which marks the account as done for it;
+    // for transfer legs it is the slot of the other leg.
+    public int recordTransaction(int accountId, TransactionType type, long amountCents, long balanceAfterCents,
+                                 long epochMillis, long reference) {
+        int slot = log.append(accountId, type.getCode(), amountCents, balanceAfterCents, epochMillis, reference);
+        historyFor(accountId).append(slot, epochMillis);
+        totals.record(accountId, type, amountCents, epochMillis, reference);
+        WriteAheadLog wal = journal;
+        if (wal != null) {
+            try {
+                wal.logPosting(slot, accountId, type.getCode(), amountCents, balanceAfterCents, epochMillis, reference);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not journal transaction " + slot, e);
+            }
+        }
+        return slot;
+    }
+
+    /*
+     * Moves amountCents from one account to another and records the two linked legs.
+     * The debit honors the source's withdrawal floor (minimum balance or overdraft limit).
+     * Returns the slot of the TRANSFER_OUT leg (the TRANSFER_IN leg is the next slot), or
+     * TRANSFER_REJECTED if the amount is not positive or the rules reject it. The source is debited
+     * first and, if the credit is refused, compensated with a deposit, so a rejected transfer leaves
+     * both balances as they were once it returns and records nothing, though the debit may be seen
+     * briefly. With a journal attached, waits until both legs are durable; throws
+     * UncheckedIOException on failure.
+     */
+    public int transfer(Account from, Account to, long amountCents) {
+        if (from.getAccountId() == to.getAccountId()) {
+            throw new IllegalArgumentException("Cannot transfer to the same account: " + from.getAccountNumber());
+        }
+        long timestamp = currentTimeMillis();
+        long fromBalanceAfter = from.postTransaction(amountCents, TransactionType.TRANSFER_OUT);
+        if (fromBalanceAfter == Account.REJECTED) return TRANSFER_REJECTED;
+        long toBalanceAfter;
+        try {
+            toBalanceAfter = to.postTransaction(amountCents, TransactionType.TRANSFER_IN);
+        } catch (ArithmeticException e) {
+            toBalanceAfter = Account.REJECTED;
+        }
+        if (toBalanceAfter == Account.REJECTED) {
+            // Compensate: the debit was never recorded, so putting the money back leaves no trace
+            from.applyDeposit(amountCents);
+            return TRANSFER_REJECTED;
+        }
+        return recordTransfer(from.getAccountId(), to.getAccountId(), amountCents, fromBalanceAfter, toBalanceAfter,
+                timestamp);
+    }
+
+    // Records both legs of a transfer whose balances have already been applied; returns the outgoing leg's slot.
+    // Each leg's reference is the slot of the other leg.
+    int recordTransfer(int fromAccountId, int toAccountId, long amountCents, long fromBalanceAfterCents,
+                       long toBalanceAfterCents, long epochMillis) {
+        int out = log.reserve(2);
+        int in = out + 1;
+        log.store(out, fromAccountId, TransactionType.TRANSFER_OUT.getCode(), amountCents, fromBalanceAfterCents,
+                epochMillis, in);
+        log.store(in, toAccountId, TransactionType.TRANSFER_IN.getCode(), amountCents, toBalanceAfterCents,
+                epochMillis, out);
+        historyFor(fromAccountId).append(out, epochMillis);
+        historyFor(toAccountId).append(in, epochMillis);
+        totals.record(fromAccountId, TransactionType.TRANSFER_OUT, amountCents, epochMillis, in);
+        totals.record(toAccountId, TransactionType.TRANSFER_IN, amountCents, epochMillis, out);
+        WriteAheadLog wal = journal;
+        if (wal != null) {
+            try {
+                wal.awaitDurable(wal.logTransfer(out, fromAccountId, TransactionType.TRANSFER_OUT.getCode(),
+                        fromBalanceAfterCents, in, toAccountId, TransactionType.TRANSFER_IN.getCode(),
+                        toBalanceAfterCents, amountCents, epochMillis));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not journal transfer " + out, e);
             }
         }
+        return out;
+    }
+
+    // Waits until every posting recorded so far is durable; returns immediately without a journal.
+    public void awaitDurable() {
+        WriteAheadLog wal = journal;
+        if (wal == null) return;
+        try {
+            wal.awaitDurable();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not journal transactions", e);
+        }
+    }
+
+    // Stores a transaction recovered from the write-ahead log at its original slot, without journaling it again.
+    void restoreTransaction(long sequence, int accountId, byte type, long amountCents, long balanceAfterCents,
+                            long epochMillis, long reference) {
+        int slot = Math.toIntExact(sequence);
+        log.restore(slot, accountId, type, amountCents, balanceAfterCents, epochMillis, reference);
+        historyFor(accountId).append(slot, epochMillis);
+        totals.record(accountId, TransactionType.fromCode(type), amountCents, epochMillis, reference);
+    }
+
+    // Retrieves all transactions associated with a specific account, in posting order.
+    // Reads the account's history index, so the cost depends only on that account's transactions.
+    public ArrayList<Transaction> viewTransactionByAccount(String accountNumber) {
+        AccountHistory history = getAccountHistory(accountNumber);
+        ArrayList<Transaction> accountTransactions = new ArrayList<>(history.size());
+        for (int i = 0; i < history.size(); i++) {
+            accountTransactions.add(getTransaction(history.slotAt(i)));
+        }
         return accountTransactions;
     }
 
-    // Placeholder method for calculating total deposits for an account.
-    public void calculateTotalDeposits(String accountNumber) {
+    // Retrieves an account's transactions with timestamps in [fromMillis, toMillis), in posting order.
+    // Both ends are found by binary search over the account's history, so the cost is
+    // O(log k) plus the number of transactions returned.
+    public ArrayList<Transaction> viewTransactionsBetween(String accountNumber, long fromMillis, long toMillis) {
+        AccountHistory history = getAccountHistory(accountNumber);
+        int from = history.indexAtOrAfter(fromMillis);
+        int to = Math.max(from, history.indexAtOrAfter(toMillis));
+        ArrayList<Transaction> accountTransactions = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            accountTransactions.add(getTransaction(history.slotAt(i)));
+        }
+        return accountTransactions;
+    }
+
+    // Returns the history index for an account; accounts without transactions get an empty history.
+    public AccountHistory getAccountHistory(String accountNumber) {
+        AccountHistory history = histories.get(Account.parseAccountNumber(accountNumber));
+        return history == null ? AccountHistory.EMPTY : history;
+    }
+
+    // Retrieves the transaction stored at the given slot, materializing it from the log.
+    public Transaction getTransaction(int slot) {
+        return log.read(slot);
     }
 
-    // Placeholder method for calculating total withdrawals for an account.
-    public void calculateTotalWithdrawals(String accountNumber) {
+    // Returns the underlying columnar log for callers that read columns directly.
+    public TransactionLog getLog() {
+        return log;
+    }
+
+    // Returns the sum of all deposits (in cents) posted to an account, in constant time.
+    public long calculateTotalDeposits(String accountNumber) {
+        return totals.getDepositTotal(Account.parseAccountNumber(accountNumber));
+    }
+
+    // Returns the sum of all withdrawals (in cents) posted to an account, in constant time.
+    public long calculateTotalWithdrawals(String accountNumber) {
+        return totals.getWithdrawalTotal(Account.parseAccountNumber(accountNumber));
+    }
+
+    // Returns the latest period (yyyyMM) the account has been credited interest for, or 0 if none.
+    public int getLastInterestPeriod(int accountId) {
+        return (int) totals.getLastInterestPeriod(accountId);
+    }
+
+    // Returns the latest period (yyyyMM) the account has been charged its monthly fee for, or 0 if none.
+    public int getLastFeePeriod(int accountId) {
+        return (int) totals.getLastFeePeriod(accountId);
+    }
+
+    // Returns the deposit/withdrawal counts and totals and the last activity of an account, in constant time.
+    public AccountTotals.Summary getAccountSummary(String accountNumber) {
+        return totals.getSummary(Account.parseAccountNumber(accountNumber));
     }
 
     // Retrieves the current number of transactions in the system.
     public int getTransactionCount() {
-        return this.transactionCount;
+        return log.size();
+    }
+
+    // Returns the history of the given account id, creating it on first use.
+    private AccountHistory historyFor(int accountId) {
+        AccountHistory history = histories.get(accountId);
+        if (history == null) {
+            histories.putIfAbsent(accountId, new AccountHistory());
+            history = histories.get(accountId);
+        }
+        return history;
     }
 }
@@ -3,10 +3,8 @@ package com.service;
 import com.models.*;
 import com.utilities.CustomUtils;
 
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.util.ArrayList;
-import java.util.HashMap;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.Scanner;
 
 // Service layer for transaction-related operations.
@@ -30,25 +28,17 @@ public class TransactionServices {
     // Scanner instance for reading user input
     private final Scanner scanner;
 
-    // Map of user input choices to transaction type strings
-    private final HashMap<String, String> transactionType = new HashMap<>();
-
     // Constructs a new TransactionServices with the provided dependencies.
-    // Initializes the transaction type mapping for user input conversion:
-    // "1" -> "Deposit", "2" -> "Withdrawal"
     public TransactionServices(AccountManagement accountManagement, TransactionManagement transactionManagement, Scanner scanner) {
         this.accountManagement = accountManagement;
         this.transactionManagement = transactionManagement;
         this.scanner = scanner;
-        transactionType.put("1", "Deposit");
-        transactionType.put("2", "Withdrawal");
     }
 
     // Processes a transaction (deposit or withdrawal).
     // Validates account number, transaction type, and amount.
     // Displays a summary for confirmation before processing.
     public void processTransaction() {
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd-MM-yyyy HH:mm:ss");
         System.out.println("PROCESS TRANSACTION");
         System.out.println("===================");
 
@@ -62,25 +52,29 @@ public class TransactionServices {
 
         String transactionTypeInput = CustomUtils.validateTransactionTypeInput(scanner);
         if (transactionTypeInput == null) return;
+        // Menu choices map to posting kinds here; below this point only the typed kind is used
+        TransactionType type = transactionTypeInput.equals("1") ? TransactionType.DEPOSIT : TransactionType.WITHDRAWAL;
 
-        double amount = CustomUtils.validateTransactionAmount(scanner);
+        long amount = CustomUtils.validateTransactionAmount(scanner);
         if (amount == -1) return;
 
-        double newBalance = transactionTypeInput.equals("1") ? userAccount.getBalance() + amount : userAccount.getBalance() - amount;
-        String dateTime = LocalDateTime.now().format(formatter);
+        long newBalance = type.isCredit()
+                ? Money.add(userAccount.getBalance(), amount)
+                : Money.subtract(userAccount.getBalance(), amount);
+        long timestamp = transactionManagement.currentTimeMillis();
 
-        printTransactionSummary(userAccount, amount, transactionType.get(transactionTypeInput), newBalance, dateTime);
+        printTransactionSummary(userAccount, amount, type.getLabel(), newBalance, timestamp);
 
         String confirmation = CustomUtils.validateTransactionConfirmation(scanner);
         if (confirmation == null || confirmation.equalsIgnoreCase("N")) return;
 
-        boolean success = userAccount.processTransactions(amount, transactionType.get(transactionTypeInput));
-        if (success) {
-            transactionManagement.addTransaction(new Transaction(userAccount.getAccountNumber(),
-                    transactionType.get(transactionTypeInput),
+        long balanceAfter = userAccount.postTransaction(amount, type);
+        if (balanceAfter != Account.REJECTED) {
+            transactionManagement.addTransaction(userAccount.getAccountId(),
+                    type,
                     amount,
-                    userAccount.getBalance(),
-                    dateTime));
+                    balanceAfter,
+                    timestamp);
             System.out.println("Transaction successful!");
         } else {
             System.out.println("Transaction failed! Check balance or account rules.");
@@ -89,8 +83,69 @@ public class TransactionServices {
         CustomUtils.promptEnterKey(scanner);
     }
 
-    // Displays the complete transaction history for a specific account.
-    // Shows all transactions, totals for deposits and withdrawals, and net change.
+    // Guides the user through a transfer between two accounts.
+    // Validates both account numbers and the amount, shows a summary for confirmation, then moves
+    // the money as a debit with compensation, not atomically: the source is debited, then the
+    // destination credited, and if the credit fails a compensating deposit restores the source.
+    // The debit can be visible before the credit or its compensation lands. Two linked legs are
+    // recorded only for a completed transfer; a rejected one (for example when the source's minimum
+    // balance or overdraft limit would be broken) records nothing and leaves both balances as they were.
+    public void transferFunds() {
+        System.out.println("TRANSFER FUNDS");
+        System.out.println("==============");
+
+        System.out.println("From account:");
+        String fromNumber = CustomUtils.validateAccountNumberInput(scanner);
+        if (fromNumber == null) return;
+        Account from = accountManagement.findAccount(fromNumber.toUpperCase());
+        if (from == null) {
+            System.out.println("Account not found. Returning to main menu");
+            return;
+        }
+        System.out.println("To account:");
+        String toNumber = CustomUtils.validateAccountNumberInput(scanner);
+        if (toNumber == null) return;
+        Account to = accountManagement.findAccount(toNumber.toUpperCase());
+        if (to == null) {
+            System.out.println("Account not found. Returning to main menu");
+            return;
+        }
+        if (to.getAccountId() == from.getAccountId()) {
+            System.out.println("Cannot transfer to the same account. Returning to main menu");
+            return;
+        }
+
+        long amount = CustomUtils.validateTransactionAmount(scanner);
+        if (amount == -1) return;
+
+        System.out.println("TRANSFER CONFIRMATION");
+        System.out.println("=====================");
+        System.out.printf("From: %s - %s (balance $%s)\n", from.getAccountNumber(), from.getCustomer(),
+                Money.format(from.getBalance()));
+        System.out.printf("To: %s - %s\n", to.getAccountNumber(), to.getCustomer());
+        System.out.printf("Amount: $%s\n", Money.format(amount));
+
+        String confirmation = CustomUtils.validateTransactionConfirmation(scanner);
+        if (confirmation == null || confirmation.equalsIgnoreCase("N")) return;
+
+        int slot = transactionManagement.transfer(from, to, amount);
+        if (slot != TransactionManagement.TRANSFER_REJECTED) {
+            Transaction out = transactionManagement.getTransaction(slot);
+            System.out.printf("Transfer successful! %s / %s%s\n", out.getTransactionId(),
+                    Transaction.TRANSACTION_ID_PREFIX, slot + 1);
+            System.out.printf("New balance of %s: $%s\n", from.getAccountNumber(), Money.format(out.getBalanceAfter()));
+        } else {
+            System.out.println("Transfer failed! Check balance or account rules.");
+        }
+
+        CustomUtils.promptEnterKey(scanner);
+    }
+
+    // Displays the transaction history for a specific account, optionally limited to a date range.
+    // Shows the transactions, totals for deposits and withdrawals, and net change.
+    // The range is located by binary search over the account's time-ordered history. For the
+    // full history, totals come from the account's running aggregates rather than from
+    // re-summing the history; for a range, they are summed over the rows shown.
     public void viewTransactionHistory() {
         System.out.println("VIEW TRANSACTION HISTORY");
         System.out.println("========================");
@@ -101,46 +156,80 @@ public class TransactionServices {
             return;
         }
         Account account = accountManagement.findAccount(accountNumber.toUpperCase());
+        long[] range = CustomUtils.validateDateRangeInput(scanner);
+        if (range == null) return;
+        boolean fullHistory = range[0] == Long.MIN_VALUE;
 
-        ArrayList<Transaction> tnx = transactionManagement.viewTransactionByAccount(account.getAccountNumber());
-        double totalDeposits = 0;
-        double totalWithdrawals = 0;
+        AccountHistory history = transactionManagement.getAccountHistory(account.getAccountNumber());
+        int from = history.indexAtOrAfter(range[0]);
+        int to = fullHistory ? history.size() : Math.max(from, history.indexAtOrAfter(range[1]));
 
-        System.out.printf("Account: %s - %s\nAccount Type: %s\nCurrent Balance: %.2f\n\n",
-                account.getAccountNumber(), account.getCustomer(), account.getAccountType(), account.getBalance());
+        System.out.printf("Account: %s - %s\nAccount Type: %s\nCurrent Balance: %s\n\n",
+                account.getAccountNumber(), account.getCustomer(), account.getAccountType(), Money.format(account.getBalance()));
         System.out.println("TRANSACTION HISTORY");
         System.out.println("=====================================================================");
         System.out.println("TXN ID | DATE/TIME          | TYPE    | AMOUNT    | BALANCE");
 
-        for (Transaction tr : tnx) {
-            if (tr.getType().equals("Deposit")) totalDeposits += tr.getAmount();
-            else if (tr.getType().equals("Withdrawal")) totalWithdrawals += tr.getAmount();
+        long depositTotal = 0;
+        long withdrawalTotal = 0;
+        for (int i = from; i < to; i++) {
+            Transaction tr = transactionManagement.getTransaction(history.slotAt(i));
+            if (tr.getType().isCredit()) depositTotal += tr.getAmount();
+            else withdrawalTotal += tr.getAmount();
 
-            System.out.printf("%s |%s |%s  |%s$%.2f  |$%.2f\n",
-                    tr.getTransactionId(), tr.getTimeStamp(), tr.getType(),
-                    tr.getType().equals("Deposit") ? "+" : "-", tr.getAmount(), tr.getBalanceAfter());
+            System.out.printf("%s |%s |%s  |%s$%s  |$%s\n",
+                    tr.getTransactionId(), tr.getTimeStamp(), tr.getType().getLabel(),
+                    tr.getType().isCredit() ? "+" : "-", Money.format(tr.getAmount()), Money.format(tr.getBalanceAfter()));
         }
 
+        long transactionCount = to - from;
+        if (fullHistory) {
+            AccountTotals.Summary summary = transactionManagement.getAccountSummary(account.getAccountNumber());
+            transactionCount = summary.getTransactionCount();
+            depositTotal = summary.getDepositTotal();
+            withdrawalTotal = summary.getWithdrawalTotal();
+        }
         System.out.println("=====================================================================\n");
-        System.out.println("Total Transactions: " + tnx.size());
-        System.out.println("Total Deposits: " + totalDeposits);
-        System.out.println("Total Withdrawals: " + totalWithdrawals);
-        System.out.println("Net Change: " + (totalDeposits - totalWithdrawals));
+        System.out.println("Total Transactions: " + transactionCount);
+        System.out.println("Total Deposits: " + Money.format(depositTotal));
+        System.out.println("Total Withdrawals: " + Money.format(withdrawalTotal));
+        System.out.println("Net Change: " + Money.format(depositTotal - withdrawalTotal));
 
         CustomUtils.promptEnterKey(scanner);
     }
 
+    // Posts a file of "accountNumber,type,amount" records without per-transaction prompts.
+    // Outcomes for every record are written next to the input as <file>.outcomes.csv.
+    public void importTransactions() {
+        System.out.println("BATCH TRANSACTION IMPORT");
+        System.out.println("========================");
+        System.out.print("Enter path of transaction file: ");
+        String inputFile = scanner.nextLine().strip();
+        if (inputFile.isEmpty()) return;
+        Path input = Path.of(inputFile);
+        Path outcomes = Path.of(inputFile + ".outcomes.csv");
+        try {
+            BatchTransactionService.Report report =
+                    new BatchTransactionService(accountManagement, transactionManagement).ingestFile(input, outcomes);
+            System.out.println(report);
+            System.out.println("Outcomes written to " + outcomes);
+        } catch (IOException e) {
+            System.out.println("Batch import failed: " + e.getMessage());
+        }
+        CustomUtils.promptEnterKey(scanner);
+    }
+
     // Displays a summary of the transaction before confirmation.
     // Shows transaction details: ID, account, type, amount, previous balance, new balance, and timestamp.
-    public void printTransactionSummary(Account account, double amount, String type, double newBalance, String dateTime) {
+    public void printTransactionSummary(Account account, long amount, String type, long newBalance, long epochMillis) {
         System.out.println("TRANSACTION CONFIRMATION");
         System.out.println("========================");
         System.out.printf("Transaction ID: TNX00%d\n", transactionManagement.getTransactionCount());
         System.out.printf("Account: %s\n", account.getAccountNumber());
         System.out.printf("Type: %s\n", type);
-        System.out.printf("Amount: $%.2f\n", amount);
-        System.out.printf("Previous Balance: $%.2f\n", account.getBalance());
-        System.out.printf("New Balance: $%.2f\n", newBalance);
-        System.out.printf("Date/Time: %s\n", dateTime);
+        System.out.printf("Amount: $%s\n", Money.format(amount));
+        System.out.printf("Previous Balance: $%s\n", Money.format(account.getBalance()));
+        System.out.printf("New Balance: $%s\n", Money.format(newBalance));
+        System.out.printf("Date/Time: %s\n", Transaction.formatTimestamp(epochMillis));
     }
 }
@@ -0,0 +1,69 @@
+package com.utilities;
+
+/*
+ * Monotonic TransactionClock that is read from a cached field instead of the OS clock.
+ *
+ * A daemon thread refreshes the cached value every resolution milliseconds, so a read is
+ * a single volatile load and posting threads never call into the OS for the time. The
+ * value never goes backwards, even if the wall clock is set back, which keeps every
+ * account's history in time order. The price is accuracy: a reading may lag the wall
+ * clock by about one resolution period (more if the refresh thread is starved of CPU).
+ */
+public final class CachedClock implements TransactionClock, AutoCloseable {
+
+    // Default refresh period in milliseconds
+    public static final long DEFAULT_RESOLUTION_MILLIS = 1;
+
+    // Clock shared by all transaction stores unless another one is installed
+    private static final class Shared {
+        static final CachedClock INSTANCE = new CachedClock(DEFAULT_RESOLUTION_MILLIS);
+    }
+
+    private final long resolutionMillis;
+    private final Thread ticker;
+
+    // Latest reading, only ever increased
+    private volatile long now;
+
+    private volatile boolean closed;
+
+    // Creates a clock refreshed every resolutionMillis and starts its refresh thread.
+    public CachedClock(long resolutionMillis) {
+        if (resolutionMillis < 1) throw new IllegalArgumentException("Resolution must be positive: " + resolutionMillis);
+        this.resolutionMillis = resolutionMillis;
+        this.now = System.currentTimeMillis();
+        this.ticker = new Thread(this::tick, "cached-clock");
+        ticker.setDaemon(true);
+        ticker.start();
+    }
+
+    // Returns the clock shared by the application, starting it on first use; it must not be closed.
+    public static CachedClock shared() {
+        return Shared.INSTANCE;
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        return now;
+    }
+
+    // Stops the refresh thread; the clock keeps returning its last reading.
+    @Override
+    public void close() {
+        closed = true;
+        ticker.interrupt();
+    }
+
+    // Refreshes the cached reading until the clock is closed.
+    private void tick() {
+        while (!closed) {
+            long wall = System.currentTimeMillis();
+            if (wall > now) now = wall;
+            try {
+                Thread.sleep(resolutionMillis);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.utilities;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+
+/*
+ * Growable, thread-safe set of non-negative ids stored as bits.
+ *
+ * Like IdTable, the id space is split into fixed-size chunks allocated on demand: a chunk
+ * covers 65536 ids in 1024 words, so ten million ids take about 1.2 MB. Setting or clearing
+ * a bit is one atomic OR or AND on its word; reads never lock. Queries that combine several
+ * sets (see AccountIndex) read whole words with word() and test 64 ids per step.
+ */
+public final class ConcurrentBitSet {
+
+    // Number of low id bits addressing a bit inside a chunk
+    private static final int CHUNK_BITS = 16;
+
+    // Number of words per chunk (1024)
+    private static final int CHUNK_WORDS = 1 << (CHUNK_BITS - 6);
+
+    // Atomic access to the words of a chunk
+    private static final VarHandle WORD = MethodHandles.arrayElementVarHandle(long[].class);
+
+    // Directory of chunks; replaced with a larger copy when the id space grows
+    private volatile long[][] chunks = new long[16][];
+
+    // Adds the id to the set.
+    public void set(int id) {
+        if (id < 0) throw new IllegalArgumentException("Id must not be negative: " + id);
+        WORD.getAndBitwiseOr(chunkFor(id), (id >>> 6) & (CHUNK_WORDS - 1), 1L << id);
+    }
+
+    // Removes the id from the set.
+    public void clear(int id) {
+        long[] chunk = chunkOf(id);
+        if (chunk != null) WORD.getAndBitwiseAnd(chunk, (id >>> 6) & (CHUNK_WORDS - 1), ~(1L << id));
+    }
+
+    // True if the id is in the set
+    public boolean get(int id) {
+        return (word(id >>> 6) & 1L << id) != 0;
+    }
+
+    // Returns the word holding ids [64 * index, 64 * index + 63], bit i standing for id 64 * index + i.
+    public long word(int index) {
+        long[][] directory = chunks;
+        int chunkIndex = index / CHUNK_WORDS;
+        long[] chunk = chunkIndex < directory.length ? directory[chunkIndex] : null;
+        return chunk == null ? 0 : (long) WORD.getVolatile(chunk, index & (CHUNK_WORDS - 1));
+    }
+
+    // Returns a bound on the word indexes that can hold bits: word(i) is 0 for every i >= wordLimit().
+    public int wordLimit() {
+        return chunks.length * CHUNK_WORDS;
+    }
+
+    // Returns the number of ids in the set.
+    public int cardinality() {
+        int count = 0;
+        for (long[] chunk : chunks) {
+            if (chunk == null) continue;
+            for (int i = 0; i < CHUNK_WORDS; i++) count += Long.bitCount((long) WORD.getVolatile(chunk, i));
+        }
+        return count;
+    }
+
+    // Returns the chunk holding the given id, or null if it has not been allocated.
+    private long[] chunkOf(int id) {
+        if (id < 0) return null;
+        long[][] directory = chunks;
+        int chunkIndex = id >>> CHUNK_BITS;
+        return chunkIndex < directory.length ? directory[chunkIndex] : null;
+    }
+
+    // Returns the chunk holding the given id, allocating it (and growing the directory) if needed.
+    private long[] chunkFor(int id) {
+        long[] chunk = chunkOf(id);
+        if (chunk != null) return chunk;
+        synchronized (this) {
+            long[][] directory = chunks;
+            int chunkIndex = id >>> CHUNK_BITS;
+            if (chunkIndex >= directory.length) {
+                int newLength = directory.length;
+                while (newLength <= chunkIndex) newLength <<= 1;
+                directory = Arrays.copyOf(directory, newLength);
+            }
+            if (directory[chunkIndex] == null) directory[chunkIndex] = new long[CHUNK_WORDS];
+            chunks = directory;
+            return directory[chunkIndex];
+        }
+    }
+}
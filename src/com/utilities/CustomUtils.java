@@ -1,18 +1,30 @@
 
 package com.utilities;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.format.ResolverStyle;
 import java.util.Scanner;
+import com.models.AccountStatus;
+import com.models.Money;
 
 /*
  * Utility class for validating user input in the Bank Account Management System.
  *
  * Provides reusable methods for validating customer details, account types,
- * transaction types, and amounts entered via console.
+ * transaction types, and amounts entered via console. The checks themselves live in
+ * InputValidator; these methods add the prompts, messages and retries.
  */
 public class CustomUtils {
 
     // Maximum number of retries for invalid input
     private static final int maxRetries = 3;
 
+    // Format of dates entered at the console, matching how transaction dates are displayed
+    private static final DateTimeFormatter DATE_FORMAT =
+            DateTimeFormatter.ofPattern("dd-MM-uuuu").withResolverStyle(ResolverStyle.STRICT);
+
     /*
      * Validates customer name input.
      * Name must not be empty and should contain only letters.
@@ -22,7 +34,7 @@ public class CustomUtils {
         for (int i = 0; i < maxRetries; i++) {
             System.out.print("Enter customer name: ");
             customerName = scanner.nextLine();
-            if (customerName.isBlank() || !customerName.matches("^[A-Za-z]+$")) {
+            if (InputValidator.checkName(customerName) != InputValidator.OK) {
                 System.out.println("Invalid Customer Name. Name must not be empty or contain numbers.");
             } else return customerName;
         }
@@ -35,21 +47,35 @@ public class CustomUtils {
      * Age must be a positive integer.
      */
     public static int validateCustomerAgeInput(Scanner scanner) {
-        int customerAge;
         for (int i = 0; i < maxRetries; i++) {
             System.out.print("Enter customer age: ");
-            try {
-                customerAge = Integer.parseInt(scanner.nextLine());
-                if (customerAge > 0) return customerAge;
-                System.out.println("Age must be positive.");
-            } catch (NumberFormatException e) {
-                System.out.println("Invalid age. Must be a number.");
-            }
+            int customerAge = InputValidator.parseAge(scanner.nextLine());
+            if (customerAge > 0) return customerAge;
+            if (customerAge == -InputValidator.OUT_OF_RANGE) System.out.println("Age must be positive.");
+            else System.out.println("Invalid age. Must be a number.");
         }
         System.out.println("Too many invalid attempts. Returning to main menu.");
         return -1;
     }
 
+    /*
+     * Reads an existing customer's id (e.g. CUS3) or contact number for opening another account.
+     * Returns the trimmed input, "" to register a new customer, or null after too many invalid attempts.
+     */
+    public static String validateExistingCustomerInput(Scanner scanner) {
+        for (int i = 0; i < maxRetries; i++) {
+            System.out.print("Existing customer ID or contact (press Enter for a new customer): ");
+            String input = scanner.nextLine().strip();
+            if (input.isEmpty() || InputValidator.parseCustomerId(input) >= 0
+                    || InputValidator.checkContact(input) == InputValidator.OK) {
+                return input;
+            }
+            System.out.println("Invalid input. Enter a customer ID such as CUS3 or a 10-digit contact number.");
+        }
+        System.out.println("Too many invalid attempts. Returning to main menu.");
+        return null;
+    }
+
     /*
      * Validates customer type selection.
      * Options: 1 for Regular, 2 for Premium.
@@ -82,6 +108,41 @@ public class CustomUtils {
         return null;
     }
 
+    /*
+     * Reads an optional account type filter for listings.
+     * Options: 1 for Savings, 2 for Checking, Enter for all types.
+     * Returns "Savings", "Checking", "" for no filter, or null after too many invalid attempts.
+     */
+    public static String validateAccountTypeFilterInput(Scanner scanner) {
+        for (int i = 0; i < maxRetries; i++) {
+            System.out.print("Account type (1. Savings, 2. Checking, Enter for all): ");
+            String input = scanner.nextLine().strip();
+            if (input.isEmpty()) return "";
+            if (input.equals("1")) return "Savings";
+            if (input.equals("2")) return "Checking";
+            System.out.println("Invalid selection. Choose 1, 2 or press Enter.");
+        }
+        System.out.println("Too many invalid attempts. Returning to main menu.");
+        return null;
+    }
+
+    /*
+     * Reads an optional account status filter for listings.
+     * Accepts any AccountStatus label (active, inactive, frozen, closed, suspended; any case), or Enter
+     * for all statuses. Returns the status in lower case, "" for no filter, or null after too many
+     * invalid attempts.
+     */
+    public static String validateAccountStatusFilterInput(Scanner scanner) {
+        for (int i = 0; i < maxRetries; i++) {
+            System.out.print("Status (active, inactive, frozen, closed, suspended, Enter for all): ");
+            String input = scanner.nextLine().strip().toLowerCase();
+            if (input.isEmpty() || AccountStatus.parse(input) != null) return input;
+            System.out.println("Invalid status. Choose active, inactive, frozen, closed, suspended or press Enter.");
+        }
+        System.out.println("Too many invalid attempts. Returning to main menu.");
+        return null;
+    }
+
     /*
      * Validates transaction type selection.
      * Options: 1 for Deposit, 2 for Withdrawal.
@@ -101,25 +162,27 @@ public class CustomUtils {
     /*
      * Validates initial deposit amount based on customer and account type.
      * Premium customers require at least $10,000; Savings accounts require at least $500.
+     * Returns the amount in cents, or -1 after too many invalid attempts.
      */
-    public static double validateInitialDepositInput(Scanner scanner, String customerType, String accountType) {
-        final int premiumDeposit = 10000;
-        final int savingsDeposit = 500;
+    public static long validateInitialDepositInput(Scanner scanner, String customerType, String accountType) {
+        final long premiumDeposit = Money.ofUnits(10000);
+        final long savingsDeposit = Money.ofUnits(500);
         for (int i = 0; i < maxRetries; i++) {
             System.out.print("Enter initial deposit amount: ");
-            try {
-                double amount = Double.parseDouble(scanner.nextLine());
-                if (amount < 0) {
-                    System.out.println("Deposit cannot be negative.");
-                } else if (customerType.equals("2") && amount < premiumDeposit) {
-                    System.out.println("Premium customers require a minimum deposit of $10,000.");
-                } else if (accountType.equals("1") && amount < savingsDeposit) {
-                    System.out.println("Savings account requires a minimum deposit of $500.");
-                } else {
-                    return amount;
-                }
-            } catch (NumberFormatException e) {
-                System.out.println("Invalid amount. Must be a number.");
+            String input = scanner.nextLine();
+            if (InputValidator.checkAmount(input) != InputValidator.OK) {
+                System.out.println("Invalid amount. Must be a number with at most 2 decimal places.");
+                continue;
+            }
+            long amount = Money.parse(input);
+            if (amount < 0) {
+                System.out.println("Deposit cannot be negative.");
+            } else if (customerType.equals("2") && amount < premiumDeposit) {
+                System.out.println("Premium customers require a minimum deposit of $10,000.");
+            } else if (accountType.equals("1") && amount < savingsDeposit) {
+                System.out.println("Savings account requires a minimum deposit of $500.");
+            } else {
+                return amount;
             }
         }
         System.out.println("Too many invalid attempts. Returning to main menu.");
@@ -128,20 +191,21 @@ public class CustomUtils {
 
     /*
      * Validates transaction amount.
-     * Amount must be positive.
+     * Amount must be positive. Returns the amount in cents, or -1 after too many invalid attempts.
      */
-    public static double validateTransactionAmount(Scanner scanner) {
+    public static long validateTransactionAmount(Scanner scanner) {
         for (int i = 0; i < maxRetries; i++) {
             System.out.print("Enter amount: ");
-            try {
-                double amount = Double.parseDouble(scanner.nextLine());
-                if (amount < 0) {
-                    System.out.println("Amount cannot be negative.");
-                } else {
-                    return amount;
-                }
-            } catch (NumberFormatException e) {
-                System.out.println("Invalid amount. Must be a number.");
+            String input = scanner.nextLine();
+            if (InputValidator.checkAmount(input) != InputValidator.OK) {
+                System.out.println("Invalid amount. Must be a number with at most 2 decimal places.");
+                continue;
+            }
+            long amount = Money.parse(input);
+            if (amount < 0) {
+                System.out.println("Amount cannot be negative.");
+            } else {
+                return amount;
             }
         }
         System.out.println("Too many invalid attempts. Returning to main menu.");
@@ -156,7 +220,7 @@ public class CustomUtils {
         for (int i = 0; i < maxRetries; i++) {
             System.out.print("Enter customer contact: ");
             String contact = scanner.nextLine();
-            if (!contact.isBlank() && contact.matches("^[0-9]+$") && contact.length() == 10) return contact;
+            if (InputValidator.checkContact(contact) == InputValidator.OK) return contact;
             System.out.println("Invalid contact. Must contain only digits and be 10 digits long.");
         }
         System.out.println("Too many invalid attempts. Returning to main menu.");
@@ -171,7 +235,7 @@ public class CustomUtils {
         for (int i = 0; i < maxRetries; i++) {
             System.out.print("Enter customer address: ");
             String address = scanner.nextLine();
-            if (!address.isBlank()) return address;
+            if (InputValidator.checkAddress(address) == InputValidator.OK) return address;
             System.out.println("Invalid address. Cannot be empty.");
         }
         System.out.println("Too many invalid attempts. Returning to main menu.");
@@ -201,7 +265,7 @@ public class CustomUtils {
         for (int i = 0; i < maxRetries; i++) {
             System.out.print("Enter Account Number: ");
             accountNumber = scanner.nextLine();
-            if (accountNumber.isBlank() || !accountNumber.matches("(?i)^ACC00\\d{1,}$")) {
+            if (InputValidator.checkAccountNumber(accountNumber) != InputValidator.OK) {
                 System.out.println("Invalid Account Number provided. Example: ACC004");
             } else return accountNumber;
         }
@@ -209,6 +273,35 @@ public class CustomUtils {
         return null;
     }
 
+    /*
+     * Reads an optional date range (dd-MM-yyyy, both days inclusive) for history queries.
+     * Returns {fromMillis, toMillis} as epoch milliseconds with toMillis exclusive, the
+     * whole timeline if the start date is left empty, or null after too many invalid attempts.
+     */
+    public static long[] validateDateRangeInput(Scanner scanner) {
+        for (int i = 0; i < maxRetries; i++) {
+            System.out.print("From date (dd-MM-yyyy, Enter for full history): ");
+            String fromInput = scanner.nextLine().strip();
+            if (fromInput.isEmpty()) return new long[]{Long.MIN_VALUE, Long.MAX_VALUE};
+            System.out.print("To date (dd-MM-yyyy, Enter for today): ");
+            String toInput = scanner.nextLine().strip();
+            try {
+                LocalDate from = LocalDate.parse(fromInput, DATE_FORMAT);
+                LocalDate to = toInput.isEmpty() ? LocalDate.now() : LocalDate.parse(toInput, DATE_FORMAT);
+                if (!to.isBefore(from)) {
+                    ZoneId zone = ZoneId.systemDefault();
+                    return new long[]{from.atStartOfDay(zone).toInstant().toEpochMilli(),
+                            to.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli()};
+                }
+                System.out.println("The end date must not be before the start date.");
+            } catch (DateTimeParseException e) {
+                System.out.println("Invalid date. Example: 05-03-2025");
+            }
+        }
+        System.out.println("Too many invalid attempts. Returning to main menu.");
+        return null;
+    }
+
     /*
      * Prompts the user to press Enter to continue.
      */
@@ -0,0 +1,69 @@
+package com.utilities;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Thread-safe allocator of unique, non-negative numeric ids.
+ *
+ * Instead of incrementing one shared counter for every id, each thread reserves a
+ * block of ids from the shared counter and then hands them out locally, so the shared
+ * counter is touched once per block. Ids are unique across threads; they are increasing
+ * within a thread but not globally, and ids left in a thread's unused block are skipped.
+ * A single-threaded caller (such as the console) still receives 0, 1, 2, ...
+ *
+ * Virtual threads are typically created per task (e.g. one per HTTP request in ApiServer)
+ * and would each waste almost a whole block, leaving the id space sparse; they take single
+ * ids from the shared counter instead.
+ */
+public class IdAllocator {
+
+    // Block of ids reserved by one thread
+    private static final class Block {
+        long next;
+        long end;
+        int generation;
+    }
+
+    // Number of ids reserved per block
+    private final int blockSize;
+
+    // First id of the next unreserved block
+    private final AtomicLong nextBlockStart = new AtomicLong();
+
+    // Bumped by advancePast so that threads drop blocks reserved before it
+    private volatile int generation;
+
+    // Block currently owned by each thread
+    private final ThreadLocal<Block> currentBlock = ThreadLocal.withInitial(Block::new);
+
+    // Creates an allocator that reserves ids in blocks of the given size.
+    public IdAllocator(int blockSize) {
+        if (blockSize < 1) throw new IllegalArgumentException("Block size must be positive: " + blockSize);
+        this.blockSize = blockSize;
+    }
+
+    // Returns a new unique id.
+    public long nextId() {
+        if (Thread.currentThread().isVirtual()) return nextBlockStart.getAndIncrement();
+        Block block = currentBlock.get();
+        if (block.next == block.end || block.generation != generation) {
+            block.generation = generation;
+            block.next = nextBlockStart.getAndAdd(blockSize);
+            block.end = block.next + blockSize;
+        }
+        return block.next++;
+    }
+
+    // Returns a new unique id that fits in an int.
+    public int nextIntId() {
+        return Math.toIntExact(nextId());
+    }
+
+    /*
+     * Ensures that every id handed out from now on is greater than the given id.
+     * Used after loading persisted data so new ids never collide with recovered ones.
+     */
+    public synchronized void advancePast(long id) {
+        nextBlockStart.accumulateAndGet(id + 1, Math::max);
+        generation++;
+    }
+}
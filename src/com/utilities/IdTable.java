@@ -0,0 +1,118 @@
+package com.utilities;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/*
+ * Growable, thread-safe table of objects keyed by a non-negative numeric id.
+ *
+ * The ids handed out by the system (account numbers, customer ids, ...) are dense
+ * counters, so the id itself is used as a perfect hash: the table is a two-level
+ * directory of fixed-size chunks, and a lookup is one shift, one mask and two array
+ * reads regardless of how many entries are stored. Chunks are allocated on demand,
+ * so gaps in the id space only cost one empty chunk per 4096 missing ids.
+ *
+ * Concurrency:
+ * - Reads never lock; chunks are published through AtomicReferenceArray.
+ * - Slot writes are CAS operations, so concurrent writers to different ids never block.
+ * - Only chunk allocation and directory growth (once per 4096 ids) take the table monitor.
+ */
+public class IdTable<T> {
+
+    // Number of low id bits addressing a slot inside a chunk
+    private static final int CHUNK_BITS = 12;
+
+    // Number of slots per chunk (4096)
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+
+    // Mask selecting the slot part of an id
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    // Directory of chunks; replaced with a larger copy when the id space grows
+    private volatile AtomicReferenceArray<AtomicReferenceArray<T>> directory = new AtomicReferenceArray<>(16);
+
+    // Number of occupied slots
+    private final AtomicInteger size = new AtomicInteger();
+
+    // Highest id ever stored, used to bound iteration
+    private final AtomicInteger highestId = new AtomicInteger(-1);
+
+    // Returns the entry stored under the given id, or null if there is none.
+    public T get(int id) {
+        if (id < 0) return null;
+        AtomicReferenceArray<AtomicReferenceArray<T>> dir = directory;
+        int chunkIndex = id >>> CHUNK_BITS;
+        if (chunkIndex >= dir.length()) return null;
+        AtomicReferenceArray<T> chunk = dir.get(chunkIndex);
+        return chunk == null ? null : chunk.get(id & CHUNK_MASK);
+    }
+
+    /*
+     * Stores the value under the given id unless the id is already taken.
+     * Returns true if the value was stored, false if another entry already owns the id.
+     */
+    public boolean putIfAbsent(int id, T value) {
+        if (id < 0) throw new IllegalArgumentException("Id must not be negative: " + id);
+        AtomicReferenceArray<T> chunk = chunkFor(id);
+        if (!chunk.compareAndSet(id & CHUNK_MASK, null, value)) return false;
+        size.incrementAndGet();
+        highestId.accumulateAndGet(id, Math::max);
+        return true;
+    }
+
+    // Returns the number of stored entries.
+    public int size() {
+        return size.get();
+    }
+
+    // Returns the highest id stored so far, or -1 if the table is empty.
+    public int highestId() {
+        return highestId.get();
+    }
+
+    /*
+     * Visits every stored entry in ascending id order.
+     * Entries added concurrently may or may not be visited.
+     */
+    public void forEach(Consumer<? super T> action) {
+        int highest = highestId.get();
+        if (highest < 0) return;
+        AtomicReferenceArray<AtomicReferenceArray<T>> dir = directory;
+        int lastChunk = Math.min(highest >>> CHUNK_BITS, dir.length() - 1);
+        for (int c = 0; c <= lastChunk; c++) {
+            AtomicReferenceArray<T> chunk = dir.get(c);
+            if (chunk == null) continue;
+            for (int s = 0; s < CHUNK_SIZE; s++) {
+                T value = chunk.get(s);
+                if (value != null) action.accept(value);
+            }
+        }
+    }
+
+    // Returns the chunk holding the given id, allocating it (and growing the directory) if needed.
+    private AtomicReferenceArray<T> chunkFor(int id) {
+        int chunkIndex = id >>> CHUNK_BITS;
+        AtomicReferenceArray<AtomicReferenceArray<T>> dir = directory;
+        if (chunkIndex < dir.length()) {
+            AtomicReferenceArray<T> chunk = dir.get(chunkIndex);
+            if (chunk != null) return chunk;
+        }
+        synchronized (this) {
+            dir = directory;
+            if (chunkIndex >= dir.length()) {
+                int newLength = dir.length();
+                while (newLength <= chunkIndex) newLength <<= 1;
+                AtomicReferenceArray<AtomicReferenceArray<T>> grown = new AtomicReferenceArray<>(newLength);
+                for (int i = 0; i < dir.length(); i++) grown.set(i, dir.get(i));
+                directory = grown;
+                dir = grown;
+            }
+            AtomicReferenceArray<T> chunk = dir.get(chunkIndex);
+            if (chunk == null) {
+                chunk = new AtomicReferenceArray<>(CHUNK_SIZE);
+                dir.set(chunkIndex, chunk);
+            }
+            return chunk;
+        }
+    }
+}
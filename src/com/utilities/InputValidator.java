@@ -0,0 +1,289 @@
+package com.utilities;
+
+/*
+ * Scanner-independent validation of customer and transaction input.
+ *
+ * Every check works on a range [start, end) of a CharSequence, walks it once and returns an
+ * int code (OK or one of the error codes below) instead of throwing, compiling a regex or
+ * creating Strings, so bulk imports and network requests can validate millions of records
+ * without allocating. Parsing methods return the value, or a negative error code.
+ *
+ * Raw input bytes (ASCII or UTF-8) can be checked in place through an Ascii view, which is
+ * reset for each record instead of decoding the bytes into a String.
+ *
+ * The console prompts in CustomUtils delegate to these checks and keep their own messages.
+ */
+public final class InputValidator {
+
+    // The input is valid
+    public static final int OK = 0;
+
+    // The input is empty or only whitespace
+    public static final int EMPTY = 1;
+
+    // The input contains a character the field does not allow
+    public static final int INVALID_CHARACTER = 2;
+
+    // The input has the wrong number of characters
+    public static final int INVALID_LENGTH = 3;
+
+    // The input is well-formed but its value is outside the allowed range
+    public static final int OUT_OF_RANGE = 4;
+
+    // The input does not have the field's format (prefix, separators, decimal places)
+    public static final int INVALID_FORMAT = 5;
+
+    // Number of digits in a contact number
+    public static final int CONTACT_DIGITS = 10;
+
+    // Prefix every account number starts with (matched case-insensitively)
+    private static final String ACCOUNT_PREFIX = "ACC00";
+
+    // Prefix every customer id starts with (matched case-insensitively)
+    private static final String CUSTOMER_PREFIX = "CUS";
+
+    private InputValidator() {
+    }
+
+    // Returns a short description of an error code; ApiServer appends it to its 400 responses.
+    public static String describe(int code) {
+        return switch (code) {
+            case OK -> "valid";
+            case EMPTY -> "empty";
+            case INVALID_CHARACTER -> "invalid character";
+            case INVALID_LENGTH -> "invalid length";
+            case OUT_OF_RANGE -> "out of range";
+            case INVALID_FORMAT -> "invalid format";
+            default -> "unknown error " + code;
+        };
+    }
+
+    // Customer name: one or more ASCII letters.
+    public static int checkName(CharSequence text) {
+        return checkName(text, 0, text.length());
+    }
+
+    public static int checkName(CharSequence text, int start, int end) {
+        if (start >= end) return EMPTY;
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if ((c < 'A' || c > 'Z') && (c < 'a' || c > 'z')) return isBlank(text, start, end) ? EMPTY : INVALID_CHARACTER;
+        }
+        return OK;
+    }
+
+    // Contact number: exactly CONTACT_DIGITS ASCII digits.
+    public static int checkContact(CharSequence text) {
+        return checkContact(text, 0, text.length());
+    }
+
+    public static int checkContact(CharSequence text, int start, int end) {
+        if (isBlank(text, start, end)) return EMPTY;
+        for (int i = start; i < end; i++) {
+            if (!isDigit(text.charAt(i))) return INVALID_CHARACTER;
+        }
+        return end - start == CONTACT_DIGITS ? OK : INVALID_LENGTH;
+    }
+
+    // Address: anything that is not blank.
+    public static int checkAddress(CharSequence text) {
+        return checkAddress(text, 0, text.length());
+    }
+
+    public static int checkAddress(CharSequence text, int start, int end) {
+        return isBlank(text, start, end) ? EMPTY : OK;
+    }
+
+    // Account number as typed by users: "ACC00" in any case followed by one or more digits.
+    public static int checkAccountNumber(CharSequence text) {
+        return checkAccountNumber(text, 0, text.length());
+    }
+
+    public static int checkAccountNumber(CharSequence text, int start, int end) {
+        if (isBlank(text, start, end)) return EMPTY;
+        int digits = start + ACCOUNT_PREFIX.length();
+        if (end <= digits || !startsWithIgnoreCase(text, start, ACCOUNT_PREFIX)) return INVALID_FORMAT;
+        for (int i = digits; i < end; i++) {
+            if (!isDigit(text.charAt(i))) return INVALID_CHARACTER;
+        }
+        return OK;
+    }
+
+    /*
+     * Parses an account number into its numeric id, accepting the prefix in any case.
+     * Follows Account.parseAccountNumber: leading zeros in the numeric part and ids beyond the
+     * int range are rejected. Returns the id, or a negative error code.
+     */
+    public static int parseAccountId(CharSequence text, int start, int end) {
+        int check = checkAccountNumber(text, start, end);
+        if (check != OK) return -check;
+        int digits = start + ACCOUNT_PREFIX.length();
+        if (end - digits > 10 || (text.charAt(digits) == '0' && end - digits > 1)) return -INVALID_FORMAT;
+        long id = 0;
+        for (int i = digits; i < end; i++) id = id * 10 + (text.charAt(i) - '0');
+        return id > Integer.MAX_VALUE ? -OUT_OF_RANGE : (int) id;
+    }
+
+    /*
+     * Parses a customer id as displayed ("CUS" in any case followed by digits) into its numeric id.
+     * Returns the id, or a negative error code.
+     */
+    public static int parseCustomerId(CharSequence text) {
+        return parseCustomerId(text, 0, text.length());
+    }
+
+    public static int parseCustomerId(CharSequence text, int start, int end) {
+        if (isBlank(text, start, end)) return -EMPTY;
+        int digits = start + CUSTOMER_PREFIX.length();
+        if (end <= digits || !startsWithIgnoreCase(text, start, CUSTOMER_PREFIX)) return -INVALID_FORMAT;
+        if (end - digits > 10) return -OUT_OF_RANGE;
+        long id = 0;
+        for (int i = digits; i < end; i++) {
+            char c = text.charAt(i);
+            if (!isDigit(c)) return -INVALID_CHARACTER;
+            id = id * 10 + (c - '0');
+        }
+        return id > Integer.MAX_VALUE ? -OUT_OF_RANGE : (int) id;
+    }
+
+    /*
+     * Parses a customer age: a positive whole number that fits an int, optionally signed.
+     * Returns the age, or a negative error code.
+     */
+    public static int parseAge(CharSequence text) {
+        return parseAge(text, 0, text.length());
+    }
+
+    public static int parseAge(CharSequence text, int start, int end) {
+        if (isBlank(text, start, end)) return -EMPTY;
+        boolean negative = false;
+        int i = start;
+        if (text.charAt(i) == '+' || text.charAt(i) == '-') negative = text.charAt(i++) == '-';
+        if (i == end) return -INVALID_FORMAT;
+        long age = 0;
+        for (; i < end; i++) {
+            char c = text.charAt(i);
+            if (!isDigit(c)) return -INVALID_CHARACTER;
+            if (age <= Integer.MAX_VALUE) age = age * 10 + (c - '0');
+        }
+        if (!negative && age > Integer.MAX_VALUE) return -INVALID_FORMAT;
+        return negative || age < 1 ? -OUT_OF_RANGE : (int) age;
+    }
+
+    /*
+     * Checks a decimal amount in the form accepted by Money.parse: an optional sign, digits and at
+     * most two fractional digits, within the range of long cents. A range that passes can be
+     * parsed with Money.parse(text, start, end) without it throwing.
+     */
+    public static int checkAmount(CharSequence text) {
+        return checkAmount(text, 0, text.length());
+    }
+
+    public static int checkAmount(CharSequence text, int start, int end) {
+        if (isBlank(text, start, end)) return EMPTY;
+        int i = start;
+        if (text.charAt(i) == '+' || text.charAt(i) == '-') i++;
+        long units = 0;
+        int digits = 0;
+        boolean overflow = false;
+        for (; i < end && text.charAt(i) != '.'; i++, digits++) {
+            char c = text.charAt(i);
+            if (!isDigit(c)) return INVALID_CHARACTER;
+            if (units > (Long.MAX_VALUE / 100 - (c - '0')) / 10) overflow = true;
+            else units = units * 10 + (c - '0');
+        }
+        int fractionDigits = 0;
+        long cents = 0;
+        if (i < end) {
+            for (i++; i < end; i++, fractionDigits++) {
+                char c = text.charAt(i);
+                if (!isDigit(c)) return INVALID_CHARACTER;
+                cents = cents * 10 + (c - '0');
+            }
+            if (fractionDigits > 2) return INVALID_FORMAT;
+            if (fractionDigits == 1) cents *= 10;
+        }
+        if (digits + fractionDigits == 0) return INVALID_FORMAT;
+        if (overflow || (units == Long.MAX_VALUE / 100 && cents > Long.MAX_VALUE % 100)) return OUT_OF_RANGE;
+        return OK;
+    }
+
+    // Returns the first index in [start, end) that is not whitespace, or end.
+    public static int stripStart(CharSequence text, int start, int end) {
+        while (start < end && Character.isWhitespace(text.charAt(start))) start++;
+        return start;
+    }
+
+    // Returns one past the last index in [start, end) that is not whitespace, or start.
+    public static int stripEnd(CharSequence text, int start, int end) {
+        while (end > start && Character.isWhitespace(text.charAt(end - 1))) end--;
+        return end;
+    }
+
+    // True if the range holds only whitespace (or nothing)
+    public static boolean isBlank(CharSequence text, int start, int end) {
+        return stripStart(text, start, end) == end;
+    }
+
+    // True if the range starts with the given ASCII text, ignoring case
+    private static boolean startsWithIgnoreCase(CharSequence text, int start, String prefix) {
+        for (int k = 0; k < prefix.length(); k++) {
+            char c = text.charAt(start + k);
+            if (c >= 'a' && c <= 'z') c -= 'a' - 'A';
+            if (c != prefix.charAt(k)) return false;
+        }
+        return true;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    /*
+     * Reusable CharSequence view of a byte range, for validating raw ASCII input in place.
+     * Each byte is one char; non-ASCII bytes (such as UTF-8 sequences) read as values above 0x7F,
+     * which every ASCII-only check rejects. Reset the view for each record instead of creating one.
+     * Not thread-safe; use one view per thread.
+     */
+    public static final class Ascii implements CharSequence {
+        private byte[] bytes;
+        private int offset;
+        private int length;
+
+        public Ascii() {
+            this.bytes = new byte[0];
+        }
+
+        // Points the view at bytes[start, end) and returns it.
+        public Ascii reset(byte[] bytes, int start, int end) {
+            if (start < 0 || end > bytes.length || start > end) {
+                throw new IndexOutOfBoundsException("Range [" + start + ", " + end + ") of " + bytes.length + " bytes");
+            }
+            this.bytes = bytes;
+            this.offset = start;
+            this.length = end - start;
+            return this;
+        }
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public char charAt(int index) {
+            if (index < 0 || index >= length) throw new IndexOutOfBoundsException("Index " + index);
+            return (char) (bytes[offset + index] & 0xFF);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return new Ascii().reset(bytes, offset + start, offset + end);
+        }
+
+        @Override
+        public String toString() {
+            return new String(bytes, offset, length, java.nio.charset.StandardCharsets.ISO_8859_1);
+        }
+    }
+}
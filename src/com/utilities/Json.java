@@ -0,0 +1,179 @@
+package com.utilities;
+import java.util.HashMap;
+import java.util.Map;
+
+/*
+ * Minimal JSON support for the HTTP API.
+ *
+ * Reading accepts a single flat object whose values are strings, numbers, booleans or null,
+ * which is all the API's request bodies need; values are returned as their text (strings
+ * unescaped, null as a null entry). Nested objects and arrays are rejected.
+ * Writing appends escaped strings to a caller-supplied StringBuilder, so responses are
+ * built in one buffer without intermediate Strings.
+ */
+public class Json {
+
+    private Json() {
+    }
+
+    /*
+     * Parses a flat JSON object into a map of member names to value text.
+     * Throws IllegalArgumentException if the text is not such an object.
+     */
+    public static Map<String, String> parseObject(CharSequence text) {
+        Map<String, String> members = new HashMap<>();
+        int[] position = {skipWhitespace(text, 0)};
+        expect(text, position, '{');
+        if (peek(text, position) == '}') {
+            position[0]++;
+        } else {
+            while (true) {
+                String name = readString(text, position);
+                expect(text, position, ':');
+                members.put(name, readValue(text, position));
+                char next = peek(text, position);
+                position[0]++;
+                if (next == '}') break;
+                if (next != ',') throw new IllegalArgumentException("Expected ',' or '}' at offset " + (position[0] - 1));
+            }
+        }
+        if (skipWhitespace(text, position[0]) != text.length()) {
+            throw new IllegalArgumentException("Unexpected content after the object at offset " + position[0]);
+        }
+        return members;
+    }
+
+    // Appends the value as a quoted JSON string, escaping quotes, backslashes and control characters.
+    public static StringBuilder appendString(StringBuilder builder, CharSequence value) {
+        if (value == null) return builder.append("null");
+        builder.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> builder.append("\\\"");
+                case '\\' -> builder.append("\\\\");
+                case '\n' -> builder.append("\\n");
+                case '\r' -> builder.append("\\r");
+                case '\t' -> builder.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        builder.append("\\u00").append(Character.forDigit(c >> 4, 16)).append(Character.forDigit(c & 15, 16));
+                    } else {
+                        builder.append(c);
+                    }
+                }
+            }
+        }
+        return builder.append('"');
+    }
+
+    // Appends "name": followed by the value as a JSON string.
+    public static StringBuilder appendMember(StringBuilder builder, String name, CharSequence value) {
+        return appendString(appendString(builder, name).append(':'), value);
+    }
+
+    // Appends "name": followed by the value as a JSON number.
+    public static StringBuilder appendMember(StringBuilder builder, String name, long value) {
+        return appendString(builder, name).append(':').append(value);
+    }
+
+    // Reads one member value: a string, or the literal text of a number, boolean or null.
+    private static String readValue(CharSequence text, int[] position) {
+        char first = peek(text, position);
+        if (first == '"') return readString(text, position);
+        if (first == '{' || first == '[') throw new IllegalArgumentException("Nested values are not supported at offset " + position[0]);
+        int start = position[0];
+        int end = start;
+        while (end < text.length() && ",} \t\r\n".indexOf(text.charAt(end)) < 0) end++;
+        if (end == start) throw new IllegalArgumentException("Expected a value at offset " + start);
+        position[0] = end;
+        String literal = text.subSequence(start, end).toString();
+        if (literal.equals("null")) return null;
+        if (!literal.equals("true") && !literal.equals("false") && !isNumber(literal)) {
+            throw new IllegalArgumentException("Invalid value at offset " + start + ": " + literal);
+        }
+        return literal;
+    }
+
+    // Reads a quoted string, resolving escape sequences.
+    private static String readString(CharSequence text, int[] position) {
+        expect(text, position, '"');
+        StringBuilder value = new StringBuilder();
+        int i = position[0];
+        while (true) {
+            if (i >= text.length()) throw new IllegalArgumentException("Unterminated string");
+            char c = text.charAt(i++);
+            if (c == '"') break;
+            if (c != '\\') {
+                value.append(c);
+                continue;
+            }
+            if (i >= text.length()) throw new IllegalArgumentException("Unterminated string");
+            char escaped = text.charAt(i++);
+            switch (escaped) {
+                case '"', '\\', '/' -> value.append(escaped);
+                case 'n' -> value.append('\n');
+                case 'r' -> value.append('\r');
+                case 't' -> value.append('\t');
+                case 'b' -> value.append('\b');
+                case 'f' -> value.append('\f');
+                case 'u' -> {
+                    if (i + 4 > text.length()) throw new IllegalArgumentException("Invalid escape at offset " + (i - 2));
+                    int code = 0;
+                    for (int k = 0; k < 4; k++) {
+                        int digit = Character.digit(text.charAt(i++), 16);
+                        if (digit < 0) throw new IllegalArgumentException("Invalid escape at offset " + (i - 2 - k));
+                        code = code * 16 + digit;
+                    }
+                    value.append((char) code);
+                }
+                default -> throw new IllegalArgumentException("Invalid escape at offset " + (i - 2));
+            }
+        }
+        position[0] = i;
+        return value.toString();
+    }
+
+    // True if the text is a JSON number
+    private static boolean isNumber(String literal) {
+        int i = literal.charAt(0) == '-' ? 1 : 0;
+        boolean digits = false;
+        boolean dot = false;
+        boolean exponent = false;
+        for (; i < literal.length(); i++) {
+            char c = literal.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits = true;
+            } else if (c == '.' && !dot && !exponent && digits) {
+                dot = true;
+                digits = false;
+            } else if ((c == 'e' || c == 'E') && !exponent && digits) {
+                exponent = true;
+                digits = false;
+                if (i + 1 < literal.length() && (literal.charAt(i + 1) == '+' || literal.charAt(i + 1) == '-')) i++;
+            } else {
+                return false;
+            }
+        }
+        return digits;
+    }
+
+    // Skips whitespace and consumes the expected character.
+    private static void expect(CharSequence text, int[] position, char expected) {
+        if (peek(text, position) != expected) {
+            throw new IllegalArgumentException("Expected '" + expected + "' at offset " + position[0]);
+        }
+        position[0]++;
+    }
+
+    // Skips whitespace and returns the next character without consuming it (0 at the end).
+    private static char peek(CharSequence text, int[] position) {
+        position[0] = skipWhitespace(text, position[0]);
+        return position[0] < text.length() ? text.charAt(position[0]) : 0;
+    }
+
+    private static int skipWhitespace(CharSequence text, int i) {
+        while (i < text.length() && " \t\r\n".indexOf(text.charAt(i)) >= 0) i++;
+        return i;
+    }
+}
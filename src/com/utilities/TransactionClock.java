@@ -0,0 +1,18 @@
+package com.utilities;
+
+/*
+ * Source of the epoch timestamps (milliseconds) stamped on postings.
+ *
+ * Transaction code asks its TransactionManagement for the time instead of calling
+ * System.currentTimeMillis() directly, so the clock can be swapped: the shared
+ * CachedClock in production, SYSTEM where every call must read the OS clock, or a
+ * fixed or stepping clock when replaying or benchmarking.
+ */
+public interface TransactionClock {
+
+    // Reads the operating system clock on every call; may go backwards if the wall clock is adjusted
+    TransactionClock SYSTEM = System::currentTimeMillis;
+
+    // Returns the current time in epoch milliseconds.
+    long currentTimeMillis();
+}